@@ -1,29 +1,147 @@
 package com.pizzashop;
 
+import com.pizzashop.api.OrderApiServer;
+import com.pizzashop.controller.MainController;
+import com.pizzashop.model.DataManager;
+import com.pizzashop.model.Inventory;
+import com.pizzashop.model.OrderPool;
+import com.pizzashop.model.PointsLedger;
+import com.pizzashop.model.StoreBackup;
+import com.pizzashop.model.VoucherBook;
+import javafx.application.Platform;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 public class PizzaShopApplication extends Application {
+    private OrderApiServer orderApi;
+    private ScheduledExecutorService backupScheduler;
 
     @Override
     public void start(Stage primaryStage) throws Exception {
+        long startCalledAt = StartupMetrics.sinceLaunch();
+
+        // โหลดเมนูจากไฟล์ CSV ถ้ากำหนด -Dpizzashop.menu=<path> (แก้ไฟล์แล้วเมนูจะอัปเดตเอง)
+        String menuFile = System.getProperty("pizzashop.menu");
+        if (menuFile != null) {
+            DataManager.getInstance().watchMenuFile(Path.of(menuFile));
+        }
+
+        // สต็อกวัตถุดิบและสูตร -Dpizzashop.inventory=<path> (เพิ่มสินค้าเกินสต็อกไม่ได้)
+        String inventoryFile = System.getProperty("pizzashop.inventory");
+        if (inventoryFile != null) {
+            DataManager.getInstance().enableInventory(Inventory.load(Path.of(inventoryFile)));
+        }
+
+        // โหมด low-latency: ตะกร้าและรายการสินค้าใช้ซ้ำจาก pool -Dpizzashop.till.pooled=true
+        if (Boolean.getBoolean("pizzashop.till.pooled")) {
+            DataManager.getInstance().enableOrderPool(new OrderPool(OrderPool.DEFAULT_ORDERS, OrderPool.DEFAULT_LINES));
+        }
+
+        // แต้มสะสมสมาชิก -Dpizzashop.points=<ledger file> (ได้แต้มตอนจ่าย ใช้แต้มเป็นส่วนลดได้)
+        String pointsFile = System.getProperty("pizzashop.points");
+        if (pointsFile != null) {
+            DataManager.getInstance().enablePointsLedger(PointsLedger.open(Path.of(pointsFile)));
+        }
+
+        // คูปองใช้ครั้งเดียว -Dpizzashop.vouchers=<dir> (ทุกเครื่องชี้โฟลเดอร์เดียวกัน ใช้ซ้ำข้ามเครื่องไม่ได้)
+        String voucherDir = System.getProperty("pizzashop.vouchers");
+        if (voucherDir != null) {
+            DataManager.getInstance().enableVouchers(
+                    VoucherBook.open(Path.of(voucherDir), VoucherBook.DEFAULT_EXPECTED_REDEMPTIONS));
+        }
+
+        // แชร์สมาชิก/ออเดอร์กับสาขาอื่นผ่านโฟลเดอร์กลาง -Dpizzashop.replication.dir=<dir> -Dpizzashop.node=<id>
+        String replicationDir = System.getProperty("pizzashop.replication.dir");
+        if (replicationDir != null) {
+            String nodeId = System.getProperty("pizzashop.node", "till1");
+            DataManager.getInstance().enableReplication(Path.of(replicationDir), nodeId);
+        }
+
+        // เก็บออเดอร์ของวันก่อนๆ แบบ off-heap -Dpizzashop.archive=true (หลัง replay journal เพื่อย้ายออเดอร์เก่าที่ replay มาด้วย)
+        if (Boolean.getBoolean("pizzashop.archive")) {
+            DataManager.getInstance().enableOrderArchive();
+        }
+
+        // สำรองข้อมูลระหว่างขายได้ -Dpizzashop.backup.dir=<dir> -Dpizzashop.backup.minutes=15 (คัดลอกเฉพาะส่วนที่เพิ่ม)
+        String backupDir = System.getProperty("pizzashop.backup.dir");
+        if (backupDir != null) {
+            StoreBackup backup = DataManager.getInstance().newBackup(Path.of(backupDir));
+            long minutes = Long.getLong("pizzashop.backup.minutes", 15);
+            backupScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "store-backup");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+            backupScheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    backup.run();
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Backup failed: " + e.getMessage());
+                }
+            }, minutes, minutes, TimeUnit.MINUTES);
+        }
+
+        // เปิด API ให้แท็บเล็ต/ตู้สั่งอาหารบน LAN -Dpizzashop.api.port=8080
+        String apiPort = System.getProperty("pizzashop.api.port");
+        if (apiPort != null) {
+            orderApi = OrderApiServer.start(DataManager.getInstance(), new InetSocketAddress(Integer.parseInt(apiPort)));
+        }
+
         // set part
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/pizza/view/MainView.fxml"));
         Parent root = loader.load();
+        MainController controller = loader.getController();
 
-
+        Scene scene = new Scene(root, 1200, 800);
         primaryStage.setTitle("Pizza Shop Management System");
-        primaryStage.setScene(new Scene(root, 1200, 800));
+        primaryStage.setScene(scene);
         primaryStage.setMinWidth(1000);
         primaryStage.setMinHeight(700);
 
+        // หลังเฟรมแรก: รายงานเวลาเปิด แล้วค่อยเตรียมหน้าสมัครสมาชิกไว้
+        // -Dpizzashop.startup.exit=true ปิดโปรแกรมทันที ใช้ตอนสร้าง CDS archive
+        StartupMetrics.reportFirstFrame(scene, startCalledAt, () -> {
+            if (Boolean.getBoolean("pizzashop.startup.exit")) {
+                Platform.exit();
+            } else {
+                controller.preloadMemberRegistration();
+            }
+        });
+
         primaryStage.show();
     }
 
 
+    @Override
+    public void stop() throws Exception {
+        if (orderApi != null) {
+            orderApi.stop();
+        }
+        if (backupScheduler != null) {
+            backupScheduler.shutdown();
+            backupScheduler.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        PointsLedger pointsLedger = DataManager.getInstance().getPointsLedger();
+        if (pointsLedger != null) {
+            pointsLedger.close();
+        }
+        VoucherBook voucherBook = DataManager.getInstance().getVoucherBook();
+        if (voucherBook != null) {
+            voucherBook.close();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,37 @@
+// StartupMetrics.java
+package com.pizzashop;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * วัดเวลาเปิดโปรแกรม ตั้งแต่ JVM เริ่มจนหน้าจอหลักวาดเฟรมแรก
+ * ใช้เทียบผลของ CDS archive (mvn -Pcds package) กับการเปิดแบบปกติ
+ */
+public final class StartupMetrics {
+    private static final Instant launched = ProcessHandle.current().info().startInstant().orElse(null);
+
+    private StartupMetrics() {}
+
+    // Milliseconds since the JVM process started, or -1 if the OS doesn't say
+    public static long sinceLaunch() {
+        return launched != null ? Duration.between(launched, Instant.now()).toMillis() : -1;
+    }
+
+    // Report once, after the first layout pulse of the scene has been handed to the renderer
+    public static void reportFirstFrame(Scene scene, long startCalledAt, Runnable afterFirstFrame) {
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            scene.removePostLayoutPulseListener(listener[0]);
+            Platform.runLater(() -> {
+                System.out.printf("Startup: first frame %d ms after launch (start() at %d ms)%n",
+                        sinceLaunch(), startCalledAt);
+                afterFirstFrame.run();
+            });
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+}
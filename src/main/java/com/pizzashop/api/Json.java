@@ -0,0 +1,201 @@
+// Json.java
+package com.pizzashop.api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON ขนาดเล็กสำหรับ API ของร้าน (ไม่ต้องพึ่ง library ภายนอก)
+ * เขียนลง StringBuilder โดยตรง และอ่านเป็น Map / List / String / Number / Boolean
+ */
+final class Json {
+    // Objects and arrays nested deeper than this are rejected instead of recursing further
+    static final int MAX_DEPTH = 32;
+
+    private Json() {}
+
+    // === Writing ===
+
+    static StringBuilder string(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+
+    // "name": (with a leading comma unless first)
+    static StringBuilder field(StringBuilder out, String name, boolean first) {
+        if (!first) out.append(',');
+        return string(out, name).append(':');
+    }
+
+    // Money with two decimals, no exponent
+    static StringBuilder money(StringBuilder out, double value) {
+        long satang = Math.round(value * 100);
+        if (satang < 0) {
+            out.append('-');
+            satang = -satang;
+        }
+        out.append(satang / 100).append('.');
+        long fraction = satang % 100;
+        if (fraction < 10) out.append('0');
+        return out.append(fraction);
+    }
+
+    // === Reading ===
+
+    static Object parse(String text) {
+        Parser parser = new Parser(text);
+        Object value = parser.value();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) {
+            throw parser.error("Trailing characters");
+        }
+        return value;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+        private int depth;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Object value() {
+            skipWhitespace();
+            if (pos >= text.length()) throw error("Unexpected end");
+            char c = text.charAt(pos);
+            if (c == '{') return object();
+            if (c == '[') return array();
+            if (c == '"') return string();
+            if (text.startsWith("true", pos)) { pos += 4; return Boolean.TRUE; }
+            if (text.startsWith("false", pos)) { pos += 5; return Boolean.FALSE; }
+            if (text.startsWith("null", pos)) { pos += 4; return null; }
+            return number();
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            enter();
+            skipWhitespace();
+            if (peek() == '}') { pos++; depth--; return map; }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') throw error("Expected field name");
+                String name = string();
+                skipWhitespace();
+                expect(':');
+                map.put(name, value());
+                skipWhitespace();
+                if (peek() == ',') { pos++; continue; }
+                expect('}');
+                depth--;
+                return map;
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> list = new ArrayList<>();
+            enter();
+            skipWhitespace();
+            if (peek() == ']') { pos++; depth--; return list; }
+            while (true) {
+                list.add(value());
+                skipWhitespace();
+                if (peek() == ',') { pos++; continue; }
+                expect(']');
+                depth--;
+                return list;
+            }
+        }
+
+        private void enter() {
+            if (++depth > MAX_DEPTH) throw error("Nested deeper than " + MAX_DEPTH);
+            pos++;
+        }
+
+        private String string() {
+            StringBuilder sb = new StringBuilder();
+            pos++;
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) break;
+                char e = text.charAt(pos++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) throw error("Bad escape");
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: sb.append(e);
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        private Number number() {
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            if (start == pos) throw error("Unexpected character");
+            String token = text.substring(start, pos);
+            try {
+                if (token.indexOf('.') < 0 && token.indexOf('e') < 0 && token.indexOf('E') < 0) {
+                    return Long.parseLong(token);
+                }
+                return Double.parseDouble(token);
+            } catch (NumberFormatException e) {
+                throw error("Bad number " + token);
+            }
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private void expect(char c) {
+            if (peek() != c) throw error("Expected '" + c + "'");
+            pos++;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + pos);
+        }
+    }
+}
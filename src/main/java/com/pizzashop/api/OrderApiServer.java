@@ -0,0 +1,345 @@
+// OrderApiServer.java
+package com.pizzashop.api;
+
+import com.pizzashop.model.DataManager;
+import com.pizzashop.model.InvalidVoucherException;
+import com.pizzashop.model.Item;
+import com.pizzashop.model.MenuCatalog;
+import com.pizzashop.model.Member;
+import com.pizzashop.model.Order;
+import com.pizzashop.model.OrderItem;
+import com.pizzashop.model.OutOfStockException;
+import com.pizzashop.model.Voucher;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP/JSON API ในร้าน ให้แท็บเล็ต/ตู้สั่งอาหารบน LAN สั่งออเดอร์เข้า DataManager ได้โดยตรง
+ *
+ * GET  /api/menu[?category=Pizza]   เมนูปัจจุบัน
+ * GET  /api/members?phone=081...    ค้นสมาชิกด้วยเบอร์โทร
+ * POST /api/orders                  {"phone":"...","dineIn":true,"voucher":"...","items":[{"id":"P001","quantity":2}]}
+ * GET  /api/orders/{orderId}        ออเดอร์ที่บันทึกแล้ว
+ *
+ * ใช้ HttpServer ของ JDK กับ virtual thread หนึ่งตัวต่อ request
+ */
+public class OrderApiServer {
+    public static final int MAX_QUANTITY = 99;
+    // A real order is a few hundred bytes; anything far bigger is refused before it is parsed
+    public static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int BACKLOG = 1024;
+
+    static {
+        // Headers and body go out as separate writes; without TCP_NODELAY every small
+        // response waits ~40 ms for the client's delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final DataManager dataManager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    // Menu JSON is rebuilt only when the catalog is swapped
+    private volatile MenuCache menuCache;
+
+    private OrderApiServer(DataManager dataManager, InetSocketAddress address) throws IOException {
+        this.dataManager = dataManager;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        server.createContext("/api/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public static OrderApiServer start(DataManager dataManager, InetSocketAddress address) throws IOException {
+        OrderApiServer api = new OrderApiServer(dataManager, address);
+        api.server.start();
+        return api;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    // === Routing ===
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            try {
+                if (path.equals("/api/menu") && method.equals("GET")) {
+                    send(exchange, 200, menu(queryParam(exchange, "category")));
+                } else if (path.equals("/api/members") && method.equals("GET")) {
+                    findMember(exchange);
+                } else if (path.equals("/api/orders") && method.equals("POST")) {
+                    submitOrder(exchange);
+                } else if (path.startsWith("/api/orders/") && method.equals("GET")) {
+                    Order order = dataManager.findOrderById(path.substring("/api/orders/".length()));
+                    if (order == null) {
+                        sendError(exchange, 404, "Order not found");
+                    } else {
+                        send(exchange, 200, orderJson(order));
+                    }
+                } else {
+                    sendError(exchange, 404, "Not found");
+                }
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                sendError(exchange, 500, "Internal error");
+            }
+        }
+    }
+
+    // === Menu ===
+
+    private byte[] menu(String category) {
+        MenuCatalog catalog = dataManager.getCatalog();
+        MenuCache cache = menuCache;
+        if (cache == null || cache.catalog != catalog) {
+            cache = new MenuCache(catalog, itemsJson(catalog.getItems()));
+            menuCache = cache;
+        }
+        if (category == null || category.isEmpty()) {
+            return cache.all;
+        }
+        return cache.byCategory.getOrDefault(category.toLowerCase(Locale.ROOT), EMPTY_LIST);
+    }
+
+    private static byte[] itemsJson(List<Item> items) {
+        StringBuilder out = new StringBuilder(items.size() * 128).append('[');
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) out.append(',');
+            Item item = items.get(i);
+            out.append('{');
+            Json.field(out, "id", true);
+            Json.string(out, item.getId());
+            Json.field(out, "name", false);
+            Json.string(out, item.getName());
+            Json.field(out, "price", false);
+            Json.money(out, item.getPrice());
+            Json.field(out, "category", false);
+            Json.string(out, item.getCategory());
+            Json.field(out, "description", false);
+            Json.string(out, item.getDescription());
+            out.append('}');
+        }
+        return out.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final byte[] EMPTY_LIST = "[]".getBytes(StandardCharsets.UTF_8);
+
+    // Built whole for each catalog: only the menu's own categories are cached, whatever clients ask for
+    private static final class MenuCache {
+        final MenuCatalog catalog;
+        final byte[] all;
+        final Map<String, byte[]> byCategory = new HashMap<>();
+
+        MenuCache(MenuCatalog catalog, byte[] all) {
+            this.catalog = catalog;
+            this.all = all;
+            for (String category : catalog.getCategories()) {
+                byCategory.put(category.toLowerCase(Locale.ROOT), itemsJson(catalog.getItemsByCategory(category)));
+            }
+        }
+    }
+
+    // === Members ===
+
+    private void findMember(HttpExchange exchange) throws IOException {
+        String phone = queryParam(exchange, "phone");
+        if (phone == null || phone.isBlank()) {
+            throw new IllegalArgumentException("Missing phone");
+        }
+        Optional<Member> member = dataManager.findMemberByPhone(phone);
+        if (member.isEmpty()) {
+            sendError(exchange, 404, "Member not found");
+            return;
+        }
+        Member m = member.get();
+        StringBuilder out = new StringBuilder(160).append('{');
+        Json.field(out, "memberId", true);
+        Json.string(out, m.getMemberId());
+        Json.field(out, "name", false);
+        Json.string(out, m.getName());
+        Json.field(out, "phone", false);
+        Json.string(out, m.getPhone());
+        Json.field(out, "active", false).append(m.isActive() && !m.isExpired());
+        Json.field(out, "birthday", false).append(m.isBirthday());
+        send(exchange, 200, out.append('}').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // === Orders ===
+
+    private void submitOrder(HttpExchange exchange) throws IOException {
+        byte[] bytes = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) {
+            sendError(exchange, 413, "Request body over " + MAX_BODY_BYTES + " bytes");
+            return;
+        }
+        String body = new String(bytes, StandardCharsets.UTF_8);
+        if (!(Json.parse(body) instanceof Map<?, ?> request)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        if (!(request.get("items") instanceof List<?> lines) || lines.isEmpty()) {
+            throw new IllegalArgumentException("Order has no items");
+        }
+
+        // Validate everything before an order ID is taken
+        Item[] items = new Item[lines.size()];
+        int[] quantities = new int[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            if (!(lines.get(i) instanceof Map<?, ?> line)) {
+                throw new IllegalArgumentException("Bad item at " + i);
+            }
+            Object id = line.get("id");
+            Item item = id instanceof String ? dataManager.findItemById((String) id) : null;
+            if (item == null) {
+                throw new IllegalArgumentException("Unknown item: " + id);
+            }
+            Object quantity = line.containsKey("quantity") ? line.get("quantity") : 1L;
+            if (!(quantity instanceof Long) || (Long) quantity < 1 || (Long) quantity > MAX_QUANTITY) {
+                throw new IllegalArgumentException("Quantity must be 1-" + MAX_QUANTITY + " for " + id);
+            }
+            items[i] = item;
+            quantities[i] = ((Long) quantity).intValue();
+        }
+
+        // Same rule as the till: only active, unexpired members get the discount
+        Member member = null;
+        if (request.get("phone") instanceof String phone && !phone.isBlank()) {
+            member = dataManager.findMemberByPhone(phone)
+                    .filter(m -> m.isActive() && !m.isExpired())
+                    .orElseThrow(() -> new IllegalArgumentException("No active member with phone " + phone));
+        }
+
+        Voucher voucher = null;
+        if (request.get("voucher") instanceof String code && !code.isBlank()) {
+            if (dataManager.getVoucherBook() == null) {
+                throw new IllegalArgumentException("Vouchers are not accepted");
+            }
+            try {
+                voucher = dataManager.checkVoucher(code);
+            } catch (InvalidVoucherException e) {
+                sendVoucherError(exchange, e);
+                return;
+            }
+        }
+
+        Order order = dataManager.createOrder(Boolean.TRUE.equals(request.get("dineIn")));
+        try {
+            try {
+                for (int i = 0; i < items.length; i++) {
+                    order.addItem(items[i], quantities[i]);
+                }
+            } catch (OutOfStockException e) {
+                sendError(exchange, 409, e.getMessage());
+                return;
+            }
+            order.setMember(member);
+            order.applyVoucher(voucher);
+            try {
+                dataManager.saveOrder(order);
+            } catch (InvalidVoucherException e) {
+                // Another till redeemed it in the meantime; saveOrder redeems before committing
+                // points or stock, so the order was not saved and the finally below frees its stock
+                sendVoucherError(exchange, e);
+                return;
+            }
+            send(exchange, 201, orderJson(order));
+        } finally {
+            // Whatever failed, the cart gives back its reservations; a no-op once saveOrder committed them
+            order.releaseStock();
+            dataManager.recycleOrder(order);
+        }
+    }
+
+    private static void sendVoucherError(HttpExchange exchange, InvalidVoucherException e) throws IOException {
+        int status = e.getReason() == InvalidVoucherException.Reason.ALREADY_REDEEMED ? 409 : 400;
+        sendError(exchange, status, e.getMessage());
+    }
+
+    private static byte[] orderJson(Order order) {
+        StringBuilder out = new StringBuilder(256).append('{');
+        Json.field(out, "orderId", true);
+        Json.string(out, order.getOrderId());
+        Json.field(out, "time", false);
+        Json.string(out, order.getOrderTime().toString());
+        Json.field(out, "dineIn", false).append(order.isDineIn());
+        Json.field(out, "memberId", false);
+        Json.string(out, order.getMember() != null ? order.getMember().getMemberId() : null);
+        Json.field(out, "items", false).append('[');
+        List<OrderItem> lines = order.getOrderItems();
+        for (int i = 0; i < lines.size(); i++) {
+            OrderItem line = lines.get(i);
+            if (i > 0) out.append(',');
+            out.append('{');
+            Json.field(out, "id", true);
+            Json.string(out, line.getItem().getId());
+            Json.field(out, "name", false);
+            Json.string(out, line.getItem().getName());
+            Json.field(out, "quantity", false).append(line.getQuantity());
+            Json.field(out, "total", false);
+            Json.money(out, line.getTotal());
+            out.append('}');
+        }
+        out.append(']');
+        Json.field(out, "total", false);
+        Json.money(out, order.getTotalPrice());
+        Json.field(out, "savings", false);
+        Json.money(out, order.getTotalSavings());
+        Json.field(out, "voucher", false);
+        Json.string(out, order.getVoucher() != null ? order.getVoucher().getCode() : null);
+        return out.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // === Helpers ===
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            if (key.equals(name)) {
+                return eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder out = new StringBuilder().append('{');
+        Json.field(out, "error", true);
+        Json.string(out, message);
+        send(exchange, status, out.append('}').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
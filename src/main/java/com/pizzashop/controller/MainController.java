@@ -1,6 +1,7 @@
 package com.pizzashop.controller;
 
 import com.pizzashop.model.*;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -10,10 +11,12 @@ import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
+import javafx.geometry.Side;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.HBox;
 import javafx.scene.text.Text;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
@@ -24,6 +27,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -50,6 +54,8 @@ public class MainController implements Initializable {
     // Member search components
     @FXML private TextField PhoneTextField;
     @FXML private Button checkMemberButton;
+    @FXML private Button redeemPointsButton;
+    @FXML private Button voucherButton;
     @FXML private Text memberInfoLabel;
     @FXML private CheckBox dineInCheckBox;
 
@@ -64,6 +70,13 @@ public class MainController implements Initializable {
     @FXML private Button checkoutButton;
     @FXML private Button registerMemberButton;
 
+    // Parked orders
+    @FXML private Button parkOrderButton;
+    @FXML private ComboBox<OpenOrderWorkspace.OpenOrderSummary> parkedOrdersBox;
+
+    // สินค้าแนะนำ (ขายดี / มักซื้อคู่กัน)
+    @FXML private HBox suggestionBox;
+
     // === Instance Variables ===
 
     private DataManager dataManager;
@@ -71,17 +84,39 @@ public class MainController implements Initializable {
     private ObservableList<Item> filteredItems;
     private Order currentOrder;
     private Member currentMember; // เก็บสมาชิกปัจจุบัน
+    private OpenOrderWorkspace workspace; // ออเดอร์ที่เปิดค้างของเครื่องนี้
+    private final ObservableList<OrderItem> cartItems = FXCollections.observableArrayList();
+    private boolean restoringOrder; // กำลังสลับออเดอร์ ไม่ต้องรีเซ็ตสมาชิก
+    // ออเดอร์เปลี่ยน -> แก้เฉพาะแถวในตะกร้า แล้วรวมการวาดสรุป/ปุ่มไว้ครั้งเดียวต่อเฟรม
+    private final OrderListener orderListener = this::onOrderChanged;
+    private final PulseCoalescer refresh = new PulseCoalescer(this::refreshParts);
+    private static final int REFRESH_SUMMARY = 1;
+    private static final int REFRESH_BUTTONS = 1 << 1;
+    private final ContextMenu phoneSuggestions = new ContextMenu();
+    // หน้าสมัครสมาชิก สร้างครั้งแรกที่ใช้แล้วเก็บไว้ใช้ซ้ำ
+    private Stage registrationStage;
+    private MemberRegistrationController registrationController;
+
+    // แนะนำสมาชิกเมื่อพิมพ์เบอร์ครบกี่หลัก และแสดงได้สูงสุดกี่คน
+    private static final int SUGGEST_MIN_DIGITS = 4;
+    private static final int SUGGEST_LIMIT = 8;
+    // จำนวนปุ่มสินค้าแนะนำใต้ตะกร้า
+    private static final int ITEM_SUGGESTION_LIMIT = 4;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // เริ่มต้น DataManager ก่อน
         dataManager = DataManager.getInstance();
+        workspace = dataManager.getWorkspace(System.getProperty("pizzashop.node", "till1"));
 
         // สร้าง Order ใหม่ก่อน (ป้องกัน NullPointerException)
         createNewOrder();
         setupTableViews();
         setupControls();
         loadData();
+
+        // เมนูถูกโหลดใหม่จาก background thread -> รีเฟรชบน FX thread
+        dataManager.addCatalogListener(catalog -> Platform.runLater(() -> refreshMenu(catalog)));
     }
 
     // ตั้งค่า TableViews
@@ -104,7 +139,8 @@ public class MainController implements Initializable {
             }
         });
 
-        // Cart Table
+        // Cart Table (ใช้ list เดิมตลอด สลับออเดอร์แค่เปลี่ยนข้อมูลข้างใน)
+        cartTableView.setItems(cartItems);
         cartItemColumn.setCellValueFactory(cellData ->
                 new SimpleStringProperty(cellData.getValue().getItem().getName()));
         cartQuantityColumn.setCellValueFactory(cellData ->
@@ -144,6 +180,11 @@ public class MainController implements Initializable {
         // Dine in checkbox
         dineInCheckBox.setOnAction(e -> updateOrderDineIn());
 
+        // Parked orders
+        parkedOrdersBox.setPromptText("ออเดอร์ที่พักไว้");
+        parkedOrdersBox.setOnAction(e -> resumeParkedOrder());
+        refreshParkedOrders();
+
         // Double click to add item
         itemTableView.setRowFactory(tv -> {
             TableRow<Item> row = new TableRow<>();
@@ -166,12 +207,42 @@ public class MainController implements Initializable {
         PhoneTextField.setOnAction(e -> searchMemberByPhone());
         checkMemberButton.setOnAction(e -> searchMemberByPhone());
         PhoneTextField.textProperty().addListener((obs, oldVal, newVal) -> {
-            if (!oldVal.equals(newVal)) {
+            if (!restoringOrder && !oldVal.equals(newVal)) {
                 resetMemberInfo();
+                showPhoneSuggestions(newVal);
             }
         });
     }
 
+    // แสดงรายชื่อสมาชิกที่เบอร์ขึ้นต้น/ลงท้ายตรงกับที่พิมพ์ (เช่น 4 ตัวท้าย)
+    private void showPhoneSuggestions(String typed) {
+        String digits = PhoneIndex.normalize(typed);
+        if (digits.length() < SUGGEST_MIN_DIGITS) {
+            phoneSuggestions.hide();
+            return;
+        }
+
+        List<Member> matches = dataManager.suggestMembersByPhone(digits, SUGGEST_LIMIT);
+        if (matches.isEmpty() || (matches.size() == 1 && matches.get(0).getPhone().equals(digits))) {
+            phoneSuggestions.hide();
+            return;
+        }
+
+        phoneSuggestions.getItems().clear();
+        for (Member member : matches) {
+            MenuItem item = new MenuItem(member.getName() + " - " + member.getPhone());
+            item.setOnAction(e -> {
+                PhoneTextField.setText(member.getPhone());
+                phoneSuggestions.hide();
+                searchMemberByPhone();
+            });
+            phoneSuggestions.getItems().add(item);
+        }
+        if (!phoneSuggestions.isShowing() && PhoneTextField.getScene() != null) {
+            phoneSuggestions.show(PhoneTextField, Side.BOTTOM, 0, 0);
+        }
+    }
+
     // ค้นหาสมาชิกด้วยเบอร์โทร
     @FXML
     private void searchMemberByPhone() {
@@ -212,8 +283,6 @@ public class MainController implements Initializable {
             currentMember = null;
             currentOrder.setMember(null);
         }
-
-        updateOrderSummary();
     }
 
     // แสดงข้อมูลสมาชิก
@@ -221,6 +290,18 @@ public class MainController implements Initializable {
         StringBuilder info = new StringBuilder();
         info.append("✅ สมาชิก: ").append(member.getName());
 
+        // ประวัติการซื้อจาก index ของ DataManager
+        MemberHistory history = dataManager.getMemberHistory(member);
+        if (history.getVisitCount() > 0) {
+            info.append("\nมาแล้ว ").append(history.getVisitCount()).append(" ครั้ง")
+                    .append(" | ยอดสะสม ").append(String.format("%.2f บาท", history.getLifetimeSpend()));
+        }
+
+        PointsLedger pointsLedger = dataManager.getPointsLedger();
+        if (pointsLedger != null) {
+            info.append("\nแต้มสะสม ").append(pointsLedger.getBalance(member.getMemberId())).append(" แต้ม");
+        }
+
         if (member.isBirthday()) {
             info.append("\n🎂 วันเกิดวันนี้! ได้รับส่วนลดพิเศษ 15%");
             memberInfoLabel.setStyle("-fx-fill: #ff6b35;");
@@ -238,7 +319,6 @@ public class MainController implements Initializable {
             currentOrder.setMember(null);
             memberInfoLabel.setText("กรุณาใส่เบอร์โทรเพื่อค้นหาสมาชิก");
             memberInfoLabel.setStyle("-fx-fill: black;");
-            updateOrderSummary();
         }
     }
 
@@ -257,11 +337,125 @@ public class MainController implements Initializable {
     }
 
 
+    // รีเฟรชตารางสินค้าและหมวดหมู่เมื่อเมนูเปลี่ยน (ตะกร้าปัจจุบันยังใช้ราคาเดิม)
+    private void refreshMenu(MenuCatalog catalog) {
+        Item selected = itemTableView.getSelectionModel().getSelectedItem();
+        allItems.setAll(catalog.getItems());
+
+        String selectedCategory = categoryFilter.getValue();
+        categoryFilter.getItems().setAll("ทั้งหมด");
+        categoryFilter.getItems().addAll(catalog.getCategories());
+        categoryFilter.setValue(categoryFilter.getItems().contains(selectedCategory) ? selectedCategory : "ทั้งหมด");
+
+        filterItems();
+        if (selected != null) {
+            Item updated = catalog.findById(selected.getId());
+            if (updated != null) {
+                itemTableView.getSelectionModel().select(updated);
+            }
+        }
+        updateButtonStates();
+    }
+
      //สร้างออเดอร์ใหม่
     private void createNewOrder() {
-        currentOrder = dataManager.createOrder(false);
+        Order order = dataManager.createOrder(false);
+        workspace.open(order, null);
+        showOrder(order);
+        showItemSuggestions(null);
+    }
+
+    // สลับออเดอร์ที่แสดง: ย้าย listener มาที่ออเดอร์ใหม่แล้ววาดตะกร้าทั้งหมดครั้งเดียว
+    private void showOrder(Order order) {
+        if (currentOrder != null) {
+            currentOrder.removeListener(orderListener);
+        }
+        currentOrder = order;
+        currentOrder.addListener(orderListener);
         updateCartDisplay();
-        updateOrderSummary();
+        refresh.request(REFRESH_SUMMARY | REFRESH_BUTTONS);
+    }
+
+    // พักออเดอร์ปัจจุบัน (เช่นออเดอร์โต๊ะ) แล้วเริ่มออเดอร์ใหม่
+    @FXML
+    private void parkOrder() {
+        if (currentOrder.isEmpty()) {
+            showAlert("ตะกร้าสินค้าว่าง", "ไม่มีรายการสินค้า");
+            return;
+        }
+
+        TextInputDialog dialog = new TextInputDialog(currentOrder.isDineIn() ? "โต๊ะ " : "");
+        dialog.setTitle("พักออเดอร์");
+        dialog.setHeaderText("ตั้งชื่อออเดอร์ที่จะพักไว้");
+        dialog.setContentText("ชื่อ/โต๊ะ:");
+        Optional<String> result = dialog.showAndWait();
+        if (result.isEmpty()) return;
+
+        String label = result.get().trim().isEmpty() ? currentOrder.getOrderId() : result.get().trim();
+        try {
+            workspace.parkActive(label);
+            createNewOrder();
+        } catch (IllegalStateException e) {
+            workspace.resume(currentOrder.getOrderId());
+            showAlert("พักออเดอร์ได้ไม่เกิน " + OpenOrderWorkspace.DEFAULT_MAX_OPEN_ORDERS + " รายการ", "พักออเดอร์ไม่ได้");
+            return;
+        }
+        restoreOrderControls();
+        refreshParkedOrders();
+    }
+
+    // เรียกออเดอร์ที่พักไว้กลับมา
+    private void resumeParkedOrder() {
+        OpenOrderWorkspace.OpenOrderSummary selected = parkedOrdersBox.getValue();
+        if (selected == null) return;
+
+        // ออเดอร์ที่ยังว่างไม่ต้องพักไว้
+        Order emptyOrder = null;
+        if (currentOrder.isEmpty()) {
+            workspace.close(currentOrder.getOrderId());
+            emptyOrder = currentOrder;
+        } else {
+            workspace.parkActive(currentOrder.getOrderId());
+        }
+
+        Order resumed = workspace.resume(selected.getOrderId());
+        if (resumed == null) {
+            // หมดอายุไปแล้ว
+            createNewOrder();
+        } else {
+            showOrder(resumed);
+        }
+        if (emptyOrder != null) {
+            dataManager.recycleOrder(emptyOrder);
+        }
+
+        restoreOrderControls();
+        refreshParkedOrders();
+    }
+
+    // ตั้งค่าช่องสมาชิก/ทานที่ร้าน ให้ตรงกับออเดอร์ปัจจุบัน
+    private void restoreOrderControls() {
+        restoringOrder = true;
+        try {
+            currentMember = currentOrder.getMember();
+            PhoneTextField.setText(currentMember != null ? currentMember.getPhone() : "");
+            dineInCheckBox.setSelected(currentOrder.isDineIn());
+        } finally {
+            restoringOrder = false;
+        }
+        if (currentMember != null) {
+            displayMemberInfo(currentMember);
+        } else {
+            memberInfoLabel.setText("");
+        }
+    }
+
+    private void refreshParkedOrders() {
+        parkedOrdersBox.setOnAction(null);
+        parkedOrdersBox.getItems().setAll(workspace.getParkedOrders());
+        parkedOrdersBox.setValue(null);
+        parkedOrdersBox.setDisable(parkedOrdersBox.getItems().isEmpty());
+        parkedOrdersBox.setOnAction(e -> resumeParkedOrder());
     }
 
 
@@ -306,16 +500,139 @@ public class MainController implements Initializable {
                 int quantity = Integer.parseInt(result.get());
                 if (quantity > 0) {
                     currentOrder.addItem(selectedItem, quantity);
-                    updateCartDisplay();
-                    updateOrderSummary();
-                    updateButtonStates();
+                    showItemSuggestions(selectedItem);
                 } else {
                     showAlert("จำนวนต้องมากกว่า 0", "จำนวนไม่ถูกต้อง");
                 }
             } catch (NumberFormatException e) {
                 showAlert("กรุณาใส่ตัวเลขเท่านั้น", "จำนวนไม่ถูกต้อง");
+            } catch (OutOfStockException e) {
+                showOutOfStock(e);
+            }
+        }
+    }
+
+    // แนะนำสินค้าที่มักซื้อคู่กับสินค้าที่เพิ่งเพิ่ม ถ้ายังไม่มีข้อมูลใช้สินค้าขายดีแทน
+    private void showItemSuggestions(Item added) {
+        List<Item> candidates = added != null
+                ? dataManager.getBoughtWith(added, ITEM_SUGGESTION_LIMIT * 2)
+                : List.of();
+        if (candidates.isEmpty()) {
+            candidates = dataManager.getBestsellers(ITEM_SUGGESTION_LIMIT * 2);
+        }
+
+        // ช่องแรกเป็นป้าย "แนะนำ:" ที่เหลือเป็นปุ่มสินค้า
+        suggestionBox.getChildren().remove(1, suggestionBox.getChildren().size());
+        int shown = 0;
+        for (Item item : candidates) {
+            if (shown == ITEM_SUGGESTION_LIMIT) break;
+            if (isInCart(item)) continue;
+            Button button = new Button(item.getName());
+            button.setOnAction(e -> addSuggestedItem(item));
+            suggestionBox.getChildren().add(button);
+            shown++;
+        }
+        suggestionBox.setVisible(shown > 0);
+    }
+
+    private boolean isInCart(Item item) {
+        for (OrderItem orderItem : currentOrder.getOrderItems()) {
+            if (orderItem.getItem().getId().equals(item.getId())) {
+                return true;
             }
         }
+        return false;
+    }
+
+    // กดปุ่มสินค้าแนะนำ = เพิ่ม 1 ชิ้น
+    private void addSuggestedItem(Item item) {
+        try {
+            currentOrder.addItem(item, 1);
+            showItemSuggestions(item);
+        } catch (OutOfStockException e) {
+            showOutOfStock(e);
+        }
+    }
+
+    // วัตถุดิบไม่พอ บอกว่าขาดอะไรและทำได้อีกกี่ชิ้น
+    private void showOutOfStock(OutOfStockException e) {
+        Inventory inventory = dataManager.getInventory();
+        long portions = inventory != null ? inventory.portionsAvailable(e.getItemId()) : 0;
+        showAlert("วัตถุดิบไม่พอ: " + e.getIngredient()
+                + " (ต้องใช้ " + e.getRequired() + ", เหลือ " + e.getAvailable() + ")"
+                + "\nทำได้อีก " + portions + " ชิ้น", "สินค้าหมด");
+    }
+
+    // ใช้แต้มเป็นส่วนลด (1 แต้ม = 1 บาท) ใส่ 0 เพื่อยกเลิก
+    @FXML
+    private void redeemPoints() {
+        PointsLedger pointsLedger = dataManager.getPointsLedger();
+        Member member = currentOrder.getMember();
+        if (pointsLedger == null || member == null) {
+            showAlert("กรุณาเลือกสมาชิกก่อน", "ใช้แต้มไม่ได้");
+            return;
+        }
+
+        long usable = pointsLedger.getAvailable(member.getMemberId()) + currentOrder.getHeldPoints();
+        long maxForOrder = (long) Math.floor((currentOrder.getTotalPrice()
+                + currentOrder.getRedeemedPoints() * PointsLedger.POINT_VALUE) / PointsLedger.POINT_VALUE);
+        TextInputDialog dialog = new TextInputDialog(String.valueOf(Math.min(usable, maxForOrder)));
+        dialog.setTitle("ใช้แต้ม");
+        dialog.setHeaderText(member.getName() + " มีแต้มใช้ได้ " + usable + " แต้ม");
+        dialog.setContentText("จำนวนแต้ม:");
+
+        Optional<String> result = dialog.showAndWait();
+        if (result.isPresent()) {
+            try {
+                long points = Long.parseLong(result.get().trim());
+                if (points < 0) {
+                    showAlert("จำนวนแต้มต้องไม่ติดลบ", "จำนวนไม่ถูกต้อง");
+                } else {
+                    currentOrder.redeemPoints(points);
+                }
+            } catch (NumberFormatException e) {
+                showAlert("กรุณาใส่ตัวเลขเท่านั้น", "จำนวนไม่ถูกต้อง");
+            } catch (InsufficientPointsException e) {
+                showAlert("แต้มไม่พอ (ใช้ได้ " + e.getAvailable() + " แต้ม)", "ใช้แต้มไม่ได้");
+            }
+        }
+    }
+
+    // ใส่รหัสคูปอง (เว้นว่างเพื่อเอาคูปองออก) ตรวจรหัสทันที แต่ตัดคูปองตอนชำระเงิน
+    @FXML
+    private void applyVoucher() {
+        if (dataManager.getVoucherBook() == null) {
+            showAlert("ร้านยังไม่ได้เปิดใช้คูปอง", "ใช้คูปองไม่ได้");
+            return;
+        }
+
+        Voucher current = currentOrder.getVoucher();
+        TextInputDialog dialog = new TextInputDialog(current != null ? current.getCode() : "");
+        dialog.setTitle("คูปอง");
+        dialog.setHeaderText("ใส่รหัสคูปอง (เว้นว่างเพื่อยกเลิก)");
+        dialog.setContentText("รหัส:");
+
+        Optional<String> result = dialog.showAndWait();
+        if (result.isPresent()) {
+            String code = result.get().trim();
+            if (code.isEmpty()) {
+                currentOrder.applyVoucher(null);
+                return;
+            }
+            try {
+                currentOrder.applyVoucher(dataManager.checkVoucher(code));
+            } catch (InvalidVoucherException e) {
+                showVoucherAlert(e);
+            }
+        }
+    }
+
+    private void showVoucherAlert(InvalidVoucherException e) {
+        if (e.getReason() == InvalidVoucherException.Reason.ALREADY_REDEEMED) {
+            showAlert("คูปอง " + e.getCode() + " ถูกใช้ไปแล้ว", "ใช้คูปองไม่ได้");
+        } else {
+            showAlert("รหัสคูปองไม่ถูกต้อง", "ใช้คูปองไม่ได้");
+        }
     }
 
     @FXML
@@ -327,9 +644,6 @@ public class MainController implements Initializable {
         }
 
         currentOrder.removeItem(selected.getItem());
-        updateCartDisplay();
-        updateOrderSummary();
-        updateButtonStates();
     }
 
     @FXML
@@ -344,9 +658,6 @@ public class MainController implements Initializable {
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
             currentOrder.clear();
-            updateCartDisplay();
-            updateOrderSummary();
-            updateButtonStates();
         }
     }
 
@@ -357,6 +668,21 @@ public class MainController implements Initializable {
             return;
         }
 
+        // บันทึกออเดอร์ก่อน ถ้าคูปองถูกเครื่องอื่นใช้ไปแล้วจะยังไม่มีอะไรถูกบันทึก
+        try {
+            dataManager.saveOrder(currentOrder);
+        } catch (InvalidVoucherException e) {
+            currentOrder.applyVoucher(null);
+            showVoucherAlert(e);
+            return;
+        } catch (InsufficientPointsException e) {
+            // เครื่องอื่นใช้แต้มชุดนี้ไปก่อนแล้ว ให้เลือกใช้แต้มใหม่
+            currentOrder.redeemPoints(0);
+            showAlert("แต้มไม่พอแล้ว (ใช้ได้ " + e.getAvailable() + " แต้ม) กรุณาเลือกใช้แต้มใหม่", "ใช้แต้มไม่ได้");
+            return;
+        }
+        workspace.close(currentOrder.getOrderId());
+
         // แสดงใบเสร็จ
         Alert receipt = new Alert(Alert.AlertType.INFORMATION);
         receipt.setTitle("ใบเสร็จ");
@@ -365,18 +691,38 @@ public class MainController implements Initializable {
         receipt.getDialogPane().setPrefWidth(400);
         receipt.showAndWait();
 
-        // บันทึกออเดอร์
-        dataManager.saveOrder(currentOrder);
-
-        // สร้างออเดอร์ใหม่และล้างข้อมูลสมาชิก
+        // สร้างออเดอร์ใหม่และล้างข้อมูลสมาชิก (ตะกร้าเดิมคืนเข้า pool ถ้าเปิดโหมด low-latency)
+        Order paid = currentOrder;
         createNewOrder();
+        dataManager.recycleOrder(paid);
         clearMemberSearch();
-        updateButtonStates();
+        refreshParkedOrders();
     }
 
     @FXML
     private void openMemberRegistration() {
         try {
+            Stage stage = getRegistrationStage();
+            registrationController.resetForm();
+            stage.showAndWait();
+
+        } catch (IOException e) {
+            e.printStackTrace();
+            showAlert("ไม่สามารถเปิดหน้าสมัครสมาชิกได้", "ข้อผิดพลาด");
+        }
+    }
+
+    // โหลดหน้าสมัครสมาชิกไว้ก่อน (เรียกหลังหน้าจอหลักแสดงแล้ว) ให้กดเปิดครั้งแรกได้ทันที
+    public void preloadMemberRegistration() {
+        try {
+            getRegistrationStage();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private Stage getRegistrationStage() throws IOException {
+        if (registrationStage == null) {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/pizza/view/MemberRegistrationView.fxml"));
             Parent root = loader.load();
 
@@ -386,31 +732,52 @@ public class MainController implements Initializable {
             stage.initModality(Modality.WINDOW_MODAL);
             stage.initOwner(registerMemberButton.getScene().getWindow());
 
-            MemberRegistrationController controller = loader.getController();
-            controller.setMainController(this);
-
-            stage.showAndWait();
-
-        } catch (IOException e) {
-            e.printStackTrace();
-            showAlert("ไม่สามารถเปิดหน้าสมัครสมาชิกได้", "ข้อผิดพลาด");
+            registrationController = loader.getController();
+            registrationController.setMainController(this);
+            registrationStage = stage;
         }
+        return registrationStage;
     }
 
 
      //อัพเดทประเภทการสั่ง
     private void updateOrderDineIn() {
         currentOrder.setDineIn(dineInCheckBox.isSelected());
-        updateOrderSummary();
     }
 
     // === UI Update Methods ===
 
+    // แก้ตะกร้าเฉพาะแถวที่เปลี่ยน ส่วนสรุปราคา/ปุ่ม ขอวาดใหม่แบบรวมครั้งเดียว
+    private void onOrderChanged(Order order, OrderListener.Change change, OrderItem line) {
+        if (change == OrderListener.Change.LINE_ADDED) {
+            cartItems.add(line);
+        } else if (change == OrderListener.Change.QUANTITY_CHANGED) {
+            int row = cartItems.indexOf(line);
+            if (row >= 0) cartItems.set(row, line);
+        } else if (change == OrderListener.Change.LINE_REMOVED) {
+            cartItems.remove(line);
+        } else if (change == OrderListener.Change.LINES_RESET) {
+            updateCartDisplay();
+        }
+        if (change != OrderListener.Change.COMMITTED) {
+            workspace.touchActive();
+        }
+        refresh.request(REFRESH_SUMMARY | REFRESH_BUTTONS);
+    }
+
+    private void refreshParts(int parts) {
+        if ((parts & REFRESH_SUMMARY) != 0) {
+            updateOrderSummary();
+        }
+        if ((parts & REFRESH_BUTTONS) != 0) {
+            updateButtonStates();
+        }
+    }
+
 
     //อัพเดทการแสดงผลตะกร้า
     private void updateCartDisplay() {
-        ObservableList<OrderItem> cartItems = FXCollections.observableArrayList(currentOrder.getOrderItems());
-        cartTableView.setItems(cartItems);
+        cartItems.setAll(currentOrder.getOrderItems());
     }
 
 
@@ -538,8 +905,24 @@ public class MainController implements Initializable {
                                 .append(" บาท\n"));
             }
 
+            if (currentOrder.getVoucher() != null) {
+                sb.append("คูปอง ").append(currentOrder.getVoucher().getCode()).append(": -")
+                        .append(String.format("%.2f บาท", currentOrder.getVoucherDiscount()))
+                        .append("\n");
+            }
+
+            if (currentOrder.getRedeemedPoints() > 0) {
+                sb.append("ใช้แต้ม ").append(currentOrder.getRedeemedPoints()).append(" แต้ม: -")
+                        .append(String.format("%.2f บาท", currentOrder.getRedeemedPoints() * PointsLedger.POINT_VALUE))
+                        .append("\n");
+            }
+
             sb.append("ราคาสุทธิ : ").append(String.format("%.2f บาท", finalPrice )).append("\n");
 
+            if (currentOrder.getPointsToEarn() > 0) {
+                sb.append("ได้แต้มเพิ่ม : ").append(currentOrder.getPointsToEarn()).append(" แต้ม\n");
+            }
+
         }
 
         return sb.toString();
@@ -556,6 +939,9 @@ public class MainController implements Initializable {
         removeFromCartButton.setDisable(!hasSelectedCartItem);
         clearCartButton.setDisable(!hasItems);
         checkoutButton.setDisable(!hasItems);
+        parkOrderButton.setDisable(!hasItems);
+        redeemPointsButton.setDisable(currentOrder.getMember() == null || dataManager.getPointsLedger() == null);
+        voucherButton.setDisable(dataManager.getVoucherBook() == null);
     }
 
 
@@ -2,6 +2,7 @@ package com.pizzashop.controller;
 
 import com.pizzashop.model.DataManager;
 import com.pizzashop.model.Member;
+import com.pizzashop.model.PhoneIndex;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -52,6 +53,15 @@ public class MemberRegistrationController implements Initializable {
         updateExpireDate();
     }
 
+    // ล้างฟอร์ม เมื่อเปิดหน้าต่างเดิมซ้ำ
+    public void resetForm() {
+        nameField.clear();
+        phoneField.clear();
+        birthDatePicker.setValue(null);
+        setDefaultValues();
+        clearError();
+    }
+
      //ตั้งค่า validation
     private void setupValidation() {
         // เพิ่ม listeners สำหรับ real-time validation
@@ -95,7 +105,7 @@ public class MemberRegistrationController implements Initializable {
             return false;
         }
 
-        String cleanPhone = phoneField.getText().replaceAll("[^0-9]", "");
+        String cleanPhone = PhoneIndex.normalize(phoneField.getText());
         if (cleanPhone.length() < 10 || cleanPhone.length() > 12) {
             showError("เบอร์โทรต้องมี 10-12 หลัก");
             phoneField.requestFocus();
@@ -163,7 +173,7 @@ public class MemberRegistrationController implements Initializable {
         try {
             // เตรียมข้อมูล
             String name = nameField.getText().trim();
-            String phone = phoneField.getText().replaceAll("[^0-9]", ""); // เก็บเฉพาะตัวเลข
+            String phone = PhoneIndex.normalize(phoneField.getText()); // เก็บเฉพาะตัวเลข
             LocalDate birthDate = birthDatePicker.getValue();
             LocalDate joinDate = joinDatePicker.getValue();
             Member newMember = dataManager.addMember(name, phone, birthDate, joinDate);
@@ -0,0 +1,46 @@
+package com.pizzashop.controller;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+
+/**
+ * รวมคำขอรีเฟรชหน้าจอที่เกิดติดกันให้เหลือครั้งเดียว ก่อนวาดเฟรมถัดไป
+ * แต่ละส่วนของหน้าจอเป็น bit หนึ่งตัว flush ได้รับเฉพาะส่วนที่ต้องวาดใหม่
+ */
+final class PulseCoalescer {
+    private final IntConsumer flush;
+    private final Executor pulse;
+    private int pending;
+    private boolean scheduled;
+
+    PulseCoalescer(IntConsumer flush) {
+        this(flush, Platform::runLater);
+    }
+
+    // pulse ส่ง flush ไปทำในรอบถัดไปบน UI thread (test ส่งตัวของมันเองเข้ามาได้)
+    PulseCoalescer(IntConsumer flush, Executor pulse) {
+        this.flush = flush;
+        this.pulse = pulse;
+    }
+
+    // เรียกได้จากทุก thread, flush จะทำบน FX thread
+    synchronized void request(int parts) {
+        pending |= parts;
+        if (!scheduled) {
+            scheduled = true;
+            pulse.execute(this::run);
+        }
+    }
+
+    private void run() {
+        int parts;
+        synchronized (this) {
+            parts = pending;
+            pending = 0;
+            scheduled = false;
+        }
+        flush.accept(parts);
+    }
+}
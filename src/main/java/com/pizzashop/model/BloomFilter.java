@@ -0,0 +1,48 @@
+// BloomFilter.java
+package com.pizzashop.model;
+
+/**
+ * Bloom filter ของเลข long (เช่นเลขคูปองที่ใช้ไปแล้ว)
+ * ตอบ "ไม่มีแน่นอน" หรือ "อาจมี" ถ้าอาจมีต้องไปยืนยันกับชุดข้อมูลจริงอีกที
+ * ไม่ thread-safe ผู้ใช้ต้องล็อกเอง
+ */
+final class BloomFilter {
+    private final long[] bits;
+    private final int bitMask;
+    private final int hashes;
+
+    // Sized for about 1% false positives at the expected number of entries
+    BloomFilter(int expected) {
+        long wanted = Math.max(64, (long) Math.ceil(expected * 9.6));
+        int size = Integer.highestOneBit((int) Math.min(1L << 30, wanted - 1)) << 1;
+        this.bits = new long[size >>> 6];
+        this.bitMask = size - 1;
+        this.hashes = 7;
+    }
+
+    void add(long value) {
+        long h1 = mix(value);
+        int h2 = (int) (h1 >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = ((int) h1 + i * h2) & bitMask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long value) {
+        long h1 = mix(value);
+        int h2 = (int) (h1 >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = ((int) h1 + i * h2) & bitMask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // SplitMix64 finaliser
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,414 @@
+// ChangeStreamReplicator.java
+package com.pizzashop.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ส่งต่อการเปลี่ยนแปลง (สมัครสมาชิก / บันทึกออเดอร์) ระหว่างหลายเครื่องผ่านโฟลเดอร์ที่แชร์กัน
+ *
+ * แต่ละเครื่อง (node) เขียน journal ของตัวเองเป็น segment ไฟล์ {@code <nodeId>.<segment>.log}
+ * ทุก record คือ [int length][ModelCodec payload] และเขียนเป็น batch ตามรอบ flush
+ * เครื่องอื่นอ่าน journal ต่อจาก offset ที่อ่านค้างไว้ แล้ว apply แบบ idempotent
+ * (สมาชิก/ออเดอร์ที่มี ID อยู่แล้วจะถูกข้าม) ทำให้ DataManager ทุกเครื่องได้ข้อมูลตรงกัน
+ * record ที่อ่านไม่ได้จะถูกข้าม (นับไว้ใน getSkippedCount) และออเดอร์ที่รอสมาชิกจะถูกพักไว้ ไม่ขวาง record ถัดไป
+ */
+public class ChangeStreamReplicator implements Closeable {
+    public static final long SEGMENT_SIZE = 16L * 1024 * 1024;
+    private static final long DEFAULT_INTERVAL_MILLIS = 100;
+    private static final int MAX_RECORD_SIZE = 1024 * 1024;
+    private static final String LOG_SUFFIX = ".log";
+    // How long an order may wait for its member before it is applied without one
+    private static final long DEPENDENCY_TIMEOUT_MILLIS = 5 * 60_000;
+
+    private final DataManager dataManager;
+    private final Path directory;
+    private final String nodeId;
+    private final ScheduledExecutorService scheduler;
+
+    // Outgoing records waiting for the next batch flush; removed only once they are on disk
+    private final List<byte[]> pending = new ArrayList<>();
+    // Held for a whole flush, so two flushes never write the same records
+    private final Object writeLock = new Object();
+    private FileChannel segmentChannel;
+    private int segmentNumber;
+    private boolean reopenSegment;
+
+    // How far each peer's journal has been applied; also the lock for applying
+    private final Map<String, PeerCursor> peers = new HashMap<>();
+    // Orders read ahead of their member, retried every round
+    private final List<Deferred> deferred = new ArrayList<>();
+    private long dependencyTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEPENDENCY_TIMEOUT_MILLIS);
+
+    private long publishedCount;
+    private long appliedCount;
+    private long skippedCount;
+
+    public ChangeStreamReplicator(DataManager dataManager, Path directory, String nodeId) throws IOException {
+        if (nodeId.contains(".")) {
+            throw new IllegalArgumentException("Node id must not contain '.': " + nodeId);
+        }
+        this.dataManager = dataManager;
+        this.directory = directory;
+        this.nodeId = nodeId;
+        Files.createDirectories(directory);
+        openSegment(lastSegmentOf(nodeId));
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replication-" + nodeId);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        start(DEFAULT_INTERVAL_MILLIS);
+    }
+
+    public void start(long intervalMillis) {
+        scheduler.scheduleWithFixedDelay(this::runOnce, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // One replication round: push our batch, then pull from every peer
+    public void runOnce() {
+        try {
+            flush();
+            pollPeers();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Replication round failed on " + nodeId + ": " + e);
+        }
+    }
+
+    // === Publishing ===
+
+    public void publishMember(Member member) {
+        enqueue(encode(buffer -> ModelCodec.encodeMember(member, buffer)));
+    }
+
+    public void publishOrder(Order order) {
+        enqueue(encode(buffer -> ModelCodec.encodeOrder(order, buffer)));
+    }
+
+    private interface Encoder {
+        void encode(ByteBuffer buffer);
+    }
+
+    private byte[] encode(Encoder encoder) {
+        int size = 1024;
+        while (true) {
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            try {
+                buffer.position(Integer.BYTES);
+                encoder.encode(buffer);
+                buffer.putInt(0, buffer.position() - Integer.BYTES);
+                byte[] frame = new byte[buffer.position()];
+                buffer.flip();
+                buffer.get(frame);
+                return frame;
+            } catch (BufferOverflowException e) {
+                if (size >= MAX_RECORD_SIZE) throw new IllegalArgumentException("Record too large", e);
+                size *= 4;
+            }
+        }
+    }
+
+    private synchronized void enqueue(byte[] frame) {
+        pending.add(frame);
+    }
+
+    // Write everything queued so far as one batch; if that fails the batch stays queued for the next round
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            List<byte[]> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) return;
+                batch = new ArrayList<>(pending);
+            }
+
+            int batchSize = 0;
+            for (byte[] frame : batch) batchSize += frame.length;
+
+            if (reopenSegment) {
+                openSegment(segmentNumber);
+                reopenSegment = false;
+            }
+            if (segmentChannel.position() > 0 && segmentChannel.position() + batchSize > SEGMENT_SIZE) {
+                openSegment(segmentNumber + 1);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(batchSize);
+            for (byte[] frame : batch) buffer.put(frame);
+            buffer.flip();
+            long start = segmentChannel.position();
+            try {
+                while (buffer.hasRemaining()) {
+                    segmentChannel.write(buffer);
+                }
+                segmentChannel.force(false);
+            } catch (IOException e) {
+                // Cut off whatever part of the batch made it, so the retry does not follow torn bytes
+                try {
+                    segmentChannel.truncate(start);
+                    segmentChannel.position(start);
+                } catch (IOException truncateFailed) {
+                    e.addSuppressed(truncateFailed);
+                    reopenSegment = true;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                pending.subList(0, batch.size()).clear();
+            }
+            publishedCount += batch.size();
+        }
+    }
+
+    // Open one of our segments for appending; a batch torn by a crash is cut off its end first
+    private void openSegment(int number) throws IOException {
+        if (segmentChannel != null) {
+            segmentChannel.close();
+        }
+        segmentNumber = Math.max(number, 1);
+        Path file = segmentPath(nodeId, segmentNumber);
+        segmentChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = segmentChannel.size();
+        long end = completeLength(segmentChannel);
+        if (end < size) {
+            System.err.println("Replication journal " + file + ": cutting off " + (size - end) + " bytes of a torn batch");
+            segmentChannel.truncate(end);
+            segmentChannel.force(false);
+        }
+        segmentChannel.position(end);
+    }
+
+    // Length of the run of complete [length][payload] frames at the start of a segment
+    static long completeLength(FileChannel channel) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+        while (data.hasRemaining() && channel.read(data, data.position()) >= 0) {
+            // a segment is at most SEGMENT_SIZE plus one batch
+        }
+        data.flip();
+        while (data.remaining() >= Integer.BYTES) {
+            int length = data.getInt(data.position());
+            if (length <= 0 || length > MAX_RECORD_SIZE || data.remaining() < Integer.BYTES + length) break;
+            data.position(data.position() + Integer.BYTES + length);
+        }
+        return data.position();
+    }
+
+    // === Applying ===
+
+    private void pollPeers() throws IOException {
+        synchronized (peers) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + LOG_SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    String peer = name.substring(0, name.indexOf('.'));
+                    if (!peer.equals(nodeId)) {
+                        peers.computeIfAbsent(peer, PeerCursor::new);
+                    }
+                }
+            }
+            for (PeerCursor cursor : peers.values()) {
+                cursor.catchUp();
+            }
+            retryDeferred();
+        }
+    }
+
+    // Apply every node's journal, our own included, e.g. to rebuild from a restored backup;
+    // returns how many records were new here
+    public long replayAll() throws IOException {
+        synchronized (peers) {
+            long before = appliedCount;
+            Map<String, PeerCursor> cursors = new HashMap<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + LOG_SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    String node = name.substring(0, name.indexOf('.'));
+                    cursors.computeIfAbsent(node, PeerCursor::new);
+                }
+            }
+            for (PeerCursor cursor : cursors.values()) {
+                cursor.catchUp();
+            }
+            // Orders read before a member from another node's journal; every member is in by now
+            retryDeferred();
+            cursors.remove(nodeId);
+            peers.putAll(cursors);
+            return appliedCount - before;
+        }
+    }
+
+    /**
+     * ตำแหน่งที่อ่านถึงใน journal ของ node อื่น
+     * ถ้า batch ท้าย segment ล่าสุดยังเขียนไม่ครบ จะหยุดรอรอบถัดไป
+     */
+    private class PeerCursor {
+        private final String peer;
+        private int segment = 1;
+        private long offset;
+
+        PeerCursor(String peer) {
+            this.peer = peer;
+        }
+
+        void catchUp() throws IOException {
+            while (true) {
+                Path file = segmentPath(peer, segment);
+                if (!Files.exists(file)) return;
+
+                // Checked first: once the peer has moved on, this segment will never grow again
+                boolean last = !Files.exists(segmentPath(peer, segment + 1));
+                readSegment(file, last);
+                if (last) return;
+                segment++;
+                offset = 0;
+            }
+        }
+
+        private void readSegment(Path file, boolean last) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (offset >= size) return;
+
+                ByteBuffer data = ByteBuffer.allocate((int) (size - offset));
+                while (data.hasRemaining() && channel.read(data, offset + data.position()) >= 0) {
+                    // keep reading until the snapshot of the file is in memory
+                }
+                data.flip();
+
+                while (data.remaining() >= Integer.BYTES) {
+                    int length = data.getInt(data.position());
+                    if (length <= 0 || length > MAX_RECORD_SIZE || data.remaining() < Integer.BYTES + length) {
+                        break;
+                    }
+                    ByteBuffer record = data.slice(data.position() + Integer.BYTES, length);
+                    apply(record, peer + " segment " + segment + " offset " + offset, true);
+                    data.position(data.position() + Integer.BYTES + length);
+                    offset += Integer.BYTES + length;
+                }
+                // In the latest segment this is a batch still being written, or torn by a crash
+                // (the peer cuts it off when it restarts); anywhere else nothing will ever fix it
+                if (data.hasRemaining() && !last) {
+                    skipped(peer + " segment " + segment + " offset " + offset,
+                            "damaged tail of " + data.remaining() + " bytes");
+                    offset = size;
+                }
+            }
+        }
+    }
+
+    // A record that cannot be applied is logged and skipped, so it never holds up the rest of the journal
+    private void apply(ByteBuffer record, String source, boolean waitForMember) {
+        try {
+            byte type = ModelCodec.peekType(record);
+            if (type == ModelCodec.TYPE_MEMBER) {
+                if (dataManager.applyReplicatedMember(ModelCodec.decodeMember(record))) {
+                    appliedCount++;
+                }
+                return;
+            }
+            if (type == ModelCodec.TYPE_ORDER) {
+                String memberId = ModelCodec.peekOrderMemberId(record);
+                if (waitForMember && memberId != null && dataManager.findMemberById(memberId) == null) {
+                    byte[] copy = new byte[record.remaining()];
+                    record.get(record.position(), copy);
+                    deferred.add(new Deferred(copy, source, System.nanoTime()));
+                    return;
+                }
+                if (dataManager.applyReplicatedOrder(ModelCodec.decodeOrder(record, dataManager))) {
+                    appliedCount++;
+                }
+                return;
+            }
+            throw new IllegalArgumentException("Unknown record type " + type);
+        } catch (RuntimeException e) {
+            skipped(source, e.toString());
+        }
+    }
+
+    // Apply deferred orders whose member has arrived; past the timeout they go in without the member
+    private void retryDeferred() {
+        long now = System.nanoTime();
+        for (Iterator<Deferred> it = deferred.iterator(); it.hasNext(); ) {
+            Deferred waiting = it.next();
+            ByteBuffer record = ByteBuffer.wrap(waiting.record());
+            String memberId = ModelCodec.peekOrderMemberId(record);
+            if (dataManager.findMemberById(memberId) == null) {
+                if (now - waiting.since() < dependencyTimeoutNanos) continue;
+                System.err.println("Replication on " + nodeId + ": member " + memberId + " never arrived, applying "
+                        + waiting.source() + " without it");
+            }
+            it.remove();
+            apply(record, waiting.source(), false);
+        }
+    }
+
+    private void skipped(String source, String reason) {
+        skippedCount++;
+        System.err.println("Replication on " + nodeId + ": skipped " + source + ": " + reason);
+    }
+
+    // An order record waiting for its member, copied out of the segment it was read from
+    private record Deferred(byte[] record, String source, long since) {}
+
+    // === Files ===
+
+    private Path segmentPath(String node, int segment) {
+        return directory.resolve(String.format("%s.%06d%s", node, segment, LOG_SUFFIX));
+    }
+
+    private int lastSegmentOf(String node) {
+        int last = 1;
+        while (Files.exists(segmentPath(node, last + 1))) {
+            last++;
+        }
+        return last;
+    }
+
+    // Getters
+    public String getNodeId() { return nodeId; }
+    public Path getDirectory() { return directory; }
+    public long getPublishedCount() { return publishedCount; }
+    public long getAppliedCount() { return appliedCount; }
+    public long getSkippedCount() { return skippedCount; }
+    public int getDeferredCount() { synchronized (peers) { return deferred.size(); } }
+
+    // Tests shorten the wait for a member that never arrives
+    void setDependencyTimeout(long millis) {
+        synchronized (peers) {
+            dependencyTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        synchronized (writeLock) {
+            segmentChannel.close();
+        }
+    }
+}
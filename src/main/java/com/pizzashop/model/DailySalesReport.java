@@ -0,0 +1,145 @@
+// DailySalesReport.java
+package com.pizzashop.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * สรุปยอดขายปิดร้านประจำวัน
+ * สร้างจาก DataManager.generateDailyReport() ด้วยการวนออเดอร์เพียงรอบเดียว
+ */
+public class DailySalesReport {
+    public static final int HOURS_PER_DAY = 24;
+
+    private final LocalDate date;
+    private final Map<String, Integer> itemQuantities = new HashMap<>();
+    private final Map<String, Double> revenueByCategory = new HashMap<>();
+    private final int[] ordersByHour = new int[HOURS_PER_DAY];
+    private final double[] revenueByHour = new double[HOURS_PER_DAY];
+
+    private int orderCount;
+    private double totalRevenue;
+    private int memberOrderCount;
+    private double memberRevenue;
+    private int nonMemberOrderCount;
+    private double nonMemberRevenue;
+    private int dineInOrderCount;
+    private double dineInRevenue;
+    private int takeawayOrderCount;
+    private double takeawayRevenue;
+    private double totalSavings;
+    private int freeWednesdayPizzaCount;
+
+    public DailySalesReport(LocalDate date) {
+        this.date = date;
+    }
+
+    // Add one order to the report
+    void accumulate(Order order) {
+        count(order.getTotalPrice(), order.getMember() != null, order.isDineIn(), order.getTotalSavings(),
+                order.hasFreeWednesdayPizza(), order.getOrderTime().getHour());
+        for (OrderItem orderItem : order.getOrderItems()) {
+            countLine(orderItem.getItem(), orderItem.getQuantity(), orderItem.getTotal());
+        }
+    }
+
+    // Add one archived order; its lines resolve to the item version they were sold at
+    void accumulate(OrderArchive.View order) {
+        count(order.getTotalPrice(), order.getMemberId() != null, order.isDineIn(), order.getTotalSavings(),
+                order.hasFreeWednesdayPizza(), order.getOrderTime().getHour());
+        for (int line = 0; line < order.getLineCount(); line++) {
+            countLine(order.getLineItem(line), order.getLineQuantity(line), order.getLineTotal(line));
+        }
+    }
+
+    private void count(double total, boolean member, boolean dineIn, double savings, boolean freeWednesdayPizza,
+                       int hour) {
+        orderCount++;
+        totalRevenue += total;
+
+        if (member) {
+            memberOrderCount++;
+            memberRevenue += total;
+        } else {
+            nonMemberOrderCount++;
+            nonMemberRevenue += total;
+        }
+
+        if (dineIn) {
+            dineInOrderCount++;
+            dineInRevenue += total;
+        } else {
+            takeawayOrderCount++;
+            takeawayRevenue += total;
+        }
+
+        totalSavings += savings;
+        if (freeWednesdayPizza) {
+            freeWednesdayPizzaCount++;
+        }
+
+        ordersByHour[hour]++;
+        revenueByHour[hour] += total;
+    }
+
+    private void countLine(Item item, int quantity, double total) {
+        itemQuantities.merge(item.getId(), quantity, Integer::sum);
+        revenueByCategory.merge(item.getCategory(), total, Double::sum);
+    }
+
+    // Merge a partial report (from another fork/join task) into this one
+    void merge(DailySalesReport other) {
+        orderCount += other.orderCount;
+        totalRevenue += other.totalRevenue;
+        memberOrderCount += other.memberOrderCount;
+        memberRevenue += other.memberRevenue;
+        nonMemberOrderCount += other.nonMemberOrderCount;
+        nonMemberRevenue += other.nonMemberRevenue;
+        dineInOrderCount += other.dineInOrderCount;
+        dineInRevenue += other.dineInRevenue;
+        takeawayOrderCount += other.takeawayOrderCount;
+        takeawayRevenue += other.takeawayRevenue;
+        totalSavings += other.totalSavings;
+        freeWednesdayPizzaCount += other.freeWednesdayPizzaCount;
+
+        for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+            ordersByHour[hour] += other.ordersByHour[hour];
+            revenueByHour[hour] += other.revenueByHour[hour];
+        }
+
+        other.itemQuantities.forEach((id, qty) -> itemQuantities.merge(id, qty, Integer::sum));
+        other.revenueByCategory.forEach((cat, rev) -> revenueByCategory.merge(cat, rev, Double::sum));
+    }
+
+    // Getters
+    public LocalDate getDate() { return date; }
+
+    public Map<String, Integer> getItemQuantities() { return Collections.unmodifiableMap(itemQuantities); }
+    public Map<String, Double> getRevenueByCategory() { return Collections.unmodifiableMap(revenueByCategory); }
+
+    public int[] getOrdersByHour() { return ordersByHour.clone(); }
+    public double[] getRevenueByHour() { return revenueByHour.clone(); }
+
+    public int getOrderCount() { return orderCount; }
+    public double getTotalRevenue() { return totalRevenue; }
+
+    public int getMemberOrderCount() { return memberOrderCount; }
+    public double getMemberRevenue() { return memberRevenue; }
+    public int getNonMemberOrderCount() { return nonMemberOrderCount; }
+    public double getNonMemberRevenue() { return nonMemberRevenue; }
+
+    public int getDineInOrderCount() { return dineInOrderCount; }
+    public double getDineInRevenue() { return dineInRevenue; }
+    public int getTakeawayOrderCount() { return takeawayOrderCount; }
+    public double getTakeawayRevenue() { return takeawayRevenue; }
+
+    public double getTotalSavings() { return totalSavings; }
+    public int getFreeWednesdayPizzaCount() { return freeWednesdayPizzaCount; }
+
+    @Override
+    public String toString() {
+        return "Report " + date + " - " + orderCount + " orders, ฿" + String.format("%.2f", totalRevenue);
+    }
+}
@@ -0,0 +1,52 @@
+// DailySalesReportTask.java
+package com.pizzashop.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join task ที่แบ่งช่วงออเดอร์ออกเป็นส่วนย่อยแล้วรวมผลเป็น DailySalesReport
+ * แต่ละออเดอร์ถูกอ่านเพียงครั้งเดียว
+ */
+class DailySalesReportTask extends RecursiveTask<DailySalesReport> {
+    private static final long serialVersionUID = 1L;
+    // Below this size a range is processed sequentially
+    static final int THRESHOLD = 8_192;
+
+    // Tasks never leave the process; ForkJoinTask is only Serializable by inheritance
+    private final transient Order[] orders;
+    private final int from;
+    private final int to;
+    private final LocalDate date;
+
+    DailySalesReportTask(Order[] orders, int from, int to, LocalDate date) {
+        this.orders = orders;
+        this.from = from;
+        this.to = to;
+        this.date = date;
+    }
+
+    @Override
+    protected DailySalesReport compute() {
+        if (to - from <= THRESHOLD) {
+            DailySalesReport report = new DailySalesReport(date);
+            for (int i = from; i < to; i++) {
+                LocalDateTime orderTime = orders[i].getOrderTime();
+                if (orderTime.getYear() == date.getYear()
+                        && orderTime.getDayOfYear() == date.getDayOfYear()) {
+                    report.accumulate(orders[i]);
+                }
+            }
+            return report;
+        }
+
+        int mid = (from + to) >>> 1;
+        DailySalesReportTask left = new DailySalesReportTask(orders, from, mid, date);
+        DailySalesReportTask right = new DailySalesReportTask(orders, mid, to, date);
+        left.fork();
+        DailySalesReport result = right.compute();
+        result.merge(left.join());
+        return result;
+    }
+}
@@ -1,39 +1,86 @@
 package com.pizzashop.model;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class DataManager {
     private static DataManager instance;
-    private List<Item> items;
-    private List<Member> members;
+    // Two tills edited the same member version: both keep the same copy whichever arrives first
+    private static final Comparator<Member> SAME_VERSION_ORDER = Comparator
+            .comparing(Member::getName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Member::getPhone, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Member::getBirthDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(Member::getExpireDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(Member::isActive);
+    private final AtomicReference<MenuCatalog> catalog = new AtomicReference<>(MenuCatalog.empty());
+    private final List<Consumer<MenuCatalog>> catalogListeners = new CopyOnWriteArrayList<>();
+    private final List<OrderListener> orderListeners = new CopyOnWriteArrayList<>();
+    private MenuFileWatcher menuFileWatcher;
+    private MemberStore members;
+    private PhoneIndex phoneIndex;
     private List<Order> orders;
-    private int memberIdCounter = 1;
+    private Set<Order> savedOrders;
+    private Map<String, Order> ordersById;
+    private Map<String, MemberHistory> memberHistories;
+    private MemberIdAllocator memberIdAllocator;
+    private ChangeStreamReplicator replicator;
+    private long orderSequence;
+    private OrderArchive orderArchive;
+    private LocalDate archivedBefore;
+    private final Map<String, OpenOrderWorkspace> workspaces = new ConcurrentHashMap<>();
+    private final DemandForecaster demandForecaster = new DemandForecaster();
+    private final SalesTrends salesTrends = new SalesTrends();
+    private volatile Inventory inventory;
+    private volatile PointsLedger pointsLedger;
+    private volatile VoucherBook voucherBook;
+    private volatile OrderPool orderPool;
 
     private DataManager() {
-        items = new ArrayList<>();
-        members = new ArrayList<>();
+        members = new MemberStore(1024, this);
+        phoneIndex = members.indexPhones();
         orders = new ArrayList<>();
+        savedOrders = Collections.newSetFromMap(new IdentityHashMap<>());
+        ordersById = new HashMap<>();
+        memberHistories = new HashMap<>();
         initializeData();
+        memberIdAllocator = MemberIdAllocator.local(members.asList());
     }
 
     // Singleton pattern
-    public static DataManager getInstance() {
+    public static synchronized DataManager getInstance() {
         if (instance == null) {
             instance = new DataManager();
         }
         return instance;
     }
 
+    // A separate instance, not the singleton: in-process stand-in tills and tests
+    static DataManager newInstance() {
+        return new DataManager();
+    }
+
     private void initializeData() {
         // Initialize items
-        items.add(new Item("P001", "Margherita Pizza", 1000.0, "Pizza", "Classic tomato and mozzarella"));
-        items.add(new Item("P002", "Pepperoni Pizza", 359.0, "Pizza", "Pepperoni with mozzarella cheese"));
-        items.add(new Item("P003", "Hawaiian Pizza", 379.0, "Pizza", "Ham and pineapple"));
-        items.add(new Item("P004","พิซซ่าเรดฮาวายเอี้ยน",128.0,"Pizza","nige"));
-        items.add(new Item("D001", "Coke", 45.0, "Drink", "Coca Cola 330ml"));
-        items.add(new Item("D002", "Orange Juice", 55.0, "Drink", "Fresh orange juice"));
+        catalog.set(MenuCatalog.builder()
+                .put("P001", "Margherita Pizza", 1000.0, "Pizza", "Classic tomato and mozzarella")
+                .put("P002", "Pepperoni Pizza", 359.0, "Pizza", "Pepperoni with mozzarella cheese")
+                .put("P003", "Hawaiian Pizza", 379.0, "Pizza", "Ham and pineapple")
+                .put("P004","พิซซ่าเรดฮาวายเอี้ยน",128.0,"Pizza","nige")
+                .put("D001", "Coke", 45.0, "Drink", "Coca Cola 330ml")
+                .put("D002", "Orange Juice", 55.0, "Drink", "Fresh orange juice")
+                .build());
 
         // Initialize members - แก้ไขการเรียก constructor
         members.add(new Member("M001", "ปาณัสม์ บุญเลา", "0996061879",
@@ -42,137 +89,663 @@ public class DataManager {
     }
 
     // Get methods
-    public List<Item> getItems() { return items; }
-    public List<Member> getMembers() { return members; }
-    public List<Order> getOrders() { return orders; }
+    public List<Item> getItems() { return catalog.get().getItems(); }
+    public synchronized List<Member> getMembers() { return List.copyOf(members.asList()); }  // snapshot; use addMember
+    public synchronized List<Order> getOrders() { return new ArrayList<>(orders); }  // snapshot; use saveOrder
 
     // Get all items
     public List<Item> getAllItems() {
-        return new ArrayList<>(items);
+        return new ArrayList<>(catalog.get().getItems());
     }
 
     // Get all categories
     public List<String> getAllCategories() {
-        return items.stream()
-                .map(Item::getCategory)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return new ArrayList<>(catalog.get().getCategories());
     }
 
     // Get items by category
     public List<Item> getItemsByCategory(String category) {
-        return items.stream()
-                .filter(item -> item.getCategory().equalsIgnoreCase(category))
-                .collect(Collectors.toList());
+        return new ArrayList<>(catalog.get().getItemsByCategory(category));
+    }
+
+    // Current menu snapshot; never changes once read
+    public MenuCatalog getCatalog() {
+        return catalog.get();
+    }
+
+    // Swap in a whole new menu without locking the tills
+    public void swapCatalog(MenuCatalog newCatalog) {
+        catalog.set(newCatalog);
+        fireCatalogChanged(newCatalog);
+    }
+
+    // Price change = new item version, historic order lines keep their price
+    public Item updateItemPrice(String itemId, double newPrice) {
+        MenuCatalog updated = catalog.updateAndGet(c -> c.withPrice(itemId, newPrice));
+        fireCatalogChanged(updated);
+        return updated.findById(itemId);
+    }
+
+    // Listeners are called on the thread that swapped the catalog
+    public void addCatalogListener(Consumer<MenuCatalog> listener) {
+        catalogListeners.add(listener);
+    }
+
+    public void removeCatalogListener(Consumer<MenuCatalog> listener) {
+        catalogListeners.remove(listener);
+    }
+
+    private void fireCatalogChanged(MenuCatalog newCatalog) {
+        for (Consumer<MenuCatalog> listener : catalogListeners) {
+            listener.accept(newCatalog);
+        }
+    }
+
+    // Load the menu from a CSV file and keep reloading it when the file changes
+    public synchronized void watchMenuFile(Path menuFile) throws IOException {
+        loadMenuFile(menuFile);
+        if (menuFileWatcher != null) {
+            menuFileWatcher.close();
+        }
+        menuFileWatcher = new MenuFileWatcher(menuFile, this);
+        menuFileWatcher.start();
+    }
+
+    // Parse the file on top of the current menu and swap it in; if a price edit lands while
+    // parsing, parse again on top of it so the edit's item version stays in the history
+    void loadMenuFile(Path menuFile) throws IOException {
+        while (true) {
+            MenuCatalog base = catalog.get();
+            MenuCatalog fresh = MenuFileLoader.load(menuFile, base);
+            if (catalog.compareAndSet(base, fresh)) {
+                fireCatalogChanged(fresh);
+                return;
+            }
+        }
     }
 
     // Get active members
-    public List<Member> getActiveMembers() {
-        return members.stream()
+    public synchronized List<Member> getActiveMembers() {
+        return members.asList().stream()
                 .filter(member -> member.isActive())
                 .collect(Collectors.toList());
     }
 
     // Find member by ID
-    public Member findMemberById(String memberId) {
-        return members.stream()
-                .filter(member -> member.getMemberId().equals(memberId))
-                .findFirst()
-                .orElse(null);
+    public synchronized Member findMemberById(String memberId) {
+        int slot = members.slotOf(memberId);
+        return slot >= 0 ? members.get(slot) : null;
+    }
+
+    // Accepts formatted input such as 099-606-1879 or +66 99 606 1879
+    public synchronized Optional<Member> findMemberByPhone(String phone) {
+        int slot = phoneIndex.findExact(PhoneIndex.normalize(phone));
+        return slot >= 0 ? Optional.of(members.get(slot)) : Optional.empty();
     }
 
-    public Optional<Member> findMemberByPhone(String phone) {
-        return members.stream()
-                .filter(member -> member.getPhone().equals(phone))
-                .findFirst();
+    // Autocomplete: members whose phone starts or ends with the typed digits
+    public synchronized List<Member> suggestMembersByPhone(String partialPhone, int limit) {
+        List<Member> result = new ArrayList<>();
+        for (int slot : phoneIndex.findPartial(PhoneIndex.normalize(partialPhone), limit)) {
+            result.add(members.get(slot));
+        }
+        return result;
     }
 
     // Add new member
-    public Member addMember(String name, String phone, LocalDate birthDate, LocalDate joinDate) {
+    public synchronized Member addMember(String name, String phone, LocalDate birthDate, LocalDate joinDate) {
         String memberId = generateMemberId();
         LocalDate expireDate = joinDate.plusYears(1).minusDays(1);
-        Member newMember = new Member(memberId, name, phone, birthDate, expireDate);
-        members.add(newMember);
+        // The store normalizes and indexes the phone
+        Member newMember = members.add(new Member(memberId, name, phone, birthDate, expireDate));
+        if (replicator != null) {
+            replicator.publishMember(newMember);
+        }
         return newMember;
     }
 
     // Generate member ID
     private String generateMemberId() {
-        return String.format("M%04d", memberIdCounter++);
+        return memberIdAllocator.nextId();
     }
 
     // Renew membership
-    public void renewMembership(Member member) {
+    public synchronized void renewMembership(Member member) {
         LocalDate newExpireDate = member.getExpireDate().plusYears(1);
         member.setExpireDate(newExpireDate);
         member.setActive(true);
+        publishMemberEdit(member);
+    }
+
+    // Edit a member's details; the store normalizes and re-indexes the phone
+    public synchronized void updateMember(Member member, String name, String phone, LocalDate birthDate) {
+        member.setName(name);
+        member.setPhone(phone);
+        member.setBirthDate(birthDate);
+        publishMemberEdit(member);
+    }
+
+    private void publishMemberEdit(Member member) {
+        member.setVersion(member.getVersion() + 1);
+        if (replicator != null) {
+            replicator.publishMember(member);
+        }
     }
 
     // Order management
-    public void addOrder(Order order) {
+    public synchronized void addOrder(Order order) {
         orders.add(order);
+        indexOrder(order);
     }
 
     // Save order
-    public void saveOrder(Order order) {
-        if (!orders.contains(order)) {
-            orders.add(order);
+    public synchronized void saveOrder(Order order) {
+        if (!savedOrders.contains(order) && order.savedCopy == null) {
+            // Redeem first: if another till already used the voucher nothing else is committed
+            if (order.getVoucher() != null) {
+                if (voucherBook == null) {
+                    throw new IllegalStateException("Order " + order.getOrderId() + " has a voucher but vouchers are off");
+                }
+                voucherBook.redeem(order.getVoucher());
+            }
+            try {
+                order.commitPoints();
+            } catch (RuntimeException e) {
+                // Points already spent at another till: the voucher was not used after all
+                if (order.getVoucher() != null) {
+                    voucherBook.cancelRedemption(order.getVoucher());
+                }
+                throw e;
+            }
+            // Cannot fail, so it goes last
+            order.commitStock();
+            // A pooled cart will be reused, so history gets a frozen copy of it
+            Order saved = order;
+            if (order.getPool() != null) {
+                saved = order.frozenCopy();
+                order.savedCopy = saved;
+            }
+            orders.add(saved);
+            indexOrder(saved);
+            if (replicator != null) {
+                replicator.publishOrder(saved);
+            }
+            order.committed();
+            fireOrderCommitted(saved);
+            archiveOldOrders(saved);
+        }
+    }
+
+    // Pack the previous days off-heap on the first order of a new day, or when a peer sends an older order
+    private void archiveOldOrders(Order added) {
+        if (orderArchive == null) return;
+        LocalDate today = LocalDate.now();
+        if (!today.equals(archivedBefore) || added.getOrderTime().toLocalDate().isBefore(today)) {
+            archiveOrdersBefore(today);
         }
     }
 
-    public Order findOrderById(String orderId) {
-        return orders.stream()
-                .filter(order -> order.getOrderId().equals(orderId))
-                .findFirst()
-                .orElse(null);
+    // Notified (on the saving thread) of every order saved here or replicated from another till
+    public void addOrderListener(OrderListener listener) {
+        orderListeners.add(listener);
+    }
+
+    public void removeOrderListener(OrderListener listener) {
+        orderListeners.remove(listener);
+    }
+
+    private void fireOrderCommitted(Order order) {
+        for (OrderListener listener : orderListeners) {
+            listener.orderChanged(order, OrderListener.Change.COMMITTED, null);
+        }
+    }
+
+    // Keep the member history index in step with the order list
+    private void indexOrder(Order order) {
+        noteOrderId(order.getOrderId());
+        savedOrders.add(order);
+        ordersById.put(order.getOrderId(), order);
+        demandForecaster.record(order);
+        salesTrends.record(order);
+        if (order.getMember() != null) {
+            memberHistories.computeIfAbsent(order.getMember().getMemberId(), MemberHistory::new)
+                    .record(order);
+        }
+    }
+
+    private void unindexOrder(Order order) {
+        savedOrders.remove(order);
+        ordersById.remove(order.getOrderId(), order);
+        demandForecaster.retract(order);
+        if (order.getMember() != null) {
+            MemberHistory history = memberHistories.get(order.getMember().getMemberId());
+            if (history != null) {
+                history.remove(order);
+            }
+        }
+    }
+
+    public synchronized Order findOrderById(String orderId) {
+        Order order = ordersById.get(orderId);
+        if (order == null && orderArchive != null) {
+            long row = orderArchive.findRow(orderId);
+            if (row >= 0) {
+                order = orderArchive.view().moveTo(row).toOrder(this);
+            }
+        }
+        return order;
     }
 
     // Create new order
-    public Order createOrder(boolean dineIn) {
+    public synchronized Order createOrder(boolean dineIn) {
         String orderId = generateOrderId();
-        return new Order(orderId, null, dineIn);  // ใช้ constructor ที่มี parameters
+        OrderPool pool = orderPool;
+        Order order;
+        if (pool != null) {
+            order = pool.takeOrder();
+            order.reopen(orderId, dineIn);
+        } else {
+            order = new Order(orderId, null, dineIn);  // ใช้ constructor ที่มี parameters
+        }
+        if (inventory != null) {
+            order.attachInventory(inventory);
+        }
+        if (pointsLedger != null) {
+            order.attachPointsLedger(pointsLedger);
+        }
+        return order;
     }
 
     private String generateOrderId() {
-        return "ORD" + String.format("%06d", orders.size() + 1);
+        // Several carts can be open before any is saved, so count separately from orders.size();
+        // indexOrder moves the sequence past every ID of ours seen so far, archived or replayed
+        orderSequence = Math.max(orderSequence, orders.size()) + 1;
+        StringBuilder orderId = new StringBuilder(24).append(orderIdPrefix());
+        for (long limit = 100_000; limit > 1 && orderSequence < limit; limit /= 10) {
+            orderId.append('0');
+        }
+        return orderId.append(orderSequence).toString();
+    }
+
+    // Order IDs must stay unique across replicated tills
+    private String orderIdPrefix() {
+        return replicator != null ? replicator.getNodeId() + "-ORD" : "ORD";
+    }
+
+    // Never hand out a number this till already used, even once that order has left the heap
+    private void noteOrderId(String orderId) {
+        String prefix = orderIdPrefix();
+        if (!orderId.startsWith(prefix) || orderId.length() == prefix.length()
+                || orderId.length() - prefix.length() > 18) return;
+        long sequence = 0;
+        for (int i = prefix.length(); i < orderId.length(); i++) {
+            char c = orderId.charAt(i);
+            if (c < '0' || c > '9') return;
+            sequence = sequence * 10 + (c - '0');
+        }
+        orderSequence = Math.max(orderSequence, sequence);
+    }
+
+    // Low-latency till mode: carts from createOrder come from the pool and go back through recycleOrder
+    public void enableOrderPool(OrderPool orderPool) {
+        this.orderPool = orderPool;
+    }
+
+    public OrderPool getOrderPool() {
+        return orderPool;
+    }
+
+    // The till is done with this cart (saved, or closed while empty); no-op for carts not from the pool
+    public void recycleOrder(Order order) {
+        OrderPool pool = order.getPool();
+        if (pool != null) {
+            pool.recycle(order);
+        }
+    }
+
+    // Open (unpaid) orders of one terminal
+    public OpenOrderWorkspace getWorkspace(String terminalId) {
+        return workspaces.computeIfAbsent(terminalId, OpenOrderWorkspace::new);
     }
 
     // Remove order
-    public boolean removeOrder(String orderId) {
-        return orders.removeIf(o -> o.getOrderId().equals(orderId));
+    public synchronized boolean removeOrder(String orderId) {
+        return orders.removeIf(o -> {
+            if (!o.getOrderId().equals(orderId)) return false;
+            unindexOrder(o);
+            return true;
+        });
     }
-    public void removeOrder(Order order) {
-        orders.remove(order);
+    public synchronized void removeOrder(Order order) {
+        if (orders.remove(order)) {
+            unindexOrder(order);
+        }
     }
 
-    // Get orders by member
-    public List<Order> getOrdersByMember(Member member) {
+    // Get orders by member, archived ones rebuilt from the archive first
+    public synchronized List<Order> getOrdersByMember(Member member) {
         if (member == null) return new ArrayList<>();
-        return orders.stream()
-                .filter(order -> order.getMember() != null &&
-                        order.getMember().getMemberId().equals(member.getMemberId()))
-                .collect(Collectors.toList());
+        MemberHistory history = memberHistories.get(member.getMemberId());
+        if (history == null) return new ArrayList<>();
+        List<Order> result = new ArrayList<>(history.getArchivedCount() + history.getOrders().size());
+        if (history.getArchivedCount() > 0) {
+            OrderArchive.View row = orderArchive.view();
+            for (int i = 0; i < history.getArchivedCount(); i++) {
+                result.add(row.moveTo(history.getArchivedRow(i)).toOrder(this));
+            }
+        }
+        result.addAll(history.getOrders());
+        return result;
+    }
+
+    // Purchase history, lifetime spend and visit count for loyalty lookups; a copy, later orders don't show up in it
+    public synchronized MemberHistory getMemberHistory(Member member) {
+        MemberHistory history = memberHistories.get(member.getMemberId());
+        return history != null ? history.copy() : new MemberHistory(member.getMemberId());
+    }
+
+    // === Replication ===
+
+    // Publish local changes to, and apply changes from, other tills sharing the directory
+    public synchronized ChangeStreamReplicator enableReplication(Path directory, String nodeId) throws IOException {
+        if (replicator != null) {
+            replicator.close();
+        }
+        replicator = new ChangeStreamReplicator(this, directory, nodeId);
+        // Everything already in the journal, ours included (e.g. after a restart or a restore)
+        replicator.replayAll();
+        // Member IDs come from blocks leased in the shared directory so tills never collide
+        memberIdAllocator = MemberIdAllocator.leased(directory.resolve("member-ids.lease"),
+                MemberIdAllocator.DEFAULT_BLOCK_SIZE, members.asList());
+        replicator.start();
+        return replicator;
+    }
+
+    public ChangeStreamReplicator getReplicator() {
+        return replicator;
+    }
+
+    // Apply a member from another till, last writer wins; returns false if ours is as new or newer
+    synchronized boolean applyReplicatedMember(Member member) {
+        int slot = members.slotOf(member.getMemberId());
+        if (slot < 0) {
+            members.add(member);
+            return true;
+        }
+        Member stored = members.get(slot);
+        if (member.getVersion() < stored.getVersion()
+                || member.getVersion() == stored.getVersion() && SAME_VERSION_ORDER.compare(member, stored) <= 0) {
+            return false;
+        }
+        stored.setName(member.getName());
+        stored.setPhone(member.getPhone());
+        stored.setBirthDate(member.getBirthDate());
+        stored.setExpireDate(member.getExpireDate());
+        stored.setActive(member.isActive());
+        stored.setVersion(member.getVersion());
+        return true;
+    }
+
+    // Apply an order from another till; returns false if it was already known
+    synchronized boolean applyReplicatedOrder(Order order) {
+        if (ordersById.containsKey(order.getOrderId())
+                || orderArchive != null && orderArchive.findRow(order.getOrderId()) >= 0) {
+            return false;
+        }
+        orders.add(order);
+        indexOrder(order);
+        fireOrderCommitted(order);
+        archiveOldOrders(order);
+        return true;
+    }
+
+    // === Off-heap order archive ===
+
+    // Keep only today's orders as objects; older committed orders are packed off-heap
+    public synchronized OrderArchive enableOrderArchive() {
+        if (orderArchive == null) {
+            orderArchive = new OrderArchive();
+            archiveOrdersBefore(LocalDate.now());
+        }
+        return orderArchive;
+    }
+
+    public OrderArchive getOrderArchive() {
+        return orderArchive;
+    }
+
+    // Move orders placed before the cutoff into the archive; returns how many moved
+    public synchronized int archiveOrdersBefore(LocalDate cutoff) {
+        if (orderArchive == null) {
+            throw new IllegalStateException("Order archive is not enabled");
+        }
+        int before = orders.size();
+        orders.removeIf(order -> {
+            if (!order.getOrderTime().toLocalDate().isBefore(cutoff)) return false;
+            long row = orderArchive.append(order);
+            savedOrders.remove(order);
+            ordersById.remove(order.getOrderId(), order);
+            if (order.getMember() != null) {
+                MemberHistory history = memberHistories.get(order.getMember().getMemberId());
+                if (history != null) {
+                    history.archived(order, row);
+                }
+            }
+            return true;
+        });
+        archivedBefore = cutoff;
+        return before - orders.size();
+    }
+
+    // === Order history paging ===
+
+    /**
+     * ค้นประวัติออเดอร์ทีละหน้า จากใหม่ไปเก่า ครอบคลุมทั้งออเดอร์ใน heap และในคลัง off-heap
+     * cursor คือตำแหน่งในลำดับ [คลัง..., ออเดอร์ปัจจุบัน...] ซึ่งไม่เลื่อนเมื่อมีการย้ายเข้าคลัง
+     * ออเดอร์ที่อยู่ในคลังจะถูกสร้างเป็น Order เฉพาะที่อยู่ในหน้านั้น
+     * ล็อกเฉพาะตอนคัดลอกรายการออเดอร์ปัจจุบัน ส่วนคลังค้นด้วย seekBack นอกล็อก
+     */
+    public OrderPage queryOrders(OrderQuery query, long cursor, int pageSize) {
+        OrderSnapshot snapshot = snapshotOrders();
+        Order[] live = snapshot.live();
+        long archived = snapshot.archived();
+        long total = archived + live.length;
+        long position = cursor == OrderPage.FIRST ? total : Math.min(cursor, total);
+
+        List<Order> page = new ArrayList<>(pageSize);
+        while (position > archived && page.size() < pageSize) {
+            position--;
+            Order order = live[(int) (position - archived)];
+            if (query.matches(order)) {
+                page.add(order);
+            }
+        }
+        if (position > 0 && position <= archived && page.size() < pageSize) {
+            OrderArchive archive = snapshot.archive();
+            OrderArchive.View row = archive.view();
+            boolean inRange = false;
+            while (page.size() < pageSize) {
+                // Only seek again after stepping out of the date range
+                if (!inRange) {
+                    position = archive.seekBack(position, query.getFromSecond(), query.getToSecond());
+                }
+                if (position == 0) break;
+                position--;
+                inRange = query.matchesTime(row.moveTo(position).getEpochSecond());
+                if (inRange && query.matches(row)) {
+                    page.add(row.toOrder(this));
+                }
+            }
+        }
+        return new OrderPage(page, position);
+    }
+
+    // Live orders from a position in [archive..., live orders...] onwards; returns how many were copied,
+    // 0 at the end or when orders before the position have since been archived
+    synchronized int copyOrders(long position, Order[] into) {
+        long index = position - (orderArchive != null ? orderArchive.size() : 0);
+        if (index < 0 || index >= orders.size()) return 0;
+        int count = (int) Math.min(into.length, orders.size() - index);
+        for (int i = 0; i < count; i++) {
+            into[i] = orders.get((int) index + i);
+        }
+        return count;
+    }
+
+    // Pager that prefetches the next page in the background
+    public OrderHistoryPager openOrderHistory(OrderQuery query, int pageSize) {
+        return new OrderHistoryPager(this, query, pageSize);
+    }
+
+    // === Ingredient stock ===
+
+    // Carts created from now on reserve stock as items are added
+    public void enableInventory(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    // === Loyalty points ===
+
+    // Carts created from now on can redeem points, and saved member orders earn them
+    public void enablePointsLedger(PointsLedger pointsLedger) {
+        this.pointsLedger = pointsLedger;
+    }
+
+    public PointsLedger getPointsLedger() {
+        return pointsLedger;
+    }
+
+    public long getPointsBalance(Member member) {
+        PointsLedger ledger = pointsLedger;
+        return ledger != null && member != null ? ledger.getBalance(member.getMemberId()) : 0;
+    }
+
+    // === Vouchers ===
+
+    public void enableVouchers(VoucherBook voucherBook) {
+        this.voucherBook = voucherBook;
+    }
+
+    public VoucherBook getVoucherBook() {
+        return voucherBook;
+    }
+
+    // The voucher for a typed or scanned code; throws InvalidVoucherException if it cannot be used
+    public Voucher checkVoucher(String code) {
+        VoucherBook book = voucherBook;
+        if (book == null) {
+            throw new IllegalStateException("Vouchers are not enabled");
+        }
+        return book.check(code);
+    }
+
+    // === Backup ===
+
+    // A backup of everything persisted so far: journal, points ledger and vouchers
+    public StoreBackup newBackup(Path backupDirectory) throws IOException {
+        StoreBackup backup = new StoreBackup(backupDirectory);
+        if (replicator != null) {
+            backup.addDirectory(StoreBackup.JOURNAL, replicator.getDirectory());
+        }
+        if (pointsLedger != null) {
+            backup.addLog(StoreBackup.POINTS, pointsLedger.getFile());
+        }
+        if (voucherBook != null) {
+            backup.addDirectory(StoreBackup.VOUCHERS, voucherBook.getDirectory());
+        }
+        return backup;
+    }
+
+    // Verify and copy a backup under targetDirectory, then replay it into this DataManager
+    public synchronized void restoreBackup(Path backupDirectory, Path targetDirectory, String nodeId) throws IOException {
+        StoreBackup.restore(backupDirectory, targetDirectory);
+        Path journal = targetDirectory.resolve(StoreBackup.JOURNAL);
+        if (Files.isDirectory(journal)) {
+            enableReplication(journal, nodeId);
+        }
+        Path points = targetDirectory.resolve(StoreBackup.POINTS);
+        if (Files.isDirectory(points)) {
+            try (Stream<Path> files = Files.list(points)) {
+                Optional<Path> ledger = files.findFirst();
+                if (ledger.isPresent()) {
+                    enablePointsLedger(PointsLedger.open(ledger.get()));
+                }
+            }
+        }
+        Path vouchers = targetDirectory.resolve(StoreBackup.VOUCHERS);
+        if (Files.isDirectory(vouchers)) {
+            enableVouchers(VoucherBook.open(vouchers, VoucherBook.DEFAULT_EXPECTED_REDEMPTIONS));
+        }
+    }
+
+    // === Demand forecasting ===
+
+    public DemandForecaster getDemandForecaster() {
+        return demandForecaster;
+    }
+
+    // What to prep for the next few hours, with a safety margin (0.2 = 20% extra)
+    public List<DemandForecaster.PrepRecommendation> recommendPrep(int hours, double safetyFactor) {
+        return demandForecaster.recommendPrep(catalog.get(), LocalDateTime.now(), hours, safetyFactor);
+    }
+
+    // === Bestsellers and frequently bought together ===
+
+    public List<Item> getBestsellers(int limit) {
+        return toCurrentItems(salesTrends.topSellers(limit));
+    }
+
+    public List<Item> getBoughtWith(Item item, int limit) {
+        return toCurrentItems(salesTrends.boughtWith(item.getCatalogIndex(), limit));
+    }
+
+    // Map catalog indexes to the current menu, skipping retired items
+    private List<Item> toCurrentItems(int[] catalogIndexes) {
+        MenuCatalog menu = catalog.get();
+        List<Item> result = new ArrayList<>(catalogIndexes.length);
+        for (int index : catalogIndexes) {
+            Item item = menu.get(index);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    // Live orders plus the archive's row count at the same moment, so a reader counts every order exactly once
+    // while saves and archiving carry on; only the copy is made under the lock
+    private record OrderSnapshot(Order[] live, OrderArchive archive, long archived) {}
+
+    private synchronized OrderSnapshot snapshotOrders() {
+        return new OrderSnapshot(orders.toArray(new Order[0]), orderArchive, orderArchive != null ? orderArchive.size() : 0);
     }
 
     // Get today's orders
     public List<Order> getTodaysOrders() {
         LocalDate today = LocalDate.now();
-        return orders.stream()
+        return Arrays.stream(snapshotOrders().live())
                 .filter(order -> order.getOrderTime().toLocalDate().equals(today))
                 .collect(Collectors.toList());
     }
 
     // Get total sales
     public double getTotalSales() {
-        return orders.stream()
+        OrderSnapshot snapshot = snapshotOrders();
+        double archived = snapshot.archived() > 0 ? snapshot.archive().sumTotals(snapshot.archived()) : 0.0;
+        return archived + Arrays.stream(snapshot.live())
                 .mapToDouble(order -> order.getTotalPrice())  // แก้ไขจาก method reference
                 .sum();
     }
 
     // Get sales by date range
     public double getSalesByDateRange(LocalDate startDate, LocalDate endDate) {
-        return orders.stream()
+        OrderSnapshot snapshot = snapshotOrders();
+        double archived = snapshot.archived() > 0 ? snapshot.archive().sumTotals(snapshot.archived(), startDate, endDate) : 0.0;
+        return archived + Arrays.stream(snapshot.live())
                 .filter(order -> {
                     LocalDate orderDate = order.getOrderTime().toLocalDate();
                     return !orderDate.isBefore(startDate) && !orderDate.isAfter(endDate);
@@ -181,19 +754,44 @@ public class DataManager {
                 .sum();
     }
 
+    // End-of-day report: one parallel fork/join pass over the orders, plus the archive for past days
+    public DailySalesReport generateDailyReport(LocalDate date) {
+        OrderSnapshot snapshot = snapshotOrders();
+        Order[] live = snapshot.live();
+        DailySalesReport report = ForkJoinPool.commonPool().invoke(new DailySalesReportTask(live, 0, live.length, date));
+        if (snapshot.archived() > 0) {
+            long from = date.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            long to = date.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            OrderArchive archive = snapshot.archive();
+            OrderArchive.View row = archive.view();
+            long position = snapshot.archived();
+            boolean inRange = false;
+            while (true) {
+                if (!inRange) {
+                    position = archive.seekBack(position, from, to);
+                }
+                if (position == 0) break;
+                position--;
+                long time = row.moveTo(position).getEpochSecond();
+                inRange = time >= from && time < to;
+                if (inRange) {
+                    report.accumulate(row);
+                }
+            }
+        }
+        return report;
+    }
+
     // Get expired members
-    public List<Member> getExpiredMembers() {
-        return members.stream()
+    public synchronized List<Member> getExpiredMembers() {
+        return members.asList().stream()
                 .filter(member -> !member.isActive())  // แก้ไขจาก method reference
                 .collect(Collectors.toList());
     }
 
     // Find item by ID
     public Item findItemById(String itemId) {
-        return items.stream()
-                .filter(item -> item.getId().equals(itemId))
-                .findFirst()
-                .orElse(null);
+        return catalog.get().findById(itemId);
     }
 
 }
\ No newline at end of file
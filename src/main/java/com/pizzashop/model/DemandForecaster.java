@@ -0,0 +1,172 @@
+// DemandForecaster.java
+package com.pizzashop.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * พยากรณ์ยอดขายรายสินค้า แยกตามวันในสัปดาห์และชั่วโมง (7 x 24 ช่อง)
+ *
+ * แต่ละช่องเก็บค่าเฉลี่ยเคลื่อนที่แบบ exponential ของจำนวนที่ขายได้ในช่องนั้นของแต่ละสัปดาห์
+ * ออเดอร์ใหม่แตะเฉพาะช่องของตัวเอง (O(1) ต่อรายการ) สัปดาห์ที่ไม่มีขายจะถูกนับเป็นศูนย์
+ * ตอนที่ช่องนั้นถูกแตะครั้งถัดไปหรือตอนอ่านค่า จึงไม่ต้องวนประวัติซ้ำ
+ */
+public class DemandForecaster {
+    public static final int SLOTS_PER_WEEK = 7 * 24;
+    public static final double DEFAULT_ALPHA = 0.3;
+
+    private final double alpha;
+    private final double keep;
+
+    // One cell per (catalog index, weekday, hour), index = catalogIndex * SLOTS_PER_WEEK + slot
+    private double[] average = new double[0];    // EMA over the weeks before openWeek
+    private int[] pending = new int[0];          // quantity sold so far in openWeek
+    private int[] openWeek = new int[0];
+    private int firstWeek = Integer.MAX_VALUE;   // first week with any order, for bias correction
+
+    public DemandForecaster() {
+        this(DEFAULT_ALPHA);
+    }
+
+    public DemandForecaster(double alpha) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("Alpha must be in (0, 1]: " + alpha);
+        }
+        this.alpha = alpha;
+        this.keep = 1 - alpha;
+    }
+
+    // Add a saved order
+    public synchronized void record(Order order) {
+        apply(order, 1);
+    }
+
+    // Take back a removed order
+    public synchronized void retract(Order order) {
+        apply(order, -1);
+    }
+
+    private void apply(Order order, int sign) {
+        LocalDateTime time = order.getOrderTime();
+        int week = weekOf(time);
+        int slot = slotOf(time);
+        firstWeek = Math.min(firstWeek, week);
+        for (OrderItem line : order.getOrderItems()) {
+            int index = line.getCatalogIndex();
+            if (index < 0) continue;  // not a catalog item
+            add(cell(index, slot), week, sign * line.getQuantity());
+        }
+    }
+
+    private void add(int cell, int week, int quantity) {
+        int open = openWeek[cell];
+        if (week == open) {
+            pending[cell] += quantity;
+        } else if (week > open) {
+            average[cell] = averageBefore(cell, week);
+            pending[cell] = quantity;
+            openWeek[cell] = week;
+        } else {
+            // Late order (e.g. replicated from another till): weight it by its age
+            average[cell] += alpha * quantity * Math.pow(keep, open - 1 - week);
+        }
+    }
+
+    // EMA as it stands before the given week, folding in the open week and any empty weeks
+    private double averageBefore(int cell, int week) {
+        int open = openWeek[cell];
+        if (open == Integer.MIN_VALUE) return 0;  // never sold in this slot
+        if (week <= open) return average[cell];
+        double folded = keep * average[cell] + alpha * pending[cell];
+        return folded * Math.pow(keep, week - open - 1);
+    }
+
+    // === Forecasts ===
+
+    // Expected quantity of one item in the hour starting at the given time
+    public synchronized double forecast(Item item, LocalDateTime hour) {
+        return forecast(item.getCatalogIndex(), weekOf(hour), slotOf(hour));
+    }
+
+    private double forecast(int index, int week, int slot) {
+        int cell = index * SLOTS_PER_WEEK + slot;
+        if (index < 0 || cell >= average.length || week <= firstWeek) return 0;
+        // Cells start at zero, so divide by the weight the history has actually had
+        double weight = 1 - Math.pow(keep, week - firstWeek);
+        return Math.max(0, averageBefore(cell, week) / weight);
+    }
+
+    /**
+     * จำนวนที่ควรเตรียมของแต่ละสินค้าสำหรับช่วงเวลาถัดไป
+     * safetyFactor เผื่อเพิ่มจากค่าพยากรณ์ เช่น 0.2 = เผื่อ 20%
+     */
+    public synchronized List<PrepRecommendation> recommendPrep(MenuCatalog catalog, LocalDateTime start,
+                                                               int hours, double safetyFactor) {
+        LocalDateTime from = start.withMinute(0).withSecond(0).withNano(0);
+        List<PrepRecommendation> result = new ArrayList<>();
+        for (Item item : catalog.getItems()) {
+            double expected = 0;
+            for (int h = 0; h < hours; h++) {
+                LocalDateTime hour = from.plusHours(h);
+                expected += forecast(item.getCatalogIndex(), weekOf(hour), slotOf(hour));
+            }
+            if (expected > 0) {
+                int quantity = (int) Math.ceil(expected * (1 + safetyFactor));
+                result.add(new PrepRecommendation(item, expected, quantity));
+            }
+        }
+        result.sort(Comparator.comparingDouble(PrepRecommendation::getExpected).reversed());
+        return result;
+    }
+
+    // === Helpers ===
+
+    private int cell(int index, int slot) {
+        int cell = index * SLOTS_PER_WEEK + slot;
+        if (cell >= average.length) {
+            int size = Math.max((index + 1) * SLOTS_PER_WEEK, average.length * 2);
+            int oldSize = average.length;
+            average = Arrays.copyOf(average, size);
+            pending = Arrays.copyOf(pending, size);
+            openWeek = Arrays.copyOf(openWeek, size);
+            Arrays.fill(openWeek, oldSize, size, Integer.MIN_VALUE);
+        }
+        return cell;
+    }
+
+    // Weeks counted from a Monday (1970-01-01 was a Thursday)
+    static int weekOf(LocalDateTime time) {
+        return (int) Math.floorDiv(time.toLocalDate().toEpochDay() + 3, 7);
+    }
+
+    static int slotOf(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * 24 + time.getHour();
+    }
+
+    /**
+     * คำแนะนำการเตรียมของหนึ่งสินค้า
+     */
+    public static class PrepRecommendation {
+        private final Item item;
+        private final double expected;
+        private final int quantity;
+
+        PrepRecommendation(Item item, double expected, int quantity) {
+            this.item = item;
+            this.expected = expected;
+            this.quantity = quantity;
+        }
+
+        public Item getItem() { return item; }
+        public double getExpected() { return expected; }
+        public int getQuantity() { return quantity; }
+
+        @Override
+        public String toString() {
+            return item.getName() + " x" + quantity + String.format(" (~%.1f)", expected);
+        }
+    }
+}
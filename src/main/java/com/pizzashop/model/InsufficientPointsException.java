@@ -0,0 +1,25 @@
+// InsufficientPointsException.java
+package com.pizzashop.model;
+
+/**
+ * แต้มของสมาชิกไม่พอสำหรับจำนวนที่จะใช้
+ * ไม่มีการกันแต้มค้างไว้ ออเดอร์ยังใช้แต้มเท่าเดิม
+ */
+public class InsufficientPointsException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String memberId;
+    private final long requested;
+    private final long available;
+
+    public InsufficientPointsException(String memberId, long requested, long available) {
+        super("Not enough points for " + memberId + ": need " + requested + ", have " + available);
+        this.memberId = memberId;
+        this.requested = requested;
+        this.available = available;
+    }
+
+    public String getMemberId() { return memberId; }
+    public long getRequested() { return requested; }
+    public long getAvailable() { return available; }
+}
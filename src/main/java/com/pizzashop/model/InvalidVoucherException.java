@@ -0,0 +1,23 @@
+// InvalidVoucherException.java
+package com.pizzashop.model;
+
+/**
+ * ใช้คูปองไม่ได้: รหัสผิด/ไม่ได้ออกโดยร้าน หรือถูกใช้ไปแล้ว
+ */
+public class InvalidVoucherException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason { BAD_CODE, ALREADY_REDEEMED }
+
+    private final String code;
+    private final Reason reason;
+
+    public InvalidVoucherException(String code, Reason reason) {
+        super((reason == Reason.BAD_CODE ? "Not a valid voucher code: " : "Voucher already redeemed: ") + code);
+        this.code = code;
+        this.reason = reason;
+    }
+
+    public String getCode() { return code; }
+    public Reason getReason() { return reason; }
+}
@@ -0,0 +1,258 @@
+// Inventory.java
+package com.pizzashop.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * สต็อกวัตถุดิบและสูตรของสินค้าแต่ละตัว
+ *
+ * เพิ่มสินค้าลงตะกร้า = จองวัตถุดิบทันทีด้วย CAS บนตัวนับ (ไม่มี lock)
+ * ถ้าวัตถุดิบตัวใดไม่พอจะคืนที่จองไปแล้วและโยน OutOfStockException จึงขายเกินไม่ได้
+ * แม้หลายเครื่องจะเพิ่มพร้อมกัน ตอนบันทึกออเดอร์ที่จองไว้จะถูกตัดเป็นใช้จริง
+ * สินค้าที่ไม่มีสูตรขายได้ไม่จำกัด
+ */
+public class Inventory {
+    // Each ingredient gets its own 64-byte line: [available, reserved, used]
+    private static final int STRIDE = 8;
+    private static final int AVAILABLE = 0;
+    private static final int RESERVED = 1;
+    private static final int USED = 2;
+
+    private final String[] names;
+    private final String[] units;
+    private final Map<String, Integer> indexByName;
+    private final AtomicLongArray counters;
+    private final Map<String, Recipe> recipes = new ConcurrentHashMap<>();
+
+    private Inventory(List<String> names, List<String> units, List<Long> onHand) {
+        this.names = names.toArray(new String[0]);
+        this.units = units.toArray(new String[0]);
+        this.indexByName = new HashMap<>();
+        this.counters = new AtomicLongArray(this.names.length * STRIDE);
+        for (int i = 0; i < this.names.length; i++) {
+            indexByName.put(this.names[i], i);
+            counters.set(i * STRIDE + AVAILABLE, onHand.get(i));
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // === Recipes ===
+
+    // Amounts are per one item, in the ingredient's unit; replaces any previous recipe
+    public void setRecipe(String itemId, Map<String, Long> amounts) {
+        int[] ingredients = new int[amounts.size()];
+        long[] perItem = new long[amounts.size()];
+        int k = 0;
+        for (Map.Entry<String, Long> entry : amounts.entrySet()) {
+            // A negative amount would turn every sale into a restock
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Negative amount " + entry.getValue() + " of "
+                        + entry.getKey() + " in the recipe for " + itemId);
+            }
+            ingredients[k] = indexOf(entry.getKey());
+            perItem[k] = entry.getValue();
+            k++;
+        }
+        recipes.put(itemId, new Recipe(itemId, ingredients, perItem));
+    }
+
+    public void removeRecipe(String itemId) {
+        recipes.remove(itemId);
+    }
+
+    // Null when the item has no recipe
+    public Recipe recipeFor(String itemId) {
+        return recipes.get(itemId);
+    }
+
+    // How many more of the item can be made right now
+    public long portionsAvailable(String itemId) {
+        Recipe recipe = recipes.get(itemId);
+        if (recipe == null) return Long.MAX_VALUE;
+        long portions = Long.MAX_VALUE;
+        for (int k = 0; k < recipe.ingredients.length; k++) {
+            if (recipe.amounts[k] > 0) {
+                portions = Math.min(portions, available(recipe.ingredients[k]) / recipe.amounts[k]);
+            }
+        }
+        return portions;
+    }
+
+    // === Reservations (lock-free) ===
+
+    // Reserve everything the recipe needs for quantity items, or nothing at all
+    public void reserve(Recipe recipe, int quantity) {
+        if (recipe == null || quantity <= 0) return;
+        for (int k = 0; k < recipe.ingredients.length; k++) {
+            int base = recipe.ingredients[k] * STRIDE;
+            long need = recipe.amounts[k] * quantity;
+            if (!tryTake(base, need)) {
+                for (int undo = 0; undo < k; undo++) {
+                    giveBack(recipe.ingredients[undo] * STRIDE, recipe.amounts[undo] * quantity);
+                }
+                throw new OutOfStockException(recipe.itemId, names[recipe.ingredients[k]],
+                        need, counters.get(base + AVAILABLE));
+            }
+        }
+    }
+
+    // Item taken out of a cart
+    public void release(Recipe recipe, int quantity) {
+        if (recipe == null || quantity <= 0) return;
+        for (int k = 0; k < recipe.ingredients.length; k++) {
+            giveBack(recipe.ingredients[k] * STRIDE, recipe.amounts[k] * quantity);
+        }
+    }
+
+    // Order saved: the reservation becomes real usage
+    public void commit(Recipe recipe, int quantity) {
+        if (recipe == null || quantity <= 0) return;
+        for (int k = 0; k < recipe.ingredients.length; k++) {
+            int base = recipe.ingredients[k] * STRIDE;
+            long amount = recipe.amounts[k] * quantity;
+            counters.getAndAdd(base + RESERVED, -amount);
+            counters.getAndAdd(base + USED, amount);
+        }
+    }
+
+    private boolean tryTake(int base, long need) {
+        while (true) {
+            long current = counters.get(base + AVAILABLE);
+            if (current < need) return false;
+            if (counters.compareAndSet(base + AVAILABLE, current, current - need)) {
+                counters.getAndAdd(base + RESERVED, need);
+                return true;
+            }
+        }
+    }
+
+    private void giveBack(int base, long amount) {
+        counters.getAndAdd(base + AVAILABLE, amount);
+        counters.getAndAdd(base + RESERVED, -amount);
+    }
+
+    // === Stock levels ===
+
+    public void restock(String ingredient, long amount) {
+        counters.getAndAdd(indexOf(ingredient) * STRIDE + AVAILABLE, amount);
+    }
+
+    public List<String> getIngredients() { return List.of(names); }
+    public String getUnit(String ingredient) { return units[indexOf(ingredient)]; }
+    public long getAvailable(String ingredient) { return available(indexOf(ingredient)); }
+    public long getReserved(String ingredient) { return counters.get(indexOf(ingredient) * STRIDE + RESERVED); }
+    public long getUsed(String ingredient) { return counters.get(indexOf(ingredient) * STRIDE + USED); }
+
+    private long available(int index) {
+        return counters.get(index * STRIDE + AVAILABLE);
+    }
+
+    private int indexOf(String ingredient) {
+        Integer index = indexByName.get(ingredient);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown ingredient: " + ingredient);
+        }
+        return index;
+    }
+
+    // === Loading ===
+
+    /**
+     * อ่านสต็อกและสูตรจากไฟล์ CSV
+     *   ingredient,<ชื่อ>,<หน่วย>,<จำนวนคงเหลือ>
+     *   recipe,<รหัสสินค้า>,<ชื่อวัตถุดิบ>,<ปริมาณต่อชิ้น>
+     * บรรทัดว่างและบรรทัดที่ขึ้นต้นด้วย # จะถูกข้าม
+     */
+    public static Inventory load(Path file) throws IOException {
+        Builder builder = builder();
+        Map<String, Map<String, Long>> recipeLines = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) continue;
+
+                List<String> fields = MenuFileLoader.parseLine(line);
+                if (fields.size() != 4) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": expected 4 columns but found " + fields.size());
+                }
+                long amount;
+                try {
+                    amount = Long.parseLong(fields.get(3));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": invalid amount " + fields.get(3));
+                }
+
+                if (fields.get(0).equals("ingredient")) {
+                    builder.ingredient(fields.get(1), fields.get(2), amount);
+                } else if (fields.get(0).equals("recipe")) {
+                    if (amount < 0) {
+                        throw new IllegalArgumentException(file + ":" + lineNumber + ": negative recipe amount " + amount);
+                    }
+                    recipeLines.computeIfAbsent(fields.get(1), k -> new HashMap<>()).put(fields.get(2), amount);
+                } else {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": unknown row type " + fields.get(0));
+                }
+            }
+        }
+
+        Inventory inventory = builder.build();
+        recipeLines.forEach(inventory::setRecipe);
+        return inventory;
+    }
+
+    /**
+     * สูตรของสินค้าหนึ่งตัว (immutable)
+     * บรรทัดในตะกร้าจำสูตรที่ใช้จองไว้ ถ้าสูตรเปลี่ยนทีหลังก็ยังคืน/ตัดได้ตรงกับที่จอง
+     */
+    public static final class Recipe {
+        private final String itemId;
+        private final int[] ingredients;
+        private final long[] amounts;
+
+        private Recipe(String itemId, int[] ingredients, long[] amounts) {
+            this.itemId = itemId;
+            this.ingredients = ingredients;
+            this.amounts = amounts;
+        }
+
+        public String getItemId() { return itemId; }
+    }
+
+    public static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<String> units = new ArrayList<>();
+        private final List<Long> onHand = new ArrayList<>();
+
+        private Builder() {}
+
+        public Builder ingredient(String name, String unit, long amount) {
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("Duplicate ingredient: " + name);
+            }
+            names.add(name);
+            units.add(unit);
+            onHand.add(amount);
+            return this;
+        }
+
+        public Inventory build() {
+            return new Inventory(names, units, onHand);
+        }
+    }
+}
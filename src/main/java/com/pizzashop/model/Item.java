@@ -1,5 +1,7 @@
 package com.pizzashop.model;
 
+import java.util.Objects;
+
 public class Item {
     private String id;
     private String name;
@@ -7,6 +9,10 @@ public class Item {
     private String category;
     private String description;
 
+    // Catalog bookkeeping: items created by MenuCatalog are immutable versions
+    private int catalogIndex = -1;
+    private int version;
+
     // Constructors
     public Item() {}
 
@@ -18,21 +24,49 @@ public class Item {
         this.description = description;
     }
 
+    // Used by MenuCatalog only
+    Item(String id, String name, double price, String category, String description,
+         int catalogIndex, int version) {
+        this(id, name, price, category, description);
+        this.catalogIndex = catalogIndex;
+        this.version = version;
+    }
+
     // Getters and Setters
     public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public void setId(String id) { checkMutable(); this.id = id; }
 
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { checkMutable(); this.name = name; }
 
     public double getPrice() { return price; }
-    public void setPrice(double price) { this.price = price; }
+    public void setPrice(double price) { checkMutable(); this.price = price; }
 
     public String getCategory() { return category; }
-    public void setCategory(String category) { this.category = category; }
+    public void setCategory(String category) { checkMutable(); this.category = category; }
 
     public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
+    public void setDescription(String description) { checkMutable(); this.description = description; }
+
+    public int getCatalogIndex() { return catalogIndex; }
+    public int getVersion() { return version; }
+
+    // Catalog items are shared by historic order lines, so they must never change in place
+    public boolean isCatalogItem() { return catalogIndex >= 0; }
+
+    private void checkMutable() {
+        if (isCatalogItem()) {
+            throw new IllegalStateException("Catalog item " + id + " is immutable, use DataManager.updateItemPrice");
+        }
+    }
+
+    // Same content apart from catalog bookkeeping
+    boolean sameContent(String name, double price, String category, String description) {
+        return Objects.equals(this.name, name)
+                && this.price == price
+                && Objects.equals(this.category, category)
+                && Objects.equals(this.description, description);
+    }
 
     @Override
     public String toString() {
@@ -0,0 +1,101 @@
+// LongIntMap.java
+package com.pizzashop.model;
+
+import java.util.Arrays;
+
+/**
+ * แผนที่ long -> int แบบ open addressing (linear probing) สำหรับดัชนี slot ของสมาชิก
+ * เก็บใน array primitive สองตัว ไม่มี Entry/Long/Integer ต่อรายการ
+ * ห้ามใช้ Long.MIN_VALUE เป็น key และลบไม่ได้ (ดัชนีมีแต่เพิ่ม)
+ * ไม่ thread-safe ผู้ใช้ต้องล็อกเอง (DataManager ทำอยู่แล้ว)
+ */
+final class LongIntMap {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    LongIntMap(int expected) {
+        allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expected) * 2 - 1) << 1));
+    }
+
+    // Returns the value, or -1
+    int get(long key) {
+        long[] k = keys;
+        int mask = k.length - 1;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            long current = k[i];
+            if (current == key) return values[i];
+            if (current == EMPTY) return -1;
+        }
+    }
+
+    // Returns false (and keeps the old value) if the key is already present
+    boolean putIfAbsent(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Reserved key");
+        }
+        if (!insert(key, value)) return false;
+        if (++size >= resizeAt) {
+            grow();
+        }
+        return true;
+    }
+
+    // Replaces the value if the key is already present
+    void put(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Reserved key");
+        }
+        int mask = keys.length - 1;
+        for (int i = index(key, mask); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        putIfAbsent(key, value);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private boolean insert(long key, int value) {
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) return false;
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        return true;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                insert(oldKeys[j], oldValues[j]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        resizeAt = capacity / 4 * 3;
+    }
+
+    private static int index(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
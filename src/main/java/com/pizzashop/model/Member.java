@@ -4,15 +4,19 @@ package com.pizzashop.model;
 import java.time.LocalDate;
 
 public class Member {
-    private String memberId;
+    // Other tills, the points ledger and order history all key on it, so it never changes
+    private final String memberId;
     private String name;
     private String phone;
     private LocalDate birthDate;
     private LocalDate expireDate;
     private boolean active;
+    // Bumped on every local edit; other tills keep the copy with the highest version
+    private int version;
 
     // Default constructor
     public Member() {
+        this.memberId = null;
         this.active = true;
     }
 
@@ -28,7 +32,6 @@ public class Member {
 
     // Getters and Setters
     public String getMemberId() { return memberId; }
-    public void setMemberId(String memberId) { this.memberId = memberId; }
 
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -45,8 +48,12 @@ public class Member {
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
 
+    public int getVersion() { return version; }
+    void setVersion(int version) { this.version = version; }
+
     // Check if today is member's birthday
     public boolean isBirthday() {
+        LocalDate birthDate = getBirthDate();
         if (birthDate == null) return false;
         LocalDate today = LocalDate.now();
         return today.getMonth() == birthDate.getMonth() &&
@@ -55,12 +62,13 @@ public class Member {
 
     // Check if membership is expired
     public boolean isExpired() {
+        LocalDate expireDate = getExpireDate();
         if (expireDate == null) return false;
         return LocalDate.now().isAfter(expireDate);
     }
 
     @Override
     public String toString() {
-        return name + " (" + memberId + ")";
+        return getName() + " (" + getMemberId() + ")";
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+// MemberHistory.java
+package com.pizzashop.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ประวัติการซื้อของสมาชิกหนึ่งคน
+ * DataManager อัปเดตทุกครั้งที่ saveOrder เพื่อให้ค้นประวัติได้โดยไม่ต้องวนทุกออเดอร์
+ * ออเดอร์ที่ย้ายไปคลัง off-heap แล้วเหลือแค่เลขแถวในคลัง ยอดรวมจึงตรงกับรายการออเดอร์เสมอ
+ */
+public class MemberHistory {
+    private final String memberId;
+    private final List<Order> orders = new ArrayList<>();
+    private long[] archivedRows = new long[0];   // OrderArchive rows, in the order they were archived
+    private int archivedCount;
+    private double lifetimeSpend;
+    private int visitCount;
+    private LocalDateTime lastVisit;
+
+    public MemberHistory(String memberId) {
+        this.memberId = memberId;
+    }
+
+    // Record a saved order
+    void record(Order order) {
+        orders.add(order);
+        lifetimeSpend += order.getTotalPrice();
+        visitCount++;
+        if (lastVisit == null || order.getOrderTime().isAfter(lastVisit)) {
+            lastVisit = order.getOrderTime();
+        }
+    }
+
+    // Forget a removed order
+    void remove(Order order) {
+        if (!orders.remove(order)) return;
+        lifetimeSpend -= order.getTotalPrice();
+        visitCount--;
+        if (order.getOrderTime().equals(lastVisit)) {
+            lastVisit = null;
+            for (Order o : orders) {
+                if (lastVisit == null || o.getOrderTime().isAfter(lastVisit)) {
+                    lastVisit = o.getOrderTime();
+                }
+            }
+        }
+    }
+
+    // The order now lives at this archive row; it stays in the totals
+    void archived(Order order, long row) {
+        if (!orders.remove(order)) return;
+        if (archivedCount == archivedRows.length) {
+            archivedRows = Arrays.copyOf(archivedRows, Math.max(4, archivedCount * 2));
+        }
+        archivedRows[archivedCount++] = row;
+    }
+
+    // A copy for a reader on another thread; DataManager keeps updating the original
+    MemberHistory copy() {
+        MemberHistory copy = new MemberHistory(memberId);
+        copy.orders.addAll(orders);
+        copy.archivedRows = Arrays.copyOf(archivedRows, archivedCount);
+        copy.archivedCount = archivedCount;
+        copy.lifetimeSpend = lifetimeSpend;
+        copy.visitCount = visitCount;
+        copy.lastVisit = lastVisit;
+        return copy;
+    }
+
+    // Getters
+    public String getMemberId() { return memberId; }
+    public List<Order> getOrders() { return Collections.unmodifiableList(orders); }  // not yet archived
+    public int getArchivedCount() { return archivedCount; }
+    long getArchivedRow(int index) { return archivedRows[index]; }
+    public double getLifetimeSpend() { return lifetimeSpend; }
+    public int getVisitCount() { return visitCount; }
+    public LocalDateTime getLastVisit() { return lastVisit; }
+
+    @Override
+    public String toString() {
+        return memberId + " - " + visitCount + " visits, ฿" + String.format("%.2f", lifetimeSpend);
+    }
+}
@@ -0,0 +1,99 @@
+// MemberIdAllocator.java
+package com.pizzashop.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * ออกรหัสสมาชิกแบบไม่ชนกันระหว่างหลายเครื่อง
+ *
+ * แต่ละเครื่องจองเลขเป็นช่วง (block) จาก lease file ที่แชร์กัน โดยล็อกไฟล์เฉพาะตอนจองช่วงใหม่
+ * การออกรหัสปกติแค่เลื่อนตัวนับภายในช่วงที่จองไว้ จึงไม่ต้องประสานงานกับเครื่องอื่น
+ * เลขที่เหลือในช่วงตอนปิดโปรแกรมจะถูกข้ามไป (มีช่องว่างได้ แต่ไม่มีวันซ้ำ)
+ */
+public class MemberIdAllocator {
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+    private static final String PREFIX = "M";
+
+    private final Path leaseFile;     // null = this process is the only allocator
+    private final int blockSize;
+    private long next;
+    private long blockEnd;
+
+    private MemberIdAllocator(Path leaseFile, int blockSize, long firstFree) {
+        this.leaseFile = leaseFile;
+        this.blockSize = blockSize;
+        this.next = firstFree;
+        this.blockEnd = leaseFile == null ? Long.MAX_VALUE : firstFree;
+    }
+
+    // Single till: continue after the highest existing member number
+    public static MemberIdAllocator local(Collection<Member> existing) {
+        return new MemberIdAllocator(null, DEFAULT_BLOCK_SIZE, highestNumber(existing) + 1);
+    }
+
+    // Several tills: lease blocks from a file in the shared directory
+    public static MemberIdAllocator leased(Path leaseFile, int blockSize, Collection<Member> existing) {
+        return new MemberIdAllocator(leaseFile, blockSize, highestNumber(existing) + 1);
+    }
+
+    public synchronized String nextId() {
+        if (next >= blockEnd) {
+            leaseBlock();
+        }
+        return format(next++);
+    }
+
+    // Reserve [start, start + blockSize) under an exclusive file lock
+    private void leaseBlock() {
+        try (FileChannel channel = FileChannel.open(leaseFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock _ = channel.lock()) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            long start = channel.read(buffer, 0) == Long.BYTES ? buffer.flip().getLong() : 1;
+            // Never hand out numbers already in use locally (e.g. preloaded members)
+            start = Math.max(start, next);
+
+            buffer.clear();
+            buffer.putLong(start + blockSize).flip();
+            channel.write(buffer, 0);
+            channel.force(false);
+
+            next = start;
+            blockEnd = start + blockSize;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot lease member IDs from " + leaseFile, e);
+        }
+    }
+
+    // Keeps the historic M0001 style; IDs simply grow wider past M9999
+    // (hand-padded: member views rebuild the ID on every call)
+    static String format(long number) {
+        String digits = Long.toString(number);
+        if (number < 0 || digits.length() >= 4) return PREFIX + digits;
+        return PREFIX + "000".substring(digits.length() - 1) + digits;
+    }
+
+    static long parseNumber(String memberId) {
+        if (memberId == null || !memberId.startsWith(PREFIX)) return -1;
+        try {
+            return Long.parseLong(memberId.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long highestNumber(Collection<Member> members) {
+        long highest = 0;
+        for (Member member : members) {
+            highest = Math.max(highest, parseNumber(member.getMemberId()));
+        }
+        return highest;
+    }
+}
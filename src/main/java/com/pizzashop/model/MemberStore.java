@@ -0,0 +1,279 @@
+// MemberStore.java
+package com.pizzashop.model;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * ที่เก็บสมาชิกแบบกะทัดรัดสำหรับสมาชิกหลักล้านคน
+ *
+ * สมาชิกแต่ละคนเป็นหนึ่ง slot ใน array primitive คู่ขนาน: เลขรหัสสมาชิก, เบอร์โทรเป็น long,
+ * วันเกิด/วันหมดอายุเป็น epoch day, ธงเป็น byte และเวอร์ชันการแก้ไขเป็น int เหลือ String เฉพาะชื่อ
+ * ภายนอกยังเห็นเป็น {@link Member} ผ่าน view ที่อ่าน/เขียนกลับมาที่ slot เดิม
+ * การเพิ่มและการแก้ผ่าน view ทำภายใต้ lock ที่ส่งเข้ามา (DataManager ใช้ตัวเอง) จึงไม่หายระหว่างขยาย array
+ * ถ้าเปิด {@link #indexPhones()} เบอร์จะถูก normalize และดัชนีเบอร์ตามทันเมื่อเพิ่มหรือแก้เบอร์
+ */
+public class MemberStore {
+    static final int NO_DATE = Integer.MIN_VALUE;
+    private static final byte FLAG_ACTIVE = 1;
+    // idNumbers entry for an ID that is not in MemberIdAllocator's M0001 form
+    private static final int ODD_ID = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] idNumbers;
+    private String[] names;
+    private long[] phones;        // PhoneIndex.pack, or NOT_PACKED with the text in oddPhones
+    private int[] birthDays;
+    private int[] expireDays;
+    private byte[] flags;
+    private int[] versions;
+    private volatile int size;
+
+    private final LongIntMap slotByNumber;
+    // Rare irregular values stay as Strings on the side
+    private final Map<Integer, String> oddIds = new HashMap<>();
+    private final Map<String, Integer> slotByOddId = new HashMap<>();
+    private final Map<Integer, String> oddPhones = new HashMap<>();
+
+    private final List<Member> list = new MemberList();
+    private final Object lock;
+    private PhoneIndex phoneIndex;   // null until indexPhones()
+
+    public MemberStore(int expected) {
+        this(expected, null);
+    }
+
+    // Adds and view setters synchronize on lock, or on the store itself if it is null
+    public MemberStore(int expected, Object lock) {
+        this.lock = lock != null ? lock : this;
+        int capacity = Math.max(MIN_CAPACITY, expected);
+        idNumbers = new int[capacity];
+        names = new String[capacity];
+        phones = new long[capacity];
+        birthDays = new int[capacity];
+        expireDays = new int[capacity];
+        flags = new byte[capacity];
+        versions = new int[capacity];
+        slotByNumber = new LongIntMap(capacity);
+    }
+
+    // Keep a phone index in step with the store from now on; phones are normalized from here
+    public PhoneIndex indexPhones() {
+        synchronized (lock) {
+            if (phoneIndex == null) {
+                phoneIndex = new PhoneIndex(this::getPhone);
+                for (int slot = 0; slot < size; slot++) {
+                    writePhone(slot, PhoneIndex.normalize(getPhone(slot)));
+                    phoneIndex.add(getPhone(slot), slot);
+                }
+            }
+            return phoneIndex;
+        }
+    }
+
+    // Copy the member into a new slot and return the view that replaces it
+    public Member add(Member member) {
+        synchronized (lock) {
+            return addLocked(member);
+        }
+    }
+
+    private Member addLocked(Member member) {
+        int slot = size;
+        if (slot == names.length) {
+            grow();
+        }
+        String memberId = member.getMemberId();
+        int number = packId(memberId);
+        idNumbers[slot] = number;
+        if (number == ODD_ID) {
+            oddIds.put(slot, memberId);
+            slotByOddId.putIfAbsent(memberId, slot);
+        } else {
+            slotByNumber.putIfAbsent(number, slot);
+        }
+        names[slot] = member.getName();
+        String phone = phoneIndex != null ? PhoneIndex.normalize(member.getPhone()) : member.getPhone();
+        writePhone(slot, phone);
+        birthDays[slot] = toEpochDay(member.getBirthDate());
+        expireDays[slot] = toEpochDay(member.getExpireDate());
+        flags[slot] = member.isActive() ? FLAG_ACTIVE : 0;
+        versions[slot] = member.getVersion();
+        size = slot + 1;
+        if (phoneIndex != null) {
+            phoneIndex.add(phone, slot);
+        }
+        return new View(slot);
+    }
+
+    public Member get(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("slot " + slot + ", size " + size);
+        }
+        return new View(slot);
+    }
+
+    // Returns the slot of the first member with this ID, or -1
+    public int slotOf(String memberId) {
+        int number = packId(memberId);
+        if (number != ODD_ID) return slotByNumber.get(number);
+        Integer slot = slotByOddId.get(memberId);
+        return slot != null ? slot : -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Read-only list of views, in slot order
+    public List<Member> asList() {
+        return list;
+    }
+
+    String getPhone(int slot) {
+        long packed = phones[slot];
+        return packed == PhoneIndex.NOT_PACKED ? oddPhones.get(slot) : PhoneIndex.unpack(packed);
+    }
+
+    // === Slot encoding ===
+
+    // M0001 -> 1 when MemberIdAllocator.format gives the same ID back, otherwise ODD_ID
+    private static int packId(String memberId) {
+        if (memberId == null || memberId.length() < 5 || memberId.charAt(0) != 'M') return ODD_ID;
+        // format pads to four digits, so a wider ID never starts with 0
+        if (memberId.length() > 5 && memberId.charAt(1) == '0') return ODD_ID;
+        long number = 0;
+        for (int i = 1; i < memberId.length(); i++) {
+            char c = memberId.charAt(i);
+            if (c < '0' || c > '9') return ODD_ID;
+            number = number * 10 + (c - '0');
+            if (number > Integer.MAX_VALUE) return ODD_ID;
+        }
+        return (int) number;
+    }
+
+    private void writePhone(int slot, String phone) {
+        long packed = PhoneIndex.pack(phone);
+        phones[slot] = packed;
+        if (packed == PhoneIndex.NOT_PACKED) {
+            oddPhones.put(slot, phone);
+        } else {
+            oddPhones.remove(slot);
+        }
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate fromEpochDay(int day) {
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    private void grow() {
+        int capacity = names.length + (names.length >> 1);
+        idNumbers = Arrays.copyOf(idNumbers, capacity);
+        names = Arrays.copyOf(names, capacity);
+        phones = Arrays.copyOf(phones, capacity);
+        birthDays = Arrays.copyOf(birthDays, capacity);
+        expireDays = Arrays.copyOf(expireDays, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+    }
+
+    /**
+     * Member ที่ไม่มีข้อมูลของตัวเอง อ่าน/เขียนผ่าน slot ใน store
+     * สร้างใหม่ได้ทุกครั้งที่ค้น view สองตัวของ slot เดียวกันถือว่าเท่ากัน
+     */
+    private final class View extends Member {
+        private final int slot;
+        private String memberId;   // formatted on first use; a slot's ID never changes
+
+        View(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getMemberId() {
+            String id = memberId;
+            if (id == null) {
+                int number = idNumbers[slot];
+                id = number == ODD_ID ? oddIds.get(slot) : MemberIdAllocator.format(number);
+                memberId = id;
+            }
+            return id;
+        }
+
+        @Override public String getName() { return names[slot]; }
+        @Override public void setName(String name) {
+            synchronized (lock) { names[slot] = name; }
+        }
+
+        @Override public String getPhone() { return MemberStore.this.getPhone(slot); }
+        @Override public void setPhone(String phone) {
+            synchronized (lock) {
+                if (phoneIndex == null) {
+                    writePhone(slot, phone);
+                    return;
+                }
+                String normalized = PhoneIndex.normalize(phone);
+                if (normalized.equals(MemberStore.this.getPhone(slot))) return;
+                writePhone(slot, normalized);
+                phoneIndex.update(normalized, slot);
+            }
+        }
+
+        @Override public LocalDate getBirthDate() { return fromEpochDay(birthDays[slot]); }
+        @Override public void setBirthDate(LocalDate birthDate) {
+            synchronized (lock) { birthDays[slot] = toEpochDay(birthDate); }
+        }
+
+        @Override public LocalDate getExpireDate() { return fromEpochDay(expireDays[slot]); }
+        @Override public void setExpireDate(LocalDate expireDate) {
+            synchronized (lock) { expireDays[slot] = toEpochDay(expireDate); }
+        }
+
+        @Override public boolean isActive() { return (flags[slot] & FLAG_ACTIVE) != 0; }
+        @Override public void setActive(boolean active) {
+            synchronized (lock) {
+                flags[slot] = (byte) (active ? flags[slot] | FLAG_ACTIVE : flags[slot] & ~FLAG_ACTIVE);
+            }
+        }
+
+        @Override public int getVersion() { return versions[slot]; }
+        @Override void setVersion(int version) {
+            synchronized (lock) { versions[slot] = version; }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof View view && view.slot == slot && view.store() == MemberStore.this;
+        }
+
+        @Override
+        public int hashCode() {
+            return slot;
+        }
+
+        private MemberStore store() {
+            return MemberStore.this;
+        }
+    }
+
+    private final class MemberList extends AbstractList<Member> implements RandomAccess {
+        @Override
+        public Member get(int index) {
+            return MemberStore.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+// MenuCatalog.java
+package com.pizzashop.model;
+
+import java.util.*;
+
+/**
+ * เมนูสินค้าแบบ immutable ที่เก็บทุกเวอร์ชันของสินค้า
+ *
+ * สินค้าแต่ละตัวมี catalog index ที่คงที่ตลอด และทุกครั้งที่ราคาหรือรายละเอียดเปลี่ยน
+ * จะได้ Item เวอร์ชันใหม่ ส่วนเวอร์ชันเก่ายังอยู่ให้ออเดอร์ย้อนหลังอ้างอิงได้ตรงตามจริง
+ * การเปลี่ยนเมนูจะสร้าง MenuCatalog ใหม่ทั้งก้อน แล้ว DataManager สลับ reference ทีเดียว
+ */
+public final class MenuCatalog {
+    private final Item[] current;       // latest version by catalog index, null when retired
+    private final Item[][] versions;    // every version by catalog index, version n at [n]
+    private final Map<String, Integer> indexById;
+    private final Map<String, List<Item>> itemsByCategory;
+    private final List<Item> items;
+    private final List<String> categories;
+    private final long generation;
+
+    private MenuCatalog(Item[] current, Item[][] versions, Map<String, Integer> indexById, long generation) {
+        this.current = current;
+        this.versions = versions;
+        this.indexById = indexById;
+        this.generation = generation;
+
+        List<Item> active = new ArrayList<>();
+        Map<String, List<Item>> byCategory = new HashMap<>();
+        for (Item item : current) {
+            if (item == null) continue;
+            active.add(item);
+            byCategory.computeIfAbsent(item.getCategory().toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(item);
+        }
+        byCategory.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+        this.items = Collections.unmodifiableList(active);
+        this.itemsByCategory = byCategory;
+        this.categories = active.stream()
+                .map(Item::getCategory)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    public static MenuCatalog empty() {
+        return new MenuCatalog(new Item[0], new Item[0][], Map.of(), 0);
+    }
+
+    // === Lookups ===
+
+    public List<Item> getItems() { return items; }
+    public List<String> getCategories() { return categories; }
+    public int size() { return items.size(); }
+    public long getGeneration() { return generation; }
+
+    public List<Item> getItemsByCategory(String category) {
+        return itemsByCategory.getOrDefault(category.toLowerCase(Locale.ROOT), List.of());
+    }
+
+    // Latest version of an active item
+    public Item findById(String id) {
+        Integer index = indexById.get(id);
+        return index != null ? current[index] : null;
+    }
+
+    // Exact version, including retired items and old prices
+    public Item findVersion(String id, int version) {
+        Integer index = indexById.get(id);
+        return index != null ? get(index, version) : null;
+    }
+
+    // Latest version by catalog index, null when retired
+    public Item get(int catalogIndex) {
+        return catalogIndex >= 0 && catalogIndex < current.length ? current[catalogIndex] : null;
+    }
+
+    public Item get(int catalogIndex, int version) {
+        if (catalogIndex < 0 || catalogIndex >= versions.length) return null;
+        Item[] history = versions[catalogIndex];
+        return version >= 0 && version < history.length ? history[version] : null;
+    }
+
+    // Number of catalog indexes ever assigned (active and retired)
+    public int indexCount() { return versions.length; }
+
+    // === Changes (return a new catalog) ===
+
+    public MenuCatalog withPrice(String id, double price) {
+        Item item = findById(id);
+        if (item == null) {
+            throw new IllegalArgumentException("Unknown item: " + id);
+        }
+        return toBuilder()
+                .put(id, item.getName(), price, item.getCategory(), item.getDescription())
+                .build();
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this, true);
+    }
+
+    // Start from this catalog's history but with an empty menu, for full reloads
+    public Builder rebuild() {
+        return new Builder(this, false);
+    }
+
+    public static Builder builder() {
+        return new Builder(empty(), false);
+    }
+
+    /**
+     * สร้าง catalog ใหม่จาก catalog เดิม
+     * สินค้าที่ไม่เปลี่ยนใช้ Item ตัวเดิม (interned) สินค้าที่เปลี่ยนได้เวอร์ชันใหม่ที่ index เดิม
+     */
+    public static final class Builder {
+        private final MenuCatalog base;
+        private final List<Item> current;
+        private final List<Item[]> versions;
+        private final Map<String, Integer> indexById;
+
+        private Builder(MenuCatalog base, boolean keepCurrent) {
+            this.base = base;
+            this.current = new ArrayList<>(Arrays.asList(base.current));
+            this.versions = new ArrayList<>(Arrays.asList(base.versions));
+            this.indexById = new HashMap<>(base.indexById);
+            if (!keepCurrent) {
+                Collections.fill(current, null);
+            }
+        }
+
+        public Builder put(String id, String name, double price, String category, String description) {
+            Integer index = indexById.get(id);
+            if (index == null) {
+                index = versions.size();
+                Item item = new Item(id, name, price, category, description, index, 0);
+                indexById.put(id, index);
+                versions.add(new Item[]{item});
+                current.add(item);
+                return this;
+            }
+
+            Item[] history = versions.get(index);
+            Item latest = history[history.length - 1];
+            if (latest.sameContent(name, price, category, description)) {
+                current.set(index, latest);
+                return this;
+            }
+
+            Item next = new Item(id, name, price, category, description, index, history.length);
+            Item[] extended = Arrays.copyOf(history, history.length + 1);
+            extended[history.length] = next;
+            versions.set(index, extended);
+            current.set(index, next);
+            return this;
+        }
+
+        public Builder remove(String id) {
+            Integer index = indexById.get(id);
+            if (index != null) {
+                current.set(index, null);
+            }
+            return this;
+        }
+
+        public MenuCatalog build() {
+            return new MenuCatalog(current.toArray(new Item[0]), versions.toArray(new Item[0][]),
+                    Collections.unmodifiableMap(indexById), base.generation + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MenuCatalog #" + generation + " - " + items.size() + " items";
+    }
+}
@@ -0,0 +1,89 @@
+// MenuFileLoader.java
+package com.pizzashop.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * อ่านเมนูจากไฟล์ CSV แล้วสร้าง MenuCatalog ใหม่
+ *
+ * รูปแบบไฟล์: id,name,price,category,description (บรรทัดแรกเป็น header)
+ * ฟิลด์ที่มี comma ให้ครอบด้วย "..." และใช้ "" แทนเครื่องหมายคำพูด
+ * บรรทัดว่างและบรรทัดที่ขึ้นต้นด้วย # จะถูกข้าม
+ */
+public final class MenuFileLoader {
+    private static final int COLUMN_COUNT = 5;
+
+    private MenuFileLoader() {}
+
+    // Items keep their catalog index and get a new version only when they changed
+    public static MenuCatalog load(Path file, MenuCatalog previous) throws IOException {
+        MenuCatalog.Builder builder = previous.rebuild();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            boolean header = true;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) continue;
+                if (header) {
+                    header = false;
+                    continue;
+                }
+
+                List<String> fields = parseLine(line);
+                if (fields.size() != COLUMN_COUNT) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": expected "
+                            + COLUMN_COUNT + " columns but found " + fields.size());
+                }
+
+                double price;
+                try {
+                    price = Double.parseDouble(fields.get(2));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": invalid price " + fields.get(2));
+                }
+                builder.put(fields.get(0), fields.get(1), price, fields.get(3), fields.get(4));
+            }
+        }
+        return builder.build();
+    }
+
+    // Split one CSV line, honouring quotes
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>(COLUMN_COUNT);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
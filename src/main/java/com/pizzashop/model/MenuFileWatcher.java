@@ -0,0 +1,90 @@
+// MenuFileWatcher.java
+package com.pizzashop.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+
+/**
+ * เฝ้าดูไฟล์เมนูใน background thread
+ * เมื่อไฟล์เปลี่ยนจะ parse ใหม่ทั้งไฟล์แล้วสลับ catalog ใน DataManager ทีเดียว
+ * ถ้าไฟล์ผิดรูปแบบจะเก็บ catalog เดิมไว้และรอการแก้ไขครั้งถัดไป
+ */
+public class MenuFileWatcher implements Closeable {
+    // Editors often write a file in several steps, wait for them to finish
+    private static final long SETTLE_MILLIS = 200;
+
+    private final Path file;
+    private final DataManager dataManager;
+    private final WatchService watchService;
+    private Thread thread;
+    private volatile boolean running = true;
+
+    public MenuFileWatcher(Path file, DataManager dataManager) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.dataManager = dataManager;
+        this.watchService = this.file.getFileSystem().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = new Thread(this::watchLoop, "menu-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watchLoop() {
+        Path fileName = file.getFileName();
+        while (running) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (fileName.equals(event.context())) {
+                    changed = true;
+                }
+            }
+            key.reset();
+
+            if (changed) {
+                try {
+                    Thread.sleep(SETTLE_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // Drop the events caused by the same save
+                WatchKey pending = watchService.poll();
+                if (pending != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                reload();
+            }
+        }
+    }
+
+    // Parse off the UI thread, then publish with a single reference swap
+    public void reload() {
+        try {
+            dataManager.loadMenuFile(file);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Menu reload failed, keeping current menu: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        running = false;
+        watchService.close();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
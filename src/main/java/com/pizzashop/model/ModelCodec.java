@@ -0,0 +1,344 @@
+// ModelCodec.java
+package com.pizzashop.model;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Binary codec สำหรับ Item, Member และ Order
+ *
+ * ทุก record ขึ้นต้นด้วย schema version และ record type หนึ่งไบต์
+ * ออเดอร์อ้างอิงสินค้าด้วย ID + เวอร์ชัน และสมาชิกด้วย ID เท่านั้น (ไม่ฝัง object ทั้งก้อน)
+ * แต่ละบรรทัดพกชื่อ ราคา และหมวดตอนขายไว้ด้วย เพราะเลขเวอร์ชันของเมนูเริ่มใหม่เมื่อเปิดโปรแกรม
+ * สมาชิกมีเลขเวอร์ชันการแก้ไข ให้เครื่องอื่นเลือกข้อมูลที่ใหม่กว่า
+ * จำนวนเก็บเป็น varint และเงินเก็บเป็น fixed-point หน่วยสตางค์
+ * การ decode อ่านตรงจาก ByteBuffer โดยไม่คัดลอก record ออกมาก่อน
+ */
+public final class ModelCodec {
+    public static final byte SCHEMA_VERSION = 4;
+    // Version 1 wrote dates as epoch day + 1, so 1969-12-31 read back as null; still readable
+    private static final byte SCHEMA_VERSION_DATE_PLUS_ONE = 1;
+    // Versions before 3 had no member edit version; those members read back as version 0
+    private static final byte SCHEMA_VERSION_MEMBER_VERSION = 3;
+    // Versions before 4 kept only the item ID and catalog version on order lines
+    private static final byte SCHEMA_VERSION_SOLD_ITEM = 4;
+
+    public static final byte TYPE_ITEM = 1;
+    public static final byte TYPE_MEMBER = 2;
+    public static final byte TYPE_ORDER = 3;
+
+    // 1 baht = 100 satang
+    private static final int MONEY_SCALE = 100;
+
+    // Null date: an epoch day no LocalDate can have
+    private static final long NULL_DATE = LocalDate.MIN.toEpochDay() - 1;
+
+    private static final int FLAG_DINE_IN = 1;
+    private static final int FLAG_FREE_WEDNESDAY_PIZZA = 1 << 1;
+    private static final int FLAG_ACTIVE = 1;
+
+    private ModelCodec() {}
+
+    // === Item ===
+
+    public static void encodeItem(Item item, ByteBuffer out) {
+        writeHeader(out, TYPE_ITEM);
+        writeString(out, item.getId());
+        writeString(out, item.getName());
+        writeMoney(out, item.getPrice());
+        writeString(out, item.getCategory());
+        writeString(out, item.getDescription());
+    }
+
+    public static Item decodeItem(ByteBuffer in) {
+        readHeader(in, TYPE_ITEM);
+        String id = readString(in);
+        String name = readString(in);
+        double price = readMoney(in);
+        String category = readString(in);
+        String description = readString(in);
+        return new Item(id, name, price, category, description);
+    }
+
+    // === Member ===
+
+    public static void encodeMember(Member member, ByteBuffer out) {
+        writeHeader(out, TYPE_MEMBER);
+        writeString(out, member.getMemberId());
+        writeString(out, member.getName());
+        writeString(out, member.getPhone());
+        writeDate(out, member.getBirthDate());
+        writeDate(out, member.getExpireDate());
+        out.put((byte) (member.isActive() ? FLAG_ACTIVE : 0));
+        writeVarLong(out, member.getVersion());
+    }
+
+    public static Member decodeMember(ByteBuffer in) {
+        byte version = readHeader(in, TYPE_MEMBER);
+        String memberId = readString(in);
+        String name = readString(in);
+        String phone = readString(in);
+        LocalDate birthDate = readDate(in, version);
+        LocalDate expireDate = readDate(in, version);
+        Member member = new Member(memberId, name, phone, birthDate, expireDate);
+        member.setActive((in.get() & FLAG_ACTIVE) != 0);
+        if (version >= SCHEMA_VERSION_MEMBER_VERSION) {
+            member.setVersion((int) readVarLong(in));
+        }
+        return member;
+    }
+
+    // === Order ===
+
+    public static void encodeOrder(Order order, ByteBuffer out) {
+        writeHeader(out, TYPE_ORDER);
+        writeString(out, order.getOrderId());
+        writeString(out, order.getMember() != null ? order.getMember().getMemberId() : null);
+
+        int flags = 0;
+        if (order.isDineIn()) flags |= FLAG_DINE_IN;
+        if (order.hasFreeWednesdayPizza()) flags |= FLAG_FREE_WEDNESDAY_PIZZA;
+        out.put((byte) flags);
+
+        writeDateTime(out, order.getOrderTime());
+        writeMoney(out, order.getTotalPrice());
+        writeMoney(out, order.getTotalSavings());
+
+        List<OrderItem> orderItems = order.getOrderItems();
+        writeVarLong(out, orderItems.size());
+        for (OrderItem orderItem : orderItems) {
+            writeLine(out, orderItem.getItem(), orderItem.getQuantity(), orderItem.getTotal());
+        }
+    }
+
+    // Same record as encodeOrder, straight from the off-heap archive without building an Order
+    static void encodeArchivedOrder(OrderArchive.View row, ByteBuffer out) {
+        writeHeader(out, TYPE_ORDER);
+        writeString(out, row.getOrderId());
+        writeString(out, row.getMemberId());
+
+        int flags = 0;
+        if (row.isDineIn()) flags |= FLAG_DINE_IN;
+        if (row.hasFreeWednesdayPizza()) flags |= FLAG_FREE_WEDNESDAY_PIZZA;
+        out.put((byte) flags);
+
+        writeSignedVarLong(out, row.getEpochSecond());
+        writeVarLong(out, 0);
+        writeMoney(out, row.getTotalPrice());
+        writeMoney(out, row.getTotalSavings());
+
+        writeVarLong(out, row.getLineCount());
+        for (int line = 0; line < row.getLineCount(); line++) {
+            writeLine(out, row.getLineItem(line), row.getLineQuantity(line), row.getLineTotal(line));
+        }
+    }
+
+    private static void writeLine(ByteBuffer out, Item item, int quantity, double lineTotal) {
+        writeString(out, item.getId());
+        writeVarLong(out, item.getVersion());
+        writeVarLong(out, quantity);
+        writeMoney(out, lineTotal);
+        writeString(out, item.getName());
+        writeMoney(out, item.getPrice());
+        writeString(out, item.getCategory());
+    }
+
+    /**
+     * อ่านออเดอร์กลับมา โดยหา Item และ Member จาก DataManager ตาม ID
+     * ยอดเงินที่บันทึกไว้จะถูกใช้ตามเดิม ไม่คำนวณโปรโมชั่นใหม่
+     */
+    public static Order decodeOrder(ByteBuffer in, DataManager dataManager) {
+        byte recordVersion = readHeader(in, TYPE_ORDER);
+        String orderId = readString(in);
+        String memberId = readString(in);
+        int flags = in.get();
+        LocalDateTime orderTime = readDateTime(in);
+        double totalPrice = readMoney(in);
+        double totalSavings = readMoney(in);
+
+        int lineCount = (int) readVarLong(in);
+        List<OrderItem> orderItems = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            String itemId = readString(in);
+            int version = (int) readVarLong(in);
+            int quantity = (int) readVarLong(in);
+            double lineTotal = readMoney(in);
+
+            Item item;
+            if (recordVersion >= SCHEMA_VERSION_SOLD_ITEM) {
+                String name = readString(in);
+                double price = readMoney(in);
+                String category = readString(in);
+                item = soldItem(dataManager.getCatalog(), itemId, version, name, price, category);
+            } else {
+                // Resolve the exact version that was sold, fall back to the current menu
+                item = dataManager.getCatalog().findVersion(itemId, version);
+                if (item == null) {
+                    item = dataManager.findItemById(itemId);
+                }
+                if (item == null) {
+                    throw new IllegalArgumentException("Unknown item in order " + orderId + ": " + itemId);
+                }
+            }
+            OrderItem orderItem = new OrderItem(item, quantity);
+            orderItem.setTotal(lineTotal);
+            orderItems.add(orderItem);
+        }
+
+        Member member = memberId != null ? dataManager.findMemberById(memberId) : null;
+        Order order = new Order(orderId, member, (flags & FLAG_DINE_IN) != 0);
+        order.setOrderTime(orderTime);
+        order.setOrderItems(orderItems);
+        // setOrderItems recalculates with today's promotions, restore the recorded totals
+        order.setTotalPrice(totalPrice);
+        order.setTotalSavings(totalSavings);
+        order.setHasFreeWednesdayPizza((flags & FLAG_FREE_WEDNESDAY_PIZZA) != 0);
+        return order;
+    }
+
+    // The catalog item if it still has the name and price that were sold, otherwise an off-menu copy
+    private static Item soldItem(MenuCatalog catalog, String id, int version, String name, double price,
+                                 String category) {
+        Item item = catalog.findVersion(id, version);
+        if (item != null && soldAs(item, name, price)) return item;
+        Item current = catalog.findById(id);
+        if (current != null && soldAs(current, name, price)) return current;
+        return new Item(id, name, price, category, current != null ? current.getDescription() : null);
+    }
+
+    private static boolean soldAs(Item item, String name, double price) {
+        return Objects.equals(item.getName(), name) && item.getPrice() == price;
+    }
+
+    // Peek at the record type without consuming it
+    public static byte peekType(ByteBuffer in) {
+        return in.get(in.position() + 1);
+    }
+
+    // Member ID of an encoded order, without consuming the buffer
+    public static String peekOrderMemberId(ByteBuffer in) {
+        ByteBuffer view = in.duplicate();
+        readHeader(view, TYPE_ORDER);
+        readString(view);
+        return readString(view);
+    }
+
+    // === Primitives ===
+
+    private static void writeHeader(ByteBuffer out, byte type) {
+        out.put(SCHEMA_VERSION);
+        out.put(type);
+    }
+
+    // Returns the schema version the record was written with
+    private static byte readHeader(ByteBuffer in, byte expectedType) {
+        byte version = in.get();
+        if (version < SCHEMA_VERSION_DATE_PLUS_ONE || version > SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported schema version: " + version);
+        }
+        byte type = in.get();
+        if (type != expectedType) {
+            throw new IllegalArgumentException("Expected record type " + expectedType + " but was " + type);
+        }
+        return version;
+    }
+
+    static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    // Zig-zag keeps small negative numbers small
+    static void writeSignedVarLong(ByteBuffer out, long value) {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readSignedVarLong(ByteBuffer in) {
+        long raw = readVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    static void writeMoney(ByteBuffer out, double amount) {
+        writeSignedVarLong(out, Math.round(amount * MONEY_SCALE));
+    }
+
+    static double readMoney(ByteBuffer in) {
+        return (double) readSignedVarLong(in) / MONEY_SCALE;
+    }
+
+    // null is written as length 0, the empty string as length 1 with no bytes
+    static void writeString(ByteBuffer out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.put(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) return null;
+        if (length > in.remaining()) throw new BufferUnderflowException();
+
+        String value;
+        if (in.hasArray()) {
+            // Decode straight out of the backing array
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    // Dates are stored as the epoch day, null as NULL_DATE
+    static void writeDate(ByteBuffer out, LocalDate date) {
+        writeSignedVarLong(out, date == null ? NULL_DATE : date.toEpochDay());
+    }
+
+    static LocalDate readDate(ByteBuffer in, byte version) {
+        long value = readSignedVarLong(in);
+        if (version == SCHEMA_VERSION_DATE_PLUS_ONE) {
+            return value == 0 ? null : LocalDate.ofEpochDay(value - 1);
+        }
+        return value == NULL_DATE ? null : LocalDate.ofEpochDay(value);
+    }
+
+    // Local wall-clock time as epoch seconds + nanos
+    static void writeDateTime(ByteBuffer out, LocalDateTime time) {
+        writeSignedVarLong(out, time.toEpochSecond(ZoneOffset.UTC));
+        writeVarLong(out, time.getNano());
+    }
+
+    static LocalDateTime readDateTime(ByteBuffer in) {
+        long epochSecond = readSignedVarLong(in);
+        int nano = (int) readVarLong(in);
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+}
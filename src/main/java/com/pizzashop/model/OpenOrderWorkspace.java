@@ -0,0 +1,198 @@
+// OpenOrderWorkspace.java
+package com.pizzashop.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ออเดอร์ที่ยังไม่ชำระของเครื่องคิดเงินหนึ่งเครื่อง
+ *
+ * พักออเดอร์โต๊ะไว้ แล้วรับลูกค้าซื้อกลับก่อน จากนั้นค่อยเรียกออเดอร์เดิมกลับมาได้
+ * การสลับออเดอร์แค่เปลี่ยน reference ไม่มีการคัดลอกรายการสินค้า
+ * จำกัดจำนวนออเดอร์ที่เปิดค้างได้ และออเดอร์ที่ไม่ได้แตะนานเกินกำหนดจะถูกทิ้งอัตโนมัติ
+ */
+public class OpenOrderWorkspace {
+    public static final int DEFAULT_MAX_OPEN_ORDERS = 20;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofHours(3);
+
+    private final String terminalId;
+    private final int maxOpenOrders;
+    private final Duration idleTimeout;
+
+    // Insertion order = order in which carts were opened
+    private final Map<String, OpenOrder> openOrders = new LinkedHashMap<>();
+    private OpenOrder active;
+
+    public OpenOrderWorkspace(String terminalId) {
+        this(terminalId, DEFAULT_MAX_OPEN_ORDERS, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public OpenOrderWorkspace(String terminalId, int maxOpenOrders, Duration idleTimeout) {
+        this.terminalId = terminalId;
+        this.maxOpenOrders = maxOpenOrders;
+        this.idleTimeout = idleTimeout;
+    }
+
+    // Start working on a new cart; the previous active cart stays parked
+    public synchronized void open(Order order, String label) {
+        expireIdle();
+        if (openOrders.size() >= maxOpenOrders) {
+            throw new IllegalStateException("Terminal " + terminalId + " already has "
+                    + maxOpenOrders + " open orders");
+        }
+        OpenOrder openOrder = new OpenOrder(order, label);
+        openOrders.put(order.getOrderId(), openOrder);
+        active = openOrder;
+    }
+
+    // Park the active cart under a label (e.g. table number)
+    public synchronized void parkActive(String label) {
+        if (active != null) {
+            active.label = label;
+            active.touch();
+            active = null;
+        }
+    }
+
+    // Switch to a parked cart
+    public synchronized Order resume(String orderId) {
+        expireIdle();
+        OpenOrder openOrder = openOrders.get(orderId);
+        if (openOrder == null) {
+            return null;
+        }
+        if (active != null) {
+            active.touch();
+        }
+        openOrder.touch();
+        active = openOrder;
+        return openOrder.order;
+    }
+
+    // Remove after checkout or cancel
+    public synchronized void close(String orderId) {
+        OpenOrder removed = openOrders.remove(orderId);
+        if (removed != null) {
+            removed.order.releaseStock();  // no-op once the order was saved
+            removed.order.releasePoints();
+            if (removed == active) {
+                active = null;
+            }
+        }
+    }
+
+    public synchronized Order getActive() {
+        return active != null ? active.order : null;
+    }
+
+    // Record activity on the active cart so it does not expire
+    public synchronized void touchActive() {
+        if (active != null) {
+            active.touch();
+        }
+    }
+
+    // Lightweight summaries of the parked carts, oldest first
+    public synchronized List<OpenOrderSummary> getParkedOrders() {
+        expireIdle();
+        List<OpenOrderSummary> result = new ArrayList<>(openOrders.size());
+        for (OpenOrder openOrder : openOrders.values()) {
+            if (openOrder != active) {
+                result.add(openOrder.summary());
+            }
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return openOrders.size();
+    }
+
+    // Drop carts nobody touched within the idle timeout; returns what the dropped carts held
+    public synchronized List<OpenOrderSummary> expireIdle() {
+        List<OpenOrderSummary> expired = new ArrayList<>();
+        LocalDateTime cutoff = LocalDateTime.now().minus(idleTimeout);
+        Iterator<OpenOrder> it = openOrders.values().iterator();
+        while (it.hasNext()) {
+            OpenOrder openOrder = it.next();
+            if (openOrder != active && openOrder.lastTouched.isBefore(cutoff)) {
+                it.remove();
+                expired.add(openOrder.summary());
+                openOrder.order.releaseStock();
+                openOrder.order.releasePoints();
+                // Nothing else refers to an expired cart, so a pooled one can be reused right away
+                OrderPool pool = openOrder.order.getPool();
+                if (pool != null) {
+                    pool.recycle(openOrder.order);
+                }
+            }
+        }
+        return expired;
+    }
+
+    public String getTerminalId() { return terminalId; }
+
+    private static class OpenOrder {
+        private final Order order;
+        private String label;
+        private LocalDateTime lastTouched;
+
+        OpenOrder(Order order, String label) {
+            this.order = order;
+            this.label = label;
+            touch();
+        }
+
+        void touch() {
+            lastTouched = LocalDateTime.now();
+        }
+
+        OpenOrderSummary summary() {
+            int quantity = 0;
+            for (OrderItem item : order.getOrderItems()) {
+                quantity += item.getQuantity();
+            }
+            return new OpenOrderSummary(order.getOrderId(), label, order.isDineIn(),
+                    quantity, order.getTotalPrice(), lastTouched);
+        }
+    }
+
+    /**
+     * ข้อมูลย่อของออเดอร์ที่พักไว้ สำหรับแสดงในรายการให้เลือก
+     */
+    public static class OpenOrderSummary {
+        private final String orderId;
+        private final String label;
+        private final boolean dineIn;
+        private final int itemCount;
+        private final double totalPrice;
+        private final LocalDateTime lastTouched;
+
+        OpenOrderSummary(String orderId, String label, boolean dineIn, int itemCount,
+                         double totalPrice, LocalDateTime lastTouched) {
+            this.orderId = orderId;
+            this.label = label;
+            this.dineIn = dineIn;
+            this.itemCount = itemCount;
+            this.totalPrice = totalPrice;
+            this.lastTouched = lastTouched;
+        }
+
+        public String getOrderId() { return orderId; }
+        public String getLabel() { return label; }
+        public boolean isDineIn() { return dineIn; }
+        public int getItemCount() { return itemCount; }
+        public double getTotalPrice() { return totalPrice; }
+        public LocalDateTime getLastTouched() { return lastTouched; }
+
+        @Override
+        public String toString() {
+            return label + " (" + itemCount + " ชิ้น, ฿" + String.format("%.2f", totalPrice) + ")";
+        }
+    }
+}
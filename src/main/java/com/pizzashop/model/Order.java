@@ -1,9 +1,12 @@
 // Order.java
 package com.pizzashop.model;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class Order {
     private String orderId;
@@ -14,20 +17,44 @@ public class Order {
     private double totalPrice;
     private double totalSavings;
     private boolean hasFreeWednesdayPizza;
+    private boolean totalsStale;               // lines or member changed since the last calculation
+    private List<OrderListener> listeners;     // created on first addListener
+    private Inventory inventory;               // reserves stock while the cart is open, null once saved
+    private PointsLedger pointsLedger;         // holds points while the cart is open, null once saved
+    private long heldPoints;                   // held on the member's account
+    private long redeemedPoints;               // part of heldPoints the current total can use
+    private Voucher voucher;                   // checked but not yet redeemed until the order is saved
+    private double voucherDiscount;            // part of the voucher the current total can use
+    private final OrderPool pool;              // lines come from and go back to it, null when not pooled
+    Order savedCopy;                           // frozen copy DataManager keeps for a saved pooled cart
+
+    // Day of week for the promotion, looked up again only after midnight
+    private static volatile Today today;
 
     // Default constructor
     public Order() {
-        this.orderItems = new ArrayList<>();
+        this((OrderPool) null);
         this.orderTime = LocalDateTime.now();
+        generateOrderId();
+    }
+
+    // Bare order without ID or time, for pooled carts (reopen)
+    Order(OrderPool pool) {
+        this(pool, new ArrayList<>());
+    }
+
+    private Order(OrderPool pool, List<OrderItem> orderItems) {
+        this.pool = pool;
+        this.orderItems = orderItems;
         this.totalPrice = 0.0;
         this.totalSavings = 0.0;
         this.hasFreeWednesdayPizza = false;
-        generateOrderId();
     }
 
     // Constructor with parameters
     public Order(String orderId, Member member, boolean dineIn) {
-        this();
+        this((OrderPool) null);
+        this.orderTime = LocalDateTime.now();
         this.orderId = orderId;
         this.member = member;
         this.dineIn = dineIn;
@@ -43,16 +70,220 @@ public class Order {
     // Add item to order
     public void addItem(Item item, int quantity) {
         // Check if item already exists in order
-        for (OrderItem orderItem : orderItems) {
+        for (int i = 0; i < orderItems.size(); i++) {
+            OrderItem orderItem = orderItems.get(i);
             if (orderItem.getItem().getId().equals(item.getId())) {
+                if (inventory != null) {
+                    inventory.reserve(orderItem.stockRecipe, quantity);
+                }
                 orderItem.setQuantity(orderItem.getQuantity() + quantity);
-                calculateTotals();
+                changed(OrderListener.Change.QUANTITY_CHANGED, orderItem);
                 return;
             }
         }
-        // Add new item
-        orderItems.add(new OrderItem(item, quantity));
-        calculateTotals();
+        // Add new item (reserve first: if stock runs out the order stays as it was)
+        Inventory.Recipe recipe = inventory != null ? inventory.recipeFor(item.getId()) : null;
+        if (recipe != null) {
+            inventory.reserve(recipe, quantity);
+        }
+        OrderItem line = pool != null ? pool.takeLine(item, quantity) : new OrderItem(item, quantity);
+        line.stockRecipe = recipe;
+        orderItems.add(line);
+        changed(OrderListener.Change.LINE_ADDED, line);
+    }
+
+    // === Change listeners ===
+
+    public void addListener(OrderListener listener) {
+        if (listeners == null) {
+            listeners = new ArrayList<>(2);
+        }
+        listeners.add(listener);
+    }
+
+    public void removeListener(OrderListener listener) {
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    // Called by DataManager once the order is saved
+    void committed() {
+        fire(OrderListener.Change.COMMITTED, null);
+    }
+
+    // === Stock reservation ===
+
+    void attachInventory(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    // Saved: what the cart reserved is now used
+    void commitStock() {
+        if (inventory == null) return;
+        for (OrderItem orderItem : orderItems) {
+            inventory.commit(orderItem.stockRecipe, orderItem.getQuantity());
+        }
+        inventory = null;
+    }
+
+    // Cart abandoned: give back everything it reserved
+    public void releaseStock() {
+        if (inventory == null) return;
+        for (OrderItem orderItem : orderItems) {
+            inventory.release(orderItem.stockRecipe, orderItem.getQuantity());
+        }
+        inventory = null;
+    }
+
+    // === Loyalty points ===
+
+    void attachPointsLedger(PointsLedger pointsLedger) {
+        this.pointsLedger = pointsLedger;
+    }
+
+    // Hold this many of the member's points against the order (0 gives them back)
+    public void redeemPoints(long points) {
+        if (points < 0) {
+            throw new IllegalArgumentException("Points must not be negative: " + points);
+        }
+        if (points == heldPoints) return;
+        if (pointsLedger == null || member == null) {
+            throw new IllegalStateException("Points need a member and a points ledger");
+        }
+        if (points > heldPoints) {
+            pointsLedger.hold(member.getMemberId(), points - heldPoints);
+        } else {
+            pointsLedger.releaseHold(member.getMemberId(), heldPoints - points);
+        }
+        heldPoints = points;
+        changed(OrderListener.Change.POINTS_CHANGED, null);
+    }
+
+    // Saved: burn what the total used, give back the rest, and earn on what was paid
+    void commitPoints() {
+        if (pointsLedger == null) return;
+        ensureTotals();
+        if (member != null) {
+            String memberId = member.getMemberId();
+            // Written and forced before the rest is given back; if another till spent the points first this throws
+            pointsLedger.post(memberId, redeemedPoints, PointsLedger.pointsEarned(totalPrice), orderId);
+            pointsLedger.releaseHold(memberId, heldPoints - redeemedPoints);
+        }
+        heldPoints = redeemedPoints;
+        pointsLedger = null;
+    }
+
+    // Cart abandoned: give the held points back
+    public void releasePoints() {
+        if (pointsLedger == null || heldPoints == 0) return;
+        pointsLedger.releaseHold(member.getMemberId(), heldPoints);
+        heldPoints = 0;
+        changed(OrderListener.Change.POINTS_CHANGED, null);
+    }
+
+    public long getHeldPoints() { return heldPoints; }
+    public long getRedeemedPoints() { ensureTotals(); return redeemedPoints; }
+
+    // Points this order will earn when saved (0 without a member or ledger)
+    public long getPointsToEarn() {
+        if (pointsLedger == null || member == null) return 0;
+        return PointsLedger.pointsEarned(getTotalPrice());
+    }
+
+    // === Vouchers ===
+
+    // Use a checked voucher on this order (null takes it off); it is only redeemed when saved
+    public void applyVoucher(Voucher voucher) {
+        if (this.voucher == voucher) return;
+        this.voucher = voucher;
+        changed(OrderListener.Change.VOUCHER_CHANGED, null);
+    }
+
+    public Voucher getVoucher() { return voucher; }
+    public double getVoucherDiscount() { ensureTotals(); return voucherDiscount; }
+
+    // === Pooling ===
+
+    OrderPool getPool() { return pool; }
+
+    // Fresh identity for a cart taken from the pool
+    void reopen(String orderId, boolean dineIn) {
+        this.orderId = orderId;
+        this.dineIn = dineIn;
+        this.orderTime = LocalDateTime.now();
+    }
+
+    // What DataManager keeps once a pooled cart is saved: plain objects the pool never touches.
+    // Only the order, an exactly sized line list and one object per line; this is the whole cost of a pooled save
+    Order frozenCopy() {
+        ensureTotals();
+        List<OrderItem> lines = new ArrayList<>(orderItems.size());
+        for (int i = 0; i < orderItems.size(); i++) {
+            OrderItem line = orderItems.get(i);
+            lines.add(new OrderItem(line.getItem(), line.getQuantity(), line.getTotal()));
+        }
+        Order copy = new Order(null, lines);
+        copy.orderId = orderId;
+        copy.member = member;
+        copy.dineIn = dineIn;
+        copy.orderTime = orderTime;
+        copy.totalPrice = totalPrice;
+        copy.totalSavings = totalSavings;
+        copy.hasFreeWednesdayPizza = hasFreeWednesdayPizza;
+        copy.voucher = voucher;
+        copy.voucherDiscount = voucherDiscount;
+        copy.heldPoints = redeemedPoints;
+        copy.redeemedPoints = redeemedPoints;
+        return copy;
+    }
+
+    // Back to a blank cart; anything still reserved or held is given back quietly
+    void recycle() {
+        if (listeners != null) {
+            listeners.clear();
+        }
+        releaseStock();
+        if (pointsLedger != null && heldPoints > 0) {
+            pointsLedger.releaseHold(member.getMemberId(), heldPoints);
+        }
+        for (int i = 0; i < orderItems.size(); i++) {
+            pool.giveLine(orderItems.get(i));
+        }
+        orderItems.clear();
+        orderId = null;
+        member = null;
+        dineIn = false;
+        totalPrice = 0.0;
+        totalSavings = 0.0;
+        hasFreeWednesdayPizza = false;
+        totalsStale = false;
+        pointsLedger = null;
+        heldPoints = 0;
+        redeemedPoints = 0;
+        voucher = null;
+        voucherDiscount = 0.0;
+        savedCopy = null;
+    }
+
+    // Totals are recalculated lazily, on the next read, however many changes come first
+    private void changed(OrderListener.Change change, OrderItem line) {
+        totalsStale = true;
+        fire(change, line);
+    }
+
+    private void fire(OrderListener.Change change, OrderItem line) {
+        if (listeners == null) return;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).orderChanged(this, change, line);
+        }
+    }
+
+    private void ensureTotals() {
+        if (totalsStale) {
+            totalsStale = false;
+            calculateTotals();
+        }
     }
 
     // Calculate totals and apply discounts
@@ -60,11 +291,13 @@ public class Order {
         totalPrice = 0.0;
         totalSavings = 0.0;
         hasFreeWednesdayPizza = false;
+        redeemedPoints = 0;
+        voucherDiscount = 0.0;
 
         // 1. คำนวณราคาพื้นฐานทั้งหมด
         double basePrice = 0.0;
-        for (OrderItem item : orderItems) {
-            basePrice += item.getTotal();
+        for (int i = 0; i < orderItems.size(); i++) {
+            basePrice += orderItems.get(i).getTotal();
         }
 
         // เริ่มต้นด้วยราคาพื้นฐาน
@@ -86,19 +319,55 @@ public class Order {
                 totalPrice -= memberDiscount;
             }
         }
+
+        // 4. คูปอง (ลดได้ไม่เกินยอดที่เหลือ ส่วนที่เกินไม่ทอน)
+        if (voucher != null) {
+            voucherDiscount = Math.min(voucher.getAmount(), totalPrice);
+            totalSavings += voucherDiscount;
+            totalPrice -= voucherDiscount;
+        }
+
+        // 5. แลกแต้ม (ใช้ได้ไม่เกินยอดที่เหลือ แต้มส่วนเกินคืนตอนบันทึก)
+        if (heldPoints > 0) {
+            redeemedPoints = Math.min(heldPoints, (long) Math.floor(totalPrice / PointsLedger.POINT_VALUE));
+            double pointsDiscount = redeemedPoints * PointsLedger.POINT_VALUE;
+            totalSavings += pointsDiscount;
+            totalPrice -= pointsDiscount;
+        }
     }
 
     private double applyWednesdayPromotion(double currentTotal) {
 
-        if (LocalDateTime.now().getDayOfWeek().getValue() != 5 || currentTotal < 1000) {
+        if (dayOfWeek() != 5 || currentTotal < 1000) {
             return 0.0;
         }
 
-        return orderItems.stream()
-                .filter(item -> item.getItem().getName().equalsIgnoreCase("พิซซ่าเรดฮาวายเอี้ยน"))
-                .mapToDouble(item -> item.getItem().getPrice())
-                .findFirst()
-                .orElse(0.0);
+        for (int i = 0; i < orderItems.size(); i++) {
+            Item item = orderItems.get(i).getItem();
+            if (item.getName().equalsIgnoreCase("พิซซ่าเรดฮาวายเอี้ยน")) {
+                return item.getPrice();
+            }
+        }
+        return 0.0;
+    }
+
+    private static int dayOfWeek() {
+        Today current = today;
+        long now = System.currentTimeMillis();
+        if (current == null || now < current.startMillis() || now >= current.endMillis()) {
+            current = Today.of(LocalDate.now());
+            today = current;
+        }
+        return current.dayOfWeek();
+    }
+
+    private record Today(long startMillis, long endMillis, int dayOfWeek) {
+        static Today of(LocalDate date) {
+            ZoneId zone = ZoneId.systemDefault();
+            return new Today(date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                    date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(),
+                    date.getDayOfWeek().getValue());
+        }
     }
 
     /**
@@ -126,10 +395,24 @@ public class Order {
 
     // Clear all items
     public void clear() {
+        if (inventory != null) {
+            for (OrderItem orderItem : orderItems) {
+                inventory.release(orderItem.stockRecipe, orderItem.getQuantity());
+            }
+        }
+        if (pool != null) {
+            for (int i = 0; i < orderItems.size(); i++) {
+                pool.giveLine(orderItems.get(i));
+            }
+        }
         orderItems.clear();
         totalPrice = 0.0;
         totalSavings = 0.0;
         hasFreeWednesdayPizza = false;
+        redeemedPoints = 0;
+        voucherDiscount = 0.0;
+        // Held points and the voucher stay on the cart; the next read works out what they cover
+        changed(OrderListener.Change.LINES_RESET, null);
     }
 
     // Get order summary
@@ -147,6 +430,16 @@ public class Order {
         if (totalSavings > 0) {
             summary.append("\nSavings: ฿").append(String.format("%.2f", totalSavings));
         }
+        if (voucher != null) {
+            summary.append("\nVoucher: ").append(voucher.getCode());
+        }
+        if (redeemedPoints > 0) {
+            summary.append("\nPoints redeemed: ").append(redeemedPoints);
+        }
+        long earned = getPointsToEarn();
+        if (earned > 0) {
+            summary.append("\nPoints earned: ").append(earned);
+        }
 
         return summary.toString();
     }
@@ -157,12 +450,18 @@ public class Order {
 
     public Member getMember() { return member; }
     public void setMember(Member member) {
+        if (Objects.equals(this.member, member)) return;
+        releasePoints();   // points belong to the previous member
         this.member = member;
-        calculateTotals(); // Recalculate when member changes
+        changed(OrderListener.Change.MEMBER_CHANGED, null); // Recalculate when member changes
     }
 
     public boolean isDineIn() { return dineIn; }
-    public void setDineIn(boolean dineIn) { this.dineIn = dineIn; }
+    public void setDineIn(boolean dineIn) {
+        if (this.dineIn == dineIn) return;
+        this.dineIn = dineIn;
+        fire(OrderListener.Change.DINE_IN_CHANGED, null);
+    }
 
     public LocalDateTime getOrderTime() { return orderTime; }
     public void setOrderTime(LocalDateTime orderTime) { this.orderTime = orderTime; }
@@ -170,20 +469,23 @@ public class Order {
     public List<OrderItem> getOrderItems() { return orderItems; }
     public void setOrderItems(List<OrderItem> orderItems) {
         this.orderItems = orderItems;
-        calculateTotals();
+        changed(OrderListener.Change.LINES_RESET, null);
     }
 
     public double getTotalPrice() {
+        ensureTotals();
         return totalPrice;
     }
 
-    public void setTotalPrice(double totalPrice) { this.totalPrice = totalPrice; }
+    // Setting a total directly (e.g. restoring a recorded order) keeps the stored figures
+    public void setTotalPrice(double totalPrice) { ensureTotals(); this.totalPrice = totalPrice; }
 
-    public double getTotalSavings() { return totalSavings; }
-    public void setTotalSavings(double totalSavings) { this.totalSavings = totalSavings; }
+    public double getTotalSavings() { ensureTotals(); return totalSavings; }
+    public void setTotalSavings(double totalSavings) { ensureTotals(); this.totalSavings = totalSavings; }
 
-    public boolean hasFreeWednesdayPizza() { return hasFreeWednesdayPizza; }
+    public boolean hasFreeWednesdayPizza() { ensureTotals(); return hasFreeWednesdayPizza; }
     public void setHasFreeWednesdayPizza(boolean hasFreeWednesdayPizza) {
+        ensureTotals();
         this.hasFreeWednesdayPizza = hasFreeWednesdayPizza;
     }
 
@@ -194,29 +496,52 @@ public class Order {
 
     // Remove item from order
     public void removeItem(Item item) {
-        orderItems.removeIf(orderItem -> orderItem.getItem().getId().equals(item.getId()));
-        calculateTotals();
+        for (int i = 0; i < orderItems.size(); i++) {
+            OrderItem orderItem = orderItems.get(i);
+            if (orderItem.getItem().getId().equals(item.getId())) {
+                orderItems.remove(i);
+                if (inventory != null) {
+                    inventory.release(orderItem.stockRecipe, orderItem.getQuantity());
+                }
+                changed(OrderListener.Change.LINE_REMOVED, orderItem);
+                if (pool != null) {
+                    pool.giveLine(orderItem);
+                }
+                return;
+            }
+        }
     }
 
     public void removeItem(Item item, int quantity) {
-        for (OrderItem orderItem : orderItems) {
+        for (int i = 0; i < orderItems.size(); i++) {
+            OrderItem orderItem = orderItems.get(i);
             if (orderItem.getItem().getId().equals(item.getId())) {
                 int newQuantity = orderItem.getQuantity() - quantity;
+                if (inventory != null) {
+                    inventory.release(orderItem.stockRecipe, Math.min(quantity, orderItem.getQuantity()));
+                }
                 if (newQuantity <= 0) {
                     orderItems.remove(orderItem);
+                    changed(OrderListener.Change.LINE_REMOVED, orderItem);
+                    if (pool != null) {
+                        pool.giveLine(orderItem);
+                    }
                 } else {
                     orderItem.setQuantity(newQuantity);
+                    changed(OrderListener.Change.QUANTITY_CHANGED, orderItem);
                 }
-                calculateTotals();
                 return;
             }
         }
     }
 
     public double getOriginalTotalPrice() {
-        return orderItems.stream()
-                .mapToDouble(item -> item.getItem().getPrice() * item.getQuantity())
-                .sum();
+        double total = 0.0;
+        for (int i = 0; i < orderItems.size(); i++) {
+            OrderItem line = orderItems.get(i);
+            total += line.getItem().getPrice() * line.getQuantity();
+        }
+        return total;
     }
 
 
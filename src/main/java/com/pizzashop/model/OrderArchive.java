@@ -0,0 +1,503 @@
+// OrderArchive.java
+package com.pizzashop.model;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * คลังออเดอร์ย้อนหลังแบบ off-heap
+ *
+ * ออเดอร์ที่ชำระแล้วถูกแยกเก็บเป็นคอลัมน์ primitive ใน MemorySegment (ไม่อยู่ใน Java heap)
+ * ได้แก่ เวลา (epoch second), ยอดเงินแบบ fixed-point (สตางค์), ธง, และรายการสินค้า
+ * ที่อ้างถึงสินค้าด้วยเลขอ้างอิงเข้าตารางสินค้าที่เคยขาย (แต่ละเวอร์ชันเก็บครั้งเดียวบน heap)
+ * จึงอ่านกลับได้ครบทุกบรรทัด แม้เมนูจะเปลี่ยนหรือสินค้าไม่ได้มาจากเมนู
+ * ข้อมูลแบ่งเป็น chunk ขนาดคงที่ ขยายได้โดยไม่ต้องคัดลอกของเดิม
+ * อ่านกลับด้วย {@link View} ตัวเดียวที่เลื่อนไปแต่ละแถว (flyweight) ไม่สร้าง object ต่อออเดอร์
+ */
+public class OrderArchive implements AutoCloseable {
+    static final int CHUNK_SHIFT = 16;
+    static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+    private static final int ID_CHUNK_BYTES = 1 << 20;
+
+    static final int MONEY_SCALE = 100;
+    static final byte FLAG_DINE_IN = 1;
+    static final byte FLAG_FREE_WEDNESDAY_PIZZA = 1 << 1;
+
+    static final boolean VECTORIZED = vectorAvailable();
+
+    private final Arena arena = Arena.ofShared();
+
+    // Order columns
+    final LongColumn epochSeconds = new LongColumn();
+    final LongColumn totals = new LongColumn();
+    private final LongColumn savings = new LongColumn();
+    private final IntColumn memberRefs = new IntColumn();
+    private final ByteColumn flags = new ByteColumn();
+    private final LongColumn lineStarts = new LongColumn();   // rows + 1 entries
+    private final LongColumn idOffsets = new LongColumn();
+    private final IntColumn idLengths = new IntColumn();
+    private final IntColumn idHashes = new IntColumn();
+
+    // Line columns
+    private final IntColumn lineCatalogIndexes = new IntColumn();   // -1 for items not from the catalog
+    private final IntColumn lineItemRefs = new IntColumn();
+    private final IntColumn lineQuantities = new IntColumn();
+    private final LongColumn lineTotals = new LongColumn();
+
+    // Order IDs as UTF-8 bytes
+    private final List<MemorySegment> idChunks = new CopyOnWriteArrayList<>();
+    private long idBytes;
+
+    // Few members compared to orders, so their IDs stay on the heap
+    private final List<String> memberIds = new ArrayList<>();
+    private final Map<String, Integer> memberRefById = new HashMap<>();
+    // Each distinct item version ever sold, so lines never depend on the current menu
+    private final List<Item> soldItems = new CopyOnWriteArrayList<>();
+    private final Map<SoldItemKey, Integer> soldItemRefs = new HashMap<>();
+
+    // Order ID lookup: open addressing over row + 1 (0 is a free slot), at most half full
+    private int[] idIndex = new int[1024];
+
+    // Per chunk: earliest and latest order time, and whether its rows are in time order
+    // (orders a peer sends late are appended out of order)
+    private long[] chunkMinSeconds = new long[16];
+    private long[] chunkMaxSeconds = new long[16];
+    private boolean[] chunkOrdered = new boolean[16];
+
+    private volatile long size;
+    private long lineCount;
+
+    public OrderArchive() {
+        lineStarts.set(0, 0);
+    }
+
+    // Pack one committed order and return its row; the Order object can be dropped afterwards
+    public synchronized long append(Order order) {
+        long row = size;
+
+        long epochSecond = order.getOrderTime().toEpochSecond(ZoneOffset.UTC);
+        epochSeconds.set(row, epochSecond);
+        trackTime(row, epochSecond);
+        totals.set(row, toSatang(order.getTotalPrice()));
+        savings.set(row, toSatang(order.getTotalSavings()));
+        memberRefs.set(row, memberRef(order.getMember()));
+
+        byte orderFlags = 0;
+        if (order.isDineIn()) orderFlags |= FLAG_DINE_IN;
+        if (order.hasFreeWednesdayPizza()) orderFlags |= FLAG_FREE_WEDNESDAY_PIZZA;
+        flags.set(row, orderFlags);
+
+        for (OrderItem orderItem : order.getOrderItems()) {
+            lineCatalogIndexes.set(lineCount, orderItem.getCatalogIndex());
+            lineItemRefs.set(lineCount, soldItemRef(orderItem.getItem()));
+            lineQuantities.set(lineCount, orderItem.getQuantity());
+            lineTotals.set(lineCount, toSatang(orderItem.getTotal()));
+            lineCount++;
+        }
+        lineStarts.set(row + 1, lineCount);
+
+        byte[] id = order.getOrderId().getBytes(StandardCharsets.UTF_8);
+        idOffsets.set(row, appendId(id));
+        idLengths.set(row, id.length);
+        idHashes.set(row, order.getOrderId().hashCode());
+        indexId(row);
+
+        size = row + 1;   // publish the row to readers
+        return row;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * ย้อนจากแถว end หาแถวก่อนหน้าที่อาจมีเวลาอยู่ในช่วง [fromSecond, toSecond)
+     * คืนค่า p ที่แถว [p, end) ไม่อยู่ในช่วงแน่นอน ให้เริ่มอ่านที่แถว p - 1 หรือ 0 ถ้าไม่เหลือแถวที่อยู่ในช่วง
+     * chunk ที่ช่วงเวลาไม่ทับกันถูกข้ามทั้ง chunk และ chunk ที่เรียงตามเวลาใช้ binary search
+     */
+    public synchronized long seekBack(long end, long fromSecond, long toSecond) {
+        end = Math.min(end, size);
+        while (end > 0) {
+            int chunk = (int) ((end - 1) >>> CHUNK_SHIFT);
+            long chunkStart = (long) chunk << CHUNK_SHIFT;
+            if (chunkMaxSeconds[chunk] < fromSecond || chunkMinSeconds[chunk] >= toSecond) {
+                end = chunkStart;
+                continue;
+            }
+            if (!chunkOrdered[chunk]) return end;
+
+            // First row at or after toSecond; everything from there to end is too new
+            long low = chunkStart;
+            long high = end;
+            while (low < high) {
+                long mid = (low + high) >>> 1;
+                if (epochSeconds.get(mid) < toSecond) low = mid + 1;
+                else high = mid;
+            }
+            if (low > chunkStart && epochSeconds.get(low - 1) >= fromSecond) return low;
+            end = chunkStart;
+        }
+        return 0;
+    }
+
+    // Row of an archived order, or -1
+    public synchronized long findRow(String orderId) {
+        int mask = idIndex.length - 1;
+        for (int slot = spread(orderId.hashCode()) & mask; idIndex[slot] != 0; slot = (slot + 1) & mask) {
+            long row = idIndex[slot] - 1;
+            if (idHashes.get(row) == orderId.hashCode() && readId(row).equals(orderId)) return row;
+        }
+        return -1;
+    }
+
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    // Bytes held off-heap by this archive
+    public long offHeapBytes() {
+        return epochSeconds.bytes() + totals.bytes() + savings.bytes() + memberRefs.bytes() + flags.bytes()
+                + lineStarts.bytes() + idOffsets.bytes() + idLengths.bytes() + idHashes.bytes()
+                + lineCatalogIndexes.bytes() + lineItemRefs.bytes() + lineQuantities.bytes() + lineTotals.bytes()
+                + (long) idChunks.size() * ID_CHUNK_BYTES;
+    }
+
+    // Sum of totals for orders between the two dates (inclusive)
+    public double sumTotals(LocalDate startDate, LocalDate endDate) {
+        return sumTotals(size, startDate, endDate);
+    }
+
+    public double sumTotals() {
+        return sumTotals(size);
+    }
+
+    // The same over the first rows only, for a reader that took the row count together with the live orders
+    double sumTotals(long rows, LocalDate startDate, LocalDate endDate) {
+        long from = startDate.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long to = endDate.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        return (double) sumSatang(rows, from, to, VECTORIZED) / MONEY_SCALE;
+    }
+
+    double sumTotals(long rows) {
+        return (double) sumSatang(rows, Long.MIN_VALUE, Long.MAX_VALUE, VECTORIZED) / MONEY_SCALE;
+    }
+
+    // Totals of the first rows with epoch second in [from, to), one chunk at a time
+    long sumSatang(long rows, long from, long to, boolean vectorized) {
+        boolean everything = from == Long.MIN_VALUE && to == Long.MAX_VALUE;
+        long sum = 0;
+        for (int chunk = 0; (long) chunk << CHUNK_SHIFT < rows; chunk++) {
+            int n = (int) Math.min(CHUNK_ROWS, rows - ((long) chunk << CHUNK_SHIFT));
+            MemorySegment amounts = totals.chunks.get(chunk);
+            if (everything) {
+                sum += vectorized ? VectorSums.sum(amounts, n) : scalarSum(amounts, n);
+            } else {
+                MemorySegment times = epochSeconds.chunks.get(chunk);
+                sum += vectorized ? VectorSums.sumInRange(times, amounts, n, from, to)
+                        : scalarSumInRange(times, amounts, n, from, to);
+            }
+        }
+        return sum;
+    }
+
+    static long scalarSum(MemorySegment amounts, int rows) {
+        long sum = 0;
+        for (int row = 0; row < rows; row++) {
+            sum += amounts.getAtIndex(ValueLayout.JAVA_LONG, row);
+        }
+        return sum;
+    }
+
+    static long scalarSumInRange(MemorySegment times, MemorySegment amounts, int rows, long from, long to) {
+        long sum = 0;
+        for (int row = 0; row < rows; row++) {
+            long time = times.getAtIndex(ValueLayout.JAVA_LONG, row);
+            if (time >= from && time < to) {
+                sum += amounts.getAtIndex(ValueLayout.JAVA_LONG, row);
+            }
+        }
+        return sum;
+    }
+
+    // Vector API is an incubator module: without --add-modules jdk.incubator.vector,
+    // or with -Dpizzashop.vector=false, sums use the plain loops above
+    private static boolean vectorAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty("pizzashop.vector", "true"))) return false;
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return false;
+        try {
+            return VectorSums.isUseful();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    // A reusable cursor; not thread-safe, create one per reader
+    public View view() {
+        return new View();
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    // === Helpers ===
+
+    private int memberRef(Member member) {
+        if (member == null) return -1;
+        return memberRefById.computeIfAbsent(member.getMemberId(), id -> {
+            memberIds.add(id);
+            return memberIds.size() - 1;
+        });
+    }
+
+    private int soldItemRef(Item item) {
+        SoldItemKey key = new SoldItemKey(item.getId(), item.getName(), item.getPrice(), item.getCategory(),
+                item.getCatalogIndex(), item.getVersion());
+        return soldItemRefs.computeIfAbsent(key, k -> {
+            soldItems.add(item);
+            return soldItems.size() - 1;
+        });
+    }
+
+    // Catalog items are shared, but a decoded off-menu item is a new object per line
+    private record SoldItemKey(String id, String name, double price, String category, int catalogIndex, int version) {
+    }
+
+    // Returns the offset the ID was written at
+    private long appendId(byte[] bytes) {
+        if (bytes.length > ID_CHUNK_BYTES) {
+            throw new IllegalArgumentException("Order ID too long");
+        }
+        long offsetInChunk = idBytes & (ID_CHUNK_BYTES - 1);
+        if (offsetInChunk + bytes.length > ID_CHUNK_BYTES) {
+            // IDs never straddle chunks; skip to the start of the next one
+            idBytes += ID_CHUNK_BYTES - offsetInChunk;
+            offsetInChunk = 0;
+        }
+        int chunkIndex = (int) (idBytes / ID_CHUNK_BYTES);
+        while (idChunks.size() <= chunkIndex) {
+            idChunks.add(arena.allocate(ID_CHUNK_BYTES, 1));
+        }
+        MemorySegment chunk = idChunks.get(chunkIndex);
+        MemorySegment.copy(bytes, 0, chunk, ValueLayout.JAVA_BYTE, offsetInChunk, bytes.length);
+        long offset = idBytes;
+        idBytes += bytes.length;
+        return offset;
+    }
+
+    private void trackTime(long row, long epochSecond) {
+        int chunk = (int) (row >>> CHUNK_SHIFT);
+        if (chunk == chunkOrdered.length) {
+            chunkMinSeconds = Arrays.copyOf(chunkMinSeconds, chunk * 2);
+            chunkMaxSeconds = Arrays.copyOf(chunkMaxSeconds, chunk * 2);
+            chunkOrdered = Arrays.copyOf(chunkOrdered, chunk * 2);
+        }
+        if ((row & CHUNK_MASK) == 0) {
+            chunkMinSeconds[chunk] = epochSecond;
+            chunkMaxSeconds[chunk] = epochSecond;
+            chunkOrdered[chunk] = true;
+        } else {
+            chunkOrdered[chunk] &= epochSecond >= chunkMaxSeconds[chunk];
+            chunkMinSeconds[chunk] = Math.min(chunkMinSeconds[chunk], epochSecond);
+            chunkMaxSeconds[chunk] = Math.max(chunkMaxSeconds[chunk], epochSecond);
+        }
+    }
+
+    private void indexId(long row) {
+        if (row >= Integer.MAX_VALUE / 2) {
+            throw new IllegalStateException("Order archive is full");
+        }
+        if ((row + 1) * 2 > idIndex.length) {
+            int[] old = idIndex;
+            idIndex = new int[old.length * 2];
+            for (int entry : old) {
+                if (entry != 0) place(entry);
+            }
+        }
+        place((int) row + 1);
+    }
+
+    private void place(int entry) {
+        int mask = idIndex.length - 1;
+        int slot = spread(idHashes.get(entry - 1)) & mask;
+        while (idIndex[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        idIndex[slot] = entry;
+    }
+
+    // Order IDs share long prefixes, so mix the whole hash into the low bits used as the slot
+    private static int spread(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    private String readId(long row) {
+        long offset = idOffsets.get(row);
+        int length = idLengths.get(row);
+        MemorySegment chunk = idChunks.get((int) (offset / ID_CHUNK_BYTES));
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(chunk, ValueLayout.JAVA_BYTE, offset & (ID_CHUNK_BYTES - 1), bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static long toSatang(double amount) {
+        return Math.round(amount * MONEY_SCALE);
+    }
+
+    /**
+     * มุมมองของออเดอร์หนึ่งแถวในคลัง ใช้ซ้ำได้ด้วย moveTo()
+     */
+    public class View {
+        private long row = -1;
+        private long firstLine;
+        private int lines;
+
+        public View moveTo(long row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+            }
+            this.row = row;
+            this.firstLine = lineStarts.get(row);
+            this.lines = (int) (lineStarts.get(row + 1) - firstLine);
+            return this;
+        }
+
+        public long getRow() { return row; }
+
+        public String getOrderId() { return readId(row); }
+
+        public String getMemberId() {
+            int ref = memberRefs.get(row);
+            if (ref < 0) return null;
+            synchronized (OrderArchive.this) {
+                return memberIds.get(ref);
+            }
+        }
+
+        public long getEpochSecond() { return epochSeconds.get(row); }
+        public LocalDateTime getOrderTime() { return LocalDateTime.ofEpochSecond(getEpochSecond(), 0, ZoneOffset.UTC); }
+
+        public double getTotalPrice() { return (double) totals.get(row) / MONEY_SCALE; }
+        public double getTotalSavings() { return (double) savings.get(row) / MONEY_SCALE; }
+
+        public boolean isDineIn() { return (flags.get(row) & FLAG_DINE_IN) != 0; }
+        public boolean hasFreeWednesdayPizza() { return (flags.get(row) & FLAG_FREE_WEDNESDAY_PIZZA) != 0; }
+
+        public int getLineCount() { return lines; }
+        public int getLineCatalogIndex(int line) { return lineCatalogIndexes.get(lineIndex(line)); }
+        // The item as it was sold, whatever the menu says now
+        public Item getLineItem(int line) { return soldItems.get(lineItemRefs.get(lineIndex(line))); }
+        public int getLineVersion(int line) { return getLineItem(line).getVersion(); }
+        public int getLineQuantity(int line) { return lineQuantities.get(lineIndex(line)); }
+        public double getLineTotal(int line) { return (double) lineTotals.get(lineIndex(line)) / MONEY_SCALE; }
+
+        private long lineIndex(int line) {
+            if (line < 0 || line >= lines) {
+                throw new IndexOutOfBoundsException("Line " + line + " of " + lines);
+            }
+            return firstLine + line;
+        }
+
+        // Rebuild a full Order, e.g. to show one old receipt
+        public Order toOrder(DataManager dataManager) {
+            List<OrderItem> orderItems = new ArrayList<>(lines);
+            for (int line = 0; line < lines; line++) {
+                OrderItem orderItem = new OrderItem(getLineItem(line), getLineQuantity(line));
+                orderItem.setTotal(getLineTotal(line));
+                orderItems.add(orderItem);
+            }
+
+            String memberId = getMemberId();
+            Member member = memberId != null ? dataManager.findMemberById(memberId) : null;
+            Order order = new Order(getOrderId(), member, isDineIn());
+            order.setOrderTime(getOrderTime());
+            order.setOrderItems(orderItems);
+            order.setTotalPrice(getTotalPrice());
+            order.setTotalSavings(getTotalSavings());
+            order.setHasFreeWednesdayPizza(hasFreeWednesdayPizza());
+            return order;
+        }
+    }
+
+    // === Chunked primitive columns ===
+
+    final class LongColumn {
+        final List<MemorySegment> chunks = new CopyOnWriteArrayList<>();
+
+        void set(long index, long value) {
+            chunkFor(index).setAtIndex(ValueLayout.JAVA_LONG, index & CHUNK_MASK, value);
+        }
+
+        long get(long index) {
+            return chunks.get((int) (index >>> CHUNK_SHIFT)).getAtIndex(ValueLayout.JAVA_LONG, index & CHUNK_MASK);
+        }
+
+        private MemorySegment chunkFor(long index) {
+            int chunk = (int) (index >>> CHUNK_SHIFT);
+            while (chunks.size() <= chunk) {
+                chunks.add(arena.allocate(ValueLayout.JAVA_LONG.byteSize() * CHUNK_ROWS, Long.BYTES));
+            }
+            return chunks.get(chunk);
+        }
+
+        long bytes() { return (long) chunks.size() * CHUNK_ROWS * Long.BYTES; }
+    }
+
+    final class IntColumn {
+        final List<MemorySegment> chunks = new CopyOnWriteArrayList<>();
+
+        void set(long index, int value) {
+            chunkFor(index).setAtIndex(ValueLayout.JAVA_INT, index & CHUNK_MASK, value);
+        }
+
+        int get(long index) {
+            return chunks.get((int) (index >>> CHUNK_SHIFT)).getAtIndex(ValueLayout.JAVA_INT, index & CHUNK_MASK);
+        }
+
+        private MemorySegment chunkFor(long index) {
+            int chunk = (int) (index >>> CHUNK_SHIFT);
+            while (chunks.size() <= chunk) {
+                chunks.add(arena.allocate(ValueLayout.JAVA_INT.byteSize() * CHUNK_ROWS, Integer.BYTES));
+            }
+            return chunks.get(chunk);
+        }
+
+        long bytes() { return (long) chunks.size() * CHUNK_ROWS * Integer.BYTES; }
+    }
+
+    final class ByteColumn {
+        final List<MemorySegment> chunks = new CopyOnWriteArrayList<>();
+
+        void set(long index, byte value) {
+            chunkFor(index).set(ValueLayout.JAVA_BYTE, index & CHUNK_MASK, value);
+        }
+
+        byte get(long index) {
+            return chunks.get((int) (index >>> CHUNK_SHIFT)).get(ValueLayout.JAVA_BYTE, index & CHUNK_MASK);
+        }
+
+        private MemorySegment chunkFor(long index) {
+            int chunk = (int) (index >>> CHUNK_SHIFT);
+            while (chunks.size() <= chunk) {
+                chunks.add(arena.allocate(CHUNK_ROWS, 1));
+            }
+            return chunks.get(chunk);
+        }
+
+        long bytes() { return (long) chunks.size() * CHUNK_ROWS; }
+    }
+}
@@ -0,0 +1,349 @@
+// OrderExporter.java
+package com.pizzashop.model;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * ส่งออกออเดอร์ให้ฝ่ายบัญชี เป็น CSV หรือ binary (record เดียวกับ ModelCodec.encodeOrder)
+ *
+ * วนออเดอร์ทีละแถวตามลำดับ [คลัง off-heap..., ออเดอร์ปัจจุบัน...] ไม่สร้าง Order จากคลัง
+ * และไม่รวบรวมประวัติทั้งหมดไว้ในหน่วยความจำ เขียนผ่าน direct buffer ขนาดคงที่ตรงลง channel
+ * ไฟล์รายวันต่อกันเป็นรายเดือนได้ทันทีด้วย FileChannel.transferTo (ไม่ผ่าน Java heap)
+ *
+ * binary: [int length][order record] ต่อกันไปเรื่อยๆ อ่านกลับด้วย ModelCodec.decodeOrder
+ */
+public class OrderExporter {
+    public enum Format {
+        CSV(".csv"), BINARY(".bin");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() { return extension; }
+    }
+
+    static final byte[] CSV_HEADER = "order_id,time,member_id,dine_in,items,total,savings\n"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int BATCH = 256;
+
+    private final DataManager dataManager;
+
+    public OrderExporter(DataManager dataManager) {
+        this.dataManager = dataManager;
+    }
+
+    // Orders between the two dates (inclusive); returns how many were written
+    public long export(Format format, LocalDate startDate, LocalDate endDate, WritableByteChannel out)
+            throws IOException {
+        long from = startDate.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long to = endDate.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        Sink sink = format == Format.CSV ? new CsvSink(out) : new BinarySink(out);
+
+        Order[] batch = new Order[BATCH];
+        OrderArchive.View row = null;
+        long position = 0;
+        long written = 0;
+        while (true) {
+            OrderArchive archive = dataManager.getOrderArchive();
+            if (archive != null && position < archive.size()) {
+                if (row == null) row = archive.view();
+                row.moveTo(position++);
+                long time = row.getEpochSecond();
+                if (time >= from && time < to) {
+                    sink.archived(row);
+                    written++;
+                }
+                continue;
+            }
+            int count = dataManager.copyOrders(position, batch);
+            if (count == 0) {
+                // Either the end, or orders were archived since the archive size was read
+                OrderArchive now = dataManager.getOrderArchive();
+                if (now == null || position >= now.size()) break;
+                continue;
+            }
+            for (int i = 0; i < count; i++) {
+                Order order = batch[i];
+                batch[i] = null;
+                long time = order.getOrderTime().toEpochSecond(ZoneOffset.UTC);
+                if (time >= from && time < to) {
+                    sink.live(order);
+                    written++;
+                }
+            }
+            position += count;
+        }
+        sink.flush();
+        return written;
+    }
+
+    // orders-<date>.csv/.bin in the directory; a finished day's file is reused once written after midnight
+    public Path exportDay(Format format, LocalDate date, Path directory) throws IOException {
+        Path file = directory.resolve("orders-" + date + format.getExtension());
+        if (isComplete(file, date)) return file;
+        Files.createDirectories(directory);
+        Path partial = directory.resolve(file.getFileName() + ".part");
+        try (FileChannel out = FileChannel.open(partial, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            export(format, date, date, out);
+            out.force(false);
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    // orders-<yyyy-MM>: each day's file, spliced together with transferTo
+    public Path exportMonth(Format format, YearMonth month, Path directory) throws IOException {
+        LocalDate last = month.atEndOfMonth();
+        if (last.isAfter(LocalDate.now())) last = LocalDate.now();
+        Path file = directory.resolve("orders-" + month + format.getExtension());
+        Path partial = directory.resolve(file.getFileName() + ".part");
+        Files.createDirectories(directory);
+        try (FileChannel out = FileChannel.open(partial, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            if (format == Format.CSV) {
+                out.write(ByteBuffer.wrap(CSV_HEADER));
+            }
+            for (LocalDate day = month.atDay(1); !day.isAfter(last); day = day.plusDays(1)) {
+                // Each CSV day starts with the header, which the month file has only once
+                append(exportDay(format, day, directory), format == Format.CSV ? CSV_HEADER.length : 0, out);
+            }
+            out.force(false);
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    // Concatenate export files of one format, e.g. a quarter from its months (CSV headers after the first are dropped)
+    public static void concat(Format format, List<Path> files, WritableByteChannel out) throws IOException {
+        for (int i = 0; i < files.size(); i++) {
+            append(files.get(i), format == Format.CSV && i > 0 ? CSV_HEADER.length : 0, out);
+        }
+    }
+
+    // Copy a file from an offset; the kernel moves the bytes when it can (sendfile/copy_file_range)
+    static long append(Path file, long skip, WritableByteChannel out) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = Math.min(skip, in.size());
+            long end = in.size();
+            while (position < end) {
+                position += in.transferTo(position, end - position, out);
+            }
+            return end - Math.min(skip, end);
+        }
+    }
+
+    private static boolean isComplete(Path file, LocalDate date) throws IOException {
+        if (!Files.exists(file)) return false;
+        LocalDateTime written = LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(),
+                ZoneId.systemDefault());
+        return written.toLocalDate().isAfter(date);
+    }
+
+    // === Sinks ===
+
+    /**
+     * เขียนแถวลง buffer แล้ว flush เมื่อเต็ม แถวที่ล้น buffer จะถูกเขียนใหม่หลัง flush
+     */
+    private abstract static class Sink {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final WritableByteChannel out;
+
+        Sink(WritableByteChannel out) {
+            this.out = out;
+        }
+
+        abstract void writeArchived(OrderArchive.View row);
+        abstract void writeLive(Order order);
+
+        final void archived(OrderArchive.View row) throws IOException {
+            int mark = buffer.position();
+            try {
+                writeArchived(row);
+            } catch (BufferOverflowException e) {
+                buffer.position(mark);
+                flush();
+                writeArchived(row);
+            }
+        }
+
+        final void live(Order order) throws IOException {
+            int mark = buffer.position();
+            try {
+                writeLive(order);
+            } catch (BufferOverflowException e) {
+                buffer.position(mark);
+                flush();
+                writeLive(order);
+            }
+        }
+
+        final void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static final class BinarySink extends Sink {
+        BinarySink(WritableByteChannel out) {
+            super(out);
+        }
+
+        @Override
+        void writeArchived(OrderArchive.View row) {
+            int start = buffer.position();
+            buffer.putInt(0);   // length, filled in below
+            ModelCodec.encodeArchivedOrder(row, buffer);
+            buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+        }
+
+        @Override
+        void writeLive(Order order) {
+            int start = buffer.position();
+            buffer.putInt(0);   // length, filled in below
+            ModelCodec.encodeOrder(order, buffer);
+            buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+        }
+    }
+
+    private static final class CsvSink extends Sink {
+        CsvSink(WritableByteChannel out) {
+            super(out);
+            buffer.put(CSV_HEADER);
+        }
+
+        @Override
+        void writeArchived(OrderArchive.View row) {
+            text(row.getOrderId());
+            buffer.put((byte) ',');
+            time(row.getEpochSecond());
+            buffer.put((byte) ',');
+            text(row.getMemberId());
+            buffer.put((byte) ',');
+            buffer.put((byte) (row.isDineIn() ? '1' : '0'));
+            buffer.put((byte) ',');
+            for (int line = 0; line < row.getLineCount(); line++) {
+                if (line > 0) buffer.put((byte) ' ');
+                line(row.getLineItem(line).getId(), row.getLineQuantity(line));
+            }
+            buffer.put((byte) ',');
+            money(OrderArchive.toSatang(row.getTotalPrice()));
+            buffer.put((byte) ',');
+            money(OrderArchive.toSatang(row.getTotalSavings()));
+            buffer.put((byte) '\n');
+        }
+
+        @Override
+        void writeLive(Order order) {
+            text(order.getOrderId());
+            buffer.put((byte) ',');
+            time(order.getOrderTime().toEpochSecond(ZoneOffset.UTC));
+            buffer.put((byte) ',');
+            text(order.getMember() != null ? order.getMember().getMemberId() : null);
+            buffer.put((byte) ',');
+            buffer.put((byte) (order.isDineIn() ? '1' : '0'));
+            buffer.put((byte) ',');
+            List<OrderItem> lines = order.getOrderItems();
+            for (int i = 0; i < lines.size(); i++) {
+                if (i > 0) buffer.put((byte) ' ');
+                line(lines.get(i).getItem().getId(), lines.get(i).getQuantity());
+            }
+            buffer.put((byte) ',');
+            money(OrderArchive.toSatang(order.getTotalPrice()));
+            buffer.put((byte) ',');
+            money(OrderArchive.toSatang(order.getTotalSavings()));
+            buffer.put((byte) '\n');
+        }
+
+        // P001x2
+        private void line(String itemId, int quantity) {
+            text(itemId);
+            buffer.put((byte) 'x');
+            digits(quantity, 1);
+        }
+
+        // Quoted only when it has to be; plain ASCII goes in without an intermediate byte[]
+        private void text(String value) {
+            if (value == null) return;
+            boolean ascii = true;
+            boolean quote = false;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) ascii = false;
+                if (c == ',' || c == '"' || c == '\n' || c == '\r' || c == ' ') quote = true;
+            }
+            if (quote) {
+                value = '"' + value.replace("\"", "\"\"") + '"';
+            }
+            if (ascii) {
+                for (int i = 0; i < value.length(); i++) {
+                    buffer.put((byte) value.charAt(i));
+                }
+            } else {
+                buffer.put(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        // yyyy-MM-ddTHH:mm:ss
+        private void time(long epochSecond) {
+            LocalDateTime time = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+            digits(time.getYear(), 4);
+            buffer.put((byte) '-');
+            digits(time.getMonthValue(), 2);
+            buffer.put((byte) '-');
+            digits(time.getDayOfMonth(), 2);
+            buffer.put((byte) 'T');
+            digits(time.getHour(), 2);
+            buffer.put((byte) ':');
+            digits(time.getMinute(), 2);
+            buffer.put((byte) ':');
+            digits(time.getSecond(), 2);
+        }
+
+        // Satang as baht with two decimals
+        private void money(long satang) {
+            if (satang < 0) {
+                buffer.put((byte) '-');
+                satang = -satang;
+            }
+            digits(satang / OrderArchive.MONEY_SCALE, 1);
+            buffer.put((byte) '.');
+            digits(satang % OrderArchive.MONEY_SCALE, 2);
+        }
+
+        private void digits(long value, int width) {
+            int length = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) length++;
+            for (int i = length; i < width; i++) buffer.put((byte) '0');
+            int end = buffer.position() + length;
+            if (end > buffer.limit()) throw new BufferOverflowException();
+            for (int i = end - 1; i >= end - length; i--) {
+                buffer.put(i, (byte) ('0' + value % 10));
+                value /= 10;
+            }
+            buffer.position(end);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+// OrderHistoryPager.java
+package com.pizzashop.model;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * เลื่อนดูประวัติออเดอร์ทีละหน้า
+ * ขณะที่หน้าปัจจุบันแสดงอยู่ หน้าถัดไปจะถูกดึงล่วงหน้าใน background
+ * เมื่อผู้ใช้กดหน้าถัดไปจึงได้ผลทันที
+ */
+public class OrderHistoryPager {
+    private static final ExecutorService PREFETCH = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "order-history-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final DataManager dataManager;
+    private final OrderQuery query;
+    private final int pageSize;
+
+    private long cursor = OrderPage.FIRST;
+    private boolean exhausted;
+    private CompletableFuture<OrderPage> prefetched;
+
+    public OrderHistoryPager(DataManager dataManager, OrderQuery query, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.dataManager = dataManager;
+        this.query = query;
+        this.pageSize = pageSize;
+    }
+
+    public synchronized boolean hasNext() {
+        return !exhausted;
+    }
+
+    // Returns the next (older) page and starts fetching the one after it
+    public synchronized OrderPage nextPage() {
+        if (exhausted) {
+            return new OrderPage(List.of(), OrderPage.END);
+        }
+
+        OrderPage page = prefetched != null ? prefetched.join() : dataManager.queryOrders(query, cursor, pageSize);
+        cursor = page.getNextCursor();
+        exhausted = !page.hasMore();
+
+        long next = cursor;
+        prefetched = exhausted ? null
+                : CompletableFuture.supplyAsync(() -> dataManager.queryOrders(query, next, pageSize), PREFETCH);
+        return page;
+    }
+
+    // Start again from the newest order
+    public synchronized void reset() {
+        if (prefetched != null) {
+            prefetched.cancel(false);
+            prefetched = null;
+        }
+        cursor = OrderPage.FIRST;
+        exhausted = false;
+    }
+}
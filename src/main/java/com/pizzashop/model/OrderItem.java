@@ -5,6 +5,7 @@ public class OrderItem {
     private Item item;
     private int quantity;
     private double total;
+    Inventory.Recipe stockRecipe;  // recipe this line reserved stock with, null if none
 
     // Constructors
     public OrderItem() {}
@@ -15,6 +16,21 @@ public class OrderItem {
         this.total = item.getPrice() * quantity;
     }
 
+    // A line as it was sold, whatever the item costs now
+    OrderItem(Item item, int quantity, double total) {
+        this.item = item;
+        this.quantity = quantity;
+        this.total = total;
+    }
+
+    // Pooled lines are refilled in place (item null = back in the pool)
+    void reuse(Item item, int quantity) {
+        this.item = item;
+        this.quantity = quantity;
+        this.total = item != null ? item.getPrice() * quantity : 0.0;
+        this.stockRecipe = null;
+    }
+
     // Getters and Setters
     public Item getItem() { return item; }
     public void setItem(Item item) {
@@ -28,6 +44,10 @@ public class OrderItem {
         calculateTotal();
     }
 
+    // Compact reference into the menu catalog; the version pins the price this line was sold at
+    public int getCatalogIndex() { return item.getCatalogIndex(); }
+    public int getItemVersion() { return item.getVersion(); }
+
     public double getTotal() { return total; }
     public void setTotal(double total) { this.total = total; }
 
@@ -0,0 +1,24 @@
+// OrderListener.java
+package com.pizzashop.model;
+
+/**
+ * รับแจ้งเมื่อออเดอร์เปลี่ยน (เพิ่ม/แก้/ลบรายการ, เปลี่ยนสมาชิก, บันทึกออเดอร์)
+ * ส่งเฉพาะชนิดการเปลี่ยนกับรายการที่เกี่ยวข้อง ไม่สร้าง event object ทุกครั้ง
+ */
+@FunctionalInterface
+public interface OrderListener {
+
+    enum Change {
+        LINE_ADDED,        // line = the new line
+        QUANTITY_CHANGED,  // line = the line whose quantity changed
+        LINE_REMOVED,      // line = the removed line
+        LINES_RESET,       // all lines cleared or replaced, line = null
+        MEMBER_CHANGED,
+        DINE_IN_CHANGED,
+        POINTS_CHANGED,    // points held for redemption changed
+        VOUCHER_CHANGED,   // voucher applied or taken off
+        COMMITTED          // saved by DataManager
+    }
+
+    void orderChanged(Order order, Change change, OrderItem line);
+}
@@ -0,0 +1,28 @@
+// OrderPage.java
+package com.pizzashop.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ผลการค้นประวัติออเดอร์หนึ่งหน้า (ใหม่ไปเก่า)
+ * ส่ง nextCursor กลับไปที่ DataManager.queryOrders เพื่อขอหน้าถัดไป
+ */
+public class OrderPage {
+    // Cursor value that starts from the newest order
+    public static final long FIRST = -1;
+    // nextCursor value when there is nothing older
+    public static final long END = 0;
+
+    private final List<Order> orders;
+    private final long nextCursor;
+
+    public OrderPage(List<Order> orders, long nextCursor) {
+        this.orders = Collections.unmodifiableList(orders);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Order> getOrders() { return orders; }
+    public long getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return nextCursor > END; }
+}
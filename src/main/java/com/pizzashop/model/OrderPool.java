@@ -0,0 +1,72 @@
+// OrderPool.java
+package com.pizzashop.model;
+
+import java.util.ArrayDeque;
+
+/**
+ * ที่พักตะกร้า (Order) และรายการสินค้า (OrderItem) ที่ใช้เสร็จแล้ว เพื่อนำกลับมาใช้ใหม่
+ *
+ * ใช้ในโหมด low-latency ของเครื่องขาย: ตะกร้าที่กำลังเปิดอยู่มาจาก pool
+ * พอบันทึกออเดอร์ DataManager จะเก็บสำเนาที่แช่แข็งแล้ว (ไม่ได้มาจาก pool)
+ * ตะกร้าเดิมจึงคืนเข้า pool ได้อย่างปลอดภัยเมื่อเครื่องขายเริ่มออเดอร์ใหม่
+ */
+public class OrderPool {
+    public static final int DEFAULT_ORDERS = 16;
+    public static final int DEFAULT_LINES = 256;
+
+    private final int maxOrders;
+    private final int maxLines;
+    private final ArrayDeque<Order> orders;
+    private final ArrayDeque<OrderItem> lines;
+    private long created;
+    private long reused;
+
+    public OrderPool(int maxOrders, int maxLines) {
+        this.maxOrders = maxOrders;
+        this.maxLines = maxLines;
+        this.orders = new ArrayDeque<>(maxOrders);
+        this.lines = new ArrayDeque<>(maxLines);
+    }
+
+    // A blank cart; new only when the pool is empty
+    synchronized Order takeOrder() {
+        Order order = orders.pollLast();
+        if (order == null) {
+            created++;
+            return new Order(this);
+        }
+        reused++;
+        return order;
+    }
+
+    synchronized OrderItem takeLine(Item item, int quantity) {
+        OrderItem line = lines.pollLast();
+        if (line == null) {
+            return new OrderItem(item, quantity);
+        }
+        line.reuse(item, quantity);
+        return line;
+    }
+
+    synchronized void giveLine(OrderItem line) {
+        if (lines.size() < maxLines) {
+            line.reuse(null, 0);
+            lines.addLast(line);
+        }
+    }
+
+    // Take back a cart once nothing refers to it any more (saved, or abandoned and closed);
+    // a cart already back in the pool has no order ID and is left alone
+    public void recycle(Order order) {
+        if (order.getPool() != this || order.getOrderId() == null) return;
+        order.recycle();
+        synchronized (this) {
+            if (orders.size() < maxOrders) {
+                orders.addLast(order);
+            }
+        }
+    }
+
+    public synchronized long getCreatedCount() { return created; }
+    public synchronized long getReusedCount() { return reused; }
+}
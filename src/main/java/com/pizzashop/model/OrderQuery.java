@@ -0,0 +1,67 @@
+// OrderQuery.java
+package com.pizzashop.model;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * เงื่อนไขค้นประวัติออเดอร์ (ช่วงวันที่, สมาชิก, ทานที่ร้าน/ซื้อกลับ)
+ * เงื่อนไขที่ไม่ได้กำหนดจะไม่ถูกใช้กรอง
+ */
+public class OrderQuery {
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private String memberId;
+    private Boolean dineIn;
+    // Range as local epoch seconds, [fromSecond, toSecond)
+    private long fromSecond = Long.MIN_VALUE;
+    private long toSecond = Long.MAX_VALUE;
+
+    public OrderQuery between(LocalDate fromDate, LocalDate toDate) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.fromSecond = fromDate != null ? startOf(fromDate) : Long.MIN_VALUE;
+        this.toSecond = toDate != null ? startOf(toDate.plusDays(1)) : Long.MAX_VALUE;
+        return this;
+    }
+
+    public OrderQuery forMember(Member member) {
+        this.memberId = member != null ? member.getMemberId() : null;
+        return this;
+    }
+
+    public OrderQuery dineIn(Boolean dineIn) {
+        this.dineIn = dineIn;
+        return this;
+    }
+
+    // Getters
+    public LocalDate getFromDate() { return fromDate; }
+    public LocalDate getToDate() { return toDate; }
+    public String getMemberId() { return memberId; }
+    public Boolean getDineIn() { return dineIn; }
+    long getFromSecond() { return fromSecond; }
+    long getToSecond() { return toSecond; }
+
+    boolean matches(Order order) {
+        if (dineIn != null && order.isDineIn() != dineIn) return false;
+        if (memberId != null && (order.getMember() == null
+                || !memberId.equals(order.getMember().getMemberId()))) return false;
+        return matchesTime(order.getOrderTime().toEpochSecond(ZoneOffset.UTC));
+    }
+
+    // Same test against an archived row, without building an Order
+    boolean matches(OrderArchive.View row) {
+        if (dineIn != null && row.isDineIn() != dineIn) return false;
+        if (!matchesTime(row.getEpochSecond())) return false;
+        return memberId == null || memberId.equals(row.getMemberId());
+    }
+
+    boolean matchesTime(long epochSecond) {
+        return epochSecond >= fromSecond && epochSecond < toSecond;
+    }
+
+    private static long startOf(LocalDate date) {
+        return date.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,28 @@
+// OutOfStockException.java
+package com.pizzashop.model;
+
+/**
+ * วัตถุดิบไม่พอสำหรับสินค้าที่จะเพิ่มลงตะกร้า
+ * ออเดอร์ไม่ถูกเปลี่ยนและไม่มีการจองวัตถุดิบค้างไว้
+ */
+public class OutOfStockException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String itemId;
+    private final String ingredient;
+    private final long required;
+    private final long available;
+
+    public OutOfStockException(String itemId, String ingredient, long required, long available) {
+        super("Not enough " + ingredient + " for " + itemId + ": need " + required + ", have " + available);
+        this.itemId = itemId;
+        this.ingredient = ingredient;
+        this.required = required;
+        this.available = available;
+    }
+
+    public String getItemId() { return itemId; }
+    public String getIngredient() { return ingredient; }
+    public long getRequired() { return required; }
+    public long getAvailable() { return available; }
+}
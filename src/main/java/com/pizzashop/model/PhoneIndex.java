@@ -0,0 +1,229 @@
+// PhoneIndex.java
+package com.pizzashop.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * ดัชนีเบอร์โทรสมาชิก
+ *
+ * เบอร์ถูก normalize ครั้งเดียวตอนเพิ่ม (เหลือแต่ตัวเลข, +66 -> 0)
+ * ค้นแบบตรงตัวด้วย HashMap และค้นบางส่วนด้วย trie ของตัวเลข 2 ชุด:
+ * ชุดหน้า (ต้นเบอร์) และชุดหลัง (ท้ายเบอร์ เช่นพิมพ์ 4 ตัวท้าย)
+ * ค่าที่เก็บคือ slot ของสมาชิกใน DataManager ไม่ใช่ตัว Member
+ * ดัชนีแบบตรงตัวใช้เบอร์ที่แปลงเป็น long (ดู {@link #pack}) จึงไม่ต้องถือ String ของเบอร์ไว้
+ */
+public class PhoneIndex {
+    static final int PREFIX_DEPTH = 6;
+    static final int SUFFIX_DEPTH = 4;
+
+    // Longest phone that still packs into a long behind the leading 1
+    static final int MAX_PACKED_DIGITS = 18;
+    static final long NOT_PACKED = -1;
+
+    private final LongIntMap exact = new LongIntMap(1024);
+    private final Map<String, Integer> unpacked = new HashMap<>();   // phones too long to pack
+    private final DigitTrie prefixTrie = new DigitTrie(PREFIX_DEPTH);
+    private final DigitTrie suffixTrie = new DigitTrie(SUFFIX_DEPTH);
+    private final IntFunction<String> phoneOfSlot;
+
+    // phoneOfSlot returns the normalized phone stored at a member slot
+    public PhoneIndex(IntFunction<String> phoneOfSlot) {
+        this.phoneOfSlot = phoneOfSlot;
+    }
+
+    // Keep digits only; a +66 country code becomes the local leading 0
+    public static String normalize(String raw) {
+        if (raw == null) return "";
+        String trimmed = raw.trim();
+        StringBuilder digits = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c >= '0' && c <= '9') digits.append(c);
+        }
+        if (trimmed.startsWith("+66") && digits.length() > 2) {
+            digits.replace(0, 2, "0");
+        }
+        return digits.toString();
+    }
+
+    // Digits as a long with a leading 1 so leading zeros survive: "0812" -> 10812
+    // 0 for an empty phone, NOT_PACKED if it is too long or not all digits
+    static long pack(String digits) {
+        if (digits == null || digits.isEmpty()) return 0;
+        if (digits.length() > MAX_PACKED_DIGITS) return NOT_PACKED;
+        long packed = 1;
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '9') return NOT_PACKED;
+            packed = packed * 10 + (c - '0');
+        }
+        return packed;
+    }
+
+    // Inverse of pack for values greater than 0
+    static String unpack(long packed) {
+        if (packed == 0) return "";
+        return Long.toString(packed).substring(1);
+    }
+
+    public void add(String normalizedPhone, int slot) {
+        if (normalizedPhone.isEmpty()) return;
+        long packed = pack(normalizedPhone);
+        if (packed == NOT_PACKED) {
+            unpacked.putIfAbsent(normalizedPhone, slot);
+        } else {
+            exact.putIfAbsent(packed, slot);
+        }
+        prefixTrie.add(normalizedPhone, slot);
+        suffixTrie.add(reverse(normalizedPhone), slot);
+    }
+
+    // A member's phone changed: index the new one; the old entries stay and the lookups skip them
+    public void update(String normalizedPhone, int slot) {
+        if (normalizedPhone.isEmpty()) return;
+        if (findExact(normalizedPhone) < 0) {
+            long packed = pack(normalizedPhone);
+            if (packed == NOT_PACKED) {
+                unpacked.put(normalizedPhone, slot);
+            } else {
+                exact.put(packed, slot);
+            }
+        }
+        prefixTrie.add(normalizedPhone, slot);
+        suffixTrie.add(reverse(normalizedPhone), slot);
+    }
+
+    // Returns the member slot, or -1
+    public int findExact(String normalizedPhone) {
+        long packed = pack(normalizedPhone);
+        if (packed == 0) return -1;
+        int slot;
+        if (packed != NOT_PACKED) {
+            slot = exact.get(packed);
+        } else {
+            Integer boxed = unpacked.get(normalizedPhone);
+            slot = boxed != null ? boxed : -1;
+        }
+        // The member may have moved to another phone since
+        return slot >= 0 && phoneOfSlot.apply(slot).equals(normalizedPhone) ? slot : -1;
+    }
+
+    /**
+     * หาเบอร์ที่ขึ้นต้นหรือลงท้ายด้วยตัวเลขที่พิมพ์ (ไม่เกิน limit รายการ)
+     * ผลลัพธ์ที่ขึ้นต้นตรงกันมาก่อน
+     */
+    public List<Integer> findPartial(String normalizedDigits, int limit) {
+        List<Integer> result = new ArrayList<>();
+        if (normalizedDigits.isEmpty() || limit <= 0) return result;
+
+        prefixTrie.collect(normalizedDigits, limit, result,
+                slot -> phoneOfSlot.apply(slot).startsWith(normalizedDigits) && !result.contains(slot));
+        if (result.size() < limit) {
+            suffixTrie.collect(reverse(normalizedDigits), limit, result,
+                    slot -> phoneOfSlot.apply(slot).endsWith(normalizedDigits) && !result.contains(slot));
+        }
+        return result;
+    }
+
+    public int size() {
+        return exact.size() + unpacked.size();
+    }
+
+    private static String reverse(String digits) {
+        return new StringBuilder(digits).reverse().toString();
+    }
+
+    /**
+     * Trie ของตัวเลข 0-9 ที่ลึกแค่ depth ชั้น
+     * เบอร์ที่ยาวกว่านั้นไปรวมอยู่ใน bucket ของ node ชั้นสุดท้าย แล้วกรองด้วย predicate ตอนค้น
+     * ทำให้จำนวน node มีขอบเขต แม้สมาชิกเป็นล้านคน
+     */
+    static class DigitTrie {
+        private final int depth;
+        private final Node root = new Node();
+
+        DigitTrie(int depth) {
+            this.depth = depth;
+        }
+
+        void add(String key, int slot) {
+            Node node = root;
+            int levels = Math.min(key.length(), depth);
+            for (int i = 0; i < levels; i++) {
+                node = node.child(key.charAt(i) - '0', true);
+            }
+            node.addSlot(slot);
+        }
+
+        interface SlotFilter {
+            boolean accept(int slot);
+        }
+
+        void collect(String key, int limit, List<Integer> out, SlotFilter filter) {
+            Node node = root;
+            int levels = Math.min(key.length(), depth);
+            for (int i = 0; i < levels && node != null; i++) {
+                node = node.child(key.charAt(i) - '0', false);
+            }
+            if (node == null) return;
+
+            if (key.length() > depth) {
+                // Deeper than the trie: scan this bucket only
+                node.collectOwn(limit, out, filter);
+            } else {
+                node.collectSubtree(limit, out, filter);
+            }
+        }
+
+        private static class Node {
+            private Node[] children;
+            private int[] slots;
+            private int slotCount;
+
+            Node child(int digit, boolean create) {
+                if (children == null) {
+                    if (!create) return null;
+                    children = new Node[10];
+                }
+                if (children[digit] == null && create) {
+                    children[digit] = new Node();
+                }
+                return children[digit];
+            }
+
+            void addSlot(int slot) {
+                if (slots == null) {
+                    slots = new int[2];
+                } else if (slotCount == slots.length) {
+                    int[] grown = new int[slots.length * 2];
+                    System.arraycopy(slots, 0, grown, 0, slotCount);
+                    slots = grown;
+                }
+                slots[slotCount++] = slot;
+            }
+
+            void collectOwn(int limit, List<Integer> out, SlotFilter filter) {
+                for (int i = 0; i < slotCount && out.size() < limit; i++) {
+                    if (filter.accept(slots[i])) {
+                        out.add(slots[i]);
+                    }
+                }
+            }
+
+            void collectSubtree(int limit, List<Integer> out, SlotFilter filter) {
+                collectOwn(limit, out, filter);
+                if (children == null) return;
+                for (Node child : children) {
+                    if (out.size() >= limit) return;
+                    if (child != null) {
+                        child.collectSubtree(limit, out, filter);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,279 @@
+// PointsLedger.java
+package com.pizzashop.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.zip.CRC32C;
+
+/**
+ * แต้มสะสมของสมาชิก
+ *
+ * ทุกการได้แต้ม (earn) และใช้แต้ม (burn) ถูกต่อท้ายไฟล์ ledger ไม่มีการแก้ของเดิม
+ * ยอดคงเหลืออยู่ในบัญชีของสมาชิกแต่ละคน การกันแต้มให้ตะกร้าปรับด้วย CAS โดยไม่มี lock
+ * การบันทึกล็อกไฟล์ (ใช้ไฟล์เดียวกันได้หลายเครื่อง) อ่านรายการที่เครื่องอื่นต่อท้ายไว้ก่อน
+ * แล้ว fsync ก่อนคืนค่า แต้มที่ใช้ไปแล้วที่เครื่องอื่นจึงใช้ซ้ำไม่ได้ และไม่หายถ้าเครื่องดับ
+ * ตอนเปิดไฟล์จะอ่าน ledger ทั้งหมดรอบเดียวเพื่อสร้างยอดคงเหลือใหม่
+ */
+public class PointsLedger implements Closeable {
+    // Earn one point per 25 baht paid; each redeemed point is 1 baht off
+    public static final double BAHT_PER_POINT_EARNED = 25.0;
+    public static final double POINT_VALUE = 1.0;
+
+    static final byte ENTRY_EARN = 1;
+    static final byte ENTRY_BURN = 2;
+    // Frame: [int length][int crc32c][payload]
+    private static final int FRAME_HEADER = 2 * Integer.BYTES;
+    private static final int MAX_ENTRY_SIZE = 1024;
+    private static final int REPLAY_BUFFER_SIZE = 1 << 20;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private long entryCount;
+    private long appliedBytes;   // entries up to here are in the accounts
+
+    private PointsLedger(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    // Open (or create) the ledger file and rebuild every balance from it
+    public static PointsLedger open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PointsLedger ledger = new PointsLedger(file, channel);
+        try {
+            synchronized (ledger) {
+                try (FileLock _ = channel.lock()) {
+                    ledger.catchUp(true);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return ledger;
+    }
+
+    public static long pointsEarned(double amountPaid) {
+        return amountPaid <= 0 ? 0 : (long) Math.floor(amountPaid / BAHT_PER_POINT_EARNED);
+    }
+
+    // === Balances (O(1)) ===
+
+    // Posted balance: everything earned minus everything redeemed, at any terminal
+    public long getBalance(String memberId) {
+        refresh();
+        Account account = accounts.get(memberId);
+        return account != null ? account.balance : 0;
+    }
+
+    // Balance minus points held by open carts
+    public long getAvailable(String memberId) {
+        refresh();
+        Account account = accounts.get(memberId);
+        return account != null ? account.available : 0;
+    }
+
+    public int getAccountCount() { return accounts.size(); }
+    public synchronized long getEntryCount() { return entryCount; }
+    public Path getFile() { return file; }
+
+    // === Holds (open carts) ===
+
+    // Set points aside for a cart; nothing is written until the order is saved
+    public void hold(String memberId, long points) {
+        if (points <= 0) return;
+        refresh();
+        Account account = accounts.get(memberId);
+        if (account == null || !account.tryTake(points)) {
+            throw new InsufficientPointsException(memberId, points, getAvailable(memberId));
+        }
+    }
+
+    public void releaseHold(String memberId, long points) {
+        if (points <= 0) return;
+        account(memberId).addAvailable(points);
+    }
+
+    // === Ledger entries ===
+
+    // Turn held points into a burn entry
+    public void redeemHeld(String memberId, long points, String orderId) {
+        post(memberId, points, 0, orderId);
+    }
+
+    public void earn(String memberId, long points, String orderId) {
+        post(memberId, 0, points, orderId);
+    }
+
+    // Burn held points and earn new ones for one order in a single locked write and fsync. The burn is checked
+    // against the balance with every other terminal's entries applied, so the same points are never spent twice
+    synchronized void post(String memberId, long redeemed, long earned, String orderId) {
+        if (redeemed <= 0 && earned <= 0) return;
+        ByteBuffer frames = ByteBuffer.allocate(2 * (FRAME_HEADER + MAX_ENTRY_SIZE));
+        if (redeemed > 0) frame(frames, ENTRY_BURN, memberId, redeemed, orderId);
+        if (earned > 0) frame(frames, ENTRY_EARN, memberId, earned, orderId);
+        frames.flip();
+        Account account = account(memberId);
+        try (FileLock _ = channel.lock()) {
+            catchUp(true);
+            if (redeemed > account.balance) {
+                throw new InsufficientPointsException(memberId, redeemed, account.balance);
+            }
+            long position = appliedBytes;
+            while (frames.hasRemaining()) {
+                position += channel.write(frames, position);
+            }
+            channel.force(false);
+            appliedBytes = position;
+            entryCount += (redeemed > 0 ? 1 : 0) + (earned > 0 ? 1 : 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write points ledger " + file, e);
+        }
+        // The burned points already left available when they were held
+        account.addBalance(Math.max(earned, 0) - Math.max(redeemed, 0));
+        account.addAvailable(Math.max(earned, 0));
+    }
+
+    private Account account(String memberId) {
+        return accounts.computeIfAbsent(memberId, id -> new Account());
+    }
+
+    private static void frame(ByteBuffer frames, byte type, String memberId, long points, String orderId) {
+        int start = frames.position();
+        frames.position(start + FRAME_HEADER);
+        frames.put(type);
+        ModelCodec.writeString(frames, memberId);
+        ModelCodec.writeVarLong(frames, points);
+        ModelCodec.writeString(frames, orderId);
+        ModelCodec.writeVarLong(frames, Instant.now().getEpochSecond());
+        int length = frames.position() - start - FRAME_HEADER;
+        frames.putInt(start, length);
+        frames.putInt(start + Integer.BYTES, checksum(frames, start + FRAME_HEADER, length));
+    }
+
+    // Entries other terminals wrote since the last look; no I/O beyond a size check when there are none
+    private synchronized void refresh() {
+        try {
+            catchUp(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read points ledger " + file, e);
+        }
+    }
+
+    // Apply whole entries past appliedBytes. Under the file lock nobody else is mid-write,
+    // so a bad tail is a crashed write and is cut off before anything follows it
+    private void catchUp(boolean locked) throws IOException {
+        long size = channel.size();
+        if (size == appliedBytes) return;
+        long end = replay(appliedBytes);
+        if (locked && end < size) {
+            channel.truncate(end);
+        }
+        appliedBytes = end;
+    }
+
+    // === Replay ===
+
+    // Apply every complete entry from the given offset; returns the file offset after the last one
+    private long replay(long from) throws IOException {
+        // Big enough for the largest frame, so a full buffer always holds at least one
+        long wanted = Math.max(channel.size() - from, FRAME_HEADER + MAX_ENTRY_SIZE);
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(REPLAY_BUFFER_SIZE, wanted));
+        long offset = from;     // file offset of buffer position 0
+        long validEnd = from;
+        while (true) {
+            int read = channel.read(buffer, offset + buffer.position());
+            buffer.flip();
+            while (buffer.remaining() >= FRAME_HEADER) {
+                int start = buffer.position();
+                int length = buffer.getInt(start);
+                if (length <= 0 || length > MAX_ENTRY_SIZE) return validEnd;
+                if (buffer.remaining() < FRAME_HEADER + length) break;
+                if (checksum(buffer, start + FRAME_HEADER, length) != buffer.getInt(start + Integer.BYTES)) {
+                    return validEnd;
+                }
+                applyEntry(buffer.slice(start + FRAME_HEADER, length));
+                buffer.position(start + FRAME_HEADER + length);
+                validEnd = offset + buffer.position();
+            }
+            offset += buffer.position();
+            buffer.compact();
+            if (read < 0) return validEnd;
+        }
+    }
+
+    private void applyEntry(ByteBuffer entry) {
+        byte type = entry.get();
+        String memberId = ModelCodec.readString(entry);
+        long points = ModelCodec.readVarLong(entry);
+        Account account = account(memberId);
+        if (type == ENTRY_EARN) {
+            account.addBalance(points);
+            account.addAvailable(points);
+        } else if (type == ENTRY_BURN) {
+            account.addBalance(-points);
+            account.addAvailable(-points);
+        } else {
+            throw new IllegalStateException("Unknown ledger entry type " + type + " in " + file);
+        }
+        entryCount++;
+    }
+
+    private static int checksum(ByteBuffer buffer, int from, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(from, length));
+        return (int) crc.getValue();
+    }
+
+    // Every entry is forced as it is written; kept for callers that flush on shutdown
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    /**
+     * บัญชีแต้มของสมาชิกหนึ่งคน ปรับด้วย CAS บน field โดยตรง (ไม่มี object AtomicLong ซ้อน)
+     */
+    private static final class Account {
+        private static final AtomicLongFieldUpdater<Account> AVAILABLE =
+                AtomicLongFieldUpdater.newUpdater(Account.class, "available");
+        private static final AtomicLongFieldUpdater<Account> BALANCE =
+                AtomicLongFieldUpdater.newUpdater(Account.class, "balance");
+
+        private volatile long available;
+        private volatile long balance;
+
+        boolean tryTake(long points) {
+            while (true) {
+                long current = available;
+                if (current < points) return false;
+                if (AVAILABLE.compareAndSet(this, current, current - points)) return true;
+            }
+        }
+
+        void addAvailable(long points) {
+            AVAILABLE.getAndAdd(this, points);
+        }
+
+        void addBalance(long points) {
+            BALANCE.getAndAdd(this, points);
+        }
+    }
+}
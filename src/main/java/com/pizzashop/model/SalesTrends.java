@@ -0,0 +1,139 @@
+// SalesTrends.java
+package com.pizzashop.model;
+
+import java.util.Arrays;
+
+/**
+ * สินค้าขายดีและสินค้าที่มักซื้อคู่กัน คำนวณแบบ streaming จากออเดอร์ที่บันทึกแล้ว
+ *
+ * ใช้ Space-Saving (heavy hitters) ที่มีจำนวนช่องคงที่ ทั้งสำหรับสินค้าขายดีทั้งร้าน
+ * และสำหรับคู่สินค้าของแต่ละ catalog index หน่วยความจำจึงไม่โตตามจำนวนออเดอร์
+ * ค่าที่ได้เป็นค่าประมาณ (ช่องที่ถูกแทนที่อาจนับเกินได้ไม่เกินค่าต่ำสุดเดิม) แต่สินค้าที่ขายบ่อยจริงจะไม่หลุด
+ */
+public class SalesTrends {
+    public static final int DEFAULT_TOP_CAPACITY = 64;
+    public static final int DEFAULT_PAIR_CAPACITY = 16;
+    // Larger baskets only pair their first items, to keep each order O(1)
+    private static final int MAX_PAIRED_ITEMS = 32;
+
+    private final TopCounter bestsellers;
+    private final int pairCapacity;
+    private TopCounter[] partners = new TopCounter[0];  // by catalog index
+
+    public SalesTrends() {
+        this(DEFAULT_TOP_CAPACITY, DEFAULT_PAIR_CAPACITY);
+    }
+
+    public SalesTrends(int topCapacity, int pairCapacity) {
+        this.bestsellers = new TopCounter(topCapacity);
+        this.pairCapacity = pairCapacity;
+    }
+
+    // Add a committed order
+    public synchronized void record(Order order) {
+        int[] basket = new int[Math.min(order.getOrderItems().size(), MAX_PAIRED_ITEMS)];
+        int size = 0;
+
+        for (OrderItem line : order.getOrderItems()) {
+            int index = line.getCatalogIndex();
+            if (index < 0) continue;
+            bestsellers.add(index, line.getQuantity());
+            if (size < basket.length && !contains(basket, size, index)) {
+                basket[size++] = index;
+            }
+        }
+
+        // One count per basket for each ordered pair of distinct items
+        for (int i = 0; i < size; i++) {
+            TopCounter counter = partnersOf(basket[i]);
+            for (int j = 0; j < size; j++) {
+                if (i != j) {
+                    counter.add(basket[j], 1);
+                }
+            }
+        }
+    }
+
+    // Catalog indexes of the best sellers, most sold first
+    public synchronized int[] topSellers(int limit) {
+        return bestsellers.top(limit);
+    }
+
+    // Catalog indexes most often in the same order as the given one
+    public synchronized int[] boughtWith(int catalogIndex, int limit) {
+        if (catalogIndex < 0 || catalogIndex >= partners.length || partners[catalogIndex] == null) {
+            return new int[0];
+        }
+        return partners[catalogIndex].top(limit);
+    }
+
+    private TopCounter partnersOf(int index) {
+        if (index >= partners.length) {
+            partners = Arrays.copyOf(partners, Math.max(index + 1, partners.length * 2));
+        }
+        if (partners[index] == null) {
+            partners[index] = new TopCounter(pairCapacity);
+        }
+        return partners[index];
+    }
+
+    private static boolean contains(int[] basket, int size, int index) {
+        for (int i = 0; i < size; i++) {
+            if (basket[i] == index) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Space-Saving counter ขนาดคงที่
+     * เมื่อช่องเต็ม key ใหม่จะแทนที่ช่องที่นับน้อยที่สุดและนับต่อจากค่านั้น
+     */
+    static final class TopCounter {
+        private final int[] keys;
+        private final long[] counts;
+        private int size;
+
+        TopCounter(int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+            }
+            keys = new int[capacity];
+            counts = new long[capacity];
+        }
+
+        void add(int key, long amount) {
+            int min = 0;
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    counts[i] += amount;
+                    return;
+                }
+                if (counts[i] < counts[min]) min = i;
+            }
+            if (size < keys.length) {
+                keys[size] = key;
+                counts[size] = amount;
+                size++;
+            } else {
+                keys[min] = key;
+                counts[min] += amount;
+            }
+        }
+
+        int[] top(int limit) {
+            int n = Math.min(limit, size);
+            int[] result = new int[n];
+            boolean[] taken = new boolean[size];
+            // Selection of the n largest; n and size are both small
+            for (int r = 0; r < n; r++) {
+                int best = -1;
+                for (int i = 0; i < size; i++) {
+                    if (!taken[i] && (best < 0 || counts[i] > counts[best])) best = i;
+                }
+                taken[best] = true;
+                result[r] = keys[best];
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+// StoreBackup.java
+package com.pizzashop.model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * สำรองข้อมูลร้านแบบไม่ต้องปิดเครื่องขาย และกู้คืน
+ *
+ * ไฟล์ที่ต่อท้ายอย่างเดียว (segment ของ journal, redeemed.log, ledger แต้ม) คัดลอกเฉพาะส่วนที่เพิ่มมา
+ * ตั้งแต่รอบก่อน ไฟล์เล็กอื่นๆ (lease, key) คัดลอกทั้งไฟล์เมื่อมีการเปลี่ยน
+ * การคัดลอกใช้ FileChannel.transferTo (kernel คัดลอกเอง ไม่ผ่าน Java heap) แล้วคิด CRC32C
+ * จากไฟล์สำรองผ่าน mmap บันทึกลง MANIFEST ทีละช่วง ตอนกู้คืนตรวจทุกช่วงก่อนคัดลอกกลับ
+ *
+ * java -m pizzashop/com.pizzashop.model.StoreBackup backup <backup dir> journal=<dir> points=<file> vouchers=<dir>
+ * java -m pizzashop/com.pizzashop.model.StoreBackup restore <backup dir> <target dir>
+ */
+public class StoreBackup {
+    public static final String JOURNAL = "journal";
+    public static final String POINTS = "points";
+    public static final String VOUCHERS = "vouchers";
+
+    static final String MANIFEST = "MANIFEST";
+    private static final String DATA = "data";
+    private static final String LOG_SUFFIX = ".log";
+    private static final long CHECKSUM_WINDOW = 64L * 1024 * 1024;
+    private static final int PREFIX_CHECK_BYTES = 4096;
+
+    private final Path backupDirectory;
+    // label -> source; a directory, or a single append-only file
+    private final Map<String, Path> directories = new LinkedHashMap<>();
+    private final Map<String, Path> logs = new LinkedHashMap<>();
+    // What the backup holds, by label/relative name
+    private final Map<String, Entry> entries;
+
+    public StoreBackup(Path backupDirectory) throws IOException {
+        this.backupDirectory = backupDirectory;
+        Files.createDirectories(backupDirectory.resolve(DATA));
+        this.entries = readManifest(backupDirectory);
+    }
+
+    // Every file in the directory: *.log only grows, anything else is copied whole when it changes
+    public StoreBackup addDirectory(String label, Path directory) {
+        directories.put(label, directory);
+        return this;
+    }
+
+    // A single file that only grows
+    public StoreBackup addLog(String label, Path file) {
+        logs.put(label, file);
+        return this;
+    }
+
+    // One incremental pass; safe while the tills keep writing
+    public synchronized Result run() throws IOException {
+        long started = System.nanoTime();
+        int files = 0;
+        long bytes = 0;
+        try (BufferedWriter manifest = Files.newBufferedWriter(backupDirectory.resolve(MANIFEST),
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Map.Entry<String, Path> source : directories.entrySet()) {
+                if (!Files.isDirectory(source.getValue())) continue;
+                List<Path> children;
+                try (Stream<Path> list = Files.list(source.getValue())) {
+                    children = list.filter(Files::isRegularFile).sorted().toList();
+                }
+                for (Path file : children) {
+                    String fileName = file.getFileName().toString();
+                    long copied = backUp(source.getKey() + "/" + fileName, file, fileName.endsWith(LOG_SUFFIX), manifest);
+                    if (copied >= 0) {
+                        files++;
+                        bytes += copied;
+                    }
+                }
+            }
+            for (Map.Entry<String, Path> source : logs.entrySet()) {
+                if (!Files.isRegularFile(source.getValue())) continue;
+                long copied = backUp(source.getKey() + "/" + source.getValue().getFileName(), source.getValue(), true, manifest);
+                if (copied >= 0) {
+                    files++;
+                    bytes += copied;
+                }
+            }
+            manifest.write("run " + Instant.now().getEpochSecond() + " " + files + " " + bytes);
+            manifest.newLine();
+        }
+        return new Result(files, bytes, System.nanoTime() - started);
+    }
+
+    // Returns the bytes copied, or -1 when the backup already has this file as it is
+    private long backUp(String name, Path source, boolean appendOnly, BufferedWriter manifest) throws IOException {
+        Entry entry = entries.get(name);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = in.size();   // a snapshot: bytes appended from here on wait for the next run
+            long modified = appendOnly ? 0 : Files.getLastModifiedTime(source).toMillis();
+            Path target = backupDirectory.resolve(DATA).resolve(name);
+            long from;
+            if (entry == null) {
+                from = 0;
+            } else if (appendOnly) {
+                // Shorter, or grown over a torn tail that was cut after a crash: start over
+                boolean prefixIntact = size >= entry.length && samePrefix(in, target, entry.length);
+                if (prefixIntact && size == entry.length) return -1;
+                from = prefixIntact ? entry.length : 0;
+            } else {
+                if (size == entry.length && modified == entry.modified) return -1;
+                from = 0;
+            }
+
+            Files.createDirectories(target.getParent());
+            long checksum;
+            try (FileChannel out = FileChannel.open(target,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // Drops anything a crashed run wrote past what the manifest records
+                out.truncate(from);
+                out.position(from);
+                long position = from;
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
+                out.force(false);
+                checksum = checksum(out, from, size - from);
+            }
+
+            manifest.write("extent " + name + " " + from + " " + (size - from) + " "
+                    + Long.toHexString(checksum) + " " + modified);
+            manifest.newLine();
+            manifest.flush();
+            entries.put(name, new Entry(size, modified));
+            return size - from;
+        }
+    }
+
+    // Whether the last bytes the backup holds are still the source's bytes at the same place. A log only grows,
+    // but one whose torn tail was truncated and written over has the same length and different content there
+    private static boolean samePrefix(FileChannel source, Path copy, long length) throws IOException {
+        if (!Files.isRegularFile(copy)) return false;
+        long from = Math.max(0, length - PREFIX_CHECK_BYTES);
+        try (FileChannel backedUp = FileChannel.open(copy, StandardOpenOption.READ)) {
+            if (backedUp.size() < length) return false;
+            return read(source, from, length).equals(read(backedUp, from, length));
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) >= 0) {
+            // fill the buffer
+        }
+        return buffer.flip();
+    }
+
+    // === Restore ===
+
+    // Check every extent, then copy the files to targetDirectory/<label>/...; returns the files restored
+    public static List<Path> restore(Path backupDirectory, Path targetDirectory) throws IOException {
+        Map<String, List<long[]>> extents = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(backupDirectory.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+            String[] fields = line.split(" ");
+            if (!fields[0].equals("extent")) continue;
+            long offset = Long.parseLong(fields[2]);
+            List<long[]> list = extents.computeIfAbsent(fields[1], name -> new ArrayList<>());
+            if (offset == 0) list.clear();   // rewritten from the start
+            list.add(new long[] {offset, Long.parseLong(fields[3]), Long.parseUnsignedLong(fields[4], 16)});
+        }
+
+        List<Path> restored = new ArrayList<>(extents.size());
+        for (Map.Entry<String, List<long[]>> file : extents.entrySet()) {
+            Path source = backupDirectory.resolve(DATA).resolve(file.getKey());
+            Path target = targetDirectory.resolve(file.getKey());
+            Files.createDirectories(target.getParent());
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long length = 0;
+                for (long[] extent : file.getValue()) {
+                    if (extent[0] + extent[1] > in.size() || checksum(in, extent[0], extent[1]) != extent[2]) {
+                        throw new IOException("Backup of " + file.getKey() + " is damaged at offset " + extent[0]);
+                    }
+                    length = extent[0] + extent[1];
+                }
+                long position = 0;
+                while (position < length) {
+                    position += in.transferTo(position, length - position, out);
+                }
+                out.force(false);
+            }
+            restored.add(target);
+        }
+        return restored;
+    }
+
+    // === Manifest ===
+
+    private static Map<String, Entry> readManifest(Path backupDirectory) throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+        Path manifest = backupDirectory.resolve(MANIFEST);
+        if (!Files.exists(manifest)) return entries;
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(" ");
+            if (!fields[0].equals("extent")) continue;
+            long end = Long.parseLong(fields[2]) + Long.parseLong(fields[3]);
+            entries.put(fields[1], new Entry(end, Long.parseLong(fields[5])));
+        }
+        return entries;
+    }
+
+    // CRC32C of a region, read through mmap rather than copied onto the heap
+    private static long checksum(FileChannel channel, long from, long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (long offset = from; offset < from + length; offset += CHECKSUM_WINDOW) {
+            long window = Math.min(CHECKSUM_WINDOW, from + length - offset);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, window);
+            crc.update(mapped);
+        }
+        return crc.getValue();
+    }
+
+    public Path getBackupDirectory() { return backupDirectory; }
+
+    // Length and (for whole-file copies) modification time the backup holds
+    private record Entry(long length, long modified) {}
+
+    /**
+     * ผลของการสำรองหนึ่งรอบ
+     */
+    public static class Result {
+        private final int files;
+        private final long bytes;
+        private final long nanos;
+
+        Result(int files, long bytes, long nanos) {
+            this.files = files;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public int getFiles() { return files; }
+        public long getBytes() { return bytes; }
+        public long getNanos() { return nanos; }
+
+        @Override
+        public String toString() {
+            return files + " files, " + bytes + " bytes in " + nanos / 1_000_000 + " ms";
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("backup")) {
+            StoreBackup backup = new StoreBackup(Path.of(args[1]));
+            for (int i = 2; i < args.length; i++) {
+                int eq = args[i].indexOf('=');
+                String label = args[i].substring(0, eq);
+                Path path = Path.of(args[i].substring(eq + 1));
+                if (label.equals(POINTS)) {
+                    backup.addLog(label, path);
+                } else {
+                    backup.addDirectory(label, path);
+                }
+            }
+            System.out.println(backup.run());
+        } else if (args.length == 3 && args[0].equals("restore")) {
+            List<Path> restored = restore(Path.of(args[1]), Path.of(args[2]));
+            System.out.println(restored.size() + " files restored to " + args[2]);
+        } else {
+            System.err.println("usage: StoreBackup backup <backup dir> journal=<dir> points=<file> vouchers=<dir>");
+            System.err.println("       StoreBackup restore <backup dir> <target dir>");
+            System.exit(2);
+        }
+    }
+}
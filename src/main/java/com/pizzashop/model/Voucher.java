@@ -0,0 +1,28 @@
+// Voucher.java
+package com.pizzashop.model;
+
+/**
+ * คูปองส่วนลดใช้ครั้งเดียว ที่ตรวจลายเซ็นของรหัสแล้ว
+ * ได้จาก {@link VoucherBook#check} เท่านั้น
+ */
+public final class Voucher {
+    private final String code;
+    private final long serial;
+    private final int amount;
+
+    Voucher(String code, long serial, int amount) {
+        this.code = code;
+        this.serial = serial;
+        this.amount = amount;
+    }
+
+    public String getCode() { return code; }
+    public long getSerial() { return serial; }
+    // Baht off the order
+    public int getAmount() { return amount; }
+
+    @Override
+    public String toString() {
+        return code + " (" + amount + " บาท)";
+    }
+}
@@ -0,0 +1,351 @@
+// VoucherBook.java
+package com.pizzashop.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * คูปองส่วนลดใช้ครั้งเดียว
+ *
+ * รหัสคูปองพกเลขลำดับและมูลค่าไว้ในตัว พร้อมลายเซ็น HMAC จาก key ของร้าน
+ * จึงตรวจได้ว่าเป็นรหัสจริงโดยไม่ต้องเก็บรายการคูปองที่แจก
+ * คูปองที่ใช้แล้วอยู่ใน redeemed.log ในโฟลเดอร์ที่ทุกเครื่องแชร์กัน
+ * ตอนตรวจ: ดู Bloom filter ก่อน (ส่วนใหญ่จบที่นี่) ถ้าอาจใช้แล้วค่อยดูชุดเลขที่ใช้จริง
+ * ตอนใช้: ล็อกไฟล์, อ่านของเครื่องอื่นที่เพิ่งเขียน, ตรวจซ้ำ, แล้วต่อท้าย จึงใช้ซ้ำข้ามเครื่องไม่ได้
+ * ถ้าบันทึกออเดอร์ไม่สำเร็จหลังใช้คูปอง จะต่อท้าย record ยกเลิกเพื่อให้คูปองกลับมาใช้ได้
+ */
+public class VoucherBook implements Closeable {
+    public static final int MAX_AMOUNT = 0xFFFF;
+    public static final int DEFAULT_EXPECTED_REDEMPTIONS = 1_000_000;
+    private static final long MAX_SERIAL = (1L << 40) - 1;
+
+    private static final String KEY_FILE = "voucher.key";
+    private static final String SERIAL_FILE = "voucher-serial.lease";
+    private static final String REDEEMED_FILE = "redeemed.log";
+    private static final int KEY_BYTES = 32;
+    private static final int RECORD_SIZE = 2 * Long.BYTES;   // [serial, or ~serial to cancel][epoch second]
+
+    // Code = base32 of [5-byte serial][2-byte amount][5-byte MAC], grouped by 5;
+    // serial and amount are XORed with the MAC so consecutive codes look unrelated
+    private static final int PAYLOAD_BYTES = 7;
+    private static final int MAC_BYTES = 5;
+    private static final int CODE_BYTES = PAYLOAD_BYTES + MAC_BYTES;
+    private static final int CODE_CHARS = 20;
+    private static final int PAD_BITS = CODE_CHARS * 5 - CODE_BYTES * 8;
+    // Crockford base32: no I, L, O or U, so codes read out loud survive
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] DIGIT_OF = new byte[128];
+
+    static {
+        Arrays.fill(DIGIT_OF, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGIT_OF[ALPHABET[i]] = (byte) i;
+            DIGIT_OF[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+        DIGIT_OF['O'] = DIGIT_OF['o'] = 0;
+        DIGIT_OF['I'] = DIGIT_OF['i'] = DIGIT_OF['L'] = DIGIT_OF['l'] = 1;
+    }
+
+    private final Path directory;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final FileChannel redeemedChannel;
+
+    // Redemptions seen so far, from every terminal
+    private final BloomFilter bloom;
+    private final LongIntMap redeemed;     // serial -> 1 redeemed, 0 redemption cancelled
+    private int redeemedCount;
+    private long appliedBytes;
+
+    private VoucherBook(Path directory, byte[] keyBytes, FileChannel redeemedChannel, int expectedRedemptions) {
+        this.directory = directory;
+        this.key = new SecretKeySpec(keyBytes, "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.redeemedChannel = redeemedChannel;
+        this.bloom = new BloomFilter(expectedRedemptions);
+        this.redeemed = new LongIntMap(1024);
+    }
+
+    // Open the shared voucher directory; the shop key is created on first use
+    public static VoucherBook open(Path directory, int expectedRedemptions) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(directory.resolve(REDEEMED_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        VoucherBook book = new VoucherBook(directory, loadOrCreateKey(directory.resolve(KEY_FILE)),
+                channel, expectedRedemptions);
+        synchronized (book) {
+            book.catchUp();
+        }
+        return book;
+    }
+
+    // === Issuing ===
+
+    // New codes worth amount baht each, from a serial block leased under a file lock
+    public List<String> issue(int amount, int count) throws IOException {
+        if (amount <= 0 || amount > MAX_AMOUNT) {
+            throw new IllegalArgumentException("Voucher amount must be 1-" + MAX_AMOUNT + " baht");
+        }
+        long first = leaseSerials(count);
+        List<String> codes = new ArrayList<>(count);
+        for (long serial = first; serial < first + count; serial++) {
+            codes.add(encode(serial, amount));
+        }
+        return codes;
+    }
+
+    private long leaseSerials(int count) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(SERIAL_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock _ = channel.lock()) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            long start = channel.read(buffer, 0) == Long.BYTES ? buffer.flip().getLong() : 1;
+            if (start + count > MAX_SERIAL) {
+                throw new IllegalStateException("Voucher serials exhausted");
+            }
+            buffer.clear();
+            buffer.putLong(start + count).flip();
+            channel.write(buffer, 0);
+            channel.force(false);
+            return start;
+        }
+    }
+
+    String encode(long serial, int amount) {
+        byte[] bytes = new byte[CODE_BYTES];
+        for (int i = 0; i < 5; i++) {
+            bytes[i] = (byte) (serial >>> (8 * (4 - i)));
+        }
+        bytes[5] = (byte) (amount >>> 8);
+        bytes[6] = (byte) amount;
+        System.arraycopy(sign(bytes), 0, bytes, PAYLOAD_BYTES, MAC_BYTES);
+        mask(bytes);
+
+        StringBuilder code = new StringBuilder(CODE_CHARS + CODE_CHARS / 5 - 1);
+        for (int c = 0; c < CODE_CHARS; c++) {
+            if (c > 0 && c % 5 == 0) code.append('-');
+            int digit = 0;
+            for (int b = 0; b < 5; b++) {
+                int bit = c * 5 + b - PAD_BITS;
+                digit = digit << 1 | (bit < 0 ? 0 : (bytes[bit >>> 3] >>> (7 - (bit & 7))) & 1);
+            }
+            code.append(ALPHABET[digit]);
+        }
+        return code.toString();
+    }
+
+    // === Checking (no I/O unless another terminal has written since) ===
+
+    // The voucher if the code is genuine and unused; lower case, dashes and spaces are fine
+    public Voucher check(String rawCode) {
+        byte[] bytes = decode(rawCode);
+        if (bytes != null) {
+            mask(bytes);
+        }
+        if (bytes == null || !MessageDigest.isEqual(
+                Arrays.copyOfRange(sign(bytes), 0, MAC_BYTES),
+                Arrays.copyOfRange(bytes, PAYLOAD_BYTES, CODE_BYTES))) {
+            throw new InvalidVoucherException(rawCode, InvalidVoucherException.Reason.BAD_CODE);
+        }
+        long serial = 0;
+        for (int i = 0; i < 5; i++) {
+            serial = serial << 8 | (bytes[i] & 0xFF);
+        }
+        int amount = (bytes[5] & 0xFF) << 8 | (bytes[6] & 0xFF);
+        if (amount == 0) {
+            throw new InvalidVoucherException(rawCode, InvalidVoucherException.Reason.BAD_CODE);
+        }
+        Voucher voucher = new Voucher(encode(serial, amount), serial, amount);
+        if (isRedeemed(serial)) {
+            throw new InvalidVoucherException(voucher.getCode(), InvalidVoucherException.Reason.ALREADY_REDEEMED);
+        }
+        return voucher;
+    }
+
+    public synchronized boolean isRedeemed(long serial) {
+        catchUp();
+        return isRedeemedNow(serial);
+    }
+
+    public synchronized int getRedeemedCount() {
+        return redeemedCount;
+    }
+
+    private static byte[] decode(String rawCode) {
+        if (rawCode == null) return null;
+        byte[] bytes = new byte[CODE_BYTES];
+        int bit = -PAD_BITS;
+        for (int i = 0; i < rawCode.length(); i++) {
+            char c = rawCode.charAt(i);
+            if (c == '-' || c == ' ') continue;
+            int digit = c < 128 ? DIGIT_OF[c] : -1;
+            if (digit < 0 || bit >= CODE_BYTES * 8) return null;
+            for (int b = 4; b >= 0; b--, bit++) {
+                int value = (digit >>> b) & 1;
+                if (bit < 0) {
+                    if (value != 0) return null;   // padding bits must be zero
+                } else if (value != 0) {
+                    bytes[bit >>> 3] |= (byte) (1 << (7 - (bit & 7)));
+                }
+            }
+        }
+        return bit == CODE_BYTES * 8 ? bytes : null;
+    }
+
+    // Its own inverse: the MAC bytes are left as they are
+    private static void mask(byte[] bytes) {
+        for (int i = 0; i < PAYLOAD_BYTES; i++) {
+            bytes[i] ^= bytes[PAYLOAD_BYTES + i % MAC_BYTES];
+        }
+    }
+
+    private byte[] sign(byte[] bytes) {
+        Mac mac = macs.get();
+        mac.update(bytes, 0, PAYLOAD_BYTES);
+        return mac.doFinal();
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    // === Redeeming (exclusive across terminals) ===
+
+    // Record the voucher as used; throws if any terminal already used it
+    public synchronized void redeem(Voucher voucher) {
+        try (FileLock _ = redeemedChannel.lock()) {
+            catchUpLocked();
+            if (isRedeemedNow(voucher.getSerial())) {
+                throw new InvalidVoucherException(voucher.getCode(), InvalidVoucherException.Reason.ALREADY_REDEEMED);
+            }
+            append(voucher.getSerial());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot record voucher redemption in " + directory, e);
+        }
+    }
+
+    // Undo a redeem whose order then failed to save, so the voucher can be used again
+    synchronized void cancelRedemption(Voucher voucher) {
+        try (FileLock _ = redeemedChannel.lock()) {
+            catchUpLocked();
+            if (isRedeemedNow(voucher.getSerial())) {
+                append(~voucher.getSerial());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot cancel voucher redemption in " + directory, e);
+        }
+    }
+
+    // Caller holds the file lock
+    private void catchUpLocked() throws IOException {
+        long size = redeemedChannel.size();
+        if (size % RECORD_SIZE != 0) {
+            // A terminal died mid-write; nobody else can be writing while we hold the lock
+            redeemedChannel.truncate(size - size % RECORD_SIZE);
+        }
+        catchUp();
+    }
+
+    private boolean isRedeemedNow(long serial) {
+        return bloom.mightContain(serial) && redeemed.get(serial) > 0;
+    }
+
+    // Caller holds the file lock and has caught up; ~serial cancels a redemption
+    private void append(long serialOrCancel) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(serialOrCancel).putLong(Instant.now().getEpochSecond()).flip();
+        long position = redeemedChannel.size();
+        while (record.hasRemaining()) {
+            position += redeemedChannel.write(record, position);
+        }
+        redeemedChannel.force(false);
+        remember(serialOrCancel);
+        appliedBytes = position;
+    }
+
+    // Apply whole records written since the last call (ours or other terminals')
+    private void catchUp() {
+        try {
+            long end = redeemedChannel.size();
+            end -= end % RECORD_SIZE;
+            if (end <= appliedBytes) return;
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(end - appliedBytes, 1 << 20));
+            while (appliedBytes < end) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - appliedBytes));
+                while (buffer.hasRemaining() && redeemedChannel.read(buffer, appliedBytes + buffer.position()) >= 0) {
+                    // fill the buffer
+                }
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    remember(buffer.getLong());
+                    buffer.getLong();   // time, kept for audits
+                }
+                appliedBytes += buffer.position();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read voucher redemptions in " + directory, e);
+        }
+    }
+
+    // A cancelled serial stays in the Bloom filter and the map, marked 0
+    private void remember(long serialOrCancel) {
+        if (serialOrCancel < 0) {
+            long serial = ~serialOrCancel;
+            if (redeemed.get(serial) > 0) {
+                redeemed.put(serial, 0);
+                redeemedCount--;
+            }
+            return;
+        }
+        bloom.add(serialOrCancel);
+        if (redeemed.get(serialOrCancel) <= 0) {
+            redeemed.put(serialOrCancel, 1);
+            redeemedCount++;
+        }
+    }
+
+    private static byte[] loadOrCreateKey(Path file) throws IOException {
+        byte[] key = new byte[KEY_BYTES];
+        new SecureRandom().nextBytes(key);
+        try {
+            Files.write(file, key, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            return key;
+        } catch (FileAlreadyExistsException e) {
+            byte[] existing = Files.readAllBytes(file);
+            if (existing.length != KEY_BYTES) {
+                throw new IOException("Corrupt voucher key " + file);
+            }
+            return existing;
+        }
+    }
+
+    public Path getDirectory() { return directory; }
+
+    @Override
+    public void close() throws IOException {
+        redeemedChannel.close();
+    }
+}
@@ -0,0 +1,38 @@
+// VoucherIssuer.java
+package com.pizzashop.model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * ออกรหัสคูปองชุดใหม่ พิมพ์ออกทางหน้าจอบรรทัดละหนึ่งรหัส (ส่งต่อไปพิมพ์/ส่ง SMS ได้)
+ * ต้องใช้โฟลเดอร์เดียวกับ -Dpizzashop.vouchers ของเครื่องขาย เพราะ key อยู่ในนั้น
+ *
+ * java -m pizzashop/com.pizzashop.model.VoucherIssuer <voucher dir> <baht> <count>
+ */
+public class VoucherIssuer {
+    private static final int BATCH = 10_000;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("usage: VoucherIssuer <voucher dir> <baht> <count>");
+            System.exit(2);
+        }
+        int amount = Integer.parseInt(args[1]);
+        int count = Integer.parseInt(args[2]);
+        try (VoucherBook book = VoucherBook.open(Path.of(args[0]), 16);
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            for (int issued = 0; issued < count; issued += BATCH) {
+                List<String> codes = book.issue(amount, Math.min(BATCH, count - issued));
+                for (String code : codes) {
+                    out.write(code);
+                    out.newLine();
+                }
+            }
+        }
+    }
+}
@@ -13,6 +13,12 @@ module pizzashop {
     requires java.base;
     requires java.desktop;
 
+    // HTTP order API
+    requires jdk.httpserver;
+
+    // SIMD sales sums; optional, run with --add-modules jdk.incubator.vector (mvn javafx:run@simd) to enable
+    requires static jdk.incubator.vector;
+
     // Export packages สำหรับ FXML และ reflection
     exports com.pizzashop;
     exports com.pizzashop.controller;
@@ -0,0 +1,129 @@
+// OrderApiLoadTest.java
+package com.pizzashop.api;
+
+import com.pizzashop.model.DataManager;
+import com.pizzashop.model.Item;
+import com.pizzashop.model.Member;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ทดสอบโหลด OrderApiServer ใน process เดียว (server + HttpClient)
+ * ส่ง request ผสม: ดูเมนู 60%, ค้นสมาชิก 20%, สั่งออเดอร์ 20%
+ *
+ * java -cp target/classes:target/test-classes com.pizzashop.api.OrderApiLoadTest [clients=200] [seconds=10]
+ */
+public class OrderApiLoadTest {
+    private static final int MAX_SAMPLES_PER_CLIENT = 1 << 16;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        DataManager dataManager = DataManager.getInstance();
+        OrderApiServer server = OrderApiServer.start(dataManager,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        String base = "http://127.0.0.1:" + server.getPort();
+
+        List<Item> items = dataManager.getAllItems();
+        List<Member> members = dataManager.getMembers();
+
+        ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientThreads)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        AtomicLong errors = new AtomicLong();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long started = System.nanoTime();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int id = c;
+                workers.submit(() -> {
+                    long[] samples = new long[MAX_SAMPLES_PER_CLIENT];
+                    int n = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = nextRequest(base, random, items, members);
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() >= 400) errors.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        samples[n % samples.length] = System.nanoTime() - t0;
+                        n++;
+                    }
+                    latencies[id] = samples;
+                    counts[id] = n;
+                    return null;
+                });
+            }
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        server.stop();
+        clientThreads.shutdown();
+
+        long total = 0;
+        int kept = 0;
+        for (int c = 0; c < clients; c++) {
+            total += counts[c];
+            kept += Math.min(counts[c], MAX_SAMPLES_PER_CLIENT);
+        }
+        long[] all = new long[kept];
+        int k = 0;
+        for (int c = 0; c < clients; c++) {
+            int n = Math.min(counts[c], MAX_SAMPLES_PER_CLIENT);
+            System.arraycopy(latencies[c], 0, all, k, n);
+            k += n;
+        }
+        Arrays.sort(all);
+
+        System.out.printf("%d clients, %.1f s: %d requests, %.0f req/s, %d errors%n",
+                clients, elapsed, total, total / elapsed, errors.get());
+        System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                percentile(all, 0.50), percentile(all, 0.99), all.length > 0 ? all[all.length - 1] / 1e6 : 0);
+        System.out.printf("orders saved: %d%n", dataManager.getOrders().size());
+    }
+
+    private static HttpRequest nextRequest(String base, ThreadLocalRandom random, List<Item> items, List<Member> members) {
+        int kind = random.nextInt(10);
+        if (kind < 6) {
+            return HttpRequest.newBuilder(URI.create(base + "/api/menu")).GET().build();
+        }
+        if (kind < 8) {
+            String phone = members.get(random.nextInt(members.size())).getPhone();
+            return HttpRequest.newBuilder(URI.create(base + "/api/members?phone=" + phone)).GET().build();
+        }
+        Item item = items.get(random.nextInt(items.size()));
+        String body = "{\"dineIn\":" + random.nextBoolean()
+                + ",\"items\":[{\"id\":\"" + item.getId() + "\",\"quantity\":" + (1 + random.nextInt(3)) + "}]}";
+        return HttpRequest.newBuilder(URI.create(base + "/api/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)))] / 1e6;
+    }
+}
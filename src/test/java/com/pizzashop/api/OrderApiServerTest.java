@@ -0,0 +1,125 @@
+// OrderApiServerTest.java
+package com.pizzashop.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.pizzashop.model.DataManager;
+import com.pizzashop.model.Inventory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class OrderApiServerTest {
+    private static DataManager dataManager;
+    private static OrderApiServer server;
+
+    @BeforeAll
+    static void start() throws IOException {
+        dataManager = DataManager.getInstance();
+        server = OrderApiServer.start(dataManager, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterAll
+    static void stop() {
+        server.stop();
+        dataManager.enableInventory(null);
+    }
+
+    @Test
+    void failedOrderGivesBackItsStock() throws IOException {
+        String itemId = dataManager.getItems().get(0).getId();
+        Inventory inventory = Inventory.builder().ingredient("dough", "ball", 1).build();
+        inventory.setRecipe(itemId, Map.of("dough", 1L));
+        dataManager.enableInventory(inventory);
+        try {
+            // The first line reserves the only dough ball, the second runs out
+            String twoLines = "{\"items\":[{\"id\":\"" + itemId + "\"},{\"id\":\"" + itemId + "\"}]}";
+            assertEquals(409, post("/api/orders", twoLines).status());
+            assertEquals(0, inventory.getReserved("dough"));
+            assertEquals(1, inventory.getAvailable("dough"));
+
+            Response saved = post("/api/orders", "{\"items\":[{\"id\":\"" + itemId + "\"}]}");
+            assertEquals(201, saved.status());
+            assertEquals(0, inventory.getReserved("dough"));
+            assertEquals(1, inventory.getUsed("dough"));
+        } finally {
+            dataManager.enableInventory(null);
+        }
+    }
+
+    @Test
+    void oversizedAndDeeplyNestedBodiesAreRefused() throws IOException {
+        String huge = "{\"items\":[],\"note\":\"" + "x".repeat(OrderApiServer.MAX_BODY_BYTES) + "\"}";
+        assertEquals(413, post("/api/orders", huge).status());
+
+        String deep = "[".repeat(10_000) + "]".repeat(10_000);
+        Response nested = post("/api/orders", deep);
+        assertEquals(400, nested.status());
+        assertTrue(nested.body().contains("Nested deeper"), nested.body());
+    }
+
+    @Test
+    void menuServesKnownCategoriesAndAnEmptyListOtherwise() throws IOException {
+        String category = dataManager.getItems().get(0).getCategory();
+        Response known = get("/api/menu?category=" + category.toUpperCase());
+        assertEquals(200, known.status());
+        assertTrue(known.body().contains(dataManager.getItems().get(0).getId()), known.body());
+
+        for (int i = 0; i < 3; i++) {
+            Response unknown = get("/api/menu?category=no-such-category-" + i);
+            assertEquals(200, unknown.status());
+            assertEquals("[]", unknown.body());
+        }
+    }
+
+    @Test
+    void parserLimitsNesting() {
+        assertEquals(1L, ((List<?>) Json.parse("[".repeat(Json.MAX_DEPTH - 1) + "[1]"
+                + "]".repeat(Json.MAX_DEPTH - 1))).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> Json.parse("{\"a\":".repeat(Json.MAX_DEPTH + 1) + "1" + "}".repeat(Json.MAX_DEPTH + 1)));
+    }
+
+    private record Response(int status, String body) {}
+
+    private static Response get(String path) throws IOException {
+        return exchange(path, null);
+    }
+
+    private static Response post(String path, String body) throws IOException {
+        return exchange(path, body);
+    }
+
+    private static Response exchange(String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create("http://127.0.0.1:" + server.getPort() + path)
+                .toURL().openConnection();
+        try {
+            if (body != null) {
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    // the server may answer 413 and close before the whole body is sent
+                }
+            }
+            int status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            return new Response(status, in == null ? "" : new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
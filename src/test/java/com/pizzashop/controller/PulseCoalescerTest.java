@@ -0,0 +1,85 @@
+// PulseCoalescerTest.java
+package com.pizzashop.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class PulseCoalescerTest {
+    private final Queue<Runnable> pulses = new ArrayDeque<>();
+    private final List<Integer> flushed = new ArrayList<>();
+    private final PulseCoalescer coalescer = new PulseCoalescer(flushed::add, pulses::add);
+
+    @Test
+    void requestsBeforeThePulseFlushOnceWithEveryPart() {
+        coalescer.request(1);
+        coalescer.request(2);
+        coalescer.request(1);
+        assertEquals(1, pulses.size());
+        assertEquals(List.of(), flushed);
+
+        pulses.remove().run();
+        assertEquals(List.of(3), flushed);
+    }
+
+    @Test
+    void aRequestAfterTheFlushWaitsForTheNextPulse() {
+        coalescer.request(1);
+        pulses.remove().run();
+        coalescer.request(2);
+        assertEquals(1, pulses.size());
+        pulses.remove().run();
+        assertEquals(List.of(1, 2), flushed);
+        assertEquals(0, pulses.size());
+    }
+
+    @Test
+    void aRequestMadeWhileFlushingIsNotLost() {
+        Queue<Runnable> later = new ArrayDeque<>();
+        List<Integer> parts = new ArrayList<>();
+        PulseCoalescer[] self = new PulseCoalescer[1];
+        self[0] = new PulseCoalescer(part -> {
+            parts.add(part);
+            if (parts.size() == 1) self[0].request(4);
+        }, later::add);
+
+        self[0].request(1);
+        later.remove().run();
+        assertEquals(1, later.size());
+        later.remove().run();
+        assertEquals(List.of(1, 4), parts);
+    }
+
+    @Test
+    void requestsFromManyThreadsShareOnePulse() throws InterruptedException {
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int part = 1 << t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    coalescer.request(part);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(1, pulses.size());
+        pulses.remove().run();
+        assertEquals(List.of((1 << threads) - 1), flushed);
+    }
+}
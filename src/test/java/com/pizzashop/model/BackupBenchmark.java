@@ -0,0 +1,146 @@
+// BackupBenchmark.java
+package com.pizzashop.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * วัดความเร็วการสำรองข้อมูล และผลต่อเวลา checkout (บันทึกออเดอร์ลง journal แบบ fsync)
+ * เทียบ checkout ตอนไม่มีการสำรอง / ระหว่างสำรองแบบเพิ่มทีละส่วน / ระหว่างสำรองเต็มซ้ำๆ
+ *
+ * java -cp target/classes:target/test-classes com.pizzashop.model.BackupBenchmark [work dir] [orders=300000] [checkouts=2000]
+ */
+public class BackupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Path work = Path.of(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"), "pizzashop-backup-bench");
+        int orders = args.length > 1 ? Integer.parseInt(args[1]) : 300_000;
+        int checkouts = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        delete(work);
+        Path journal = work.resolve("journal");
+        DataManager dataManager = DataManager.getInstance();
+        List<Item> items = dataManager.getItems();
+
+        ChangeStreamReplicator replicator = new ChangeStreamReplicator(dataManager, journal, "till1");
+        for (int i = 0; i < orders; i++) {
+            replicator.publishOrder(newOrder("PRE" + i, items, i));
+            if (i % 1000 == 999) replicator.flush();
+        }
+        replicator.flush();
+        long journalBytes = size(journal);
+        System.out.printf("journal: %,d orders, %.1f MB%n", orders, journalBytes / 1e6);
+
+        StoreBackup backup = new StoreBackup(work.resolve("backup")).addDirectory(StoreBackup.JOURNAL, journal);
+        StoreBackup.Result full = backup.run();
+        System.out.printf("full backup:        %s (%.0f MB/s)%n", full, full.getBytes() / 1e3 / full.getNanos() * 1e6);
+
+        int[] sequence = {0};
+        System.out.println("checkout p50/p99/max (publish + fsync):");
+        report("  no backup", checkout(replicator, items, checkouts, sequence));
+
+        // Incremental runs back to back: each copies only what the checkouts appended
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[] runs = {0};
+        Thread incremental = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    backup.run();
+                    runs[0]++;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        incremental.start();
+        report("  incremental", checkout(replicator, items, checkouts, sequence));
+        running.set(false);
+        incremental.join();
+        System.out.println("    (" + runs[0] + " incremental runs)");
+
+        // Worst case: full copies of the whole journal, again and again
+        running.set(true);
+        runs[0] = 0;
+        Thread fullCopies = new Thread(() -> {
+            try {
+                for (int i = 0; running.get(); i++) {
+                    Path target = work.resolve("full-" + (i & 1));
+                    delete(target);
+                    new StoreBackup(target).addDirectory(StoreBackup.JOURNAL, journal).run();
+                    runs[0]++;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        fullCopies.start();
+        report("  full copies", checkout(replicator, items, checkouts, sequence));
+        running.set(false);
+        fullCopies.join();
+        System.out.println("    (" + runs[0] + " full runs)");
+
+        StoreBackup.Result last = backup.run();
+        System.out.println("incremental backup: " + last);
+
+        long start = System.nanoTime();
+        Path restored = work.resolve("restored");
+        int files = StoreBackup.restore(backup.getBackupDirectory(), restored).size();
+        long restoreNanos = System.nanoTime() - start;
+        boolean identical = true;
+        try (Stream<Path> list = Files.list(journal)) {
+            for (Path file : list.toList()) {
+                identical &= Files.mismatch(file, restored.resolve(StoreBackup.JOURNAL).resolve(file.getFileName())) == -1;
+            }
+        }
+        System.out.printf("restore: %d files in %.0f ms, identical to the journal: %b%n",
+                files, restoreNanos / 1e6, identical);
+        replicator.close();
+        delete(work);
+    }
+
+    private static long[] checkout(ChangeStreamReplicator replicator, List<Item> items, int count, int[] sequence)
+            throws IOException {
+        long[] nanos = new long[count];
+        for (int i = 0; i < count; i++) {
+            Order order = newOrder("CHK" + sequence[0]++, items, i);
+            long t0 = System.nanoTime();
+            replicator.publishOrder(order);
+            replicator.flush();
+            nanos[i] = System.nanoTime() - t0;
+        }
+        return nanos;
+    }
+
+    private static Order newOrder(String orderId, List<Item> items, int i) {
+        Order order = new Order(orderId, null, (i & 1) == 0);
+        order.addItem(items.get(i % items.size()), 1 + i % 3);
+        order.addItem(items.get((i * 7 + 3) % items.size()), 1);
+        return order;
+    }
+
+    private static void report(String label, long[] nanos) {
+        Arrays.sort(nanos);
+        System.out.printf("%-14s %7.1f / %7.1f / %7.1f us%n", label,
+                nanos[nanos.length / 2] / 1e3, nanos[(int) (nanos.length * 0.99)] / 1e3, nanos[nanos.length - 1] / 1e3);
+    }
+
+    private static long size(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (!Files.exists(path)) return;
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+// CartAllocationBenchmark.java
+package com.pizzashop.model;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * วัดหน่วยความจำที่จองต่อออเดอร์บนเครื่องขาย: ตะกร้าใหม่ทุกครั้ง เทียบกับ OrderPool
+ * จำลองช่วงเร่งด่วน: เปิดตะกร้า, เพิ่ม/ลดสินค้า, คิดราคาใหม่ทุกครั้งที่เปลี่ยน (เหมือนหน้าจอ), บันทึก, เริ่มใหม่
+ * แยกตัวเลขตอนเปิดออเดอร์ (เลขที่ออเดอร์กับเวลา ต้องสร้างใหม่ทุกออเดอร์), ช่วงทำตะกร้า และตอนบันทึก
+ * (ตอนบันทึกต้องสร้างสำเนาที่เก็บเป็นประวัติอยู่แล้ว)
+ *
+ * java -cp target/classes:target/test-classes com.pizzashop.model.CartAllocationBenchmark [orders=200000]
+ */
+public class CartAllocationBenchmark {
+
+    public static void main(String[] args) {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        for (int round = 0; round < 2; round++) {
+            // Warm up and then measure each mode, each on an empty shop so both pay the same index growth
+            DataManager dataManager = DataManager.newInstance();
+            Stats plain = run(dataManager, dataManager.getItems(), orders);
+            dataManager = DataManager.newInstance();
+            OrderPool pool = new OrderPool(OrderPool.DEFAULT_ORDERS, OrderPool.DEFAULT_LINES);
+            dataManager.enableOrderPool(pool);
+            Stats pooled = run(dataManager, dataManager.getItems(), orders);
+            if (round == 1) {
+                System.out.printf("%,d orders, 6 cart changes and a total after each%n", orders);
+                System.out.println("                 open B/order   cart B/order   save B/order   total B/order   young GCs");
+                System.out.println("  new carts      " + plain);
+                System.out.println("  OrderPool      " + pooled);
+                System.out.println("  (pool created " + pool.getCreatedCount() + " carts, reused " + pool.getReusedCount() + ")");
+            }
+        }
+    }
+
+    private static Stats run(DataManager dataManager, List<Item> items, int orders) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long gcs = gcCount();
+        long openBytes = 0;
+        long cartBytes = 0;
+        long saveBytes = 0;
+        double checksum = 0;
+        for (int i = 0; i < orders; i++) {
+            long t0 = threads.getCurrentThreadAllocatedBytes();
+            Order order = dataManager.createOrder((i & 1) == 0);
+            long t1 = threads.getCurrentThreadAllocatedBytes();
+            Item a = items.get(i % items.size());
+            Item b = items.get((i * 7 + 3) % items.size());
+            Item c = items.get((i * 13 + 5) % items.size());
+            order.addItem(a, 1);
+            checksum += order.getTotalPrice();
+            order.addItem(b, 2);
+            checksum += order.getTotalPrice();
+            order.addItem(a, 1);
+            checksum += order.getTotalPrice();
+            order.addItem(c, 1);
+            checksum += order.getTotalPrice();
+            order.removeItem(c);
+            checksum += order.getTotalPrice();
+            order.addItem(c, 3);
+            checksum += order.getTotalPrice() + order.getOriginalTotalPrice();
+            long t2 = threads.getCurrentThreadAllocatedBytes();
+            dataManager.saveOrder(order);
+            dataManager.recycleOrder(order);
+            long t3 = threads.getCurrentThreadAllocatedBytes();
+            openBytes += t1 - t0;
+            cartBytes += t2 - t1;
+            saveBytes += t3 - t2;
+        }
+        if (checksum == 0) System.out.println();
+        return new Stats((double) openBytes / orders, (double) cartBytes / orders, (double) saveBytes / orders,
+                gcCount() - gcs);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private record Stats(double openBytes, double cartBytes, double saveBytes, long gcs) {
+        @Override
+        public String toString() {
+            return String.format("%12.1f %14.1f %14.1f %15.1f %11d", openBytes, cartBytes, saveBytes,
+                    openBytes + cartBytes + saveBytes, gcs);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+// DailySalesReportBenchmark.java
+package com.pizzashop.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * วัดเวลาสรุปยอดปิดร้านของวันที่มีออเดอร์จำนวนมาก
+ * เทียบ generateDailyReport (fork/join รอบเดียว) กับการใช้ stream หลายรอบบน getOrders() แบบเดิม
+ *
+ * java -cp target/classes:target/test-classes com.pizzashop.model.DailySalesReportBenchmark [orders=1000000]
+ */
+public class DailySalesReportBenchmark {
+    private static final int WARMUP = 5;
+    private static final int RUNS = 10;
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        DataManager dataManager = DataManager.newInstance();
+        List<Item> items = dataManager.getItems();
+        Member member = dataManager.findMemberById("M001");
+        for (int i = 0; i < count; i++) {
+            Order order = new Order("B" + i, i % 3 == 0 ? member : null, (i & 1) == 0);
+            order.addItem(items.get(i % items.size()), 1 + i % 3);
+            order.addItem(items.get((i * 7 + 3) % items.size()), 1);
+            order.setOrderTime(DAY.atTime(10 + i % 12, i % 60));
+            order.getTotalPrice();   // price up front, as saved orders are
+            dataManager.addOrder(order);
+        }
+
+        System.out.printf("%,d orders, %d cores%n", count, Runtime.getRuntime().availableProcessors());
+        double forkJoin = time(() -> dataManager.generateDailyReport(DAY).getOrderCount());
+        List<Order> orders = dataManager.getOrders();
+        double streams = time(() -> streamReport(orders));
+        System.out.printf("  %-24s %8.1f ms%n", "fork/join, one pass", forkJoin);
+        System.out.printf("  %-24s %8.1f ms%n", "streams, one per figure", streams);
+    }
+
+    // The hand-rolled way: one stream pass per figure
+    private static int streamReport(List<Order> orders) {
+        List<Order> day = orders.stream()
+                .filter(order -> order.getOrderTime().toLocalDate().equals(DAY))
+                .collect(Collectors.toList());
+        Map<String, Integer> quantities = day.stream()
+                .flatMap(order -> order.getOrderItems().stream())
+                .collect(Collectors.groupingBy(line -> line.getItem().getId(), Collectors.summingInt(OrderItem::getQuantity)));
+        Map<String, Double> byCategory = day.stream()
+                .flatMap(order -> order.getOrderItems().stream())
+                .collect(Collectors.groupingBy(line -> line.getItem().getCategory(), Collectors.summingDouble(OrderItem::getTotal)));
+        double memberRevenue = day.stream().filter(order -> order.getMember() != null).mapToDouble(Order::getTotalPrice).sum();
+        double dineInRevenue = day.stream().filter(Order::isDineIn).mapToDouble(Order::getTotalPrice).sum();
+        double savings = day.stream().mapToDouble(Order::getTotalSavings).sum();
+        Map<Integer, Long> byHour = day.stream()
+                .collect(Collectors.groupingBy(order -> order.getOrderTime().getHour(), Collectors.counting()));
+        return (int) (quantities.size() + byCategory.size() + memberRevenue + dineInRevenue + savings + byHour.size());
+    }
+
+    private interface Run {
+        int run();
+    }
+
+    // Median of RUNS, after WARMUP
+    private static double time(Run run) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += run.run();
+        }
+        double[] millis = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            sink += run.run();
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        if (sink == 42) System.out.println();
+        Arrays.sort(millis);
+        return millis[RUNS / 2];
+    }
+}
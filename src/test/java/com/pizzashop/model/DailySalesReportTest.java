@@ -0,0 +1,88 @@
+// DailySalesReportTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class DailySalesReportTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    @Test
+    void parallelReportMatchesASequentialPass() {
+        DataManager dataManager = DataManager.newInstance();
+        List<Item> items = dataManager.getItems();
+        Member member = dataManager.findMemberById("M001");
+
+        int orderCount = 0;
+        int memberOrders = 0;
+        int dineInOrders = 0;
+        double revenue = 0.0;
+        double savings = 0.0;
+        int[] ordersByHour = new int[DailySalesReport.HOURS_PER_DAY];
+        Map<String, Integer> quantities = new HashMap<>();
+        Map<String, Double> revenueByCategory = new HashMap<>();
+
+        // Several fork/join leaves, with orders from the day before, the day after and a year earlier mixed in
+        int count = DailySalesReportTask.THRESHOLD * 5 + 123;
+        for (int i = 0; i < count; i++) {
+            Order order = new Order("T" + i, i % 3 == 0 ? member : null, i % 2 == 0);
+            order.addItem(items.get(i % items.size()), 1 + i % 4);
+            if (i % 5 == 0) {
+                order.addItem(items.get((i * 7 + 1) % items.size()), 1);
+            }
+            LocalDate date = i % 10 == 0 ? DAY.minusDays(1) : i % 10 == 1 ? DAY.plusDays(1) : i % 10 == 2 ? DAY.minusYears(1) : DAY;
+            order.setOrderTime(date.atTime(i % 24, i % 60));
+            dataManager.addOrder(order);
+            if (!date.equals(DAY)) continue;
+
+            orderCount++;
+            revenue += order.getTotalPrice();
+            savings += order.getTotalSavings();
+            if (order.getMember() != null) memberOrders++;
+            if (order.isDineIn()) dineInOrders++;
+            ordersByHour[order.getOrderTime().getHour()]++;
+            for (OrderItem line : order.getOrderItems()) {
+                quantities.merge(line.getItem().getId(), line.getQuantity(), Integer::sum);
+                revenueByCategory.merge(line.getItem().getCategory(), line.getTotal(), Double::sum);
+            }
+        }
+
+        DailySalesReport report = dataManager.generateDailyReport(DAY);
+        assertEquals(DAY, report.getDate());
+        assertEquals(orderCount, report.getOrderCount());
+        assertEquals(revenue, report.getTotalRevenue(), 1e-6);
+        assertEquals(savings, report.getTotalSavings(), 1e-6);
+        assertEquals(memberOrders, report.getMemberOrderCount());
+        assertEquals(orderCount - memberOrders, report.getNonMemberOrderCount());
+        assertEquals(report.getTotalRevenue(), report.getMemberRevenue() + report.getNonMemberRevenue(), 1e-6);
+        assertEquals(dineInOrders, report.getDineInOrderCount());
+        assertEquals(orderCount - dineInOrders, report.getTakeawayOrderCount());
+        assertEquals(report.getTotalRevenue(), report.getDineInRevenue() + report.getTakeawayRevenue(), 1e-6);
+        assertEquals(quantities, report.getItemQuantities());
+        assertEquals(revenueByCategory.keySet(), report.getRevenueByCategory().keySet());
+        revenueByCategory.forEach((category, expected) ->
+                assertEquals(expected, report.getRevenueByCategory().get(category), 1e-6, category));
+        for (int hour = 0; hour < DailySalesReport.HOURS_PER_DAY; hour++) {
+            assertEquals(ordersByHour[hour], report.getOrdersByHour()[hour], "hour " + hour);
+        }
+    }
+
+    @Test
+    void dayWithoutOrdersIsEmpty() {
+        DataManager dataManager = DataManager.newInstance();
+        Order order = new Order("T1", null, true);
+        order.addItem(dataManager.getItems().get(0), 1);
+        order.setOrderTime(DAY.atTime(12, 0));
+        dataManager.addOrder(order);
+
+        DailySalesReport report = dataManager.generateDailyReport(DAY.plusDays(1));
+        assertEquals(0, report.getOrderCount());
+        assertEquals(0.0, report.getTotalRevenue());
+        assertEquals(Map.of(), report.getItemQuantities());
+    }
+}
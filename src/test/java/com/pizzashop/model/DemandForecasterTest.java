@@ -0,0 +1,126 @@
+// DemandForecasterTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DemandForecasterTest {
+    // A Monday, 10:00
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 3, 3, 10, 0);
+    private static final double DELTA = 1e-9;
+
+    private final DataManager dataManager = DataManager.newInstance();
+    private final Item pizza = dataManager.getItems().get(0);
+    private final Item drink = dataManager.getItems().get(1);
+
+    @Test
+    void weeksStartOnMondayAndSlotsCoverTheWeekByHour() {
+        assertEquals(DemandForecaster.weekOf(MONDAY), DemandForecaster.weekOf(MONDAY.plusDays(6).withHour(23)));
+        assertEquals(DemandForecaster.weekOf(MONDAY) + 1, DemandForecaster.weekOf(MONDAY.plusDays(7)));
+        assertEquals(DemandForecaster.weekOf(MONDAY) - 1, DemandForecaster.weekOf(MONDAY.minusMinutes(601)));
+        assertEquals(10, DemandForecaster.slotOf(MONDAY));
+        assertEquals(DemandForecaster.SLOTS_PER_WEEK - 1, DemandForecaster.slotOf(MONDAY.plusDays(6).withHour(23)));
+        // 1970-01-01 was a Thursday, the fourth day of its week
+        assertEquals(0, DemandForecaster.weekOf(LocalDateTime.of(1970, 1, 1, 0, 0)));
+        assertEquals(-1, DemandForecaster.weekOf(LocalDateTime.of(1969, 12, 28, 0, 0)));
+    }
+
+    @Test
+    void steadyDemandIsForecastExactlyDespiteTheShortHistory() {
+        DemandForecaster forecaster = new DemandForecaster(0.3);
+        for (int week = 0; week < 5; week++) {
+            forecaster.record(order(MONDAY.plusWeeks(week), pizza, 4));
+        }
+        assertEquals(4.0, forecaster.forecast(pizza, MONDAY.plusWeeks(5)), DELTA);
+        // Nothing is known about the first week itself, or about other slots
+        assertEquals(0.0, forecaster.forecast(pizza, MONDAY), DELTA);
+        assertEquals(0.0, forecaster.forecast(pizza, MONDAY.plusWeeks(5).plusHours(1)), DELTA);
+        assertEquals(0.0, forecaster.forecast(pizza, MONDAY.plusWeeks(5).plusDays(1)), DELTA);
+        assertEquals(0.0, forecaster.forecast(drink, MONDAY.plusWeeks(5)), DELTA);
+    }
+
+    @Test
+    void forecastMatchesABiasCorrectedMovingAverageWithEmptyWeeksAsZero() {
+        double alpha = 0.5;
+        DemandForecaster forecaster = new DemandForecaster(alpha);
+        int[] sold = {2, 0, 6, 3};
+        for (int week = 0; week < sold.length; week++) {
+            if (sold[week] > 0) {
+                // Split over two orders in the same hour
+                forecaster.record(order(MONDAY.plusWeeks(week).plusMinutes(5), pizza, sold[week] - sold[week] / 2));
+                if (sold[week] / 2 > 0) {
+                    forecaster.record(order(MONDAY.plusWeeks(week).plusMinutes(50), pizza, sold[week] / 2));
+                }
+            }
+        }
+        for (int later = 0; later < 3; later++) {
+            int weeks = sold.length + later;
+            double average = 0;
+            for (int week = 0; week < weeks; week++) {
+                average = (1 - alpha) * average + alpha * (week < sold.length ? sold[week] : 0);
+            }
+            double expected = average / (1 - Math.pow(1 - alpha, weeks));
+            assertEquals(expected, forecaster.forecast(pizza, MONDAY.plusWeeks(weeks)), DELTA, "week " + weeks);
+        }
+    }
+
+    @Test
+    void lateAndRetractedOrdersEndUpWhereTheyBelong() {
+        DemandForecaster inOrder = new DemandForecaster();
+        DemandForecaster late = new DemandForecaster();
+        int[] sold = {5, 1, 3};
+        for (int week = 0; week < sold.length; week++) {
+            inOrder.record(order(MONDAY.plusWeeks(week), pizza, sold[week]));
+        }
+        // A peer's week-0 order arrives after weeks 1 and 2
+        late.record(order(MONDAY.plusWeeks(1), pizza, sold[1]));
+        late.record(order(MONDAY.plusWeeks(2), pizza, sold[2]));
+        late.record(order(MONDAY, pizza, sold[0]));
+        assertEquals(inOrder.forecast(pizza, MONDAY.plusWeeks(3)), late.forecast(pizza, MONDAY.plusWeeks(3)), DELTA);
+
+        Order mistake = order(MONDAY.plusWeeks(2), pizza, 10);
+        inOrder.record(mistake);
+        inOrder.retract(mistake);
+        assertEquals(late.forecast(pizza, MONDAY.plusWeeks(3)), inOrder.forecast(pizza, MONDAY.plusWeeks(3)), DELTA);
+    }
+
+    @Test
+    void prepRecommendationsAddTheSafetyMarginAndPutTheBusiestFirst() {
+        DemandForecaster forecaster = new DemandForecaster(1.0);   // forecast = last week
+        forecaster.record(order(MONDAY, pizza, 3));
+        forecaster.record(order(MONDAY.plusHours(1), pizza, 2));
+        forecaster.record(order(MONDAY.plusHours(1), drink, 7));
+        forecaster.record(order(MONDAY.plusHours(5), drink, 100));   // outside the window
+
+        List<DemandForecaster.PrepRecommendation> prep =
+                forecaster.recommendPrep(dataManager.getCatalog(), MONDAY.plusWeeks(1).plusMinutes(20), 2, 0.2);
+        assertEquals(2, prep.size());
+        assertEquals(drink, prep.get(0).getItem());
+        assertEquals(7.0, prep.get(0).getExpected(), DELTA);
+        assertEquals(9, prep.get(0).getQuantity());   // ceil(8.4)
+        assertEquals(pizza, prep.get(1).getItem());
+        assertEquals(5.0, prep.get(1).getExpected(), DELTA);
+        assertEquals(6, prep.get(1).getQuantity());
+    }
+
+    @Test
+    void offMenuItemsAndBadAlphaAreRejected() {
+        DemandForecaster forecaster = new DemandForecaster();
+        Item special = new Item("X001", "Chef special", 199.0, "Pizza", null);
+        forecaster.record(order(MONDAY, special, 3));
+        assertEquals(0.0, forecaster.forecast(special, MONDAY.plusWeeks(1)), DELTA);
+        assertThrows(IllegalArgumentException.class, () -> new DemandForecaster(0));
+        assertThrows(IllegalArgumentException.class, () -> new DemandForecaster(1.5));
+    }
+
+    private static Order order(LocalDateTime time, Item item, int quantity) {
+        Order order = new Order("ORD" + time + item.getId() + quantity, null, false);
+        order.addItem(item, quantity);
+        order.setOrderTime(time);
+        return order;
+    }
+}
@@ -0,0 +1,93 @@
+// InventoryTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InventoryTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 20_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void concurrentReserveReleaseAndCommitNeverLoseStock() throws InterruptedException {
+        Map<String, Long> onHand = Map.of("dough", 5_000L, "cheese", 200_000L);
+        Inventory inventory = Inventory.builder()
+                .ingredient("dough", "ball", onHand.get("dough"))
+                .ingredient("cheese", "g", onHand.get("cheese"))
+                .build();
+        inventory.setRecipe("P001", Map.of("dough", 1L, "cheese", 120L));
+        inventory.setRecipe("P002", Map.of("dough", 2L, "cheese", 80L));
+        Inventory.Recipe[] recipes = {inventory.recipeFor("P001"), inventory.recipeFor("P002")};
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] tills = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            tills[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                    for (int i = 0; i < ROUNDS; i++) {
+                        Inventory.Recipe recipe = recipes[random.nextInt(recipes.length)];
+                        int quantity = 1 + random.nextInt(3);
+                        try {
+                            inventory.reserve(recipe, quantity);
+                        } catch (OutOfStockException e) {
+                            continue;
+                        }
+                        // Most carts are abandoned, so the stock keeps moving both ways
+                        if (random.nextInt(8) == 0) {
+                            inventory.commit(recipe, quantity);
+                        } else {
+                            inventory.release(recipe, quantity);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            tills[t].start();
+        }
+        start.countDown();
+        for (Thread till : tills) {
+            till.join();
+        }
+        if (failure.get() != null) throw new AssertionError(failure.get());
+
+        onHand.forEach((ingredient, amount) -> {
+            assertEquals(0, inventory.getReserved(ingredient), ingredient);
+            assertTrue(inventory.getAvailable(ingredient) >= 0, ingredient);
+            assertEquals(amount, inventory.getAvailable(ingredient) + inventory.getReserved(ingredient)
+                    + inventory.getUsed(ingredient), ingredient);
+        });
+        assertTrue(inventory.getUsed("dough") > 0);
+    }
+
+    @Test
+    void negativeRecipeAmountsAreRejected() throws IOException {
+        Inventory inventory = Inventory.builder().ingredient("dough", "ball", 10).build();
+        assertThrows(IllegalArgumentException.class, () -> inventory.setRecipe("P001", Map.of("dough", -1L)));
+        assertNull(inventory.recipeFor("P001"));
+        inventory.setRecipe("P001", Map.of("dough", 0L));
+
+        Path file = directory.resolve("inventory.csv");
+        Files.writeString(file, "ingredient,dough,ball,10\nrecipe,P001,dough,-2\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Inventory.load(file));
+        assertTrue(e.getMessage().contains(":2:"), e.getMessage());
+    }
+}
@@ -0,0 +1,118 @@
+// MemberFootprint.java
+package com.pizzashop.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * วัดหน่วยความจำต่อสมาชิกและความเร็วการค้น: แบบเดิม (ArrayList<Member> + HashMap ของรหัสและเบอร์)
+ * เทียบกับ MemberStore + ดัชนีเบอร์แบบ long
+ * trie ค้นบางส่วนของ PhoneIndex เหมือนกันทั้งสองแบบจึงไม่นับ
+ *
+ * java -Xmx2g -cp target/classes:target/test-classes com.pizzashop.model.MemberFootprint [members=1000000]
+ */
+public class MemberFootprint {
+    private static final String[] FIRST_NAMES = {"ปาณัสม์", "สมชาย", "สุดารัตน์", "วิทยา", "กมลชนก", "ธนพล", "พิมพ์ชนก", "อนุชา"};
+    private static final String[] LAST_NAMES = {"บุญเลา", "ใจดี", "ศรีสุข", "มั่นคง", "แก้วมณี", "ทองดี", "วงศ์ไทย", "สายสุวรรณ"};
+    private static final int LOOKUPS = 2_000_000;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long baseline = usedHeap();
+        List<Member> list = new ArrayList<>();
+        Map<String, Integer> slotById = new HashMap<>();
+        Map<String, Integer> slotByPhone = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Member member = newMember(i);
+            list.add(member);
+            slotById.putIfAbsent(member.getMemberId(), i);
+            slotByPhone.putIfAbsent(member.getPhone(), i);
+        }
+        long before = usedHeap() - baseline;
+        double beforeLookup = timeLookups(count, (ids, phones) -> {
+            long checksum = 0;
+            for (int i = 0; i < ids.length; i++) {
+                checksum += list.get(slotById.get(ids[i])).getName().length();
+                checksum += list.get(slotByPhone.get(phones[i])).getName().length();
+            }
+            return checksum;
+        });
+        list.clear();
+        slotById.clear();
+        slotByPhone.clear();
+
+        baseline = usedHeap();
+        MemberStore store = new MemberStore(16);
+        LongIntMap slotByPackedPhone = new LongIntMap(16);
+        for (int i = 0; i < count; i++) {
+            Member member = newMember(i);
+            store.add(member);
+            slotByPackedPhone.putIfAbsent(PhoneIndex.pack(member.getPhone()), i);
+        }
+        long after = usedHeap() - baseline;
+        double afterLookup = timeLookups(count, (ids, phones) -> {
+            long checksum = 0;
+            for (int i = 0; i < ids.length; i++) {
+                checksum += store.get(store.slotOf(ids[i])).getName().length();
+                checksum += store.get(slotByPackedPhone.get(PhoneIndex.pack(phones[i]))).getName().length();
+            }
+            return checksum;
+        });
+
+        System.out.printf("%,d members%n", count);
+        System.out.printf("  objects + HashMaps: %6.1f bytes/member, lookup %5.1f ns%n",
+                (double) before / count, beforeLookup);
+        System.out.printf("  MemberStore:        %6.1f bytes/member, lookup %5.1f ns%n",
+                (double) after / count, afterLookup);
+        System.out.println("  (" + store.size() + " stored)");
+    }
+
+    private static Member newMember(int i) {
+        String name = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+        String phone = String.format("08%08d", i);
+        LocalDate birthDate = LocalDate.of(1960, 1, 1).plusDays(i % 18_000);
+        LocalDate expireDate = LocalDate.of(2026, 1, 1).plusDays(i % 730);
+        return new Member(MemberIdAllocator.format(i + 1), name, phone, birthDate, expireDate);
+    }
+
+    // Each layout gets its own loop so neither pays for a megamorphic call site
+    private interface Lookups {
+        long run(String[] ids, String[] phones);
+    }
+
+    // Average ns per lookup, half by ID and half by phone, over random members
+    private static double timeLookups(int count, Lookups lookups) {
+        String[] ids = new String[LOOKUPS];
+        String[] phones = new String[LOOKUPS];
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < LOOKUPS; i++) {
+            int slot = random.nextInt(count);
+            ids[i] = MemberIdAllocator.format(slot + 1);
+            phones[i] = String.format("08%08d", slot);
+        }
+        long checksum = 0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long t0 = System.nanoTime();
+            checksum += lookups.run(ids, phones);
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        if (checksum == 0) System.out.println();
+        return (double) best / (2.0 * LOOKUPS);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
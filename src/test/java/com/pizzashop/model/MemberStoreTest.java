@@ -0,0 +1,67 @@
+// MemberStoreTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MemberStoreTest {
+
+    @Test
+    void viewsReadAndWriteTheirSlot() {
+        MemberStore store = new MemberStore(2);
+        for (int i = 1; i <= 40; i++) {
+            store.add(new Member(MemberIdAllocator.format(i), "Member " + i, String.format("08%08d", i),
+                    LocalDate.of(1990, 1, 1).plusDays(i), LocalDate.of(2026, 1, 1).plusDays(i)));
+        }
+        Member odd = store.add(new Member("VIP-7", "Odd", "+66 81 234", null, null));
+
+        Member view = store.get(store.slotOf("M0017"));
+        assertEquals("M0017", view.getMemberId());
+        assertEquals("Member 17", view.getName());
+        assertEquals("0800000017", view.getPhone());
+        assertEquals(LocalDate.of(1990, 1, 18), view.getBirthDate());
+
+        view.setExpireDate(LocalDate.of(2030, 5, 5));
+        view.setActive(false);
+        view.setPhone("0899999999");
+        Member again = store.get(store.slotOf("M0017"));
+        assertEquals(LocalDate.of(2030, 5, 5), again.getExpireDate());
+        assertFalse(again.isActive());
+        assertEquals("0899999999", again.getPhone());
+
+        assertEquals("VIP-7", store.get(store.slotOf("VIP-7")).getMemberId());
+        assertEquals("+66 81 234", odd.getPhone());
+        assertNull(odd.getBirthDate());
+        assertEquals(-1, store.slotOf("M9999"));
+        assertEquals(41, store.asList().size());
+    }
+
+    @Test
+    void indexedStoreKeepsThePhoneIndexInStepWithEdits() {
+        MemberStore store = new MemberStore(2);
+        store.add(new Member("M0001", "Before", "081-234-5678", null, null));
+        PhoneIndex index = store.indexPhones();
+        Member member = store.add(new Member("M0002", "Somchai", "+66 89 000 1111", null, null));
+        assertEquals("0890001111", member.getPhone());
+        assertEquals(0, index.findExact("0812345678"));
+        assertSame(member.getMemberId(), member.getMemberId());
+
+        member.setPhone("+66 89 111 2222");
+        assertEquals("0891112222", member.getPhone());
+        assertEquals(1, index.findExact("0891112222"));
+        assertEquals(-1, index.findExact("0890001111"));
+        assertEquals(List.of(1), index.findPartial("2222", 5));
+        assertEquals(List.of(), index.findPartial("1111", 5));
+
+        // Back to the old number: found again, and only once
+        member.setPhone("0890001111");
+        assertEquals(1, index.findExact("0890001111"));
+        assertEquals(List.of(1), index.findPartial("089", 5));
+    }
+}
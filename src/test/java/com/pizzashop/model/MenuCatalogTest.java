@@ -0,0 +1,79 @@
+// MenuCatalogTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+class MenuCatalogTest {
+
+    private static MenuCatalog sample() {
+        return MenuCatalog.builder()
+                .put("P001", "Margherita Pizza", 299.0, "Pizza", "Tomato and mozzarella")
+                .put("D001", "Coke", 45.0, "Drink", "330ml")
+                .put("D002", "Iced Tea", 40.0, "Drink", "")
+                .build();
+    }
+
+    @Test
+    void priceChangeAddsAVersionAndKeepsTheOldOne() {
+        MenuCatalog first = sample();
+        Item coke = first.findById("D001");
+        MenuCatalog second = first.withPrice("D001", 50.0);
+
+        Item repriced = second.findById("D001");
+        assertEquals(50.0, repriced.getPrice());
+        assertEquals(coke.getCatalogIndex(), repriced.getCatalogIndex());
+        assertEquals(coke.getVersion() + 1, repriced.getVersion());
+        assertSame(coke, second.findVersion("D001", coke.getVersion()));
+        assertSame(coke, first.findById("D001"));   // the old catalog never changes
+        assertSame(first.findById("P001"), second.findById("P001"));
+        assertEquals(first.getGeneration() + 1, second.getGeneration());
+        assertThrows(IllegalStateException.class, () -> repriced.setPrice(1.0));
+        assertThrows(IllegalArgumentException.class, () -> second.withPrice("X999", 1.0));
+    }
+
+    @Test
+    void rebuildRetiresItemsMissingFromTheNewMenu() {
+        MenuCatalog first = sample();
+        Item tea = first.findById("D002");
+        MenuCatalog second = first.rebuild()
+                .put("P001", "Margherita Pizza", 299.0, "Pizza", "Tomato and mozzarella")
+                .put("D001", "Coke", 45.0, "Drink", "330ml")
+                .put("S001", "Garlic Bread", 89.0, "Side", "")
+                .build();
+
+        assertNull(second.findById("D002"));
+        assertSame(tea, second.findVersion("D002", tea.getVersion()));
+        assertSame(first.findById("D001"), second.findById("D001"));
+        assertEquals(3, second.size());
+        assertEquals(4, second.indexCount());
+        assertEquals(List.of("Drink", "Pizza", "Side"), second.getCategories());
+    }
+
+    @Test
+    void categoryLookupIgnoresCaseInAnyLocale() {
+        Locale saved = Locale.getDefault();
+        try {
+            // Turkish lower-cases I to a dotless ı
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            MenuCatalog catalog = MenuCatalog.builder()
+                    .put("D001", "Coke", 45.0, "DRINKS", "")
+                    .put("S001", "Wings", 129.0, "Sides", "")
+                    .build();
+            assertEquals(1, catalog.getItemsByCategory("drinks").size());
+            assertEquals(1, catalog.getItemsByCategory("SIDES").size());
+            assertEquals(1, catalog.getItemsByCategory("Drinks").size());
+        } finally {
+            Locale.setDefault(saved);
+        }
+        assertTrue(sample().getItemsByCategory("Dessert").isEmpty());
+        assertEquals(2, sample().getItemsByCategory("DRINK").size());
+    }
+}
@@ -0,0 +1,130 @@
+// MenuFileWatcherTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MenuFileWatcherTest {
+    private static final String HEADER = "id,name,price,category,description\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void parsesQuotedFieldsAndSkipsComments() throws IOException {
+        Path file = write("menu.csv", "# house menu\n" + HEADER
+                + "P001,\"Pizza, large\",399.50,Pizza,\"The \"\"big\"\" one\"\n"
+                + "\n"
+                + "D001, Coke ,45,Drink,\n");
+        MenuCatalog catalog = MenuFileLoader.load(file, MenuCatalog.empty());
+
+        assertEquals(2, catalog.size());
+        Item pizza = catalog.findById("P001");
+        assertEquals("Pizza, large", pizza.getName());
+        assertEquals(399.5, pizza.getPrice());
+        assertEquals("The \"big\" one", pizza.getDescription());
+        assertEquals("Coke", catalog.findById("D001").getName());
+        assertEquals("", catalog.findById("D001").getDescription());
+    }
+
+    @Test
+    void rejectsMalformedFiles() throws IOException {
+        Path columns = write("columns.csv", HEADER + "P001,Pizza,399,Pizza\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> MenuFileLoader.load(columns, MenuCatalog.empty()));
+        assertTrue(e.getMessage().contains(":2:"), e.getMessage());
+
+        Path price = write("price.csv", HEADER + "P001,Pizza,free,Pizza,\n");
+        assertThrows(IllegalArgumentException.class, () -> MenuFileLoader.load(price, MenuCatalog.empty()));
+    }
+
+    @Test
+    void badReloadKeepsTheCurrentMenu() throws IOException {
+        DataManager dataManager = DataManager.newInstance();
+        Path file = write("menu.csv", HEADER + "P001,Pizza,399,Pizza,\n");
+        dataManager.loadMenuFile(file);
+        MenuCatalog loaded = dataManager.getCatalog();
+
+        write("menu.csv", HEADER + "P001,Pizza\n");
+        MenuFileWatcher watcher = new MenuFileWatcher(file, dataManager);
+        watcher.reload();
+        watcher.close();
+        assertSame(loaded, dataManager.getCatalog());
+    }
+
+    @Test
+    void priceEditsDuringReloadsAreNotLost() throws Exception {
+        DataManager dataManager = DataManager.newInstance();
+        StringBuilder menu = new StringBuilder(HEADER);
+        for (int i = 0; i < 2_000; i++) {
+            menu.append("X").append(i).append(",Item ").append(i).append(',').append(10 + i % 90).append(",Misc,\n");
+        }
+        menu.append("D001,Coke,45,Drink,\n");
+        Path file = write("menu.csv", menu.toString());
+        dataManager.loadMenuFile(file);
+
+        // Every reload reprices D001 back to 45, so every edit below becomes an older version
+        ConcurrentLinkedQueue<Item> edits = new ConcurrentLinkedQueue<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread editor = new Thread(() -> {
+            try {
+                start.await();
+                for (int i = 0; i < 300; i++) {
+                    edits.add(dataManager.updateItemPrice("D001", 46.0 + i));
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        editor.start();
+        start.countDown();
+        while (editor.isAlive()) {
+            dataManager.loadMenuFile(file);
+        }
+        editor.join();
+        if (failure.get() != null) throw new AssertionError(failure.get());
+
+        MenuCatalog catalog = dataManager.getCatalog();
+        for (Item edit : edits) {
+            assertSame(edit, catalog.findVersion("D001", edit.getVersion()), "version " + edit.getVersion());
+        }
+    }
+
+    @Test
+    void watcherSwapsInTheEditedFile() throws Exception {
+        DataManager dataManager = DataManager.newInstance();
+        Path file = write("menu.csv", HEADER + "P001,Pizza,399,Pizza,\n");
+        dataManager.watchMenuFile(file);
+        assertEquals(List.of("Pizza"), dataManager.getAllCategories());
+
+        CountDownLatch swapped = new CountDownLatch(1);
+        dataManager.addCatalogListener(catalog -> {
+            if (catalog.findById("D001") != null) swapped.countDown();
+        });
+        write("menu.csv", HEADER + "P001,Pizza,409,Pizza,\nD001,Coke,45,Drink,\n");
+
+        assertTrue(swapped.await(10, TimeUnit.SECONDS), "menu was not reloaded");
+        assertEquals(409.0, dataManager.findItemById("P001").getPrice());
+        assertNotNull(dataManager.getCatalog().findVersion("P001", 0));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+    }
+}
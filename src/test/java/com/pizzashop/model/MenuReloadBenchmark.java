@@ -0,0 +1,69 @@
+// MenuReloadBenchmark.java
+package com.pizzashop.model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * วัดเวลาโหลดเมนูใหม่จากไฟล์ CSV ขนาดใหญ่ (parse + สร้าง catalog + สลับ)
+ * รอบแรกแบบ cold, จากนั้นแบบ warm ทั้งไฟล์ที่ไม่เปลี่ยน และไฟล์ที่ราคาเปลี่ยน 1%
+ *
+ * java -cp target/classes:target/test-classes com.pizzashop.model.MenuReloadBenchmark [items=50000]
+ */
+public class MenuReloadBenchmark {
+    private static final int RUNS = 15;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        Path file = Files.createTempFile("pizzashop-menu", ".csv");
+        try {
+            DataManager dataManager = DataManager.newInstance();
+            write(file, count, 0);
+            System.out.printf("%,d items, %.1f MB%n", count, Files.size(file) / 1e6);
+
+            long start = System.nanoTime();
+            dataManager.loadMenuFile(file);
+            System.out.printf("  first load (cold)         %8.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+            double[] same = new double[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                start = System.nanoTime();
+                dataManager.loadMenuFile(file);
+                same[i] = (System.nanoTime() - start) / 1e6;
+            }
+            double[] changed = new double[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                write(file, count, i + 1);
+                start = System.nanoTime();
+                dataManager.loadMenuFile(file);
+                changed[i] = (System.nanoTime() - start) / 1e6;
+            }
+            System.out.printf("  reload, unchanged (warm)  %8.1f ms%n", median(same));
+            System.out.printf("  reload, 1%% repriced       %8.1f ms%n", median(changed));
+            System.out.println("  " + dataManager.getCatalog());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Every 100th item gets a new price in each revision
+    private static void write(Path file, int count, int revision) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("id,name,price,category,description\n");
+            for (int i = 0; i < count; i++) {
+                int price = 50 + i % 400 + (i % 100 == 0 ? revision : 0);
+                out.write("I" + i + ",\"Item " + i + ", regular\"," + price + ",Category " + i % 25 + ",Description of item " + i + "\n");
+            }
+        }
+    }
+
+    private static double median(double[] millis) {
+        double[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,115 @@
+// ModelCodecBenchmark.java
+package com.pizzashop.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * เทียบ ModelCodec กับ Java serialization: ขนาดต่อออเดอร์ และเวลา encode/decode
+ * model class ไม่ได้ implement Serializable จึงใช้ record ที่มี field เดียวกัน (ฝัง Item และ Member ทั้งก้อน
+ * ในทุกบรรทัด แบบที่ serialization ทำกับ object graph จริง) เป็นตัวแทนฝั่ง Java serialization
+ *
+ * java -cp target/classes:target/test-classes com.pizzashop.model.ModelCodecBenchmark [orders=200000]
+ */
+public class ModelCodecBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        DataManager dataManager = DataManager.newInstance();
+        List<Item> items = dataManager.getItems();
+        Member member = dataManager.findMemberById("M001");
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Order order = new Order("ORD" + i, i % 3 == 0 ? member : null, (i & 1) == 0);
+            order.addItem(items.get(i % items.size()), 1 + i % 3);
+            order.addItem(items.get((i * 7 + 3) % items.size()), 1);
+            order.setOrderTime(LocalDateTime.of(2025, 3, 14, 10 + i % 12, i % 60));
+            orders.add(order);
+        }
+        List<OrderData> data = orders.stream().map(OrderData::of).toList();
+
+        System.out.printf("%,d orders, 2 lines each, 1 in 3 with a member%n", count);
+        System.out.println("                     bytes/order   encode ns/order   decode ns/order");
+        for (int round = 0; round < ROUNDS; round++) {
+            // Codec: one buffer for the whole batch, as the journal writes it
+            ByteBuffer buffer = ByteBuffer.allocate(count * 128);
+            long t0 = System.nanoTime();
+            for (Order order : orders) {
+                ModelCodec.encodeOrder(order, buffer);
+            }
+            long t1 = System.nanoTime();
+            int codecBytes = buffer.position();
+            buffer.flip();
+            long checksum = 0;
+            while (buffer.hasRemaining()) {
+                checksum += ModelCodec.decodeOrder(buffer, dataManager).getOrderItems().size();
+            }
+            long t2 = System.nanoTime();
+
+            // Java serialization of the same batch
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(count * 1024);
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                for (OrderData order : data) {
+                    out.writeObject(order);
+                    out.reset();   // each order stands alone, as it would in a journal record
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            long t3 = System.nanoTime();
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                for (int i = 0; i < count; i++) {
+                    checksum += ((OrderData) in.readObject()).lines().size();
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+            long t4 = System.nanoTime();
+            if (checksum != 4L * count) throw new IllegalStateException("decoded " + checksum + " lines");
+
+            if (round == ROUNDS - 1) {
+                System.out.printf("  ModelCodec        %12.1f %17.0f %17.0f%n",
+                        (double) codecBytes / count, (double) (t1 - t0) / count, (double) (t2 - t1) / count);
+                System.out.printf("  Java serialization%12.1f %17.0f %17.0f%n",
+                        (double) bytes.size() / count, (double) (t3 - t2) / count, (double) (t4 - t3) / count);
+            }
+        }
+    }
+
+    private record ItemData(String id, String name, double price, String category, String description)
+            implements Serializable {}
+
+    private record MemberData(String memberId, String name, String phone, LocalDate birthDate, LocalDate expireDate,
+                              boolean active) implements Serializable {}
+
+    private record LineData(ItemData item, int quantity, double total) implements Serializable {}
+
+    private record OrderData(String orderId, MemberData member, boolean dineIn, LocalDateTime orderTime,
+                             List<LineData> lines, double totalPrice, double totalSavings, boolean freeWednesdayPizza)
+            implements Serializable {
+        static OrderData of(Order order) {
+            Member m = order.getMember();
+            MemberData member = m == null ? null : new MemberData(m.getMemberId(), m.getName(), m.getPhone(),
+                    m.getBirthDate(), m.getExpireDate(), m.isActive());
+            List<LineData> lines = new ArrayList<>();
+            for (OrderItem line : order.getOrderItems()) {
+                Item i = line.getItem();
+                lines.add(new LineData(new ItemData(i.getId(), i.getName(), i.getPrice(), i.getCategory(),
+                        i.getDescription()), line.getQuantity(), line.getTotal()));
+            }
+            return new OrderData(order.getOrderId(), member, order.isDineIn(), order.getOrderTime(), lines,
+                    order.getTotalPrice(), order.getTotalSavings(), order.hasFreeWednesdayPizza());
+        }
+    }
+}
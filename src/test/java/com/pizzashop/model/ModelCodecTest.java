@@ -0,0 +1,251 @@
+// ModelCodecTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class ModelCodecTest {
+
+    @Test
+    void itemRoundTrip() {
+        Item item = new Item("P009", "พิซซ่าซีฟู้ด", 459.75, "Pizza", "");
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        ModelCodec.encodeItem(item, buffer);
+        buffer.flip();
+
+        assertEquals(ModelCodec.TYPE_ITEM, ModelCodec.peekType(buffer));
+        Item decoded = ModelCodec.decodeItem(buffer);
+        assertEquals("P009", decoded.getId());
+        assertEquals("พิซซ่าซีฟู้ด", decoded.getName());
+        assertEquals(459.75, decoded.getPrice());
+        assertEquals("Pizza", decoded.getCategory());
+        assertEquals("", decoded.getDescription());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void memberRoundTripKeepsEdgeDates() {
+        LocalDate[] dates = {LocalDate.of(1969, 12, 31), LocalDate.of(1970, 1, 1), LocalDate.of(2004, 5, 5),
+                LocalDate.MIN, LocalDate.MAX, null};
+        for (LocalDate date : dates) {
+            Member member = new Member("M042", "ปาณัสม์ บุญเลา", "0996061879", date, LocalDate.of(2026, 1, 31));
+            member.setActive(false);
+            member.setVersion(300);
+            Member decoded = roundTrip(member);
+            assertEquals(date, decoded.getBirthDate(), String.valueOf(date));
+            assertEquals(LocalDate.of(2026, 1, 31), decoded.getExpireDate());
+            assertEquals("M042", decoded.getMemberId());
+            assertEquals("ปาณัสม์ บุญเลา", decoded.getName());
+            assertEquals("0996061879", decoded.getPhone());
+            assertFalse(decoded.isActive());
+            assertEquals(300, decoded.getVersion());
+        }
+        Member noDates = roundTrip(new Member("M043", null, null, null, null));
+        assertNull(noDates.getName());
+        assertNull(noDates.getExpireDate());
+        assertTrue(noDates.isActive());
+    }
+
+    @Test
+    void readsVersionOneMembers() {
+        // Hand-built schema version 1 record: dates as zig-zag(epoch day + 1), 0 for null
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) 1).put(ModelCodec.TYPE_MEMBER);
+        ModelCodec.writeString(buffer, "M001");
+        ModelCodec.writeString(buffer, "A");
+        ModelCodec.writeString(buffer, "0812345678");
+        ModelCodec.writeSignedVarLong(buffer, LocalDate.of(2004, 5, 5).toEpochDay() + 1);
+        ModelCodec.writeSignedVarLong(buffer, 0);
+        buffer.put((byte) 1);
+        buffer.flip();
+
+        Member member = ModelCodec.decodeMember(buffer);
+        assertEquals(LocalDate.of(2004, 5, 5), member.getBirthDate());
+        assertNull(member.getExpireDate());
+        assertTrue(member.isActive());
+        assertEquals(0, member.getVersion());
+    }
+
+    @Test
+    void orderRoundTripResolvesItemsAndMember() {
+        DataManager dataManager = DataManager.newInstance();
+        Member member = dataManager.findMemberById("M001");
+        Item pizza = dataManager.findItemById("P002");
+        Item coke = dataManager.findItemById("D001");
+
+        Order order = new Order("ORD000123", member, true);
+        order.setOrderTime(LocalDateTime.of(2025, 2, 14, 19, 30, 5, 123_000_000));
+        order.addItem(pizza, 2);
+        order.addItem(coke, 3);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        ModelCodec.encodeOrder(order, buffer);
+        buffer.flip();
+
+        assertEquals("M001", ModelCodec.peekOrderMemberId(buffer));
+        assertEquals(0, buffer.position());
+        Order decoded = ModelCodec.decodeOrder(buffer, dataManager);
+        assertFalse(buffer.hasRemaining());
+        assertEquals("ORD000123", decoded.getOrderId());
+        assertEquals("M001", decoded.getMember().getMemberId());
+        assertTrue(decoded.isDineIn());
+        assertEquals(order.getOrderTime(), decoded.getOrderTime());
+        assertEquals(order.getTotalPrice(), decoded.getTotalPrice(), 0.005);
+        assertEquals(order.getTotalSavings(), decoded.getTotalSavings(), 0.005);
+        assertEquals(order.hasFreeWednesdayPizza(), decoded.hasFreeWednesdayPizza());
+        assertEquals(2, decoded.getOrderItems().size());
+        assertSame(pizza, decoded.getOrderItems().get(0).getItem());
+        assertEquals(2, decoded.getOrderItems().get(0).getQuantity());
+        assertSame(coke, decoded.getOrderItems().get(1).getItem());
+        assertEquals(3, decoded.getOrderItems().get(1).getQuantity());
+        assertEquals(135.0, decoded.getOrderItems().get(1).getTotal());
+    }
+
+    @Test
+    void orderLinesKeepTheVersionTheyWereSoldAt() {
+        DataManager dataManager = DataManager.newInstance();
+        Item oldPrice = dataManager.findItemById("D001");
+        Order order = new Order("ORD000001", null, false);
+        order.addItem(oldPrice, 1);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        ModelCodec.encodeOrder(order, buffer);
+        buffer.flip();
+
+        dataManager.updateItemPrice("D001", 50.0);
+        Order decoded = ModelCodec.decodeOrder(buffer, dataManager);
+        assertSame(oldPrice, decoded.getOrderItems().get(0).getItem());
+        assertEquals(45.0, decoded.getOrderItems().get(0).getTotal());
+        assertNull(decoded.getMember());
+        assertFalse(decoded.isDineIn());
+    }
+
+    @Test
+    void restartedTillShowsTheNameAndPriceThatWereSold() {
+        DataManager before = DataManager.newInstance();
+        before.updateItemPrice("D001", 50.0);
+        Order order = new Order("ORD000002", null, false);
+        order.addItem(before.findItemById("D001"), 2);
+        order.addItem(new Item("X001", "Chef special", 199.0, "Pizza", null), 1);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        ModelCodec.encodeOrder(order, buffer);
+        buffer.flip();
+
+        // Catalog versions start again after a restart, so version 1 is now a different price
+        DataManager after = DataManager.newInstance();
+        after.updateItemPrice("D001", 60.0);
+        Order decoded = ModelCodec.decodeOrder(buffer, after);
+        Item coke = decoded.getOrderItems().get(0).getItem();
+        assertEquals(50.0, coke.getPrice());
+        assertEquals(before.findItemById("D001").getName(), coke.getName());
+        assertFalse(coke.isCatalogItem());
+        assertEquals(100.0, decoded.getOrderItems().get(0).getTotal());
+        Item special = decoded.getOrderItems().get(1).getItem();
+        assertEquals("Chef special", special.getName());
+        assertEquals(199.0, special.getPrice());
+        assertEquals("Pizza", special.getCategory());
+
+        // Sold at a price the current menu still has: the catalog item itself
+        buffer.rewind();
+        after.updateItemPrice("D001", 50.0);
+        assertSame(after.findItemById("D001"), ModelCodec.decodeOrder(buffer, after).getOrderItems().get(0).getItem());
+    }
+
+    @Test
+    void readsVersionThreeOrders() {
+        // Hand-built schema version 3 order: lines without the sold name, price and category
+        DataManager dataManager = DataManager.newInstance();
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) 3).put(ModelCodec.TYPE_ORDER);
+        ModelCodec.writeString(buffer, "ORD000003");
+        ModelCodec.writeString(buffer, null);
+        buffer.put((byte) 0);
+        ModelCodec.writeDateTime(buffer, LocalDateTime.of(2025, 1, 1, 12, 0));
+        ModelCodec.writeMoney(buffer, 45.0);
+        ModelCodec.writeMoney(buffer, 0);
+        ModelCodec.writeVarLong(buffer, 1);
+        ModelCodec.writeString(buffer, "D001");
+        ModelCodec.writeVarLong(buffer, 0);
+        ModelCodec.writeVarLong(buffer, 1);
+        ModelCodec.writeMoney(buffer, 45.0);
+        buffer.flip();
+
+        Order decoded = ModelCodec.decodeOrder(buffer, dataManager);
+        assertFalse(buffer.hasRemaining());
+        assertSame(dataManager.findItemById("D001"), decoded.getOrderItems().get(0).getItem());
+    }
+
+    @Test
+    void decodesFromDirectBuffers() {
+        Member member = new Member("M7", "สมชาย", "0800000000", LocalDate.of(1990, 1, 2), LocalDate.of(2030, 1, 1));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(128);
+        ModelCodec.encodeMember(member, buffer);
+        buffer.flip();
+        assertEquals("สมชาย", ModelCodec.decodeMember(buffer).getName());
+    }
+
+    @Test
+    void primitives() {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        long[] values = {0, 1, -1, 63, -64, 127, 128, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            ModelCodec.writeSignedVarLong(buffer, value);
+        }
+        ModelCodec.writeVarLong(buffer, 127);
+        ModelCodec.writeMoney(buffer, -12.34);
+        ModelCodec.writeMoney(buffer, 0.1 + 0.2);
+        ModelCodec.writeString(buffer, null);
+        ModelCodec.writeString(buffer, "");
+        buffer.flip();
+
+        for (long value : values) {
+            assertEquals(value, ModelCodec.readSignedVarLong(buffer));
+        }
+        int before = buffer.position();
+        assertEquals(127, ModelCodec.readVarLong(buffer));
+        assertEquals(1, buffer.position() - before);
+        assertEquals(-12.34, ModelCodec.readMoney(buffer));
+        assertEquals(0.3, ModelCodec.readMoney(buffer));
+        assertNull(ModelCodec.readString(buffer));
+        assertEquals("", ModelCodec.readString(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void rejectsForeignAndTruncatedRecords() {
+        ByteBuffer future = ByteBuffer.wrap(new byte[] {99, ModelCodec.TYPE_ITEM});
+        assertThrows(IllegalArgumentException.class, () -> ModelCodec.decodeItem(future));
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        ModelCodec.encodeItem(new Item("D001", "Coke", 45.0, "Drink", "330ml"), buffer);
+        buffer.flip();
+        assertThrows(IllegalArgumentException.class, () -> ModelCodec.decodeMember(buffer.duplicate()));
+
+        ByteBuffer truncated = ByteBuffer.wrap(new byte[] {ModelCodec.SCHEMA_VERSION, ModelCodec.TYPE_ITEM, 20, 'D'});
+        assertThrows(RuntimeException.class, () -> ModelCodec.decodeItem(truncated));
+
+        byte[] text = "a long description".getBytes(StandardCharsets.UTF_8);
+        assertThrows(BufferOverflowException.class,
+                () -> ModelCodec.encodeItem(new Item("X", "X", 1, "X", new String(text, StandardCharsets.UTF_8)),
+                        ByteBuffer.allocate(16)));
+    }
+
+    private static Member roundTrip(Member member) {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        ModelCodec.encodeMember(member, buffer);
+        buffer.flip();
+        assertEquals(ModelCodec.SCHEMA_VERSION, buffer.get(0));
+        Member decoded = ModelCodec.decodeMember(buffer);
+        assertFalse(buffer.hasRemaining());
+        return decoded;
+    }
+}
@@ -0,0 +1,110 @@
+// OpenOrderWorkspaceTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class OpenOrderWorkspaceTest {
+
+    @Test
+    void parkedCartsComeBackAsTheSameOrder() {
+        DataManager dataManager = DataManager.newInstance();
+        OpenOrderWorkspace workspace = new OpenOrderWorkspace("T1", 2, OpenOrderWorkspace.DEFAULT_IDLE_TIMEOUT);
+        Item item = dataManager.getItems().get(0);
+
+        Order table = dataManager.createOrder(true);
+        workspace.open(table, "ใหม่");
+        table.addItem(item, 2);
+        workspace.parkActive("โต๊ะ 3");
+        assertNull(workspace.getActive());
+
+        Order takeaway = dataManager.createOrder(false);
+        workspace.open(takeaway, "กลับบ้าน");
+        List<OpenOrderWorkspace.OpenOrderSummary> parked = workspace.getParkedOrders();
+        assertEquals(1, parked.size());
+        assertEquals(table.getOrderId(), parked.get(0).getOrderId());
+        assertEquals("โต๊ะ 3", parked.get(0).getLabel());
+        assertTrue(parked.get(0).isDineIn());
+        assertEquals(2, parked.get(0).getItemCount());
+        assertEquals(table.getTotalPrice(), parked.get(0).getTotalPrice());
+
+        // At the limit: a third cart is refused until one is closed
+        assertThrows(IllegalStateException.class, () -> workspace.open(dataManager.createOrder(false), "x"));
+
+        assertSame(table, workspace.resume(table.getOrderId()));
+        assertSame(table, workspace.getActive());
+        assertEquals(List.of(takeaway.getOrderId()),
+                workspace.getParkedOrders().stream().map(OpenOrderWorkspace.OpenOrderSummary::getOrderId).toList());
+        assertNull(workspace.resume("NO-SUCH-ORDER"));
+
+        workspace.close(table.getOrderId());
+        assertNull(workspace.getActive());
+        assertEquals(1, workspace.size());
+        workspace.open(dataManager.createOrder(false), "ถัดไป");
+        assertEquals(2, workspace.size());
+    }
+
+    @Test
+    void closingACartGivesBackItsStock() {
+        DataManager dataManager = DataManager.newInstance();
+        Item item = dataManager.getItems().get(0);
+        Inventory inventory = Inventory.builder().ingredient("dough", "ball", 10).build();
+        inventory.setRecipe(item.getId(), Map.of("dough", 1L));
+        dataManager.enableInventory(inventory);
+        OpenOrderWorkspace workspace = dataManager.getWorkspace("T1");
+        assertSame(workspace, dataManager.getWorkspace("T1"));
+        Order order = dataManager.createOrder(false);
+        workspace.open(order, "A");
+        order.addItem(item, 3);
+        assertEquals(3, inventory.getReserved("dough"));
+
+        workspace.close(order.getOrderId());
+        assertEquals(0, inventory.getReserved("dough"));
+        assertEquals(10, inventory.getAvailable("dough"));
+        assertEquals(0, workspace.size());
+    }
+
+    @Test
+    void idleParkedCartsExpireButTheActiveOneStays() throws InterruptedException {
+        DataManager dataManager = DataManager.newInstance();
+        Item item = dataManager.getItems().get(0);
+        Inventory inventory = Inventory.builder().ingredient("dough", "ball", 10).build();
+        inventory.setRecipe(item.getId(), Map.of("dough", 1L));
+        dataManager.enableInventory(inventory);
+        OrderPool pool = new OrderPool(4, 16);
+        dataManager.enableOrderPool(pool);
+        OpenOrderWorkspace workspace = new OpenOrderWorkspace("T1", 5, Duration.ofMillis(50));
+        Order parked = dataManager.createOrder(true);
+        workspace.open(parked, "ใหม่");
+        parked.addItem(item, 2);
+        workspace.parkActive("โต๊ะ 1");
+        Order active = dataManager.createOrder(false);
+        workspace.open(active, "กลับบ้าน");
+        active.addItem(item, 1);
+        assertEquals(3, inventory.getReserved("dough"));
+        String parkedId = parked.getOrderId();
+
+        Thread.sleep(120);
+        List<OpenOrderWorkspace.OpenOrderSummary> expired = workspace.expireIdle();
+        assertEquals(1, expired.size());
+        assertEquals(parkedId, expired.get(0).getOrderId());
+        assertEquals("โต๊ะ 1", expired.get(0).getLabel());
+        assertEquals(2, expired.get(0).getItemCount());
+        assertEquals(1, inventory.getReserved("dough"));
+        assertSame(active, workspace.getActive());
+        assertEquals(1, workspace.size());
+        assertNull(workspace.resume(parkedId));
+
+        // The expired cart went back to the pool
+        assertSame(parked, dataManager.createOrder(false));
+        assertEquals(1, pool.getReusedCount());
+    }
+}
@@ -0,0 +1,208 @@
+// OrderArchiveTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OrderArchiveTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    @Test
+    void archivedDaysStillShowUpInLookupsReportsAndSums() {
+        DataManager archived = DataManager.newInstance();
+        archived.enableOrderArchive();
+        DataManager reference = DataManager.newInstance();
+        for (int i = 0; i < 200; i++) {
+            archived.saveOrder(order(archived, "A" + i, i));
+            reference.addOrder(order(reference, "A" + i, i));
+        }
+        Order today = new Order("T1", null, true);
+        today.addItem(archived.getItems().get(0), 1);
+        archived.saveOrder(today);
+
+        assertEquals(200, archived.getOrderArchive().size());
+        assertEquals(List.of(today), archived.getOrders());
+
+        Order found = archived.findOrderById("A17");
+        assertNotNull(found);
+        assertEquals(reference.findOrderById("A17").getTotalPrice(), found.getTotalPrice());
+        assertEquals(reference.findOrderById("A17").getOrderTime(), found.getOrderTime());
+        assertNull(archived.findOrderById("A999"));
+
+        for (LocalDate date : List.of(DAY, DAY.plusDays(1))) {
+            DailySalesReport expected = reference.generateDailyReport(date);
+            DailySalesReport actual = archived.generateDailyReport(date);
+            assertEquals(expected.getOrderCount(), actual.getOrderCount());
+            assertEquals(expected.getTotalRevenue(), actual.getTotalRevenue(), 0.001);
+            assertEquals(expected.getMemberOrderCount(), actual.getMemberOrderCount());
+            assertEquals(expected.getItemQuantities(), actual.getItemQuantities());
+            assertEquals(expected.getRevenueByCategory().keySet(), actual.getRevenueByCategory().keySet());
+            assertEquals(expected.getOrdersByHour()[12], actual.getOrdersByHour()[12]);
+        }
+        assertEquals(reference.getSalesByDateRange(DAY, DAY.plusDays(1)),
+                archived.getSalesByDateRange(DAY, DAY.plusDays(1)), 0.001);
+    }
+
+    @Test
+    void oldOrdersFromPeersAreArchivedOnce() {
+        DataManager dataManager = DataManager.newInstance();
+        dataManager.enableOrderArchive();
+
+        assertTrue(dataManager.applyReplicatedOrder(order(dataManager, "B-ORD1", 0)));
+        assertEquals(1, dataManager.getOrderArchive().size());
+        assertTrue(dataManager.getOrders().isEmpty());
+
+        // The same order again, e.g. when the journal is replayed
+        assertFalse(dataManager.applyReplicatedOrder(order(dataManager, "B-ORD1", 0)));
+        assertEquals(1, dataManager.getOrderArchive().size());
+        assertNotNull(dataManager.findOrderById("B-ORD1"));
+    }
+
+    @Test
+    void linesKeepTheirItemWhateverTheMenuDoesLater() {
+        DataManager dataManager = DataManager.newInstance();
+        dataManager.enableOrderArchive();
+        Item coke = dataManager.findItemById("D001");
+        Order order = new Order("ORD1", null, false);
+        order.addItem(coke, 1);
+        order.addItem(new Item("X001", "Chef special", 199.0, "Pizza", null), 2);
+        order.setOrderTime(DAY.atTime(12, 0));
+        dataManager.saveOrder(order);
+        assertEquals(1, dataManager.getOrderArchive().size());
+
+        // The whole menu goes away
+        dataManager.swapCatalog(MenuCatalog.empty());
+        Order archived = dataManager.findOrderById("ORD1");
+        assertEquals(2, archived.getOrderItems().size());
+        assertSame(coke, archived.getOrderItems().get(0).getItem());
+        assertEquals("Chef special", archived.getOrderItems().get(1).getItem().getName());
+        assertEquals(398.0, archived.getOrderItems().get(1).getTotal());
+        assertEquals(3, dataManager.generateDailyReport(DAY).getItemQuantities().values().stream()
+                .mapToInt(Integer::intValue).sum());
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        ModelCodec.encodeArchivedOrder(dataManager.getOrderArchive().view().moveTo(0), buffer);
+        buffer.flip();
+        Order decoded = ModelCodec.decodeOrder(buffer, DataManager.newInstance());
+        assertEquals(2, decoded.getOrderItems().size());
+        assertEquals(199.0, decoded.getOrderItems().get(1).getItem().getPrice());
+    }
+
+    @Test
+    void memberOrdersAndTotalsAgreeAfterArchiving() {
+        DataManager dataManager = DataManager.newInstance();
+        Member member = dataManager.findMemberById("M001");
+        for (int i = 0; i < 6; i += 3) {
+            dataManager.saveOrder(order(dataManager, "OLD" + i, i));
+        }
+        Order today = new Order("NEW1", member, true);
+        today.addItem(dataManager.getItems().get(0), 1);
+        dataManager.saveOrder(today);
+        dataManager.enableOrderArchive();
+        assertEquals(2, dataManager.getOrderArchive().size());
+
+        MemberHistory history = dataManager.getMemberHistory(member);
+        List<Order> orders = dataManager.getOrdersByMember(member);
+        assertEquals(3, history.getVisitCount());
+        assertEquals(2, history.getArchivedCount());
+        assertEquals(3, orders.size());
+        assertEquals(List.of("OLD0", "OLD3", "NEW1"), orders.stream().map(Order::getOrderId).toList());
+        assertEquals(history.getLifetimeSpend(), orders.stream().mapToDouble(Order::getTotalPrice).sum(), 0.001);
+    }
+
+    @Test
+    void idLookupSurvivesIndexGrowth() {
+        DataManager dataManager = DataManager.newInstance();
+        OrderArchive archive = new OrderArchive();
+        for (int i = 0; i < 5_000; i++) {
+            archive.append(order(dataManager, "till1-ORD" + i, i));
+        }
+        for (int i = 0; i < 5_000; i += 7) {
+            assertEquals(i, archive.findRow("till1-ORD" + i));
+        }
+        assertEquals(-1, archive.findRow("till2-ORD1"));
+        archive.close();
+    }
+
+    @Test
+    void seekBackFindsEveryRowInRangeAcrossChunks() {
+        DataManager dataManager = DataManager.newInstance();
+        OrderArchive archive = new OrderArchive();
+        Order order = order(dataManager, "X", 1);
+        int rows = OrderArchive.CHUNK_ROWS * 2 + 500;
+        for (int i = 0; i < rows; i++) {
+            // A minute apart, except a few late orders from the first day near the end
+            int minute = i > rows - 100 && i % 10 == 0 ? i % 1_440 : i;
+            order.setOrderTime(DAY.atStartOfDay().plusMinutes(minute));
+            archive.append(order);
+        }
+
+        OrderArchive.View row = archive.view();
+        for (int day = 0; day < 95; day += 13) {
+            long from = DAY.plusDays(day).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            long to = from + 86_400;
+            long expected = 0;
+            for (long r = 0; r < rows; r++) {
+                long time = row.moveTo(r).getEpochSecond();
+                if (time >= from && time < to) expected++;
+            }
+            long found = 0;
+            long position = rows;
+            while ((position = archive.seekBack(position, from, to)) > 0) {
+                long time = row.moveTo(--position).getEpochSecond();
+                if (time >= from && time < to) found++;
+            }
+            assertEquals(expected, found, "day " + day);
+        }
+        archive.close();
+    }
+
+    @Test
+    void vectorAndScalarSumsAgree() {
+        DataManager dataManager = DataManager.newInstance();
+        OrderArchive archive = new OrderArchive();
+        Order order = order(dataManager, "X", 1);
+        // Past one chunk, and a row count that leaves a vector tail
+        int rows = OrderArchive.CHUNK_ROWS + 1_003;
+        long expected = 0;
+        long from = DAY.plusDays(2).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long to = DAY.plusDays(5).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        for (int i = 0; i < rows; i++) {
+            order.setOrderTime(DAY.atStartOfDay().plusMinutes(i % 10_000));
+            order.setTotalPrice(i % 997 + 0.25);
+            archive.append(order);
+            long time = order.getOrderTime().toEpochSecond(ZoneOffset.UTC);
+            if (time >= from && time < to) expected += OrderArchive.toSatang(order.getTotalPrice());
+        }
+
+        assertEquals(expected, archive.sumSatang(rows, from, to, false));
+        assertEquals(archive.sumSatang(rows, Long.MIN_VALUE, Long.MAX_VALUE, false),
+                OrderArchive.toSatang(archive.sumTotals()));
+        if (OrderArchive.VECTORIZED) {
+            assertEquals(expected, archive.sumSatang(rows, from, to, true));
+            assertEquals(archive.sumSatang(rows, Long.MIN_VALUE, Long.MAX_VALUE, false),
+                    archive.sumSatang(rows, Long.MIN_VALUE, Long.MAX_VALUE, true));
+        }
+        archive.close();
+    }
+
+    // Orders spread over two days, one in three with a member
+    private static Order order(DataManager dataManager, String orderId, int i) {
+        List<Item> items = dataManager.getItems();
+        Order order = new Order(orderId, i % 3 == 0 ? dataManager.findMemberById("M001") : null, i % 2 == 0);
+        order.addItem(items.get(i % items.size()), 1 + i % 3);
+        order.addItem(items.get((i * 7 + 3) % items.size()), 1);
+        order.setOrderTime(DAY.plusDays(i % 2).atTime(10 + i % 12, i % 60));
+        return order;
+    }
+}
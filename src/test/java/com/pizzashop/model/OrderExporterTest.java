@@ -0,0 +1,158 @@
+// OrderExporterTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OrderExporterTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+    private static final DateTimeFormatter CSV_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    @TempDir
+    Path directory;
+
+    private final DataManager dataManager = DataManager.newInstance();
+    private final Item pizza = dataManager.getItems().get(0);
+    private final Item drink = dataManager.findItemById("D001");
+    private final Member member = dataManager.findMemberById("M001");
+
+    @Test
+    void binaryExportDecodesBackToTheSameOrders() throws IOException {
+        List<Order> expected = saveOrders();
+
+        byte[] bytes = export(OrderExporter.Format.BINARY, DAY, LocalDate.now(), expected.size());
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        List<Order> decoded = new ArrayList<>();
+        while (in.hasRemaining()) {
+            int length = in.getInt();
+            decoded.add(ModelCodec.decodeOrder(in.slice(in.position(), length), dataManager));
+            in.position(in.position() + length);
+        }
+
+        assertEquals(expected.size(), decoded.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Order want = expected.get(i);
+            Order got = decoded.get(i);
+            assertEquals(want.getOrderId(), got.getOrderId());
+            assertEquals(want.getOrderTime(), got.getOrderTime());
+            assertEquals(want.isDineIn(), got.isDineIn());
+            assertEquals(want.getMember() == null ? null : want.getMember().getMemberId(),
+                    got.getMember() == null ? null : got.getMember().getMemberId());
+            assertEquals(want.getTotalPrice(), got.getTotalPrice(), 1e-9);
+            assertEquals(want.getTotalSavings(), got.getTotalSavings(), 1e-9);
+            assertEquals(want.getOrderItems().size(), got.getOrderItems().size());
+            for (int line = 0; line < want.getOrderItems().size(); line++) {
+                assertEquals(want.getOrderItems().get(line).getItem().getId(),
+                        got.getOrderItems().get(line).getItem().getId());
+                assertEquals(want.getOrderItems().get(line).getQuantity(),
+                        got.getOrderItems().get(line).getQuantity());
+            }
+        }
+    }
+
+    @Test
+    void csvRowsMatchTheOrdersArchivedAndLive() throws IOException {
+        List<Order> expected = saveOrders();
+
+        String csv = new String(export(OrderExporter.Format.CSV, DAY, LocalDate.now(), expected.size()),
+                StandardCharsets.UTF_8);
+        StringBuilder want = new StringBuilder(new String(OrderExporter.CSV_HEADER, StandardCharsets.US_ASCII));
+        for (Order order : expected) {
+            want.append(row(order));
+        }
+        assertEquals(want.toString(), csv);
+        // An id with a comma and a quote is quoted the CSV way
+        assertEquals(1, csv.lines().filter(line -> line.startsWith("\"Q\"\"1,2\",")).count());
+    }
+
+    @Test
+    void monthFilesAreTheDaysSplicedUnderOneHeader() throws IOException {
+        saveOrders();
+        OrderExporter exporter = new OrderExporter(dataManager);
+        YearMonth march = YearMonth.from(DAY);
+        LocalDate first = march.atDay(1);
+        LocalDate last = march.atEndOfMonth();
+
+        for (OrderExporter.Format format : OrderExporter.Format.values()) {
+            Path month = exporter.exportMonth(format, march, directory);
+            // EARLY1, A1 and Q"1,2 fall in March
+            assertArrayEquals(export(format, first, last, 3), Files.readAllBytes(month), format.name());
+
+            // A quarter from its months keeps only the first header
+            ByteArrayOutputStream quarter = new ByteArrayOutputStream();
+            OrderExporter.concat(format, List.of(month, month), Channels.newChannel(quarter));
+            byte[] once = Files.readAllBytes(month);
+            int header = format == OrderExporter.Format.CSV ? OrderExporter.CSV_HEADER.length : 0;
+            assertEquals(2L * once.length - header, quarter.size(), format.name());
+        }
+    }
+
+    // Archived: FEB1, EARLY1 (the day before the range), A1, Q"1,2; live today: L1, L2
+    private List<Order> saveOrders() {
+        dataManager.enableOrderArchive();
+        dataManager.saveOrder(order("FEB1", null, DAY.minusMonths(1).atTime(9, 0), pizza, 1));
+        dataManager.saveOrder(order("EARLY1", member, DAY.minusDays(1).atTime(23, 59, 59), drink, 2));
+        Order first = order("A1", member, DAY.atTime(12, 0, 5), pizza, 2);
+        first.addItem(drink, 1);
+        first.setDineIn(true);
+        Order second = order("Q\"1,2", null, DAY.plusDays(1).atTime(8, 30), drink, 3);
+        dataManager.saveOrder(first);
+        dataManager.saveOrder(second);
+
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        Order live = order("L1", member, today.plusSeconds(1), pizza, 1);
+        Order other = order("L2", null, today.plusSeconds(2), drink, 4);
+        other.setDineIn(true);
+        dataManager.saveOrder(live);
+        dataManager.saveOrder(other);
+        assertEquals(4, dataManager.getOrderArchive().size());
+        return List.of(first, second, live, other);
+    }
+
+    private byte[] export(OrderExporter.Format format, LocalDate from, LocalDate to, long count) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = new OrderExporter(dataManager).export(format, from, to, Channels.newChannel(out));
+        assertEquals(count, written);
+        return out.toByteArray();
+    }
+
+    private static Order order(String id, Member member, LocalDateTime time, Item item, int quantity) {
+        Order order = new Order(id, member, false);
+        order.addItem(item, quantity);
+        order.setOrderTime(time);
+        return order;
+    }
+
+    private static String row(Order order) {
+        String id = order.getOrderId();
+        if (id.contains(",") || id.contains("\"")) {
+            id = '"' + id.replace("\"", "\"\"") + '"';
+        }
+        StringBuilder items = new StringBuilder();
+        for (OrderItem line : order.getOrderItems()) {
+            if (items.length() > 0) items.append(' ');
+            items.append(line.getItem().getId()).append('x').append(line.getQuantity());
+        }
+        return String.join(",", id, order.getOrderTime().format(CSV_TIME),
+                order.getMember() == null ? "" : order.getMember().getMemberId(),
+                order.isDineIn() ? "1" : "0", items,
+                String.format("%.2f", order.getTotalPrice()),
+                String.format("%.2f", order.getTotalSavings())) + "\n";
+    }
+}
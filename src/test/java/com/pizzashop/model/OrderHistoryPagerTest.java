@@ -0,0 +1,102 @@
+// OrderHistoryPagerTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OrderHistoryPagerTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+
+    @Test
+    void pagesCoverArchivedAndLiveOrdersNewestFirst() {
+        DataManager dataManager = populated();
+        Member member = dataManager.findMemberById("M001");
+        for (OrderQuery query : List.of(
+                new OrderQuery(),
+                new OrderQuery().between(DAY.plusDays(3), DAY.plusDays(5)),
+                new OrderQuery().between(DAY.plusDays(2), DAY.plusDays(2)).forMember(member).dineIn(true),
+                new OrderQuery().between(DAY.minusDays(30), DAY.minusDays(1)))) {
+            List<String> expected = expected(dataManager, query);
+
+            List<String> paged = new ArrayList<>();
+            long cursor = OrderPage.FIRST;
+            OrderPage page;
+            do {
+                page = dataManager.queryOrders(query, cursor, 7);
+                page.getOrders().forEach(order -> paged.add(order.getOrderId()));
+                cursor = page.getNextCursor();
+            } while (page.hasMore());
+            assertEquals(expected, paged);
+
+            OrderHistoryPager pager = dataManager.openOrderHistory(query, 11);
+            List<String> prefetched = new ArrayList<>();
+            while (pager.hasNext()) {
+                pager.nextPage().getOrders().forEach(order -> prefetched.add(order.getOrderId()));
+            }
+            assertEquals(expected, prefetched);
+        }
+    }
+
+    @Test
+    void cursorStaysPutWhenOrdersAreArchived() {
+        DataManager dataManager = DataManager.newInstance();
+        for (int i = 0; i < 20; i++) {
+            dataManager.saveOrder(order(dataManager, "O" + i, i, DAY.atTime(12, i)));
+        }
+        OrderPage first = dataManager.queryOrders(new OrderQuery(), OrderPage.FIRST, 5);
+        assertEquals("O19", first.getOrders().get(0).getOrderId());
+
+        dataManager.enableOrderArchive();
+        OrderPage second = dataManager.queryOrders(new OrderQuery(), first.getNextCursor(), 5);
+        assertEquals("O14", second.getOrders().get(0).getOrderId());
+        assertTrue(second.hasMore());
+        assertFalse(dataManager.queryOrders(new OrderQuery(), 0, 5).hasMore());
+    }
+
+    // Ten days in the archive, a late order from a peer among them, and today's orders live
+    private static DataManager populated() {
+        DataManager dataManager = DataManager.newInstance();
+        dataManager.enableOrderArchive();
+        int n = 0;
+        for (int day = 0; day < 10; day++) {
+            for (int i = 0; i < 25; i++, n++) {
+                dataManager.saveOrder(order(dataManager, "A" + n, n, DAY.plusDays(day).atTime(10 + i % 12, i)));
+            }
+        }
+        dataManager.applyReplicatedOrder(order(dataManager, "P-LATE", 3, DAY.plusDays(2).atTime(23, 0)));
+        for (int i = 0; i < 9; i++, n++) {
+            dataManager.saveOrder(order(dataManager, "T" + n, n, LocalDate.now().atTime(0, i)));
+        }
+        return dataManager;
+    }
+
+    // Brute force over [archive..., live...], newest position first
+    private static List<String> expected(DataManager dataManager, OrderQuery query) {
+        List<String> expected = new ArrayList<>();
+        List<Order> live = dataManager.getOrders();
+        for (int i = live.size() - 1; i >= 0; i--) {
+            if (query.matches(live.get(i))) expected.add(live.get(i).getOrderId());
+        }
+        OrderArchive archive = dataManager.getOrderArchive();
+        OrderArchive.View row = archive.view();
+        for (long r = archive.size() - 1; r >= 0; r--) {
+            if (query.matches(row.moveTo(r))) expected.add(row.getOrderId());
+        }
+        return expected;
+    }
+
+    private static Order order(DataManager dataManager, String orderId, int i, LocalDateTime time) {
+        List<Item> items = dataManager.getItems();
+        Order order = new Order(orderId, i % 3 == 0 ? dataManager.findMemberById("M001") : null, i % 2 == 0);
+        order.addItem(items.get(i % items.size()), 1);
+        order.setOrderTime(time);
+        return order;
+    }
+}
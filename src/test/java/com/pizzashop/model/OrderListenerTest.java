@@ -0,0 +1,111 @@
+// OrderListenerTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OrderListenerTest {
+    private final DataManager dataManager = DataManager.newInstance();
+    private final Item first = dataManager.getItems().get(0);
+    private final Item second = dataManager.getItems().get(1);
+
+    @Test
+    void eachEditFiresItsChangeWithTheLineItTouched() {
+        Order order = dataManager.createOrder(false);
+        List<OrderListener.Change> changes = new ArrayList<>();
+        List<OrderItem> lines = new ArrayList<>();
+        order.addListener((changed, change, line) -> {
+            assertSame(order, changed);
+            changes.add(change);
+            lines.add(line);
+        });
+
+        order.addItem(first, 1);
+        OrderItem line = order.getOrderItems().get(0);
+        order.addItem(first, 2);
+        order.removeItem(first, 1);
+        order.removeItem(first);
+        order.setDineIn(true);
+        order.setDineIn(true);    // no change, no event
+        order.clear();
+
+        assertEquals(List.of(
+                OrderListener.Change.LINE_ADDED,
+                OrderListener.Change.QUANTITY_CHANGED,
+                OrderListener.Change.QUANTITY_CHANGED,
+                OrderListener.Change.LINE_REMOVED,
+                OrderListener.Change.DINE_IN_CHANGED,
+                OrderListener.Change.LINES_RESET), changes);
+        assertEquals(List.of(line, line, line, line), lines.subList(0, 4));
+        assertNull(lines.get(5));
+    }
+
+    @Test
+    void settingTheSameMemberAgainFiresNothing() {
+        Member member = dataManager.addMember("Somchai", "0812345678", null, LocalDate.now());
+        Order order = dataManager.createOrder(false);
+        List<OrderListener.Change> changes = new ArrayList<>();
+        order.addListener((changed, change, line) -> changes.add(change));
+
+        order.setMember(member);
+        order.setMember(member);
+        order.setMember(null);
+        assertEquals(List.of(OrderListener.Change.MEMBER_CHANGED, OrderListener.Change.MEMBER_CHANGED), changes);
+    }
+
+    @Test
+    void totalsAfterABurstOfEditsMatchAFreshOrder() {
+        Order burst = dataManager.createOrder(false);
+        for (int i = 0; i < 20; i++) {
+            burst.addItem(first, 1);
+            burst.addItem(second, 2);
+            if (i % 3 == 0) burst.removeItem(second, 1);
+        }
+        Order fresh = dataManager.createOrder(false);
+        fresh.addItem(first, 20);
+        fresh.addItem(second, 33);
+
+        assertEquals(fresh.getTotalPrice(), burst.getTotalPrice(), 1e-9);
+        assertEquals(fresh.getTotalSavings(), burst.getTotalSavings(), 1e-9);
+        // An edit after a read is picked up by the next read
+        burst.addItem(first, 1);
+        fresh.addItem(first, 1);
+        assertEquals(fresh.getTotalPrice(), burst.getTotalPrice(), 1e-9);
+    }
+
+    @Test
+    void removedListenersHearNothingMore() {
+        Order order = dataManager.createOrder(false);
+        List<OrderListener.Change> changes = new ArrayList<>();
+        OrderListener listener = (changed, change, line) -> changes.add(change);
+        order.addListener(listener);
+        order.addItem(first, 1);
+        order.removeListener(listener);
+        order.addItem(second, 1);
+        assertEquals(List.of(OrderListener.Change.LINE_ADDED), changes);
+    }
+
+    @Test
+    void savingTellsTheOrderAndTheDataManagerListeners() {
+        Order order = dataManager.createOrder(false);
+        order.addItem(first, 1);
+        List<OrderListener.Change> changes = new ArrayList<>();
+        order.addListener((changed, change, line) -> changes.add(change));
+        List<Order> committed = new ArrayList<>();
+        dataManager.addOrderListener((changed, change, line) -> {
+            assertEquals(OrderListener.Change.COMMITTED, change);
+            committed.add(changed);
+        });
+
+        dataManager.saveOrder(order);
+        assertEquals(List.of(OrderListener.Change.COMMITTED), changes);
+        assertEquals(1, committed.size());
+        assertEquals(order.getOrderId(), committed.get(0).getOrderId());
+    }
+}
@@ -0,0 +1,74 @@
+// OrderPoolTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OrderPoolTest {
+
+    @Test
+    void savedCartIsReusedBlankAndTheHistoryKeepsItsCopy() {
+        DataManager dataManager = DataManager.newInstance();
+        OrderPool pool = new OrderPool(4, 16);
+        dataManager.enableOrderPool(pool);
+        Item item = dataManager.getItems().get(0);
+
+        Order cart = dataManager.createOrder(true);
+        cart.addItem(item, 3);
+        String orderId = cart.getOrderId();
+        double total = cart.getTotalPrice();
+        dataManager.saveOrder(cart);
+        dataManager.recycleOrder(cart);
+        dataManager.recycleOrder(cart);   // a second recycle must not put the cart in twice
+
+        Order next = dataManager.createOrder(false);
+        assertSame(cart, next);
+        assertTrue(next.isEmpty());
+        assertNotEquals(orderId, next.getOrderId());
+        assertEquals(0.0, next.getTotalPrice());
+        assertNotSame(cart, dataManager.createOrder(false));
+        assertEquals(1, pool.getReusedCount());
+        assertEquals(2, pool.getCreatedCount());
+
+        Order saved = dataManager.findOrderById(orderId);
+        assertEquals(total, saved.getTotalPrice());
+        assertEquals(3, saved.getOrderItems().get(0).getQuantity());
+    }
+
+    @Test
+    void expiredParkedCartsGoBackToThePool() throws InterruptedException {
+        DataManager dataManager = DataManager.newInstance();
+        OrderPool pool = new OrderPool(4, 16);
+        dataManager.enableOrderPool(pool);
+        OpenOrderWorkspace workspace = new OpenOrderWorkspace("T1", 5, Duration.ofMillis(1));
+
+        Order parked = dataManager.createOrder(true);
+        parked.addItem(dataManager.getItems().get(0), 2);
+        workspace.open(parked, "Table 4");
+        workspace.parkActive("Table 4");
+        Order active = dataManager.createOrder(false);
+        workspace.open(active, null);
+        Thread.sleep(20);
+
+        List<OpenOrderWorkspace.OpenOrderSummary> expired = workspace.expireIdle();
+        assertEquals(1, expired.size());
+        assertEquals("Table 4", expired.get(0).getLabel());
+        assertEquals(2, expired.get(0).getItemCount());
+        assertEquals(1, workspace.size());
+        assertSame(active, workspace.getActive());
+        assertNull(workspace.resume(expired.get(0).getOrderId()));
+
+        Order reused = dataManager.createOrder(false);
+        assertSame(parked, reused);
+        assertTrue(reused.isEmpty());
+        assertEquals(1, pool.getReusedCount());
+    }
+}
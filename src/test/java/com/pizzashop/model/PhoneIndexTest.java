@@ -0,0 +1,89 @@
+// PhoneIndexTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PhoneIndexTest {
+
+    @Test
+    void normalizeKeepsDigitsAndTurnsTheCountryCodeIntoZero() {
+        assertEquals("0996061879", PhoneIndex.normalize("099-606-1879"));
+        assertEquals("0996061879", PhoneIndex.normalize(" +66 99 606 1879 "));
+        assertEquals("0996061879", PhoneIndex.normalize("+66-99-606-1879"));
+        assertEquals("021234567", PhoneIndex.normalize("(02) 123 4567"));
+        // Only a leading +66 is a country code
+        assertEquals("66812345678", PhoneIndex.normalize("66 81 234 5678"));
+        assertEquals("66", PhoneIndex.normalize("+66"));
+        assertEquals("", PhoneIndex.normalize("ไม่มีเบอร์"));
+        assertEquals("", PhoneIndex.normalize(null));
+    }
+
+    @Test
+    void packKeepsLeadingZerosAndRejectsWhatDoesNotFit() {
+        assertEquals(10812L, PhoneIndex.pack("0812"));
+        assertEquals("0812", PhoneIndex.unpack(PhoneIndex.pack("0812")));
+        assertEquals("000", PhoneIndex.unpack(PhoneIndex.pack("000")));
+        String longest = "0".repeat(PhoneIndex.MAX_PACKED_DIGITS);
+        assertEquals(longest, PhoneIndex.unpack(PhoneIndex.pack(longest)));
+        assertEquals(PhoneIndex.NOT_PACKED, PhoneIndex.pack(longest + "1"));
+        assertEquals(PhoneIndex.NOT_PACKED, PhoneIndex.pack("08-12"));
+        assertEquals(0, PhoneIndex.pack(""));
+        assertEquals("", PhoneIndex.unpack(0));
+    }
+
+    @Test
+    void exactAndPartialLookups() {
+        List<String> phones = List.of(
+                "0812345678", "0812349999", "0899995678", "021234567", "0812345678901234567890");
+        PhoneIndex index = new PhoneIndex(phones::get);
+        for (int slot = 0; slot < phones.size(); slot++) {
+            index.add(phones.get(slot), slot);
+        }
+        index.add("", 99);   // members without a phone are not indexed
+        assertEquals(phones.size(), index.size());
+
+        assertEquals(0, index.findExact("0812345678"));
+        assertEquals(3, index.findExact("021234567"));
+        assertEquals(4, index.findExact("0812345678901234567890"));
+        assertEquals(-1, index.findExact("081234567"));
+        assertEquals(-1, index.findExact(""));
+
+        // Prefix matches come first, then matches on the last digits
+        assertEquals(List.of(0, 1, 4), index.findPartial("081234", 10));
+        assertEquals(List.of(0, 2), index.findPartial("5678", 10));
+        assertEquals(List.of(1), index.findPartial("9999", 10));
+        // Longer than the trie is deep: the bucket is filtered by the full digits
+        assertEquals(List.of(0, 4), index.findPartial("08123456", 10));
+        assertEquals(List.of(1), index.findPartial("081234999", 10));
+        assertEquals(2, index.findPartial("08", 2).size());
+        assertTrue(index.findPartial("", 10).isEmpty());
+        assertTrue(index.findPartial("0812", 0).isEmpty());
+        assertTrue(index.findPartial("077", 10).isEmpty());
+    }
+
+    @Test
+    void firstMemberWithAPhoneKeepsTheExactMatch() {
+        List<String> phones = List.of("0811111111", "0811111111");
+        PhoneIndex index = new PhoneIndex(phones::get);
+        index.add(phones.get(0), 0);
+        index.add(phones.get(1), 1);
+        assertEquals(0, index.findExact("0811111111"));
+        assertEquals(List.of(0, 1), index.findPartial("1111", 10));
+    }
+
+    @Test
+    void dataManagerLooksUpFormattedInput() {
+        DataManager dataManager = DataManager.newInstance();
+        Member member = dataManager.addMember("Somchai", "+66 81 555 0101", null, LocalDate.of(2025, 1, 1));
+        assertEquals("0815550101", member.getPhone());
+        assertEquals(member, dataManager.findMemberByPhone("081-555-0101").orElseThrow());
+        assertEquals(member, dataManager.findMemberByPhone("+66815550101").orElseThrow());
+        assertEquals(List.of(member), dataManager.suggestMembersByPhone("0101", 5));
+        assertTrue(dataManager.findMemberByPhone("081-555-0102").isEmpty());
+    }
+}
@@ -0,0 +1,101 @@
+// PointsLedgerTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PointsLedgerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void balancesSurviveReopenAndATornLastEntry() throws IOException {
+        Path file = directory.resolve("points.ledger");
+        try (PointsLedger ledger = PointsLedger.open(file)) {
+            ledger.earn("M0001", 100, "ORD1");
+            ledger.hold("M0001", 30);
+            assertEquals(100, ledger.getBalance("M0001"));
+            assertEquals(70, ledger.getAvailable("M0001"));
+            ledger.redeemHeld("M0001", 30, "ORD2");
+            ledger.earn("M0002", 5, "ORD3");
+            assertThrows(InsufficientPointsException.class, () -> ledger.hold("M0002", 6));
+            assertEquals(5, ledger.getAvailable("M0002"));
+        }
+        long complete = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 0, 20, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (PointsLedger ledger = PointsLedger.open(file)) {
+            assertEquals(70, ledger.getBalance("M0001"));
+            assertEquals(70, ledger.getAvailable("M0001"));
+            assertEquals(5, ledger.getBalance("M0002"));
+            assertEquals(3, ledger.getEntryCount());
+            assertEquals(complete, Files.size(file));
+        }
+    }
+
+    @Test
+    void tillsSharingTheFileSeeEachOthersEntriesAndCannotSpendTheSamePoints() throws IOException {
+        Path file = directory.resolve("points.ledger");
+        try (PointsLedger till1 = PointsLedger.open(file);
+             PointsLedger till2 = PointsLedger.open(file)) {
+            till1.earn("M0001", 60, "ORD1");
+            assertEquals(60, till2.getBalance("M0001"));
+
+            // Both tills see 60 available and hold 50 of it for a cart
+            till1.hold("M0001", 50);
+            till2.hold("M0001", 50);
+            till2.redeemHeld("M0001", 50, "ORD2");
+            InsufficientPointsException e = assertThrows(InsufficientPointsException.class,
+                    () -> till1.redeemHeld("M0001", 50, "ORD3"));
+            assertEquals(10, e.getAvailable());
+            till1.releaseHold("M0001", 50);
+            assertEquals(10, till1.getAvailable("M0001"));
+
+            till2.earn("M0002", 7, "ORD4");
+            till1.earn("M0002", 3, "ORD5");
+            assertEquals(10, till2.getBalance("M0002"));
+            assertEquals(4, till1.getEntryCount());
+        }
+        try (PointsLedger reopened = PointsLedger.open(file)) {
+            assertEquals(10, reopened.getBalance("M0001"));
+            assertEquals(10, reopened.getBalance("M0002"));
+        }
+    }
+
+    @Test
+    void clearedCartRedeemsNothingUntilLinesComeBack() throws IOException {
+        DataManager dataManager = DataManager.newInstance();
+        try (PointsLedger ledger = PointsLedger.open(directory.resolve("points.ledger"))) {
+            dataManager.enablePointsLedger(ledger);
+            Member member = dataManager.findMemberById("M001");
+            ledger.earn(member.getMemberId(), 1_000, "SEED");
+            Item item = dataManager.getItems().get(0);
+
+            Order order = dataManager.createOrder(true);
+            order.setMember(member);
+            order.addItem(item, 1);
+            order.redeemPoints(20);
+            assertEquals(20, order.getRedeemedPoints());
+
+            order.clear();
+            assertEquals(0, order.getRedeemedPoints());
+            assertEquals(0.0, order.getTotalPrice());
+            assertEquals(20, order.getHeldPoints());
+
+            order.addItem(item, 1);
+            assertEquals(20, order.getRedeemedPoints());
+            double paid = order.getTotalPrice();
+            dataManager.saveOrder(order);
+            assertEquals(1_000 - 20 + PointsLedger.pointsEarned(paid), ledger.getBalance(member.getMemberId()));
+            assertEquals(ledger.getBalance(member.getMemberId()), ledger.getAvailable(member.getMemberId()));
+        }
+    }
+}
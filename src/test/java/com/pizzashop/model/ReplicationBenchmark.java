@@ -0,0 +1,97 @@
+// ReplicationBenchmark.java
+package com.pizzashop.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * วัด replication ระหว่างสองเครื่องในโปรเซสเดียวผ่านโฟลเดอร์ชั่วคราว
+ * lag: เครื่อง A บันทึกออเดอร์เป็นระยะ แล้ววัดเวลาจนเครื่อง B ได้รับ (รอบ flush/poll ปกติ 100 ms)
+ * catch-up: เขียน journal ก้อนใหญ่ แล้ววัดเวลาที่เครื่องใหม่ replay ทั้งหมดตอน enableReplication
+ *
+ * java -cp target/classes:target/test-classes com.pizzashop.model.ReplicationBenchmark [orders=200000]
+ */
+public class ReplicationBenchmark {
+    private static final int LAG_ORDERS = 500;
+    private static final long LAG_SPACING_MILLIS = 4;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path directory = Files.createTempDirectory("pizzashop-replication");
+        try {
+            DataManager a = DataManager.newInstance();
+            DataManager b = DataManager.newInstance();
+            a.enableReplication(directory, "A");
+            b.enableReplication(directory, "B");
+
+            // Lag: save time on A to commit time on B
+            Map<String, Long> savedAt = new ConcurrentHashMap<>();
+            long[] lags = new long[LAG_ORDERS];
+            CountDownLatch received = new CountDownLatch(LAG_ORDERS);
+            b.addOrderListener((order, change, line) -> {
+                Long saved = savedAt.get(order.getOrderId());
+                if (change == OrderListener.Change.COMMITTED && saved != null) {
+                    lags[(int) (LAG_ORDERS - received.getCount())] = System.nanoTime() - saved;
+                    received.countDown();
+                }
+            });
+            List<Item> items = a.getItems();
+            for (int i = 0; i < LAG_ORDERS; i++) {
+                Order order = a.createOrder(true);
+                order.addItem(items.get(i % items.size()), 1 + i % 3);
+                savedAt.put(order.getOrderId(), System.nanoTime());
+                a.saveOrder(order);
+                Thread.sleep(LAG_SPACING_MILLIS);
+            }
+            if (!received.await(30, TimeUnit.SECONDS)) throw new IllegalStateException("B fell behind");
+            Arrays.sort(lags);
+            System.out.printf("lag, %d orders %d ms apart: median %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                    LAG_ORDERS, LAG_SPACING_MILLIS, lags[LAG_ORDERS / 2] / 1e6, lags[LAG_ORDERS * 99 / 100] / 1e6,
+                    lags[LAG_ORDERS - 1] / 1e6);
+            b.getReplicator().close();
+
+            // Throughput: one big batch written, then replayed by a till joining late
+            for (int i = 0; i < count; i++) {
+                Order order = a.createOrder(i % 2 == 0);
+                order.addItem(items.get(i % items.size()), 1 + i % 3);
+                order.addItem(items.get((i * 7 + 3) % items.size()), 1);
+                a.saveOrder(order);
+            }
+            a.getReplicator().close();
+            long bytes;
+            try (Stream<Path> files = Files.list(directory)) {
+                bytes = files.filter(file -> file.toString().endsWith(".log")).mapToLong(ReplicationBenchmark::size).sum();
+            }
+            System.out.printf("journal: %,d orders, %.1f MB%n", count + LAG_ORDERS, bytes / 1e6);
+
+            DataManager c = DataManager.newInstance();
+            long start = System.nanoTime();
+            ChangeStreamReplicator late = c.enableReplication(directory, "C");
+            double replaySeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("catch-up: %,d records in %.0f ms, %,.0f records/s%n",
+                    late.getAppliedCount(), replaySeconds * 1e3, late.getAppliedCount() / replaySeconds);
+            late.close();
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+// ReplicationTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReplicationTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tillsConvergeAndLateJoinersReplayTheJournals() throws IOException {
+        DataManager a = DataManager.newInstance();
+        DataManager b = DataManager.newInstance();
+        a.enableReplication(directory, "A");
+        b.enableReplication(directory, "B");
+
+        Member member = a.addMember("Somchai", "0812345678", LocalDate.of(1990, 5, 1), LocalDate.now());
+        Order order = a.createOrder(true);
+        order.setMember(member);
+        order.addItem(a.getItems().get(0), 2);
+        a.saveOrder(order);
+        Order other = b.createOrder(false);
+        other.addItem(b.getItems().get(1), 1);
+        b.saveOrder(other);
+
+        for (int round = 0; round < 2; round++) {
+            a.getReplicator().runOnce();
+            b.getReplicator().runOnce();
+        }
+        Order copy = b.findOrderById(order.getOrderId());
+        assertNotNull(copy);
+        assertEquals(member.getMemberId(), copy.getMember().getMemberId());
+        assertEquals(order.getTotalPrice(), copy.getTotalPrice());
+        assertNotNull(a.findOrderById(other.getOrderId()));
+        assertEquals(a.getOrders().size(), b.getOrders().size());
+
+        // Everything already applied is skipped the next time round
+        long applied = b.getReplicator().getAppliedCount();
+        b.getReplicator().runOnce();
+        assertEquals(applied, b.getReplicator().getAppliedCount());
+
+        DataManager c = DataManager.newInstance();
+        c.enableReplication(directory, "C");
+        assertNotNull(c.findOrderById(order.getOrderId()));
+        assertNotNull(c.findOrderById(other.getOrderId()));
+        assertNotNull(c.findMemberById(member.getMemberId()));
+        assertEquals(0, c.getReplicator().getSkippedCount());
+        for (DataManager till : new DataManager[] {a, b, c}) {
+            till.getReplicator().close();
+        }
+    }
+
+    @Test
+    void memberEditsReachOtherTillsAndConcurrentEditsConverge() throws IOException {
+        DataManager a = DataManager.newInstance();
+        DataManager b = DataManager.newInstance();
+        a.enableReplication(directory, "A");
+        b.enableReplication(directory, "B");
+        Member member = a.addMember("Somchai", "0812345678", LocalDate.of(1990, 5, 1), LocalDate.of(2020, 1, 1));
+        syncBoth(a, b);
+
+        a.renewMembership(member);
+        a.updateMember(member, "Somchai J.", "+66 89 000 1111", LocalDate.of(1990, 5, 2));
+        syncBoth(a, b);
+        Member copy = b.findMemberById(member.getMemberId());
+        assertEquals("Somchai J.", copy.getName());
+        assertEquals(LocalDate.of(2021, 12, 31), copy.getExpireDate());
+        assertEquals(LocalDate.of(1990, 5, 2), copy.getBirthDate());
+        assertEquals(copy, b.findMemberByPhone("0890001111").orElseThrow());
+        assertFalse(b.findMemberByPhone("0812345678").isPresent());
+
+        // Both tills edit the same version before seeing each other's change
+        a.updateMember(member, "From A", "0890001111", member.getBirthDate());
+        b.updateMember(copy, "From B", "0890001111", copy.getBirthDate());
+        syncBoth(a, b);
+        assertEquals(a.findMemberById(member.getMemberId()).getName(), copy.getName());
+        assertEquals("From B", copy.getName());
+
+        // A later edit wins over the tie
+        a.updateMember(member, "From A again", "0890001111", member.getBirthDate());
+        syncBoth(a, b);
+        assertEquals("From A again", copy.getName());
+
+        DataManager c = DataManager.newInstance();
+        c.enableReplication(directory, "C");
+        assertEquals("From A again", c.findMemberById(member.getMemberId()).getName());
+        for (DataManager till : new DataManager[] {a, b, c}) {
+            till.getReplicator().close();
+        }
+    }
+
+    @Test
+    void restartedTillWithAnArchiveKeepsNumberingPastItsOldOrders() throws IOException {
+        DataManager before = DataManager.newInstance();
+        before.enableReplication(directory, "A");
+        List<String> yesterday = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Order order = before.createOrder(false);
+            order.addItem(before.getItems().get(i), 1);
+            order.setOrderTime(LocalDateTime.now().minusDays(1));
+            before.saveOrder(order);
+            yesterday.add(order.getOrderId());
+        }
+        before.getReplicator().close();
+
+        DataManager after = DataManager.newInstance();
+        after.enableReplication(directory, "A");
+        after.enableOrderArchive();
+        assertEquals(3, after.getOrderArchive().size());
+        Order today = after.createOrder(true);
+        today.addItem(after.getItems().get(0), 1);
+        after.saveOrder(today);
+        assertFalse(yesterday.contains(today.getOrderId()), today.getOrderId());
+        after.getReplicator().close();
+
+        DataManager peer = DataManager.newInstance();
+        peer.enableReplication(directory, "B");
+        assertNotNull(peer.findOrderById(today.getOrderId()));
+        assertEquals(4, peer.getOrders().size());
+        peer.getReplicator().close();
+    }
+
+    @Test
+    void tornBatchIsCutOffWhenItsNodeReopens() throws IOException {
+        DataManager writer = DataManager.newInstance();
+        ChangeStreamReplicator journal = new ChangeStreamReplicator(writer, directory, "A");
+        Order first = order(writer, "A-ORD1", null);
+        journal.publishOrder(first);
+        journal.flush();
+        journal.close();
+
+        // A crash in the middle of the next batch: a whole frame and half of another
+        Path segment = directory.resolve("A.000001.log");
+        long complete = Files.size(segment);
+        byte[] frame = frame(out -> ModelCodec.encodeOrder(order(writer, "A-ORD2", null), out));
+        byte[] torn = Arrays.copyOf(frame, frame.length + frame.length / 2);
+        System.arraycopy(frame, 0, torn, frame.length, frame.length / 2);
+        Files.write(segment, torn, StandardOpenOption.APPEND);
+
+        DataManager reader = DataManager.newInstance();
+        ChangeStreamReplicator peer = new ChangeStreamReplicator(reader, directory, "B");
+        peer.runOnce();
+        assertNotNull(reader.findOrderById("A-ORD2"));   // the whole frame is applied, the torn one waits
+        assertEquals(0, peer.getSkippedCount());
+
+        journal = new ChangeStreamReplicator(writer, directory, "A");
+        assertEquals(complete + frame.length, Files.size(segment));
+        journal.publishOrder(order(writer, "A-ORD3", null));
+        journal.flush();
+        peer.runOnce();
+        assertNotNull(reader.findOrderById("A-ORD3"));
+        assertEquals(0, peer.getSkippedCount());
+        journal.close();
+        peer.close();
+    }
+
+    @Test
+    void poisonedRecordsAreSkipped() throws IOException {
+        DataManager source = DataManager.newInstance();
+        byte[] unknownType = frame(out -> out.put(ModelCodec.SCHEMA_VERSION).put((byte) 99).put((byte) 0));
+        byte[] undecodable = frame(out -> out.put(ModelCodec.SCHEMA_VERSION).put(ModelCodec.TYPE_ORDER).put((byte) 0xFF));
+        byte[] good = frame(out -> ModelCodec.encodeOrder(order(source, "P-ORD1", null), out));
+        byte[] negativeLength = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xF0, 1, 2, 3};
+        Files.write(directory.resolve("P.000001.log"), concat(unknownType, undecodable, good, negativeLength));
+        Files.write(directory.resolve("P.000002.log"),
+                frame(out -> ModelCodec.encodeOrder(order(source, "P-ORD2", null), out)));
+
+        DataManager reader = DataManager.newInstance();
+        ChangeStreamReplicator peer = new ChangeStreamReplicator(reader, directory, "B");
+        peer.runOnce();
+        assertNotNull(reader.findOrderById("P-ORD1"));
+        assertNotNull(reader.findOrderById("P-ORD2"));
+        assertEquals(3, peer.getSkippedCount());
+
+        // A bad length in the latest segment may still be a batch being written: wait, don't skip
+        Files.write(directory.resolve("P.000002.log"), negativeLength, StandardOpenOption.APPEND);
+        peer.runOnce();
+        assertEquals(3, peer.getSkippedCount());
+        peer.close();
+    }
+
+    @Test
+    void orderWaitsForItsMemberWithoutHoldingUpTheJournal() throws IOException {
+        DataManager source = DataManager.newInstance();
+        Member late = new Member("M900", "Late", "0890000000", LocalDate.of(1985, 1, 1), LocalDate.now().plusYears(1));
+        Member never = new Member("M901", "Never", "0890000001", LocalDate.of(1985, 1, 1), LocalDate.now().plusYears(1));
+        Path segment = directory.resolve("P.000001.log");
+        Files.write(segment, concat(
+                frame(out -> ModelCodec.encodeOrder(order(source, "P-ORD1", late), out)),
+                frame(out -> ModelCodec.encodeOrder(order(source, "P-ORD2", null), out))));
+
+        DataManager reader = DataManager.newInstance();
+        ChangeStreamReplicator peer = new ChangeStreamReplicator(reader, directory, "B");
+        peer.runOnce();
+        assertNull(reader.findOrderById("P-ORD1"));
+        assertNotNull(reader.findOrderById("P-ORD2"));
+        assertEquals(1, peer.getDeferredCount());
+
+        Files.write(segment, frame(out -> ModelCodec.encodeMember(late, out)), StandardOpenOption.APPEND);
+        peer.runOnce();
+        assertEquals("M900", reader.findOrderById("P-ORD1").getMember().getMemberId());
+        assertEquals(0, peer.getDeferredCount());
+
+        // A member that never arrives holds its order only until the timeout
+        Files.write(segment, frame(out -> ModelCodec.encodeOrder(order(source, "P-ORD3", never), out)),
+                StandardOpenOption.APPEND);
+        peer.runOnce();
+        assertEquals(1, peer.getDeferredCount());
+        peer.setDependencyTimeout(0);
+        peer.runOnce();
+        assertNull(reader.findOrderById("P-ORD3").getMember());
+        assertEquals(0, peer.getDeferredCount());
+        assertEquals(0, peer.getSkippedCount());
+        peer.close();
+    }
+
+    private static Order order(DataManager dataManager, String orderId, Member member) {
+        Order order = new Order(orderId, member, true);
+        order.addItem(dataManager.getItems().get(0), 1);
+        return order;
+    }
+
+    private static byte[] frame(Consumer<ByteBuffer> encoder) {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        buffer.position(Integer.BYTES);
+        encoder.accept(buffer);
+        buffer.putInt(0, buffer.position() - Integer.BYTES);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteBuffer all = ByteBuffer.allocate(Arrays.stream(parts).mapToInt(part -> part.length).sum());
+        for (byte[] part : parts) all.put(part);
+        return all.array();
+    }
+
+    private static void syncBoth(DataManager a, DataManager b) {
+        for (int round = 0; round < 2; round++) {
+            a.getReplicator().runOnce();
+            b.getReplicator().runOnce();
+        }
+    }
+}
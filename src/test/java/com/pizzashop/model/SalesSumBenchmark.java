@@ -0,0 +1,164 @@
+// SalesSumBenchmark.java
+package com.pizzashop.model;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * เทียบความเร็วการรวมยอดขายตามช่วงวัน: stream บน Order (แบบเดิมของ DataManager)
+ * ลูปธรรมดาบนคอลัมน์ off-heap และ Vector API บนคอลัมน์เดียวกัน
+ * ออเดอร์กระจายทั้งปี ช่วงที่ค้นคือหนึ่งเดือน
+ *
+ * java --add-modules jdk.incubator.vector -Xmx3g -cp target/classes:target/test-classes \
+ *      com.pizzashop.model.SalesSumBenchmark [1000000,10000000,100000000] [streamLimit=2000000]
+ */
+public class SalesSumBenchmark {
+    private static final int WARMUP = 5;
+    private static final int RUNS = 10;
+    private static final LocalDate YEAR_START = LocalDate.of(2025, 1, 1);
+
+    public static void main(String[] args) {
+        long[] sizes = Arrays.stream((args.length > 0 ? args[0] : "1000000,10000000,100000000").split(","))
+                .mapToLong(Long::parseLong)
+                .toArray();
+        long streamLimit = args.length > 1 ? Long.parseLong(args[1]) : 2_000_000;
+
+        LocalDate startDate = LocalDate.of(2025, 6, 1);
+        LocalDate endDate = LocalDate.of(2025, 6, 30);
+        long from = startDate.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long to = endDate.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+
+        System.out.printf("vector path: %s%n", OrderArchive.VECTORIZED
+                ? "on (" + VectorSums.vectorBits() + "-bit)"
+                : "off, run with --add-modules jdk.incubator.vector");
+        System.out.printf("%12s %14s %14s %14s%n", "orders", "stream ms", "scalar ms", "vector ms");
+
+        for (long size : sizes) {
+            try (Arena arena = Arena.ofConfined()) {
+                Columns columns = new Columns(arena, size);
+                Timing scalar = time(() -> columns.scalar(from, to));
+                String stream = "-";
+                if (size <= streamLimit) {
+                    List<Order> orders = columns.toOrders();
+                    Timing timing = time(() -> Math.round(streamSum(orders, startDate, endDate) * OrderArchive.MONEY_SCALE));
+                    check("stream", timing.result, scalar.result);
+                    stream = String.format("%.2f", timing.millis);
+                }
+                String vector = "-";
+                if (OrderArchive.VECTORIZED) {
+                    Timing timing = time(() -> columns.vector(from, to));
+                    check("vector", timing.result, scalar.result);
+                    vector = String.format("%.2f", timing.millis);
+                }
+                System.out.printf("%12d %14s %14.2f %14s%n", size, stream, scalar.millis, vector);
+            }
+        }
+    }
+
+    private static void check(String path, long actual, long expected) {
+        // Summing doubles drifts by a few satang over millions of orders
+        if (Math.abs(actual - expected) > expected / 1_000_000_000L + 100) {
+            throw new IllegalStateException(path + " sum differs: " + actual + " vs " + expected);
+        }
+    }
+
+    // Same filter and sum as DataManager.getSalesByDateRange over live orders
+    private static double streamSum(List<Order> orders, LocalDate startDate, LocalDate endDate) {
+        return orders.stream()
+                .filter(order -> {
+                    LocalDate orderDate = order.getOrderTime().toLocalDate();
+                    return !orderDate.isBefore(startDate) && !orderDate.isAfter(endDate);
+                })
+                .mapToDouble(order -> order.getTotalPrice())
+                .sum();
+    }
+
+    // Median of RUNS after WARMUP
+    private static Timing time(Sum sum) {
+        long result = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            result = sum.run();
+        }
+        double[] millis = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long t0 = System.nanoTime();
+            result = sum.run();
+            millis[i] = (System.nanoTime() - t0) / 1e6;
+        }
+        Arrays.sort(millis);
+        return new Timing(millis[RUNS / 2], result);
+    }
+
+    private interface Sum {
+        long run();
+    }
+
+    private record Timing(double millis, long result) {}
+
+    // Time and total columns laid out in archive-sized chunks
+    private static final class Columns {
+        final long size;
+        final MemorySegment[] times;
+        final MemorySegment[] amounts;
+
+        Columns(Arena arena, long size) {
+            this.size = size;
+            int chunks = (int) ((size + OrderArchive.CHUNK_ROWS - 1) >>> OrderArchive.CHUNK_SHIFT);
+            this.times = new MemorySegment[chunks];
+            this.amounts = new MemorySegment[chunks];
+            long start = YEAR_START.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            long year = 365L * 24 * 3600;
+            SplittableRandom random = new SplittableRandom(42);
+            for (int c = 0; c < chunks; c++) {
+                times[c] = arena.allocate(ValueLayout.JAVA_LONG.byteSize() * OrderArchive.CHUNK_ROWS, Long.BYTES);
+                amounts[c] = arena.allocate(ValueLayout.JAVA_LONG.byteSize() * OrderArchive.CHUNK_ROWS, Long.BYTES);
+                for (int row = 0; row < rows(c); row++) {
+                    times[c].setAtIndex(ValueLayout.JAVA_LONG, row, start + random.nextLong(year));
+                    amounts[c].setAtIndex(ValueLayout.JAVA_LONG, row, 5_000 + random.nextLong(200_000));
+                }
+            }
+        }
+
+        int rows(int chunk) {
+            return (int) Math.min(OrderArchive.CHUNK_ROWS, size - ((long) chunk << OrderArchive.CHUNK_SHIFT));
+        }
+
+        long scalar(long from, long to) {
+            long sum = 0;
+            for (int c = 0; c < times.length; c++) {
+                sum += OrderArchive.scalarSumInRange(times[c], amounts[c], rows(c), from, to);
+            }
+            return sum;
+        }
+
+        long vector(long from, long to) {
+            long sum = 0;
+            for (int c = 0; c < times.length; c++) {
+                sum += VectorSums.sumInRange(times[c], amounts[c], rows(c), from, to);
+            }
+            return sum;
+        }
+
+        List<Order> toOrders() {
+            List<Order> orders = new ArrayList<>((int) size);
+            for (int c = 0; c < times.length; c++) {
+                for (int row = 0; row < rows(c); row++) {
+                    Order order = new Order();
+                    order.setOrderTime(LocalDateTime.ofEpochSecond(
+                            times[c].getAtIndex(ValueLayout.JAVA_LONG, row), 0, ZoneOffset.UTC));
+                    order.setTotalPrice((double) amounts[c].getAtIndex(ValueLayout.JAVA_LONG, row) / OrderArchive.MONEY_SCALE);
+                    orders.add(order);
+                }
+            }
+            return orders;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+// SalesTrendsTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SalesTrendsTest {
+    private final DataManager dataManager = DataManager.newInstance();
+    private final List<Item> items = dataManager.getItems();
+
+    @Test
+    void bestsellersAreRankedByQuantitySold() {
+        SalesTrends trends = new SalesTrends();
+        trends.record(basket(0, 1, 1, 1));
+        trends.record(basket(2, 5));
+        trends.record(basket(0, 2, 3, 1));
+        trends.record(basket(1, 3));
+        // Sold: item 0 x3, item 1 x4, item 2 x5, item 3 x1
+        assertArrayEquals(new int[] {2, 1, 0, 3}, trends.topSellers(10));
+        assertArrayEquals(new int[] {2, 1}, trends.topSellers(2));
+        assertArrayEquals(new int[0], trends.topSellers(0));
+    }
+
+    @Test
+    void pairsCountOncePerBasketInBothDirections() {
+        SalesTrends trends = new SalesTrends();
+        // 0 with 1 twice, 0 with 2 twice, 1 with 3 once; ties keep the first seen
+        trends.record(basket(0, 1, 1, 1));
+        trends.record(basket(0, 1, 1, 9));   // quantity does not matter for pairs
+        trends.record(basket(0, 1, 2, 1));
+        trends.record(basket(0, 1, 2, 1));
+        trends.record(basket(1, 1, 3, 1));
+        // The same item twice in one basket is not a pair with itself
+        Order repeated = basket(4, 1);
+        repeated.addItem(items.get(4), 1);
+        repeated.addItem(items.get(0), 1);
+        trends.record(repeated);
+
+        assertArrayEquals(new int[] {1, 2, 4}, trends.boughtWith(0, 5));
+        assertArrayEquals(new int[] {0, 3}, trends.boughtWith(1, 5));
+        assertArrayEquals(new int[] {0}, trends.boughtWith(2, 5));
+        assertArrayEquals(new int[] {1}, trends.boughtWith(3, 5));
+        assertArrayEquals(new int[] {0}, trends.boughtWith(4, 5));
+        assertArrayEquals(new int[0], trends.boughtWith(5, 5));
+        assertArrayEquals(new int[0], trends.boughtWith(-1, 5));
+        assertArrayEquals(new int[0], trends.boughtWith(1_000, 5));
+    }
+
+    @Test
+    void offMenuLinesAreLeftOut() {
+        SalesTrends trends = new SalesTrends();
+        Order order = basket(0, 1);
+        order.addItem(new Item("X001", "Chef special", 199.0, "Pizza", null), 50);
+        trends.record(order);
+        assertArrayEquals(new int[] {0}, trends.topSellers(10));
+        assertArrayEquals(new int[0], trends.boughtWith(0, 5));
+    }
+
+    @Test
+    void spaceSavingKeepsTheHeavyHittersInAFullCounter() {
+        SalesTrends.TopCounter counter = new SalesTrends.TopCounter(3);
+        for (int round = 0; round < 100; round++) {
+            counter.add(7, 5);
+            counter.add(8, 3);
+            counter.add(1_000 + round, 1);   // a long tail of one-off keys
+        }
+        assertArrayEquals(new int[] {7, 8}, counter.top(2));
+
+        // A replaced slot carries on from the count it took over
+        SalesTrends.TopCounter small = new SalesTrends.TopCounter(2);
+        small.add(1, 10);
+        small.add(2, 4);
+        small.add(3, 1);   // replaces 2 and counts 4 + 1
+        assertArrayEquals(new int[] {1, 3}, small.top(5));
+        small.add(2, 6);   // replaces 3 (5) and counts 11, ahead of 1
+        assertArrayEquals(new int[] {2, 1}, small.top(5));
+
+        assertThrows(IllegalArgumentException.class, () -> new SalesTrends.TopCounter(0));
+    }
+
+    @Test
+    void dataManagerMapsIndexesToTheCurrentMenu() {
+        Order first = dataManager.createOrder(false);
+        first.addItem(items.get(0), 2);
+        first.addItem(items.get(1), 1);
+        dataManager.saveOrder(first);
+        Order second = dataManager.createOrder(false);
+        second.addItem(items.get(1), 3);
+        dataManager.saveOrder(second);
+
+        Item repriced = dataManager.updateItemPrice(items.get(1).getId(), items.get(1).getPrice() + 10);
+        assertEquals(List.of(repriced, items.get(0)), dataManager.getBestsellers(5));
+        assertEquals(List.of(repriced), dataManager.getBoughtWith(items.get(0), 5));
+    }
+
+    // One order with the given (catalog item, quantity) pairs
+    private Order basket(int... itemAndQuantity) {
+        Order order = new Order("ORD", null, false);
+        for (int i = 0; i < itemAndQuantity.length; i += 2) {
+            order.addItem(items.get(itemAndQuantity[i]), itemAndQuantity[i + 1]);
+        }
+        return order;
+    }
+}
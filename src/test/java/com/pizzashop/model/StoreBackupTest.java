@@ -0,0 +1,132 @@
+// StoreBackupTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StoreBackupTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void incrementalBackupRestoresOrdersPointsAndVouchers() throws IOException {
+        Path store = directory.resolve("store");
+        Path backupDirectory = directory.resolve("backup");
+        DataManager till = DataManager.newInstance();
+        till.enableReplication(store.resolve(StoreBackup.JOURNAL), "A");
+        Files.createDirectories(store.resolve(StoreBackup.POINTS));
+        PointsLedger ledger = PointsLedger.open(store.resolve(StoreBackup.POINTS).resolve("points.ledger"));
+        till.enablePointsLedger(ledger);
+        VoucherBook vouchers = VoucherBook.open(store.resolve(StoreBackup.VOUCHERS), 1_000);
+        till.enableVouchers(vouchers);
+
+        Member member = till.findMemberById("M001");
+        List<String> codes = vouchers.issue(20, 2);
+        String first = checkout(till, member, codes.get(0));
+        // Saved orders reach the journal when the replicator flushes; a backup copies what is on disk
+        till.getReplicator().flush();
+        StoreBackup backup = till.newBackup(backupDirectory);
+        StoreBackup.Result full = backup.run();
+        assertTrue(full.getFiles() > 0 && full.getBytes() > 0, full.toString());
+        assertEquals(0, backup.run().getFiles());
+
+        String second = checkout(till, member, codes.get(1));
+        till.getReplicator().flush();
+        // A fresh StoreBackup picks up where the manifest left off and copies only what was appended
+        StoreBackup.Result incremental = till.newBackup(backupDirectory).run();
+        assertTrue(incremental.getBytes() < full.getBytes(), incremental + " after " + full);
+        long balance = till.getPointsBalance(member);
+        till.getReplicator().close();
+        ledger.close();
+        vouchers.close();
+
+        DataManager restored = DataManager.newInstance();
+        restored.restoreBackup(backupDirectory, directory.resolve("restored"), "A");
+        try {
+            assertNotNull(restored.findOrderById(first));
+            assertNotNull(restored.findOrderById(second));
+            assertEquals(balance, restored.getPointsBalance(restored.findMemberById("M001")));
+            assertEquals(2, restored.getVoucherBook().getRedeemedCount());
+            assertThrows(InvalidVoucherException.class, () -> restored.checkVoucher(codes.get(0)));
+        } finally {
+            restored.getReplicator().close();
+            restored.getPointsLedger().close();
+            restored.getVoucherBook().close();
+        }
+    }
+
+    @Test
+    void logRegrownOverACutTornTailIsCopiedAgain() throws IOException {
+        Path source = directory.resolve("source");
+        Files.createDirectories(source);
+        Path log = source.resolve("A.000001.log");
+        byte[] valid = filled(1_000, 'a');
+        Files.write(log, valid);
+        Files.write(log, filled(300, 'x'), StandardOpenOption.APPEND);   // torn write, backed up as it is
+        Path backupDirectory = directory.resolve("backup");
+        new StoreBackup(backupDirectory).addDirectory(StoreBackup.JOURNAL, source).run();
+
+        // Reopened after the crash: the torn bytes are cut and new entries grow the file past the old length
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(valid.length);
+        }
+        Files.write(log, filled(600, 'b'), StandardOpenOption.APPEND);
+        StoreBackup.Result second = new StoreBackup(backupDirectory).addDirectory(StoreBackup.JOURNAL, source).run();
+        assertEquals(1_600, second.getBytes());
+
+        Path restored = directory.resolve("restored");
+        StoreBackup.restore(backupDirectory, restored);
+        assertArrayEquals(Files.readAllBytes(log), Files.readAllBytes(restored.resolve(StoreBackup.JOURNAL).resolve("A.000001.log")));
+
+        // Grown normally from here: only the new bytes are copied
+        Files.write(log, filled(100, 'c'), StandardOpenOption.APPEND);
+        assertEquals(100, new StoreBackup(backupDirectory).addDirectory(StoreBackup.JOURNAL, source).run().getBytes());
+    }
+
+    @Test
+    void damagedBackupIsNotRestored() throws IOException {
+        Path source = directory.resolve("source");
+        Files.createDirectories(source);
+        Files.write(source.resolve("A.000001.log"), new byte[4096]);
+        Path backupDirectory = directory.resolve("backup");
+        new StoreBackup(backupDirectory).addDirectory(StoreBackup.JOURNAL, source).run();
+
+        Path copy = backupDirectory.resolve("data").resolve(StoreBackup.JOURNAL).resolve("A.000001.log");
+        try (FileChannel channel = FileChannel.open(copy, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1}), 100);
+        }
+        IOException e = assertThrows(IOException.class,
+                () -> StoreBackup.restore(backupDirectory, directory.resolve("restored")));
+        assertTrue(e.getMessage().contains("damaged"), e.getMessage());
+    }
+
+    private static byte[] filled(int length, char c) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) c);
+        return bytes;
+    }
+
+    private static String checkout(DataManager till, Member member, String voucherCode) {
+        Order order = till.createOrder(true);
+        order.setMember(member);
+        order.addItem(till.getItems().get(0), 2);
+        order.applyVoucher(till.checkVoucher(voucherCode));
+        till.saveOrder(order);
+        return order.getOrderId();
+    }
+}
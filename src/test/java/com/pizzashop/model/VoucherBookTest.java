@@ -0,0 +1,161 @@
+// VoucherBookTest.java
+package com.pizzashop.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class VoucherBookTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void codesCheckAndRedeemOnceAcrossTerminals() throws IOException {
+        try (VoucherBook till1 = VoucherBook.open(directory, 1_000);
+             VoucherBook till2 = VoucherBook.open(directory, 1_000)) {
+            List<String> codes = till1.issue(100, 3);
+            assertEquals(3, codes.size());
+            assertEquals(3, codes.stream().distinct().count());
+
+            Voucher voucher = till2.check(codes.get(0).toLowerCase().replace("-", " "));
+            assertEquals(100, voucher.getAmount());
+            assertEquals(codes.get(0), voucher.getCode());
+            till2.redeem(voucher);
+
+            assertEquals(InvalidVoucherException.Reason.ALREADY_REDEEMED,
+                    assertThrows(InvalidVoucherException.class, () -> till1.check(codes.get(0))).getReason());
+            assertEquals(InvalidVoucherException.Reason.ALREADY_REDEEMED,
+                    assertThrows(InvalidVoucherException.class, () -> till2.redeem(voucher)).getReason());
+            assertEquals(1, till1.getRedeemedCount());
+            till1.redeem(till1.check(codes.get(1)));
+        }
+        try (VoucherBook reopened = VoucherBook.open(directory, 1_000)) {
+            assertEquals(2, reopened.getRedeemedCount());
+            assertEquals(200, reopened.check(reopened.issue(200, 1).get(0)).getAmount());
+        }
+    }
+
+    @Test
+    void rejectsForgedAndMistypedCodes() throws IOException {
+        try (VoucherBook book = VoucherBook.open(directory, 1_000)) {
+            String code = book.issue(50, 1).get(0);
+            char last = code.charAt(code.length() - 1);
+            String mistyped = code.substring(0, code.length() - 1) + (last == '0' ? '1' : '0');
+            for (String bad : new String[] {mistyped, code.substring(1), "", "!!!", null}) {
+                assertEquals(InvalidVoucherException.Reason.BAD_CODE,
+                        assertThrows(InvalidVoucherException.class, () -> book.check(bad)).getReason());
+            }
+        }
+        // Another shop's key does not sign our codes
+        try (VoucherBook ours = VoucherBook.open(directory.resolve("ours"), 1_000);
+             VoucherBook theirs = VoucherBook.open(directory.resolve("theirs"), 1_000)) {
+            String code = theirs.issue(50, 1).get(0);
+            assertThrows(InvalidVoucherException.class, () -> ours.check(code));
+        }
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter bloom = new BloomFilter(10_000);
+        for (long serial = 1; serial <= 10_000; serial++) {
+            bloom.add(serial * 31);
+        }
+        for (long serial = 1; serial <= 10_000; serial++) {
+            assertTrue(bloom.mightContain(serial * 31));
+        }
+        int falsePositives = 0;
+        for (long serial = 1; serial <= 100_000; serial++) {
+            if (bloom.mightContain(serial * 31 + 1)) falsePositives++;
+        }
+        assertTrue(falsePositives < 3_000, falsePositives + " false positives in 100,000");
+        assertFalse(new BloomFilter(10).mightContain(42));
+    }
+
+    @Test
+    void savedOrderRedeemsItsVoucher() throws IOException {
+        DataManager dataManager = DataManager.newInstance();
+        try (VoucherBook book = VoucherBook.open(directory, 1_000)) {
+            dataManager.enableVouchers(book);
+            String code = book.issue(30, 1).get(0);
+            Item item = dataManager.getItems().get(0);
+
+            Order order = dataManager.createOrder(false);
+            order.addItem(item, 1);
+            order.applyVoucher(dataManager.checkVoucher(code));
+            assertEquals(Math.min(30, item.getPrice()), order.getVoucherDiscount());
+
+            order.clear();
+            assertEquals(0.0, order.getVoucherDiscount());
+            order.addItem(item, 2);
+            double discount = order.getVoucherDiscount();
+            assertEquals(Math.min(30, 2 * item.getPrice()), discount);
+            dataManager.saveOrder(order);
+
+            assertEquals(1, book.getRedeemedCount());
+            assertThrows(InvalidVoucherException.class, () -> dataManager.checkVoucher(code));
+        }
+    }
+
+    @Test
+    void voucherIsGivenBackWhenTheOrderPointsCannotBeSpent() throws IOException {
+        DataManager dataManager = DataManager.newInstance();
+        Path ledgerFile = directory.resolve("points.ledger");
+        try (VoucherBook book = VoucherBook.open(directory, 1_000);
+             PointsLedger ledger = PointsLedger.open(ledgerFile);
+             PointsLedger otherTill = PointsLedger.open(ledgerFile)) {
+            dataManager.enableVouchers(book);
+            dataManager.enablePointsLedger(ledger);
+            Member member = dataManager.findMemberById("M001");
+            ledger.earn(member.getMemberId(), 30, "SEED");
+            String code = book.issue(30, 1).get(0);
+
+            Order order = dataManager.createOrder(false);
+            order.setMember(member);
+            order.addItem(dataManager.getItems().get(0), 3);
+            order.applyVoucher(dataManager.checkVoucher(code));
+            order.redeemPoints(20);
+            // Another till spends the same points before this order is saved
+            otherTill.hold(member.getMemberId(), 20);
+            otherTill.redeemHeld(member.getMemberId(), 20, "ORD-OTHER");
+
+            assertThrows(InsufficientPointsException.class, () -> dataManager.saveOrder(order));
+            assertEquals(0, book.getRedeemedCount());
+            assertNotNull(dataManager.checkVoucher(code));
+
+            order.redeemPoints(0);
+            dataManager.saveOrder(order);
+            assertEquals(1, book.getRedeemedCount());
+            assertThrows(InvalidVoucherException.class, () -> dataManager.checkVoucher(code));
+        }
+        try (VoucherBook reopened = VoucherBook.open(directory, 1_000)) {
+            assertEquals(1, reopened.getRedeemedCount());
+        }
+    }
+
+    @Test
+    void cancelledRedemptionCanBeRedeemedAgainAcrossTerminals() throws IOException {
+        try (VoucherBook till1 = VoucherBook.open(directory, 1_000);
+             VoucherBook till2 = VoucherBook.open(directory, 1_000)) {
+            String code = till1.issue(50, 1).get(0);
+            Voucher voucher = till1.check(code);
+            till1.redeem(voucher);
+            till1.cancelRedemption(voucher);
+            assertFalse(till2.isRedeemed(voucher.getSerial()));
+            assertEquals(0, till2.getRedeemedCount());
+            till2.redeem(till2.check(code));
+            assertTrue(till1.isRedeemed(voucher.getSerial()));
+        }
+        try (VoucherBook reopened = VoucherBook.open(directory, 1_000)) {
+            assertEquals(1, reopened.getRedeemedCount());
+        }
+    }
+}
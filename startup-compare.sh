@@ -0,0 +1,52 @@
+#!/bin/sh
+# Compare till startup time and memory: slim jlink image vs stock JDK.
+#
+#   mvn -Pslim package && ./startup-compare.sh [runs]
+#
+# Each run starts the till with -Dpizzashop.startup.exit=true, so it quits right after the
+# first frame. Needs a display and GNU time (/usr/bin/time).
+
+set -e
+cd "$(dirname "$0")"
+
+RUNS=${1:-5}
+IMAGE=target/pizzashop/bin/java
+JAR=target/Pizza-1.0-SNAPSHOT.jar
+MAIN=pizzashop/com.pizzashop.PizzaShopApplication
+
+if [ ! -x "$IMAGE" ] || [ ! -f "$JAR" ]; then
+    echo "Build first: mvn -Pslim package" >&2
+    exit 1
+fi
+if [ ! -d target/lib ]; then
+    mvn -q dependency:copy-dependencies -DincludeScope=runtime -DoutputDirectory=target/lib
+fi
+
+# Prints "<first frame ms> <max RSS KB>" for one run of the given command
+measure() {
+    out=$(/usr/bin/time -f "rss %M" "$@" 2>&1)
+    frame=$(echo "$out" | sed -n 's/^Startup: first frame \([0-9-]*\) ms.*/\1/p')
+    rss=$(echo "$out" | sed -n 's/^rss \([0-9]*\)$/\1/p')
+    echo "$frame $rss"
+}
+
+report() {
+    label=$1
+    shift
+    total_frame=0
+    total_rss=0
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        result=$(measure "$@")
+        total_frame=$((total_frame + ${result% *}))
+        total_rss=$((total_rss + ${result#* }))
+        i=$((i + 1))
+    done
+    printf "%-10s first frame %5d ms   max RSS %6d MB   (avg of %d)\n" \
+        "$label" $((total_frame / RUNS)) $((total_rss / RUNS / 1024)) "$RUNS"
+}
+
+# The image adds -XX:+UseSerialGC -XX:-UsePerfData itself (jlink --add-options)
+report "jlink" "$IMAGE" -Dpizzashop.startup.exit=true -m "$MAIN"
+
+report "stock JDK" java -Dpizzashop.startup.exit=true -p "target/lib:$JAR" -m "$MAIN"